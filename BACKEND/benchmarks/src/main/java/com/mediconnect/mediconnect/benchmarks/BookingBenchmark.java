@@ -0,0 +1,62 @@
+package com.mediconnect.mediconnect.benchmarks;
+
+import com.mediconnect.mediconnect.model.Appoinment;
+import com.mediconnect.mediconnect.model.Role;
+import com.mediconnect.mediconnect.model.User;
+import com.mediconnect.mediconnect.service.AppointmentService;
+import com.mediconnect.mediconnect.service.UserService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AppointmentService#bookAppointment} with many threads booking the same
+ * doctor on the same day, i.e. the worst case for serial-number allocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(16)
+@Fork(1)
+public class BookingBenchmark {
+
+    private EmbeddedApplication application;
+    private AppointmentService appointmentService;
+    private User patient;
+    private User doctor;
+    private LocalDateTime slot;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        application = new EmbeddedApplication();
+        appointmentService = application.getBean(AppointmentService.class);
+
+        UserService users = application.getBean(UserService.class);
+        patient = users.register(user("patient@example.com", Role.PATIENT));
+        doctor = users.register(user("doctor@example.com", Role.DOCTOR));
+        slot = LocalDateTime.now().plusDays(1).withHour(10).withMinute(0).withSecond(0).withNano(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        application.close();
+    }
+
+    @Benchmark
+    public Appoinment bookSameDoctorSameDay() {
+        return appointmentService.bookAppointment(patient, doctor, slot, null);
+    }
+
+    private static User user(String email, Role role) {
+        return User.builder()
+                .name(role.name())
+                .email(email)
+                .password("not-a-real-hash")
+                .role(role)
+                .build();
+    }
+}
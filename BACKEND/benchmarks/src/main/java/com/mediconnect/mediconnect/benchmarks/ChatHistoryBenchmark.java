@@ -0,0 +1,64 @@
+package com.mediconnect.mediconnect.benchmarks;
+
+import com.mediconnect.mediconnect.exception.TooManyRequestsException;
+import com.mediconnect.mediconnect.model.ChatMessage;
+import com.mediconnect.mediconnect.model.ChatMessage.Sender;
+import com.mediconnect.mediconnect.service.ChatHistoryService;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ChatHistoryService#append} into an embedded PostgreSQL, spread over many
+ * conversations. The pending limit is small, so appends are held back whenever
+ * commits fall behind and the score is the sustained ingest rate, not just the
+ * speed of the in-memory buffers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(16)
+@Fork(1)
+public class ChatHistoryBenchmark {
+
+    private static final int CONVERSATIONS = 10_000;
+    private static final String MESSAGE = "I have had a dry cough and a mild fever since yesterday evening.";
+
+    private EmbeddedApplication application;
+    private ChatHistoryService history;
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        application = new EmbeddedApplication("--chat.history.maxPending=20000");
+        history = application.getBean(ChatHistoryService.class);
+        for (int i = 0; i < CONVERSATIONS; i++) {
+            history.start("bench-" + i);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void commit() {
+        history.flush();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws IOException {
+        application.close();
+    }
+
+    @Benchmark
+    public ChatMessage append() {
+        String conversation = "bench-" + ThreadLocalRandom.current().nextInt(CONVERSATIONS);
+        while (true) {
+            try {
+                return history.append(conversation, Sender.USER, null, MESSAGE);
+            } catch (TooManyRequestsException e) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
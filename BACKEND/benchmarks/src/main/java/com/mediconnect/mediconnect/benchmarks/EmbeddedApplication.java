@@ -0,0 +1,46 @@
+package com.mediconnect.mediconnect.benchmarks;
+
+import com.mediconnect.mediconnect.MediconnectApplication;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+
+/**
+ * Boots the full application against a throwaway embedded PostgreSQL instance.
+ */
+final class EmbeddedApplication implements AutoCloseable {
+
+    private final EmbeddedPostgres postgres;
+    private final ConfigurableApplicationContext context;
+
+    EmbeddedApplication(String... extraArgs) throws IOException {
+        postgres = EmbeddedPostgres.start();
+        String[] baseArgs = {
+                "--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres") + "&reWriteBatchedInserts=true",
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=postgres",
+                "--spring.jpa.show-sql=false",
+                "--server.port=0",
+                "--management.server.port=0",
+                "--storage.local.root=" + Files.createTempDirectory("mediconnect-bench"),
+                "--logging.level.root=WARN"
+        };
+        String[] args = new String[baseArgs.length + extraArgs.length];
+        System.arraycopy(baseArgs, 0, args, 0, baseArgs.length);
+        System.arraycopy(extraArgs, 0, args, baseArgs.length, extraArgs.length);
+        context = new SpringApplicationBuilder(MediconnectApplication.class).run(args);
+    }
+
+    <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    @Override
+    public void close() throws IOException {
+        context.close();
+        postgres.close();
+    }
+}
@@ -0,0 +1,74 @@
+package com.mediconnect.mediconnect.benchmarks;
+
+import com.mediconnect.mediconnect.security.JwtAuthenticationFilter;
+import com.mediconnect.mediconnect.security.RevocationIndex;
+import com.mediconnect.mediconnect.security.UserDetailsImpl;
+import com.mediconnect.mediconnect.security.VerifiedTokenCache;
+import com.mediconnect.mediconnect.util.JwtUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Full dispatch of an authenticated request through {@link JwtAuthenticationFilter},
+ * with the verified-token cache warm and cold. The user lookup is a stub, so the
+ * cold case measures signature verification plus filter overhead.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    private JwtAuthenticationFilter filter;
+    private VerifiedTokenCache tokenCache;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        JwtUtil jwtUtil = new JwtUtil(JwtUtilBenchmark.SECRET, 3600000L);
+        UserDetailsImpl users = mock(UserDetailsImpl.class);
+        when(users.loadUserByUsername(JwtUtilBenchmark.USERNAME)).thenReturn(new User(
+                JwtUtilBenchmark.USERNAME, "hash", List.of(new SimpleGrantedAuthority("ROLE_PATIENT"))));
+
+        tokenCache = new VerifiedTokenCache(10000, 300000L);
+        filter = new JwtAuthenticationFilter(jwtUtil, users, tokenCache, new RevocationIndex(),
+                new SimpleMeterRegistry());
+        authorization = "Bearer " + jwtUtil.generateToken(JwtUtilBenchmark.USERNAME);
+    }
+
+    @Benchmark
+    public Authentication cachedToken() throws Exception {
+        return dispatch();
+    }
+
+    @Benchmark
+    public Authentication uncachedToken() throws Exception {
+        tokenCache.invalidateUser(JwtUtilBenchmark.USERNAME);
+        return dispatch();
+    }
+
+    private Authentication dispatch() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/appointments/patient/1");
+        request.addHeader("Authorization", authorization);
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+}
@@ -0,0 +1,53 @@
+package com.mediconnect.mediconnect.benchmarks;
+
+import com.mediconnect.mediconnect.security.EcKeyRing;
+import com.mediconnect.mediconnect.util.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issue and verification cost of {@link JwtUtil}, with the shared HS256
+ * secret and with an ES256 key ring (kid header, key resolved per token).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    static final String SECRET = "benchmark-secret-key-for-hs256-signing-1234567890";
+    static final String USERNAME = "patient@example.com";
+
+    @Param({"HS256", "ES256"})
+    public String algorithm;
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() throws IOException {
+        if ("ES256".equals(algorithm)) {
+            Path keyDir = Files.createTempDirectory("jmh-keys");
+            jwtUtil = new JwtUtil(new EcKeyRing(keyDir, 86400000L, 0L, 3600000L), 3600000L, 3600000L);
+        } else {
+            jwtUtil = new JwtUtil(SECRET, 3600000L);
+        }
+        token = jwtUtil.generateToken(USERNAME);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(USERNAME);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtUtil.isTokenValid(token, USERNAME);
+    }
+}
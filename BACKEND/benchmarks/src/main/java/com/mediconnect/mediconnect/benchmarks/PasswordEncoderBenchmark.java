@@ -0,0 +1,60 @@
+package com.mediconnect.mediconnect.benchmarks;
+
+import com.mediconnect.mediconnect.config.SecurityConfig;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.IOException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BCrypt cost of the encoder configured in {@link SecurityConfig}, next to explicit
+ * strengths for sizing login capacity per core. "configured" calibrates from the
+ * security.bcrypt.* values in the application's application.properties, the same
+ * way the running application does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PasswordEncoderBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"configured", "10", "12"})
+    public String strength;
+
+    private PasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void setUp() throws IOException {
+        encoder = "configured".equals(strength)
+                ? configuredEncoder()
+                : new BCryptPasswordEncoder(Integer.parseInt(strength));
+        hash = encoder.encode(PASSWORD);
+    }
+
+    private static PasswordEncoder configuredEncoder() throws IOException {
+        Properties properties = PropertiesLoaderUtils.loadAllProperties("application.properties");
+        return SecurityConfig.passwordEncoder(
+                Long.parseLong(properties.getProperty("security.bcrypt.targetMillis")),
+                Integer.parseInt(properties.getProperty("security.bcrypt.minStrength")),
+                Integer.parseInt(properties.getProperty("security.bcrypt.maxStrength")));
+    }
+
+    @Benchmark
+    public String encode() {
+        return encoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return encoder.matches(PASSWORD, hash);
+    }
+}
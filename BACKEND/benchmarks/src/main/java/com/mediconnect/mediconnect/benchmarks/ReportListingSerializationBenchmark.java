@@ -0,0 +1,53 @@
+package com.mediconnect.mediconnect.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mediconnect.mediconnect.dto.CursorPage;
+import com.mediconnect.mediconnect.dto.KeysetCursor;
+import com.mediconnect.mediconnect.dto.MedicalReportSummary;
+import com.mediconnect.mediconnect.model.Medicalreport.ReportStatus;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of one page of the report listing endpoints.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportListingSerializationBenchmark {
+
+    @Param({"20", "100"})
+    public int pageSize;
+
+    private ObjectMapper objectMapper;
+    private CursorPage<MedicalReportSummary> page;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        LocalDateTime now = LocalDateTime.now();
+        List<MedicalReportSummary> items = new ArrayList<>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            items.add(new MedicalReportSummary((long) i, 1L, "Patient Name", 2L, "Doctor Name", null,
+                    "Blood test " + i, "Complete blood count with differential, fasting sample.",
+                    "/api/files/" + i + ".pdf", "application/pdf", 245_000L, null, ReportStatus.PROCESSED,
+                    now.minusDays(i), null));
+        }
+        page = new CursorPage<>(items, new KeysetCursor(now.minusDays(pageSize), (long) pageSize).encode());
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
@@ -3,9 +3,17 @@ package com.mediconnect.mediconnect.config;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
 
+import com.mediconnect.mediconnect.security.EcKeyRing;
+import com.mediconnect.mediconnect.security.HmacSigningKeys;
+import com.mediconnect.mediconnect.security.JwtSigningKeys;
+import com.mediconnect.mediconnect.security.RemoteJwksKeys;
 import com.mediconnect.mediconnect.util.JwtUtil;
 
+import java.net.URI;
+import java.nio.file.Path;
+
 /**
  * Configuration class for JWT-related beans.
  * Reads JWT properties from application.properties and provides them to JwtUtil.
@@ -18,6 +26,47 @@ public class JwtConfig {
     
     @Value("${jwt.expiration}")
     private Long jwtExpiration;
+
+    @Value("${jwt.refreshExpiration}")
+    private Long jwtRefreshExpiration;
+
+    @Value("${jwt.signing.algorithm}")
+    private String signingAlgorithm;
+
+    @Value("${jwt.jwks.url}")
+    private String jwksUrl;
+
+    @Value("${jwt.keys.dir}")
+    private String keysDir;
+
+    @Value("${jwt.keys.rotationPeriod}")
+    private Long keyRotationPeriod;
+
+    @Value("${jwt.keys.publishAhead}")
+    private Long keyPublishAhead;
+
+    /**
+     * Creates the signing key source selected by jwt.signing.algorithm:
+     * HS256 uses the shared secret; ES256 uses a rotating key ring, or only
+     * verifies against a remote JWKS document when jwt.jwks.url is set.
+     *
+     * @return configured key source
+     */
+    @Bean
+    public JwtSigningKeys jwtSigningKeys() {
+        if ("HS256".equalsIgnoreCase(signingAlgorithm)) {
+            return new HmacSigningKeys(jwtSecret);
+        }
+        if (!"ES256".equalsIgnoreCase(signingAlgorithm)) {
+            throw new IllegalArgumentException("Unsupported jwt.signing.algorithm: " + signingAlgorithm);
+        }
+        if (!jwksUrl.isBlank()) {
+            return new RemoteJwksKeys(URI.create(jwksUrl));
+        }
+        // Retired keys must verify until the longest-lived token they signed has expired
+        return new EcKeyRing(Path.of(keysDir), keyRotationPeriod, keyPublishAhead,
+                Math.max(jwtExpiration, jwtRefreshExpiration));
+    }
     
     /**
      * Creates and configures the JwtUtil bean with properties from application.properties
@@ -25,7 +74,15 @@ public class JwtConfig {
      * @return configured JwtUtil instance
      */
     @Bean
-    public JwtUtil jwtUtil() {
-        return new JwtUtil(jwtSecret, jwtExpiration);
+    public JwtUtil jwtUtil(JwtSigningKeys jwtSigningKeys) {
+        return new JwtUtil(jwtSigningKeys, jwtExpiration, jwtRefreshExpiration);
+    }
+
+    /**
+     * Rotates local keys or re-fetches the remote JWKS document
+     */
+    @Scheduled(fixedDelayString = "${jwt.keys.refreshMs}", initialDelayString = "${jwt.keys.refreshMs}")
+    public void refreshSigningKeys() {
+        jwtSigningKeys().refresh();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,95 @@
+package com.mediconnect.mediconnect.config;
+
+import com.mediconnect.mediconnect.security.RevocationIndex;
+import com.mediconnect.mediconnect.security.VerifiedTokenCache;
+import com.mediconnect.mediconnect.service.DoctorScheduleCache;
+import com.mediconnect.mediconnect.service.PrescriptionCache;
+import com.mediconnect.mediconnect.service.UserCache;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Application meters exported next to the built-in HTTP, JVM, Hikari and
+ * repository metrics on the Prometheus endpoint.
+ *
+ * The caches keep their own lock-free counters; the meters here only read them
+ * when a scrape happens, so the request path pays nothing extra.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Enables @Timed on service methods
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public MeterBinder cacheMetrics(UserCache userCache,
+                                    VerifiedTokenCache tokenCache,
+                                    DoctorScheduleCache scheduleCache,
+                                    PrescriptionCache prescriptionCache) {
+        return registry -> {
+            bindCache(registry, "users", userCache,
+                    UserCache::getHitCount, UserCache::getMissCount, UserCache::size);
+            FunctionCounter.builder("cache.evictions", userCache, UserCache::getEvictionCount)
+                    .tag("cache", "users")
+                    .register(registry);
+
+            bindCache(registry, "jwt.tokens", tokenCache,
+                    VerifiedTokenCache::getHitCount, VerifiedTokenCache::getMissCount, VerifiedTokenCache::size);
+            bindCache(registry, "doctor.schedules", scheduleCache,
+                    DoctorScheduleCache::getHitCount, DoctorScheduleCache::getMissCount, DoctorScheduleCache::size);
+            bindCache(registry, "prescriptions", prescriptionCache,
+                    PrescriptionCache::getHitCount, PrescriptionCache::getMissCount, PrescriptionCache::size);
+        };
+    }
+
+    @Bean
+    public MeterBinder securityMetrics(RevocationIndex revocationIndex) {
+        return registry -> Gauge.builder("auth.revoked.families", revocationIndex, RevocationIndex::size)
+                .description("Revoked refresh-token families held in memory")
+                .register(registry);
+    }
+
+    @Bean
+    public MeterBinder jdbcPermitMetrics(DataSource dataSource) {
+        return registry -> {
+            if (!(dataSource instanceof PermitLimitedDataSource permits)) {
+                return;
+            }
+            Gauge.builder("jdbc.permits.available", permits, PermitLimitedDataSource::availablePermits)
+                    .description("JDBC permits not currently held")
+                    .register(registry);
+            Gauge.builder("jdbc.permits.waiting", permits, PermitLimitedDataSource::waitingThreads)
+                    .description("Threads waiting for a JDBC permit")
+                    .register(registry);
+        };
+    }
+
+    private static <C> void bindCache(MeterRegistry registry, String name, C cache,
+                                      ToDoubleFunction<C> hits, ToDoubleFunction<C> misses,
+                                      ToDoubleFunction<C> size) {
+        FunctionCounter.builder("cache.gets", cache, hits)
+                .tag("cache", name)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", cache, misses)
+                .tag("cache", name)
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("cache.size", cache, size)
+                .tag("cache", name)
+                .register(registry);
+    }
+}
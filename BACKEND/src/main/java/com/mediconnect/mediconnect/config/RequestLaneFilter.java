@@ -0,0 +1,154 @@
+package com.mediconnect.mediconnect.config;
+
+import com.mediconnect.mediconnect.service.EmergencyLaneExecutor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sorts requests into lanes before anything else runs and sheds the sheddable
+ * lane (report listings and the chatbot) while the emergency lane is under
+ * pressure, or when too many sheddable requests are already running. Shed
+ * requests get 503 with Retry-After, so clients back off instead of queueing
+ * on the threads and connections emergency requests need.
+ *
+ * A streamed or deferred reply (SseEmitter, CompletableFuture) keeps working after
+ * the filter chain returns, so its permit is held until the async request
+ * completes, times out or fails.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestLaneFilter extends OncePerRequestFilter {
+
+    enum Lane {
+        EMERGENCY, SHEDDABLE, ROUTINE;
+
+        String tag() {
+            return name().toLowerCase();
+        }
+    }
+
+    private final EmergencyLaneExecutor emergencyLane;
+    private final Semaphore sheddablePermits;
+    private final Counter shed;
+
+    public RequestLaneFilter(EmergencyLaneExecutor emergencyLane,
+                             @Value("${requests.sheddable.maxConcurrent:64}") int sheddableMaxConcurrent,
+                             MeterRegistry meterRegistry) {
+        this.emergencyLane = emergencyLane;
+        this.sheddablePermits = new Semaphore(sheddableMaxConcurrent);
+
+        Gauge.builder("requests.lane.active", sheddablePermits,
+                        permits -> sheddableMaxConcurrent - permits.availablePermits())
+                .tag("lane", Lane.SHEDDABLE.tag())
+                .description("Sheddable requests in progress")
+                .register(meterRegistry);
+        this.shed = Counter.builder("requests.lane.shed")
+                .tag("lane", Lane.SHEDDABLE.tag())
+                .description("Requests turned away to protect the emergency lane")
+                .register(meterRegistry);
+    }
+
+    /**
+     * The lane a request belongs to
+     *
+     * @param method HTTP method
+     * @param path   Servlet path
+     * @return The lane
+     */
+    static Lane classify(String method, String path) {
+        if (path.startsWith("/api/emergency/")) {
+            return Lane.EMERGENCY;
+        }
+        if (path.startsWith("/api/chatbot/") || ("GET".equals(method) && path.startsWith("/api/reports/"))) {
+            return Lane.SHEDDABLE;
+        }
+        return Lane.ROUTINE;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Lane lane = classify(request.getMethod(), request.getServletPath());
+        if (lane != Lane.SHEDDABLE) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (emergencyLane.isUnderPressure() || !sheddablePermits.tryAcquire()) {
+            shed.increment();
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Service busy, please retry\"}");
+            return;
+        }
+        boolean async = false;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnCompletion());
+                async = true;
+            }
+        } finally {
+            if (!async) {
+                sheddablePermits.release();
+            }
+        }
+    }
+
+    /**
+     * Releases the permit of an async request once, however it ends
+     * (an error or timeout is followed by completion)
+     */
+    private final class ReleaseOnCompletion implements AsyncListener {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // Re-register for the next async cycle; the permit is still held
+            event.getAsyncContext().addListener(this);
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                sheddablePermits.release();
+            }
+        }
+    }
+}
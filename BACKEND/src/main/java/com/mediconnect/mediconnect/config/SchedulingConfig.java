@@ -0,0 +1,12 @@
+package com.mediconnect.mediconnect.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (queue status pushes, cache maintenance).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,5 +1,7 @@
 package com.mediconnect.mediconnect.config;
 
+import com.mediconnect.mediconnect.security.BCryptCalibrator;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -17,6 +19,16 @@ import java.util.Arrays;
 @Configuration
 public class SecurityConfig {
 
+    // BCrypt cost is calibrated at startup against this latency target (0 = library default)
+    @Value("${security.bcrypt.targetMillis}")
+    private long bcryptTargetMillis;
+
+    @Value("${security.bcrypt.minStrength}")
+    private int bcryptMinStrength;
+
+    @Value("${security.bcrypt.maxStrength}")
+    private int bcryptMaxStrength;
+
     public SecurityConfig() {
         // No dependencies needed after removing JWT authentication
     }
@@ -52,9 +64,30 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * BCrypt encoder with a strength tuned to this machine. Stored hashes with a
+     * lower strength are upgraded on the next successful login
+     * (see {@link com.mediconnect.mediconnect.security.UserDetailsImpl#updatePassword}).
+     */
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return passwordEncoder(bcryptTargetMillis, bcryptMinStrength, bcryptMaxStrength);
+    }
+
+    /**
+     * BCrypt encoder calibrated from the security.bcrypt.* settings, for callers
+     * outside the application context (benchmarks).
+     *
+     * @param targetMillis Time one hash should take (0 = library default strength)
+     * @param minStrength  Lowest strength to pick
+     * @param maxStrength  Highest strength to pick
+     * @return The encoder
+     */
+    public static PasswordEncoder passwordEncoder(long targetMillis, int minStrength, int maxStrength) {
+        if (targetMillis <= 0) {
+            return new BCryptPasswordEncoder();
+        }
+        return new BCryptPasswordEncoder(BCryptCalibrator.calibrate(targetMillis, minStrength, maxStrength));
     }
 
     @Bean
@@ -0,0 +1,36 @@
+package com.mediconnect.mediconnect.config;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Request execution settings.
+ *
+ * Virtual threads are switched on with spring.threads.virtual.enabled (Java 21+),
+ * which moves Tomcat request handling, @Async and @Scheduled work onto virtual
+ * threads. Either way, the DataSource is wrapped in a {@link PermitLimitedDataSource}
+ * so the number of threads contending for JDBC connections stays bounded.
+ */
+@Configuration
+public class ThreadingConfig {
+
+    @Bean
+    public static BeanPostProcessor jdbcPermitLimiter(Environment environment) {
+        int maxPermits = environment.getRequiredProperty("jdbc.permits.max", Integer.class);
+        long timeoutMillis = environment.getRequiredProperty("jdbc.permits.timeoutMs", Long.class);
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof DataSource dataSource && !(bean instanceof PermitLimitedDataSource)) {
+                    return new PermitLimitedDataSource(dataSource, maxPermits, timeoutMillis);
+                }
+                return bean;
+            }
+        };
+    }
+}
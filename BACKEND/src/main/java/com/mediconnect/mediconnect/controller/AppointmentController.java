@@ -1,5 +1,86 @@
 package com.mediconnect.mediconnect.controller;
 //Book, track, reorder serials
+
+import com.mediconnect.mediconnect.dto.AppointmentSummary;
+import com.mediconnect.mediconnect.dto.CursorPage;
+import com.mediconnect.mediconnect.dto.QueueStatus;
+import com.mediconnect.mediconnect.model.Appoinment.AppointmentStatus;
+import com.mediconnect.mediconnect.security.CurrentUser;
+import com.mediconnect.mediconnect.service.AppointmentService;
+import com.mediconnect.mediconnect.service.QueueStatusPublisher;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+/**
+ * Appointment booking and tracking endpoints.
+ */
+@RestController
+@RequestMapping("/api/appointments")
 public class AppointmentController {
 
+    private final AppointmentService appointmentService;
+    private final QueueStatusPublisher queueStatusPublisher;
+    private final CurrentUser currentUser;
+
+    public AppointmentController(AppointmentService appointmentService,
+                                 QueueStatusPublisher queueStatusPublisher,
+                                 CurrentUser currentUser) {
+        this.appointmentService = appointmentService;
+        this.queueStatusPublisher = queueStatusPublisher;
+        this.currentUser = currentUser;
+    }
+
+    /**
+     * Lists a patient's appointments, latest first, one page at a time.
+     * Only the patient, their doctors and admins may call this.
+     *
+     * @param patientId the patient ID
+     * @param cursor    nextCursor from the previous page (omit for the first page)
+     * @param size      page size
+     * @return one page of appointments (401 without a token, 403 for anyone else's appointments)
+     */
+    @GetMapping("/patient/{patientId}")
+    public ResponseEntity<CursorPage<AppointmentSummary>> getPatientAppointments(
+            @PathVariable Long patientId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        currentUser.checkPatientAccess(patientId);
+        return ResponseEntity.ok(appointmentService.getPatientAppointments(patientId, cursor, size));
+    }
+
+    /**
+     * Moves an appointment to a new status (e.g. COMPLETED or NO_SHOW as the doctor works through the queue).
+     *
+     * @param id     the appointment ID
+     * @param status the new status
+     * @return the updated appointment (409 if the current status does not allow the move)
+     */
+    @PutMapping("/{id}/status")
+    public ResponseEntity<AppointmentSummary> updateStatus(@PathVariable Long id,
+                                                           @RequestParam AppointmentStatus status) {
+        return ResponseEntity.ok(appointmentService.updateAppointmentStatus(id, status));
+    }
+
+    /**
+     * Current queue of a doctor's day. Clients load this once, then follow
+     * /topic/queue/{doctorId}/{date} for live updates.
+     *
+     * @param doctorId the doctor ID
+     * @param date     the appointment date
+     * @return the queue state
+     */
+    @GetMapping("/queue/{doctorId}")
+    public ResponseEntity<QueueStatus> getQueue(
+            @PathVariable Long doctorId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(queueStatusPublisher.getQueueStatus(doctorId, date));
+    }
 }
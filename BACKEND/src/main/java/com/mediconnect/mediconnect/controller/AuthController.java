@@ -3,6 +3,7 @@ package com.mediconnect.mediconnect.controller;
 import java.util.stream.Collectors;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -19,10 +20,14 @@ import org.springframework.web.bind.annotation.RestController;
 
 import com.mediconnect.mediconnect.dto.JwtResponse;
 import com.mediconnect.mediconnect.dto.LoginRequest;
+import com.mediconnect.mediconnect.dto.RefreshTokenRequest;
 import com.mediconnect.mediconnect.dto.RegisterRequest;
+import com.mediconnect.mediconnect.exception.TokenIssuingUnavailableException;
 import com.mediconnect.mediconnect.model.Role;
 import com.mediconnect.mediconnect.model.User;
-import com.mediconnect.mediconnect.repository.UserRepository;
+import com.mediconnect.mediconnect.security.PasswordHashingExecutor;
+import com.mediconnect.mediconnect.service.RefreshTokenService;
+import com.mediconnect.mediconnect.service.UserService;
 import com.mediconnect.mediconnect.util.JwtUtil;
 
 import jakarta.validation.Valid;
@@ -35,18 +40,24 @@ import jakarta.validation.Valid;
 public class AuthController {
 
     private final AuthenticationManager authenticationManager;
-    private final UserRepository userRepository;
+    private final UserService userService;
     private final PasswordEncoder passwordEncoder;
     private final JwtUtil jwtUtil;
+    private final PasswordHashingExecutor hashingExecutor;
+    private final RefreshTokenService refreshTokenService;
 
     public AuthController(AuthenticationManager authenticationManager,
-                          UserRepository userRepository,
+                          UserService userService,
                           PasswordEncoder passwordEncoder,
-                          JwtUtil jwtUtil) {
+                          JwtUtil jwtUtil,
+                          PasswordHashingExecutor hashingExecutor,
+                          RefreshTokenService refreshTokenService) {
         this.authenticationManager = authenticationManager;
-        this.userRepository = userRepository;
+        this.userService = userService;
         this.passwordEncoder = passwordEncoder;
         this.jwtUtil = jwtUtil;
+        this.hashingExecutor = hashingExecutor;
+        this.refreshTokenService = refreshTokenService;
     }
 
     @GetMapping("/test")
@@ -73,23 +84,24 @@ public String simple() {
      * Registers a new user.
      *
      * @param request RegisterRequest DTO with user details
-     * @return 200 OK if successful, 400 Bad Request if email exists or role invalid
+     * @return 200 OK if successful, 400 Bad Request if email exists or role invalid,
+     *         429 Too Many Requests if the password hashing pool is saturated
      */
 @PostMapping("/register")
-public ResponseEntity<?> register(@Valid @RequestBody RegisterRequest request, 
+public CompletableFuture<ResponseEntity<?>> register(@Valid @RequestBody RegisterRequest request, 
                                 BindingResult result) {
     // Handle validation errors
     if (result.hasErrors()) {
         List<String> errors = result.getFieldErrors().stream()
             .map(error -> error.getField() + ": " + error.getDefaultMessage())
             .collect(Collectors.toList());
-        return ResponseEntity.badRequest().body(Map.of("errors", errors));
+        return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(Map.of("errors", errors)));
     }
 
     // Check if email already exists
-    User existingUser = userRepository.findByEmail(request.getEmail());
+    User existingUser = userService.findByEmail(request.getEmail());
     if (existingUser != null) {
-        return ResponseEntity.badRequest().body("Email already registered");
+        return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Email already registered"));
     }
 
     // Validate and convert role
@@ -97,29 +109,42 @@ public ResponseEntity<?> register(@Valid @RequestBody RegisterRequest request,
     try {
         role = Role.valueOf(request.getRole().toUpperCase());
     } catch (IllegalArgumentException e) {
-        return ResponseEntity.badRequest().body("Invalid role. Allowed: PATIENT, DOCTOR, ADMIN");
+        return CompletableFuture.completedFuture(
+                ResponseEntity.badRequest().body("Invalid role. Allowed: PATIENT, DOCTOR, ADMIN"));
     }
 
-    // Create and save user
-    User user = User.builder()
-            .name(request.getName())
-            .email(request.getEmail())
-            .password(passwordEncoder.encode(request.getPassword())) // Encrypt password
-            .role(role)
-            .build();
-
-    userRepository.save(user);
-    return ResponseEntity.ok("User registered successfully");
+    // Hash on the dedicated pool so the servlet thread is released meanwhile
+    return hashingExecutor.submit(() -> passwordEncoder.encode(request.getPassword()))
+            .thenApply(hash -> {
+                User user = User.builder()
+                        .name(request.getName())
+                        .email(request.getEmail())
+                        .password(hash)
+                        .role(role)
+                        .build();
+
+                userService.register(user);
+                return ResponseEntity.ok("User registered successfully");
+            });
 }
 
     /**
-     * Authenticates a user and returns user information directly.
+     * Authenticates a user and returns user information with an access and a refresh token.
      *
      * @param request LoginRequest DTO with email and password
-     * @return User information if authentication successful, 401 Unauthorized if failed
+     * @return User information and tokens if authentication successful, 401 Unauthorized if failed,
+     *         429 Too Many Requests if the password hashing pool is saturated,
+     *         503 Service Unavailable on nodes that only verify tokens
      */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest request) {
+    public CompletableFuture<ResponseEntity<?>> login(@Valid @RequestBody LoginRequest request) {
+        // Checked first, so no password is hashed for a login that can not get a token
+        requireTokenIssuing();
+        // Password check runs on the hashing pool, not on the servlet thread
+        return hashingExecutor.submit(() -> authenticate(request));
+    }
+
+    private ResponseEntity<?> authenticate(LoginRequest request) {
         try {
             // Authenticate credentials
             Authentication authentication = authenticationManager.authenticate(
@@ -129,24 +154,54 @@ public ResponseEntity<?> register(@Valid @RequestBody RegisterRequest request,
                     )
             );
 
-            // Return user information directly
-            User user = userRepository.findByEmail(request.getEmail());
+            // Authentication has just loaded the user, so this is served from the user cache
+            User user = userService.findByEmail(request.getEmail());
             if (user == null) {
                 return ResponseEntity.status(401).body("User not found after authentication");
             }
 
+            JwtResponse tokens = refreshTokenService.issue(user.getEmail());
+
             // Return user information (excluding password)
             return ResponseEntity.ok(Map.of(
                 "id", user.getId(),
                 "name", user.getName(),
                 "email", user.getEmail(),
-                "role", user.getRole().toString()
+                "role", user.getRole().toString(),
+                "token", tokens.getToken(),
+                "refreshToken", tokens.getRefreshToken()
             ));
         } catch (BadCredentialsException ex) {
             return ResponseEntity.status(401).body("Invalid email or password");
         }
     }
 
+    /**
+     * Exchanges a refresh token for a new access and refresh token.
+     * The presented refresh token can not be used again.
+     *
+     * @param request the current refresh token
+     * @return new tokens, 401 Unauthorized if the token is invalid, revoked or already used,
+     *         503 Service Unavailable on nodes that only verify tokens
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<JwtResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        requireTokenIssuing();
+        return ResponseEntity.ok(refreshTokenService.rotate(request.getRefreshToken()));
+    }
+
+    /**
+     * Logs out by revoking the refresh token and every token issued with it.
+     *
+     * @param request the refresh token
+     * @return 204 No Content
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@Valid @RequestBody RefreshTokenRequest request) {
+        refreshTokenService.revoke(request.getRefreshToken());
+        return ResponseEntity.noContent().build();
+    }
+
     @PostMapping("/register-no-validation")
     public ResponseEntity<String> registerNoValidation(@RequestBody RegisterRequest request) {
         System.out.println("Register no validation reached!");
@@ -156,4 +211,11 @@ public ResponseEntity<?> register(@Valid @RequestBody RegisterRequest request,
         System.out.println("Role: " + request.getRole());
         return ResponseEntity.ok("Register without validation works!");
     }
+
+    private void requireTokenIssuing() {
+        if (!jwtUtil.canIssueTokens()) {
+            throw new TokenIssuingUnavailableException(
+                    "This node only verifies tokens; log in and refresh tokens through an auth node");
+        }
+    }
 }
@@ -1,5 +1,128 @@
 package com.mediconnect.mediconnect.controller;
 //AI chatbot endpoint using OpenAI
+
+import com.mediconnect.mediconnect.dto.ChatRequest;
+import com.mediconnect.mediconnect.dto.ChatResponse;
+import com.mediconnect.mediconnect.model.ChatMessage;
+import com.mediconnect.mediconnect.model.ChatMessage.Sender;
+import com.mediconnect.mediconnect.service.ChatHistoryService;
+import com.mediconnect.mediconnect.service.ChatStreamExecutor;
+import com.mediconnect.mediconnect.service.ChatbotService;
+import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Symptom-triage chatbot endpoints.
+ */
+@RestController
+@RequestMapping("/api/chatbot")
 public class ChatbotController {
 
+    private final ChatbotService chatbotService;
+    private final ChatHistoryService chatHistoryService;
+    private final ChatStreamExecutor streamExecutor;
+
+    public ChatbotController(ChatbotService chatbotService, ChatHistoryService chatHistoryService,
+                             ChatStreamExecutor streamExecutor) {
+        this.chatbotService = chatbotService;
+        this.chatHistoryService = chatHistoryService;
+        this.streamExecutor = streamExecutor;
+    }
+
+    /**
+     * Sends a message and returns the whole reply.
+     *
+     * @param request the message and, after the first turn, the session ID
+     * @return the reply
+     */
+    @PostMapping("/messages")
+    public ResponseEntity<ChatResponse> sendMessage(@Valid @RequestBody ChatRequest request) {
+        ChatResponse response = chatbotService.reply(request, token -> { });
+        record(request, response);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Sends a message and streams the reply as server-sent events: one "token"
+     * event per word, then a "done" event carrying the full response. The stream
+     * is returned at once and a worker sends each token as it is produced.
+     *
+     * @param request the message and, after the first turn, the session ID
+     * @return the event stream
+     */
+    @PostMapping(value = "/messages/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamMessage(@Valid @RequestBody ChatRequest request) {
+        SseEmitter emitter = new SseEmitter();
+        streamExecutor.execute(() -> {
+            try {
+                ChatResponse response = chatbotService.reply(request, token -> send(emitter,
+                        SseEmitter.event().name("token").data(token, MediaType.TEXT_PLAIN)));
+                record(request, response);
+                send(emitter, SseEmitter.event().name("done").data(response, MediaType.APPLICATION_JSON));
+                emitter.complete();
+            } catch (UncheckedIOException e) {
+                // Client went away
+                emitter.completeWithError(e.getCause());
+            } catch (RuntimeException e) {
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
+    }
+
+    /**
+     * Returns the latest messages of a conversation, oldest first.
+     *
+     * @param sessionId the session ID
+     * @param size      number of messages
+     * @return the messages
+     */
+    @GetMapping("/sessions/{sessionId}/messages")
+    public ResponseEntity<List<ChatMessage>> getMessages(
+            @PathVariable String sessionId,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(chatHistoryService.recent(sessionId, size));
+    }
+
+    /**
+     * Ends a conversation and discards what the bot was told; the transcript is kept.
+     *
+     * @param sessionId the session ID
+     * @return 204 No Content
+     */
+    @DeleteMapping("/sessions/{sessionId}")
+    public ResponseEntity<Void> endSession(@PathVariable String sessionId) {
+        chatbotService.endSession(sessionId);
+        return ResponseEntity.noContent().build();
+    }
+
+    private void record(ChatRequest request, ChatResponse response) {
+        if (request.getSessionId() == null) {
+            chatHistoryService.start(response.sessionId());
+        }
+        chatHistoryService.append(response.sessionId(), Sender.USER, null, request.getMessage());
+        chatHistoryService.append(response.sessionId(), Sender.BOT, null, response.reply());
+    }
+
+    private static void send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
@@ -1,5 +1,120 @@
 package com.mediconnect.mediconnect.controller;
 //Alert ambulance, notify hospital
+
+import com.mediconnect.mediconnect.dto.EmergencyAssignment;
+import com.mediconnect.mediconnect.dto.EmergencyRequest;
+import com.mediconnect.mediconnect.dto.ResponderLocation;
+import com.mediconnect.mediconnect.dto.ResponderPosition;
+import com.mediconnect.mediconnect.model.EmergencySeverity;
+import com.mediconnect.mediconnect.model.ResponderKind;
+import com.mediconnect.mediconnect.service.EmergencyLaneExecutor;
+import com.mediconnect.mediconnect.service.EmergencyService;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Emergency dispatch endpoints. Responders subscribe to
+ * /topic/responders/{responderId} to receive their assignments.
+ * Every endpoint runs on the emergency lane, ordered by severity; 429 Too Many
+ * Requests means the lane queue is full.
+ */
+@RestController
+@RequestMapping("/api/emergency")
 public class EmergencyController {
 
+    private final EmergencyService emergencyService;
+    private final EmergencyLaneExecutor lane;
+
+    public EmergencyController(EmergencyService emergencyService, EmergencyLaneExecutor lane) {
+        this.emergencyService = emergencyService;
+        this.lane = lane;
+    }
+
+    /**
+     * Sends the nearest available responder to the given location.
+     *
+     * @param request location, severity, optional responder kind and details
+     * @return the assignment
+     */
+    @PostMapping("/requests")
+    public CompletableFuture<ResponseEntity<EmergencyAssignment>> requestHelp(
+            @Valid @RequestBody EmergencyRequest request) {
+        return lane.submit(request.getSeverity(), () -> ResponseEntity.ok(emergencyService.dispatch(request)));
+    }
+
+    /**
+     * Lists available responders near a point, nearest first.
+     *
+     * @param lat   latitude
+     * @param lon   longitude
+     * @param kind  responder kind (omit for any)
+     * @param limit number of responders
+     * @return the responders
+     */
+    @GetMapping("/responders/nearby")
+    public CompletableFuture<ResponseEntity<List<ResponderPosition>>> getNearbyResponders(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(required = false) ResponderKind kind,
+            @RequestParam(defaultValue = "10") int limit) {
+        return lane.submit(EmergencySeverity.MODERATE,
+                () -> ResponseEntity.ok(emergencyService.nearby(lat, lon, kind, limit)));
+    }
+
+    /**
+     * Reports a responder's position; the first report puts it on duty.
+     *
+     * @param responderId the responder ID
+     * @param location    current position
+     * @return 204 No Content
+     */
+    @PutMapping("/responders/{responderId}/location")
+    public CompletableFuture<ResponseEntity<Void>> updateLocation(@PathVariable Long responderId,
+                                                                  @Valid @RequestBody ResponderLocation location) {
+        // Devices report every few seconds, so a delayed or dropped report costs little
+        return lane.submit(EmergencySeverity.LOW, () -> {
+            emergencyService.updateLocation(responderId, location);
+            return ResponseEntity.noContent().build();
+        });
+    }
+
+    /**
+     * Marks an assigned responder as available again.
+     *
+     * @param responderId the responder ID
+     * @return 204 No Content
+     */
+    @PostMapping("/responders/{responderId}/release")
+    public CompletableFuture<ResponseEntity<Void>> release(@PathVariable Long responderId) {
+        return lane.submit(EmergencySeverity.MODERATE, () -> {
+            emergencyService.release(responderId);
+            return ResponseEntity.noContent().build();
+        });
+    }
+
+    /**
+     * Takes a responder off duty.
+     *
+     * @param responderId the responder ID
+     * @return 204 No Content
+     */
+    @DeleteMapping("/responders/{responderId}")
+    public CompletableFuture<ResponseEntity<Void>> goOffDuty(@PathVariable Long responderId) {
+        return lane.submit(EmergencySeverity.MODERATE, () -> {
+            emergencyService.goOffDuty(responderId);
+            return ResponseEntity.noContent().build();
+        });
+    }
 }
@@ -1,5 +1,161 @@
 package com.mediconnect.mediconnect.controller;
 // uplaod/download from S3
+
+import com.mediconnect.mediconnect.dto.StoredFile;
+import com.mediconnect.mediconnect.security.CurrentUser;
+import com.mediconnect.mediconnect.service.FileStorageService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Streams medical files in and out of the object store.
+ */
+@RestController
+@RequestMapping("/api/files")
 public class FileController {
 
+    // Tomcat request attributes for handing a file region to the connector's sendfile support
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final FileStorageService fileStorageService;
+    private final CurrentUser currentUser;
+
+    public FileController(FileStorageService fileStorageService, CurrentUser currentUser) {
+        this.fileStorageService = fileStorageService;
+        this.currentUser = currentUser;
+    }
+
+    /**
+     * Uploads a file as a multipart form part. Large parts are spooled to disk by the container.
+     *
+     * @param file the uploaded part
+     * @return 201 Created with the stored file's key, size and SHA-256
+     */
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<StoredFile> upload(@RequestParam("file") MultipartFile file) throws IOException {
+        StoredFile stored = fileStorageService.store(
+                file.getInputStream(), file.getOriginalFilename(), file.getContentType());
+        return ResponseEntity.status(HttpStatus.CREATED).body(stored);
+    }
+
+    /**
+     * Uploads a file sent as the raw request body, streamed straight into the
+     * object store without any intermediate copy. Preferred for large imaging files.
+     *
+     * @param fileName original file name (optional, used for the extension)
+     * @return 201 Created with the stored file's key, size and SHA-256
+     */
+    @PutMapping
+    public ResponseEntity<StoredFile> uploadStream(HttpServletRequest request,
+                                                   @RequestHeader(value = "X-File-Name", required = false) String fileName)
+            throws IOException {
+        InputStream body = request.getInputStream();
+        StoredFile stored = fileStorageService.store(body, fileName, request.getContentType());
+        return ResponseEntity.status(HttpStatus.CREATED).body(stored);
+    }
+
+    /**
+     * Downloads a file, honouring a single HTTP Range. When the container supports
+     * sendfile the file region is transferred by the kernel without entering the JVM;
+     * otherwise it is streamed through a small buffer. Only users who may view the
+     * report the file belongs to can download it.
+     *
+     * @param key the object key
+     * @return the file content (200 or 206; 401, 403 or 404 if the caller may not see it)
+     */
+    @GetMapping("/{key}")
+    public ResponseEntity<Resource> download(@PathVariable String key,
+                                             HttpServletRequest request,
+                                             HttpServletResponse response) throws IOException {
+        currentUser.checkFileAccess(key);
+        Resource resource = fileStorageService.load(key);
+        MediaType mediaType = MediaTypeFactory.getMediaType(key).orElse(MediaType.APPLICATION_OCTET_STREAM);
+
+        Optional<Path> path = fileStorageService.localPath(key);
+        if (path.isPresent() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))
+                && sendFile(path.get(), mediaType, request, response)) {
+            return null; // response already handled by the connector
+        }
+
+        // Spring converts this into a 206 partial response when a Range header is present
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .body(resource);
+    }
+
+    /**
+     * Prepare a sendfile transfer of the whole file or a single byte range.
+     *
+     * @return false if the request has a range form sendfile cannot serve (e.g. multiple ranges)
+     */
+    private boolean sendFile(Path path, MediaType mediaType,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long length = Files.size(path);
+        long start = 0;
+        long end = length - 1;
+
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException ex) {
+                return false;
+            }
+            if (ranges.size() != 1) {
+                return false;
+            }
+            HttpRange range = ranges.get(0);
+            try {
+                start = range.getRangeStart(length);
+                end = range.getRangeEnd(length);
+            } catch (IllegalArgumentException ex) {
+                end = -1;
+            }
+            if (start >= length || end < start) {
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                return true;
+            }
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        } else {
+            response.setStatus(HttpStatus.OK.value());
+        }
+
+        response.setContentType(mediaType.toString());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentLengthLong(end - start + 1);
+        request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+        request.setAttribute(SENDFILE_START, start);
+        request.setAttribute(SENDFILE_END, end + 1);
+        return true;
+    }
 }
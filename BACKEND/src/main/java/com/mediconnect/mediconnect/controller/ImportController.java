@@ -0,0 +1,111 @@
+package com.mediconnect.mediconnect.controller;
+//Bulk import of clinic schedules and historical reports
+
+import com.mediconnect.mediconnect.dto.ImportResult;
+import com.mediconnect.mediconnect.exception.InvalidInputException;
+import com.mediconnect.mediconnect.security.CurrentUser;
+import com.mediconnect.mediconnect.service.BulkImportService;
+import com.mediconnect.mediconnect.service.BulkImportService.Format;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Bulk import endpoints, for admins only. The request body is the raw CSV or
+ * NDJSON document, streamed row by row into the database. Pass an importId to
+ * follow a long import through /api/import/jobs/{importId} while it runs.
+ */
+@RestController
+@RequestMapping("/api/import")
+public class ImportController {
+
+    private final BulkImportService bulkImportService;
+    private final CurrentUser currentUser;
+    private final int defaultChunkSize;
+
+    public ImportController(BulkImportService bulkImportService,
+                            CurrentUser currentUser,
+                            @Value("${import.chunkSize:5000}") int defaultChunkSize) {
+        this.bulkImportService = bulkImportService;
+        this.currentUser = currentUser;
+        this.defaultChunkSize = defaultChunkSize;
+    }
+
+    /**
+     * Imports appointments.
+     *
+     * @param format    csv or ndjson
+     * @param chunkSize rows per committed transaction (optional)
+     * @param importId  ID to poll progress under (optional)
+     * @return number of rows imported and throughput
+     */
+    @PostMapping("/appointments")
+    public ResponseEntity<ImportResult> importAppointments(HttpServletRequest request,
+                                                           @RequestParam(defaultValue = "csv") String format,
+                                                           @RequestParam(required = false) Integer chunkSize,
+                                                           @RequestParam(required = false) String importId)
+            throws IOException {
+        currentUser.checkAdmin();
+        return ResponseEntity.ok(bulkImportService.importAppointments(request.getInputStream(),
+                parseFormat(format), chunkSize != null ? chunkSize : defaultChunkSize, importId));
+    }
+
+    /**
+     * Imports medical reports.
+     *
+     * @param format    csv or ndjson
+     * @param chunkSize rows per committed transaction (optional)
+     * @param importId  ID to poll progress under (optional)
+     * @return number of rows imported and throughput
+     */
+    @PostMapping("/reports")
+    public ResponseEntity<ImportResult> importReports(HttpServletRequest request,
+                                                      @RequestParam(defaultValue = "csv") String format,
+                                                      @RequestParam(required = false) Integer chunkSize,
+                                                      @RequestParam(required = false) String importId)
+            throws IOException {
+        currentUser.checkAdmin();
+        return ResponseEntity.ok(bulkImportService.importReports(request.getInputStream(),
+                parseFormat(format), chunkSize != null ? chunkSize : defaultChunkSize, importId));
+    }
+
+    /**
+     * Lists the imports running on this instance.
+     *
+     * @return rows committed so far and throughput of each import
+     */
+    @GetMapping("/jobs")
+    public ResponseEntity<List<ImportResult>> getRunningImports() {
+        currentUser.checkAdmin();
+        return ResponseEntity.ok(bulkImportService.getRunning());
+    }
+
+    /**
+     * Progress of a running import.
+     *
+     * @param importId the importId passed when the import was started
+     * @return rows committed so far and throughput (404 once the import has finished)
+     */
+    @GetMapping("/jobs/{importId}")
+    public ResponseEntity<ImportResult> getImportProgress(@PathVariable String importId) {
+        currentUser.checkAdmin();
+        return ResponseEntity.ok(bulkImportService.getProgress(importId));
+    }
+
+    private Format parseFormat(String format) {
+        try {
+            return Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidInputException("Invalid format. Allowed: csv, ndjson");
+        }
+    }
+}
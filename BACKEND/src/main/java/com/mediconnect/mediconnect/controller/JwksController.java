@@ -0,0 +1,37 @@
+package com.mediconnect.mediconnect.controller;
+
+import com.mediconnect.mediconnect.security.JwtSigningKeys;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Publishes the public token signing keys so other nodes can verify tokens without a shared secret.
+ */
+@RestController
+public class JwksController {
+
+    private final JwtSigningKeys signingKeys;
+
+    public JwksController(JwtSigningKeys signingKeys) {
+        this.signingKeys = signingKeys;
+    }
+
+    /**
+     * JWK set of the keys currently accepted for verification.
+     * Empty when tokens are signed with a shared HS256 secret.
+     *
+     * @return the JWKS document
+     */
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, List<Map<String, Object>>>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(Map.of("keys", signingKeys.publicJwks()));
+    }
+}
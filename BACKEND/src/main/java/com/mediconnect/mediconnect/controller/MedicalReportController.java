@@ -0,0 +1,100 @@
+package com.mediconnect.mediconnect.controller;
+//List and manage medical reports
+
+import com.mediconnect.mediconnect.dto.CursorPage;
+import com.mediconnect.mediconnect.dto.MedicalReportSummary;
+import com.mediconnect.mediconnect.model.Medicalreport.ReportStatus;
+import com.mediconnect.mediconnect.security.CurrentUser;
+import com.mediconnect.mediconnect.service.MedicalReportService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Medical report listing endpoints.
+ */
+@RestController
+@RequestMapping("/api/reports")
+public class MedicalReportController {
+
+    private final MedicalReportService medicalReportService;
+    private final CurrentUser currentUser;
+
+    public MedicalReportController(MedicalReportService medicalReportService, CurrentUser currentUser) {
+        this.medicalReportService = medicalReportService;
+        this.currentUser = currentUser;
+    }
+
+    /**
+     * Lists a patient's reports, newest first, one page at a time.
+     * Only the patient, their doctors and admins may call this.
+     *
+     * @param patientId the patient ID
+     * @param cursor    nextCursor from the previous page (omit for the first page)
+     * @param size      page size
+     * @return one page of reports (401 without a token, 403 for anyone else's reports)
+     */
+    @GetMapping("/patient/{patientId}")
+    public ResponseEntity<CursorPage<MedicalReportSummary>> getPatientReports(
+            @PathVariable Long patientId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        currentUser.checkPatientAccess(patientId);
+        return ResponseEntity.ok(medicalReportService.getPatientReports(patientId, cursor, size));
+    }
+
+    /**
+     * Lists the reports created by a doctor, newest first, one page at a time.
+     * Only that doctor and admins may call this.
+     *
+     * @param doctorId the doctor ID
+     * @param cursor   nextCursor from the previous page (omit for the first page)
+     * @param size     page size
+     * @return one page of reports (401 without a token, 403 for anyone else's reports)
+     */
+    @GetMapping("/doctor/{doctorId}")
+    public ResponseEntity<CursorPage<MedicalReportSummary>> getDoctorReports(
+            @PathVariable Long doctorId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        currentUser.checkDoctorAccess(doctorId);
+        return ResponseEntity.ok(medicalReportService.getDoctorReports(doctorId, cursor, size));
+    }
+
+    /**
+     * Full-text search over a doctor's reports, most relevant first.
+     * Only that doctor and admins may call this.
+     *
+     * @param doctorId the doctor ID
+     * @param q        search text; supports "quoted phrases", or, and -excluded words
+     * @param cursor   nextCursor from the previous page (omit for the first page)
+     * @param size     page size
+     * @return one page of matching reports (401 without a token, 403 for anyone else's reports)
+     */
+    @GetMapping("/doctor/{doctorId}/search")
+    public ResponseEntity<CursorPage<MedicalReportSummary>> searchDoctorReports(
+            @PathVariable Long doctorId,
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        currentUser.checkDoctorAccess(doctorId);
+        return ResponseEntity.ok(medicalReportService.searchDoctorReports(doctorId, q, cursor, size));
+    }
+
+    /**
+     * Moves a report to a new status (e.g. REVIEWED or APPROVED by the doctor).
+     *
+     * @param id     the report ID
+     * @param status the new status
+     * @return the updated report (409 if the current status does not allow the move)
+     */
+    @PutMapping("/{id}/status")
+    public ResponseEntity<MedicalReportSummary> updateStatus(@PathVariable Long id,
+                                                             @RequestParam ReportStatus status) {
+        return ResponseEntity.ok(medicalReportService.updateReportStatus(id, status));
+    }
+}
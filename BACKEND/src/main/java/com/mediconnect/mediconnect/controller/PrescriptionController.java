@@ -0,0 +1,105 @@
+package com.mediconnect.mediconnect.controller;
+//Issue, revise and look up prescriptions
+
+import com.mediconnect.mediconnect.dto.PrescriptionRequest;
+import com.mediconnect.mediconnect.dto.PrescriptionRevision;
+import com.mediconnect.mediconnect.dto.PrescriptionView;
+import com.mediconnect.mediconnect.service.PrescriptionService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Prescription endpoints. Changes create a new version; older versions stay
+ * readable through /{prescriptionId}/versions.
+ */
+@RestController
+@RequestMapping("/api/prescriptions")
+public class PrescriptionController {
+
+    private final PrescriptionService prescriptionService;
+
+    public PrescriptionController(PrescriptionService prescriptionService) {
+        this.prescriptionService = prescriptionService;
+    }
+
+    /**
+     * Issues a new prescription.
+     *
+     * @param request patient, doctor, items and optional expiry
+     * @return 201 Created with version 1
+     */
+    @PostMapping
+    public ResponseEntity<PrescriptionView> issue(@Valid @RequestBody PrescriptionRequest request) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(prescriptionService.issue(request));
+    }
+
+    /**
+     * Gets the current version of a prescription (pharmacy check).
+     *
+     * @param prescriptionId the prescription ID
+     * @return the current version
+     */
+    @GetMapping("/{prescriptionId}")
+    public ResponseEntity<PrescriptionView> getPrescription(@PathVariable Long prescriptionId) {
+        return ResponseEntity.ok(prescriptionService.getCurrent(prescriptionId));
+    }
+
+    /**
+     * Lists every version of a prescription, newest first.
+     *
+     * @param prescriptionId the prescription ID
+     * @return the versions
+     */
+    @GetMapping("/{prescriptionId}/versions")
+    public ResponseEntity<List<PrescriptionView>> getVersions(@PathVariable Long prescriptionId) {
+        return ResponseEntity.ok(prescriptionService.getHistory(prescriptionId));
+    }
+
+    /**
+     * Lists a patient's prescriptions that can be dispensed today, newest first.
+     *
+     * @param patientId the patient ID
+     * @return the prescriptions
+     */
+    @GetMapping("/patient/{patientId}/active")
+    public ResponseEntity<List<PrescriptionView>> getActivePrescriptions(@PathVariable Long patientId) {
+        return ResponseEntity.ok(prescriptionService.getActiveForPatient(patientId));
+    }
+
+    /**
+     * Revises a prescription.
+     *
+     * @param prescriptionId the prescription ID
+     * @param revision       the version being replaced and the new contents
+     * @return the new version (409 if that version is no longer current or the prescription is cancelled)
+     */
+    @PutMapping("/{prescriptionId}")
+    public ResponseEntity<PrescriptionView> revise(@PathVariable Long prescriptionId,
+                                                   @Valid @RequestBody PrescriptionRevision revision) {
+        return ResponseEntity.ok(prescriptionService.revise(prescriptionId, revision));
+    }
+
+    /**
+     * Cancels a prescription.
+     *
+     * @param prescriptionId the prescription ID
+     * @param version        the current version
+     * @return the cancelled version (409 if that version is no longer current or already cancelled)
+     */
+    @PostMapping("/{prescriptionId}/cancel")
+    public ResponseEntity<PrescriptionView> cancel(@PathVariable Long prescriptionId,
+                                                   @RequestParam Integer version) {
+        return ResponseEntity.ok(prescriptionService.cancel(prescriptionId, version));
+    }
+}
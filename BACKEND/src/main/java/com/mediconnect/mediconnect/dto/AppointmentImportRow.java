@@ -0,0 +1,23 @@
+package com.mediconnect.mediconnect.dto;
+
+import com.mediconnect.mediconnect.model.Appoinment.AppointmentStatus;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * One appointment row of a bulk import (CSV column or NDJSON field names match the properties).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class AppointmentImportRow {
+    private Long patientId;
+    private Long doctorId;
+    private LocalDateTime appointmentDateTime;
+    private Integer serialNumber;
+    private AppointmentStatus status;
+    private String notes;
+}
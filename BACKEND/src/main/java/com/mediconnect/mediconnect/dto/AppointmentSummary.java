@@ -0,0 +1,41 @@
+package com.mediconnect.mediconnect.dto;
+
+import com.mediconnect.mediconnect.model.Appoinment;
+import com.mediconnect.mediconnect.model.Appoinment.AppointmentStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of an appointment for list endpoints.
+ * Carries only the participants' IDs and names, never their credentials.
+ */
+public record AppointmentSummary(
+        Long id,
+        Long patientId,
+        String patientName,
+        Long doctorId,
+        String doctorName,
+        LocalDateTime appointmentDateTime,
+        Integer serialNumber,
+        AppointmentStatus status,
+        String notes) {
+
+    /**
+     * Build a summary from an appointment whose patient and doctor are loaded
+     *
+     * @param appointment The appointment
+     * @return The summary
+     */
+    public static AppointmentSummary of(Appoinment appointment) {
+        return new AppointmentSummary(
+                appointment.getId(),
+                appointment.getPatient().getId(),
+                appointment.getPatient().getName(),
+                appointment.getDoctor().getId(),
+                appointment.getDoctor().getName(),
+                appointment.getAppointmentDateTime(),
+                appointment.getSerialNumber(),
+                appointment.getStatus(),
+                appointment.getNotes());
+    }
+}
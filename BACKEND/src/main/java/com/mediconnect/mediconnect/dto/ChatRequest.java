@@ -1,6 +1,37 @@
 package com.mediconnect.mediconnect.dto;
 /*Contains messages or symptom info sent to the AI chatbot.
 Ensures text or voice inputs are correctly formatted. */
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+/**
+ * One user turn in a triage conversation.
+ * Omit the session ID to start a new conversation; the reply carries the ID to send next time.
+ */
 public class ChatRequest {
+    @Pattern(regexp = "[A-Za-z0-9-]{1,64}")
+    private String sessionId;
+
+    // Postgres text cannot hold NUL characters
+    @NotBlank
+    @Size(max = 1000)
+    @Pattern(regexp = "[^\\x00]*", message = "must not contain NUL characters")
+    private String message;
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public String getMessage() {
+        return message;
+    }
 
+    public void setMessage(String message) {
+        this.message = message;
+    }
 }
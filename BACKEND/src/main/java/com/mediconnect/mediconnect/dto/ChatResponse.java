@@ -0,0 +1,20 @@
+package com.mediconnect.mediconnect.dto;
+
+import java.util.List;
+
+/**
+ * The chatbot's answer to one turn.
+ *
+ * @param sessionId          Conversation to continue with the next message
+ * @param reply              Text shown to the user
+ * @param urgency            SELF_CARE, ROUTINE, URGENT or EMERGENCY; null while still asking questions
+ * @param possibleConditions Best matching conditions, most likely first
+ * @param specialty          Suggested kind of doctor to book, if any
+ */
+public record ChatResponse(
+        String sessionId,
+        String reply,
+        String urgency,
+        List<String> possibleConditions,
+        String specialty) {
+}
@@ -0,0 +1,23 @@
+package com.mediconnect.mediconnect.dto;
+
+import com.mediconnect.mediconnect.model.EmergencySeverity;
+import com.mediconnect.mediconnect.model.ResponderKind;
+
+import java.time.LocalDateTime;
+
+/**
+ * A responder sent to an emergency. Returned to the caller and pushed to
+ * subscribers of /topic/responders/{responderId}.
+ */
+public record EmergencyAssignment(
+        String incidentId,
+        Long responderId,
+        ResponderKind kind,
+        double distanceKm,
+        EmergencySeverity severity,
+        Long patientId,
+        double latitude,
+        double longitude,
+        String details,
+        LocalDateTime assignedAt) {
+}
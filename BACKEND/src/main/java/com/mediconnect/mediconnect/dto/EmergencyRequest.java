@@ -0,0 +1,81 @@
+package com.mediconnect.mediconnect.dto;
+
+import com.mediconnect.mediconnect.model.EmergencySeverity;
+import com.mediconnect.mediconnect.model.ResponderKind;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+/**
+ * A call for help at a location.
+ * Without a kind, the nearest responder of any kind is sent; without a severity, HIGH is assumed.
+ */
+public class EmergencyRequest {
+    private Long patientId;
+
+    private ResponderKind kind;
+
+    private EmergencySeverity severity;
+
+    @NotNull
+    @DecimalMin("-90")
+    @DecimalMax("90")
+    private Double latitude;
+
+    @NotNull
+    @DecimalMin("-180")
+    @DecimalMax("180")
+    private Double longitude;
+
+    @Size(max = 500)
+    private String details;
+
+    public Long getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(Long patientId) {
+        this.patientId = patientId;
+    }
+
+    public ResponderKind getKind() {
+        return kind;
+    }
+
+    public void setKind(ResponderKind kind) {
+        this.kind = kind;
+    }
+
+    public EmergencySeverity getSeverity() {
+        return severity != null ? severity : EmergencySeverity.HIGH;
+    }
+
+    public void setSeverity(EmergencySeverity severity) {
+        this.severity = severity;
+    }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    public String getDetails() {
+        return details;
+    }
+
+    public void setDetails(String details) {
+        this.details = details;
+    }
+}
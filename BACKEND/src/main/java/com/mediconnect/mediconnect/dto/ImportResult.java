@@ -0,0 +1,51 @@
+package com.mediconnect.mediconnect.dto;
+
+/**
+ * Progress of a bulk import: the final summary once it has finished, or a
+ * snapshot of the rows committed so far while it is still running.
+ */
+public class ImportResult {
+    private final String id;
+    private final String type;
+    private final long rows;
+    private final int chunks;
+    private final long elapsedMillis;
+    private final boolean finished;
+
+    public ImportResult(String id, String type, long rows, int chunks, long elapsedMillis, boolean finished) {
+        this.id = id;
+        this.type = type;
+        this.rows = rows;
+        this.chunks = chunks;
+        this.elapsedMillis = elapsedMillis;
+        this.finished = finished;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public int getChunks() {
+        return chunks;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public long getRowsPerSecond() {
+        return elapsedMillis == 0 ? rows : rows * 1000 / elapsedMillis;
+    }
+}
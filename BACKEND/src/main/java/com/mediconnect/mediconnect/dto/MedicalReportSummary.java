@@ -0,0 +1,27 @@
+package com.mediconnect.mediconnect.dto;
+
+import com.mediconnect.mediconnect.model.Medicalreport.ReportStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of a medical report for list endpoints.
+ * Carries only the participants' IDs and names, never their credentials.
+ */
+public record MedicalReportSummary(
+        Long id,
+        Long patientId,
+        String patientName,
+        Long doctorId,
+        String doctorName,
+        Long appointmentId,
+        String title,
+        String description,
+        String fileUrl,
+        String fileType,
+        Long fileSize,
+        String previewKey,
+        ReportStatus status,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+}
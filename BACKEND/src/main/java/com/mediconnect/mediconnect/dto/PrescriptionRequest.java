@@ -0,0 +1,82 @@
+package com.mediconnect.mediconnect.dto;
+
+import com.mediconnect.mediconnect.model.PrescriptionItem;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.FutureOrPresent;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * A new prescription. Without validUntil it stays valid for prescriptions.validDays.
+ */
+public class PrescriptionRequest {
+    @NotNull
+    private Long patientId;
+
+    @NotNull
+    private Long doctorId;
+
+    private Long appointmentId;
+
+    @NotEmpty
+    @Size(max = 50)
+    private List<@Valid @NotNull PrescriptionItem> items;
+
+    @Size(max = 1000)
+    private String notes;
+
+    @FutureOrPresent
+    private LocalDate validUntil;
+
+    public Long getPatientId() {
+        return patientId;
+    }
+
+    public void setPatientId(Long patientId) {
+        this.patientId = patientId;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public Long getAppointmentId() {
+        return appointmentId;
+    }
+
+    public void setAppointmentId(Long appointmentId) {
+        this.appointmentId = appointmentId;
+    }
+
+    public List<PrescriptionItem> getItems() {
+        return items;
+    }
+
+    public void setItems(List<PrescriptionItem> items) {
+        this.items = items;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    public void setNotes(String notes) {
+        this.notes = notes;
+    }
+
+    public LocalDate getValidUntil() {
+        return validUntil;
+    }
+
+    public void setValidUntil(LocalDate validUntil) {
+        this.validUntil = validUntil;
+    }
+}
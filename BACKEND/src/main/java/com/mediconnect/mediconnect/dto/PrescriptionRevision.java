@@ -0,0 +1,62 @@
+package com.mediconnect.mediconnect.dto;
+
+import com.mediconnect.mediconnect.model.PrescriptionItem;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.FutureOrPresent;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * New contents for a prescription, replacing the given current version.
+ * Without validUntil the previous expiry is kept.
+ */
+public class PrescriptionRevision {
+    @NotNull
+    private Integer version;
+
+    @NotEmpty
+    @Size(max = 50)
+    private List<@Valid @NotNull PrescriptionItem> items;
+
+    @Size(max = 1000)
+    private String notes;
+
+    @FutureOrPresent
+    private LocalDate validUntil;
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
+    public List<PrescriptionItem> getItems() {
+        return items;
+    }
+
+    public void setItems(List<PrescriptionItem> items) {
+        this.items = items;
+    }
+
+    public String getNotes() {
+        return notes;
+    }
+
+    public void setNotes(String notes) {
+        this.notes = notes;
+    }
+
+    public LocalDate getValidUntil() {
+        return validUntil;
+    }
+
+    public void setValidUntil(LocalDate validUntil) {
+        this.validUntil = validUntil;
+    }
+}
@@ -0,0 +1,48 @@
+package com.mediconnect.mediconnect.dto;
+
+import com.mediconnect.mediconnect.model.Pescription;
+import com.mediconnect.mediconnect.model.Pescription.PrescriptionStatus;
+import com.mediconnect.mediconnect.model.PrescriptionItem;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Read-only view of one prescription version. supersededAt is null for the
+ * current version.
+ */
+public record PrescriptionView(
+        Long prescriptionId,
+        Integer version,
+        Long patientId,
+        Long doctorId,
+        Long appointmentId,
+        PrescriptionStatus status,
+        List<PrescriptionItem> items,
+        String notes,
+        LocalDate validUntil,
+        LocalDateTime issuedAt,
+        LocalDateTime supersededAt) {
+
+    /**
+     * Build a view of a prescription version
+     *
+     * @param prescription The version
+     * @return The view
+     */
+    public static PrescriptionView of(Pescription prescription) {
+        return new PrescriptionView(
+                prescription.getPrescriptionId(),
+                prescription.getVersion(),
+                prescription.getPatientId(),
+                prescription.getDoctorId(),
+                prescription.getAppointmentId(),
+                prescription.getStatus(),
+                List.copyOf(prescription.getItems()),
+                prescription.getNotes(),
+                prescription.getValidUntil(),
+                prescription.getIssuedAt(),
+                prescription.getSupersededAt());
+    }
+}
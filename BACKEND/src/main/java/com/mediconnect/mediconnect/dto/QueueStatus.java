@@ -0,0 +1,34 @@
+package com.mediconnect.mediconnect.dto;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Queue state of one doctor's day, pushed to subscribers of
+ * /topic/queue/{doctorId}/{date}.
+ *
+ * waitingSerials lists the serials still to be seen, in calling order; its
+ * first entry is nowServing. Cancelled and no-show serials leave gaps in the
+ * numbering, so a patient's place is their index in this list
+ * (see {@link #positionOf}), not serialNumber - nowServing. A day holds at most
+ * a few dozen serials, so the list keeps a push small.
+ */
+public record QueueStatus(
+        Long doctorId,
+        LocalDate date,
+        Integer nowServing,
+        int waiting,
+        List<Integer> waitingSerials) {
+
+    /**
+     * Number of patients ahead of a serial
+     *
+     * @param serialNumber The patient's serial
+     * @return 0 if the serial is being served now, -1 if it is not waiting
+     */
+    public int positionOf(int serialNumber) {
+        int index = Collections.binarySearch(waitingSerials, serialNumber);
+        return index >= 0 ? index : -1;
+    }
+}
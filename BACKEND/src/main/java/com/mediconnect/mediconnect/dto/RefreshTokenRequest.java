@@ -0,0 +1,16 @@
+package com.mediconnect.mediconnect.dto;
+/*Carries the refresh token for token rotation and logout. */
+import jakarta.validation.constraints.NotBlank;
+
+public class RefreshTokenRequest {
+    @NotBlank
+    private String refreshToken;
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public void setRefreshToken(String refreshToken) {
+        this.refreshToken = refreshToken;
+    }
+}
@@ -0,0 +1,27 @@
+package com.mediconnect.mediconnect.dto;
+
+import com.mediconnect.mediconnect.model.Medicalreport.ReportStatus;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * One medical report row of a bulk import (CSV column or NDJSON field names match the properties).
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class ReportImportRow {
+    private Long patientId;
+    private Long doctorId;
+    private Long appointmentId;
+    private String title;
+    private String description;
+    private String fileUrl;
+    private String fileType;
+    private Long fileSize;
+    private LocalDateTime createdAt;
+    private ReportStatus status;
+}
@@ -0,0 +1,49 @@
+package com.mediconnect.mediconnect.dto;
+
+import com.mediconnect.mediconnect.model.ResponderKind;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * Position report from a responder's device.
+ * The first report puts the responder on duty.
+ */
+public class ResponderLocation {
+    @NotNull
+    private ResponderKind kind;
+
+    @NotNull
+    @DecimalMin("-90")
+    @DecimalMax("90")
+    private Double latitude;
+
+    @NotNull
+    @DecimalMin("-180")
+    @DecimalMax("180")
+    private Double longitude;
+
+    public ResponderKind getKind() {
+        return kind;
+    }
+
+    public void setKind(ResponderKind kind) {
+        this.kind = kind;
+    }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+}
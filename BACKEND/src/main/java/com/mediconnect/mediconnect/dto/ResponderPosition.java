@@ -0,0 +1,14 @@
+package com.mediconnect.mediconnect.dto;
+
+import com.mediconnect.mediconnect.model.ResponderKind;
+
+/**
+ * An available responder near a point, for map views.
+ */
+public record ResponderPosition(
+        Long responderId,
+        ResponderKind kind,
+        double latitude,
+        double longitude,
+        double distanceKm) {
+}
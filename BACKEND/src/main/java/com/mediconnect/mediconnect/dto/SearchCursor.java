@@ -0,0 +1,54 @@
+package com.mediconnect.mediconnect.dto;
+
+import com.mediconnect.mediconnect.exception.InvalidInputException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a list of search results ordered by (rank DESC, id DESC).
+ * Sent to clients as an opaque URL-safe string.
+ */
+public class SearchCursor {
+    private final float rank;
+    private final Long id;
+
+    public SearchCursor(float rank, Long id) {
+        this.rank = rank;
+        this.id = id;
+    }
+
+    public float getRank() {
+        return rank;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String encode() {
+        // Float.toString round-trips exactly, so the next page resumes at the same rank
+        String raw = rank + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parse a cursor received from a client
+     *
+     * @param cursor the encoded cursor, or null for the first page
+     * @return the cursor, or null if none was given
+     */
+    public static SearchCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new SearchCursor(Float.parseFloat(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException ex) {
+            throw new InvalidInputException("Invalid cursor");
+        }
+    }
+}
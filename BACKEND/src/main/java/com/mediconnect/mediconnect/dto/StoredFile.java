@@ -0,0 +1,40 @@
+package com.mediconnect.mediconnect.dto;
+
+/**
+ * Describes a file written to the object store.
+ */
+public class StoredFile {
+    private final String key;
+    private final String url;
+    private final String contentType;
+    private final long size;
+    private final String sha256;
+
+    public StoredFile(String key, String url, String contentType, long size, String sha256) {
+        this.key = key;
+        this.url = url;
+        this.contentType = contentType;
+        this.size = size;
+        this.sha256 = sha256;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+}
@@ -0,0 +1,8 @@
+package com.mediconnect.mediconnect.exception;
+/*Thrown when an endpoint that serves per-user data is called without a valid access token. */
+public class AuthenticationRequiredException extends RuntimeException {
+
+    public AuthenticationRequiredException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.mediconnect.mediconnect.exception;
+/*Thrown when an uploaded file exceeds the configured storage limit. */
+public class FileTooLargeException extends InvalidInputException {
+
+    public FileTooLargeException(long maxBytes) {
+        super("File exceeds the maximum allowed size of " + maxBytes + " bytes");
+    }
+}
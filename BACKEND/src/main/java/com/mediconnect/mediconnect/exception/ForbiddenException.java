@@ -0,0 +1,8 @@
+package com.mediconnect.mediconnect.exception;
+/*Thrown when the authenticated user asks for data that belongs to someone else. */
+public class ForbiddenException extends RuntimeException {
+
+    public ForbiddenException(String message) {
+        super(message);
+    }
+}
@@ -1,5 +1,8 @@
 package com.mediconnect.mediconnect.exception;
 /*Used when input validation fails or business rules are violated. */
-public class InvalidInputException {
+public class InvalidInputException extends RuntimeException {
 
+    public InvalidInputException(String message) {
+        super(message);
+    }
 }
@@ -0,0 +1,9 @@
+package com.mediconnect.mediconnect.exception;
+/*Thrown when an appointment or report is asked to move to a status its current
+status does not allow (e.g. completing a cancelled appointment). */
+public class InvalidStatusTransitionException extends RuntimeException {
+
+    public InvalidStatusTransitionException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.mediconnect.mediconnect.exception;
+/*Thrown when a refresh token is malformed, expired, revoked or reused. */
+public class InvalidTokenException extends RuntimeException {
+
+    public InvalidTokenException(String message) {
+        super(message);
+    }
+}
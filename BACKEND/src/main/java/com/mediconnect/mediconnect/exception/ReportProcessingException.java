@@ -0,0 +1,13 @@
+package com.mediconnect.mediconnect.exception;
+/*Thrown by a report pipeline stage when the file itself is unacceptable (wrong type,
+corrupt, checksum mismatch). Retrying cannot help, so the report is marked FAILED. */
+public class ReportProcessingException extends RuntimeException {
+
+    public ReportProcessingException(String message) {
+        super(message);
+    }
+
+    public ReportProcessingException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -1,6 +1,9 @@
 package com.mediconnect.mediconnect.exception;
 /*Thrown when a requested entity (e.g., User, Appointment) is not found in the database. */
 
-public class ResourceNotFoundException {
+public class ResourceNotFoundException extends RuntimeException {
 
+    public ResourceNotFoundException(String message) {
+        super(message);
+    }
 }
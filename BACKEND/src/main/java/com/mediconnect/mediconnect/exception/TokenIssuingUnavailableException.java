@@ -0,0 +1,8 @@
+package com.mediconnect.mediconnect.exception;
+/*Thrown when login or refresh reaches a node that only verifies tokens; clients must use an auth node. */
+public class TokenIssuingUnavailableException extends RuntimeException {
+
+    public TokenIssuingUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,15 @@
+package com.mediconnect.mediconnect.exception;
+/*Thrown when a bounded worker pool is saturated; the client should retry after the given delay. */
+public class TooManyRequestsException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
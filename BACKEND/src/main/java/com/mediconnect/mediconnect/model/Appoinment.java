@@ -18,17 +18,19 @@ import java.time.LocalDateTime;
 @Builder
 public class Appoinment {
 
+    // Pooled sequence (50 IDs per round trip) so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "appointments_seq")
+    @SequenceGenerator(name = "appointments_seq", sequenceName = "appointments_seq", allocationSize = 50)
     private Long id;
     
     @NotNull
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "patient_id", nullable = false)
     private User patient;
     
     @NotNull
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "doctor_id", nullable = false)
     private User doctor;
     
@@ -46,6 +48,10 @@ public class Appoinment {
     @Column(length = 500)
     private String notes;
     
+    // Bumped on every update; concurrent read-modify-write of the same row fails instead of overwriting
+    @Version
+    private Long version;
+    
     /**
      * Enum for different appointment statuses
      */
@@ -54,6 +60,21 @@ public class Appoinment {
         CONFIRMED,
         COMPLETED,
         CANCELLED,
-        NO_SHOW
+        NO_SHOW;
+        
+        /**
+         * Whether an appointment in this status may move to the given one.
+         * COMPLETED, CANCELLED and NO_SHOW are final.
+         * 
+         * @param next The requested status
+         * @return true if the transition is allowed
+         */
+        public boolean canTransitionTo(AppointmentStatus next) {
+            return switch (this) {
+                case SCHEDULED -> next == CONFIRMED || next == COMPLETED || next == CANCELLED || next == NO_SHOW;
+                case CONFIRMED -> next == COMPLETED || next == CANCELLED || next == NO_SHOW;
+                case COMPLETED, CANCELLED, NO_SHOW -> false;
+            };
+        }
     }
 }
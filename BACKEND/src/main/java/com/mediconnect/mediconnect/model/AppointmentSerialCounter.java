@@ -0,0 +1,45 @@
+package com.mediconnect.mediconnect.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Holds the last serial number handed out for a doctor on a given day.
+ * One row per (doctor, date), incremented atomically when an appointment is booked.
+ */
+@Entity
+@Table(name = "appointment_serial_counters")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AppointmentSerialCounter {
+
+    @EmbeddedId
+    private CounterId id;
+
+    @Column(name = "last_serial", nullable = false)
+    private Integer lastSerial;
+
+    /**
+     * Composite key of a serial counter (doctor ID and appointment date)
+     */
+    @Embeddable
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class CounterId implements Serializable {
+
+        @Column(name = "doctor_id", nullable = false)
+        private Long doctorId;
+
+        @Column(name = "appointment_date", nullable = false)
+        private LocalDate appointmentDate;
+    }
+}
@@ -1,5 +1,57 @@
 package com.mediconnect.mediconnect.model;
 /*Represents messages exchanged with the AI chatbot or between users. */
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * One message in a conversation, numbered from 0 by seq.
+ * Written by ChatHistoryService in batches through JDBC, never through the entity manager.
+ */
+@Entity
+@Table(name = "chat_messages")
+@IdClass(ChatMessage.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
 public class ChatMessage {
 
+    @Id
+    @Column(name = "conversation_id", length = 64)
+    private String conversationId;
+
+    @Id
+    private Integer seq;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Sender sender;
+
+    @Column(name = "sender_id")
+    private Long senderId;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String content;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public enum Sender {
+        USER,
+        BOT
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private String conversationId;
+        private Integer seq;
+    }
 }
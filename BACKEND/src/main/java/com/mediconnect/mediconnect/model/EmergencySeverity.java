@@ -0,0 +1,11 @@
+package com.mediconnect.mediconnect.model;
+
+/**
+ * Enum for emergency severities, most severe first.
+ */
+public enum EmergencySeverity {
+    CRITICAL,
+    HIGH,
+    MODERATE,
+    LOW
+}
@@ -19,21 +19,23 @@ import java.time.LocalDateTime;
 @Builder
 public class Medicalreport {
 
+    // Pooled sequence (50 IDs per round trip) so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "medical_reports_seq")
+    @SequenceGenerator(name = "medical_reports_seq", sequenceName = "medical_reports_seq", allocationSize = 50)
     private Long id;
     
     @NotNull
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "patient_id", nullable = false)
     private User patient;
     
     @NotNull
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "doctor_id", nullable = false)
     private User doctor;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "appointment_id")
     private Appoinment appointment;
     
@@ -54,6 +56,25 @@ public class Medicalreport {
     @Column(name = "file_size")
     private Long fileSize;
     
+    @Column(name = "storage_key")
+    private String storageKey;
+    
+    @Column(name = "checksum", length = 64)
+    private String checksum;
+    
+    // Filled in by the processing pipeline
+    @Column(name = "mime_type")
+    private String mimeType;
+    
+    @Column(name = "preview_key")
+    private String previewKey;
+    
+    @Column(name = "extracted_text", columnDefinition = "TEXT")
+    private String extractedText;
+    
+    @Column(name = "processing_error", length = 1000)
+    private String processingError;
+    
     @NotNull
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt;
@@ -65,14 +86,42 @@ public class Medicalreport {
     @Enumerated(EnumType.STRING)
     private ReportStatus status;
     
+    // Bumped on every update; concurrent read-modify-write of the same row fails instead of overwriting
+    @Version
+    private Long version;
+    
     /**
      * Enum for different report statuses
      */
     public enum ReportStatus {
         DRAFT,
         SUBMITTED,
+        PROCESSING,
+        PROCESSED,
+        FAILED,
         REVIEWED,
         APPROVED,
-        REJECTED
+        REJECTED;
+        
+        /**
+         * Whether a report in this status may move to the given one. Reports that
+         * never went through the processing pipeline (imported, linked by URL) can be
+         * reviewed straight from SUBMITTED. APPROVED and REJECTED are final.
+         * 
+         * @param next The requested status
+         * @return true if the transition is allowed
+         */
+        public boolean canTransitionTo(ReportStatus next) {
+            return switch (this) {
+                case DRAFT -> next == SUBMITTED;
+                case SUBMITTED -> next == PROCESSING || next == FAILED
+                        || next == REVIEWED || next == APPROVED || next == REJECTED;
+                case PROCESSING -> next == PROCESSED || next == FAILED;
+                case PROCESSED -> next == REVIEWED || next == APPROVED || next == REJECTED;
+                case FAILED -> next == REJECTED;
+                case REVIEWED -> next == APPROVED || next == REJECTED;
+                case APPROVED, REJECTED -> false;
+            };
+        }
     }
 }
@@ -1,5 +1,102 @@
 package com.mediconnect.mediconnect.model;
 /* Stores digital prescriptions issued by doctors linked to appointments and patients.*/
-public class Pescription {
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
 
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One version of a prescription, numbered from 1.
+ *
+ * Versions are never edited: a revision or cancellation inserts the next version
+ * and stamps superseded_at on the previous one, so the row a pharmacy dispensed
+ * against stays as it was. The current version is the one without superseded_at.
+ * Participants are plain IDs so a version is read without joins.
+ */
+@Entity
+@Table(name = "prescriptions")
+@IdClass(Pescription.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Pescription implements Persistable<Pescription.Key> {
+
+    @Id
+    @Column(name = "prescription_id")
+    private Long prescriptionId;
+
+    @Id
+    private Integer version;
+
+    @Column(name = "patient_id", nullable = false, updatable = false)
+    private Long patientId;
+
+    @Column(name = "doctor_id", nullable = false, updatable = false)
+    private Long doctorId;
+
+    @Column(name = "appointment_id", updatable = false)
+    private Long appointmentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16, updatable = false)
+    private PrescriptionStatus status;
+
+    @Convert(converter = PrescriptionItemsConverter.class)
+    @Column(nullable = false, updatable = false)
+    private List<PrescriptionItem> items;
+
+    @Column(length = 1000, updatable = false)
+    private String notes;
+
+    @Column(name = "valid_until", nullable = false, updatable = false)
+    private LocalDate validUntil;
+
+    @Column(name = "issued_at", nullable = false, updatable = false)
+    private LocalDateTime issuedAt;
+
+    @Column(name = "superseded_at")
+    private LocalDateTime supersededAt;
+
+    // Keys are assigned, so tell Spring Data to insert new versions without a lookup first
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean persisted;
+
+    @Override
+    public Key getId() {
+        return new Key(prescriptionId, version);
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        persisted = true;
+    }
+
+    public enum PrescriptionStatus {
+        ACTIVE,
+        CANCELLED
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private Long prescriptionId;
+        private Integer version;
+    }
 }
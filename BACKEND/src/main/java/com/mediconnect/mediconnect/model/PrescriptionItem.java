@@ -0,0 +1,27 @@
+package com.mediconnect.mediconnect.model;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+/**
+ * One medicine on a prescription. Stored inside the prescription row, encoded by
+ * {@link PrescriptionItemsConverter}.
+ *
+ * @param drug         Medicine name and strength, e.g. "Amoxicillin 500 mg"
+ * @param dose         Amount per intake, e.g. "1 capsule"
+ * @param frequency    How often, e.g. "every 8 hours"
+ * @param durationDays Days of treatment
+ * @param quantity     Units to dispense
+ * @param refills      Refills allowed after the first fill
+ * @param instructions Extra directions, e.g. "after meals"
+ */
+public record PrescriptionItem(
+        @NotBlank @Size(max = 255) String drug,
+        @NotBlank @Size(max = 100) String dose,
+        @NotBlank @Size(max = 100) String frequency,
+        @Min(1) Integer durationDays,
+        @Min(1) Integer quantity,
+        @Min(0) Integer refills,
+        @Size(max = 500) String instructions) {
+}
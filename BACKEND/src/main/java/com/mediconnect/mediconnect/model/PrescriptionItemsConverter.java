@@ -0,0 +1,143 @@
+package com.mediconnect.mediconnect.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stores a prescription's items in one BYTEA column instead of a child table, so
+ * a prescription is a single row read.
+ *
+ * Layout: a format byte, the item count, then per item its fields in record order.
+ * Counts and numbers are unsigned varints; strings are their UTF-8 length as a
+ * varint followed by the bytes. Nullable fields are stored as value + 1, with 0
+ * meaning null. A typical three-item prescription takes well under 200 bytes.
+ */
+@Converter
+public class PrescriptionItemsConverter implements AttributeConverter<List<PrescriptionItem>, byte[]> {
+
+    private static final byte FORMAT_V1 = 1;
+
+    @Override
+    public byte[] convertToDatabaseColumn(List<PrescriptionItem> items) {
+        if (items == null) {
+            return null;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + items.size() * 48);
+        out.write(FORMAT_V1);
+        writeVarint(out, items.size());
+        for (PrescriptionItem item : items) {
+            writeString(out, item.drug());
+            writeString(out, item.dose());
+            writeString(out, item.frequency());
+            writeNumber(out, item.durationDays());
+            writeNumber(out, item.quantity());
+            writeNumber(out, item.refills());
+            writeString(out, item.instructions());
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public List<PrescriptionItem> convertToEntityAttribute(byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        ByteBuffer in = ByteBuffer.wrap(data);
+        try {
+            byte format = in.get();
+            if (format != FORMAT_V1) {
+                throw new IllegalArgumentException("Unknown prescription items format " + format);
+            }
+            int count = readLength(in);
+            List<PrescriptionItem> items = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                items.add(new PrescriptionItem(
+                        readString(in),
+                        readString(in),
+                        readString(in),
+                        readNumber(in),
+                        readNumber(in),
+                        readNumber(in),
+                        readString(in)));
+            }
+            if (in.hasRemaining()) {
+                throw new IllegalArgumentException("Trailing bytes after prescription items");
+            }
+            return List.copyOf(items);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Truncated prescription items", e);
+        }
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            writeVarint(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length + 1L);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static void writeNumber(ByteArrayOutputStream out, Integer value) {
+        if (value != null && value < 0) {
+            throw new IllegalArgumentException("Negative prescription item number " + value);
+        }
+        writeVarint(out, value == null ? 0 : value + 1L);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = readLength(in);
+        if (length == 0) {
+            return null;
+        }
+        length--;
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    private static Integer readNumber(ByteBuffer in) {
+        long value = readVarint(in);
+        if (value > (long) Integer.MAX_VALUE + 1) {
+            throw new IllegalArgumentException("Prescription item number out of range");
+        }
+        return value == 0 ? null : (int) (value - 1);
+    }
+
+    // A count or string length, which can never exceed the bytes left
+    private static int readLength(ByteBuffer in) {
+        long value = readVarint(in);
+        if (value > in.remaining() + 1L) {
+            throw new IllegalArgumentException("Truncated prescription items");
+        }
+        return (int) value;
+    }
+
+    private static long readVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint in prescription items");
+    }
+}
@@ -0,0 +1,10 @@
+package com.mediconnect.mediconnect.model;
+
+/**
+ * Enum for the kinds of emergency responders.
+ */
+public enum ResponderKind {
+    DOCTOR,
+    AMBULANCE,
+    FACILITY
+}
@@ -1,7 +1,10 @@
 package com.mediconnect.mediconnect.repository;
 
+import com.mediconnect.mediconnect.dto.AppointmentSummary;
 import com.mediconnect.mediconnect.model.Appoinment;
 import com.mediconnect.mediconnect.model.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -14,7 +17,23 @@ import java.util.Optional;
  * Repository interface for managing appointments
  */
 @Repository
-public interface AppointmentRepository extends JpaRepository<Appoinment, Long> {
+public interface AppointmentRepository extends JpaRepository<Appoinment, Long>, AppointmentStatusTransitions {
+    
+    /**
+     * Select clause for appointment list views: one joined statement, no password hashes
+     */
+    String SUMMARY_SELECT = "SELECT new com.mediconnect.mediconnect.dto.AppointmentSummary("
+            + "a.id, p.id, p.name, d.id, d.name, a.appointmentDateTime, a.serialNumber, a.status, a.notes) "
+            + "FROM Appoinment a JOIN a.patient p JOIN a.doctor d ";
+    
+    /**
+     * Find an appointment with its patient and doctor loaded in the same query
+     * 
+     * @param id The appointment ID
+     * @return The appointment, if it exists
+     */
+    @EntityGraph(attributePaths = {"patient", "doctor"})
+    Optional<Appoinment> findWithParticipantsById(Long id);
     
     /**
      * Find all appointments for a specific doctor between two dates, ordered by serial number
@@ -24,16 +43,68 @@ public interface AppointmentRepository extends JpaRepository<Appoinment, Long> {
      * @param endDateTime End date and time
      * @return List of appointments
      */
-    List<Appoinment> findByDoctorAndAppointmentDateTimeBetweenOrderBySerialNumber(
+    @Query(SUMMARY_SELECT + "WHERE d = :doctor "
+            + "AND a.appointmentDateTime BETWEEN :startDateTime AND :endDateTime ORDER BY a.serialNumber")
+    List<AppointmentSummary> findByDoctorAndAppointmentDateTimeBetweenOrderBySerialNumber(
             User doctor, LocalDateTime startDateTime, LocalDateTime endDateTime);
     
     /**
-     * Find all appointments for a specific patient ordered by appointment date and time (descending)
+     * Find all appointments for a doctor (by ID) between two dates, ordered by serial number
      * 
-     * @param patient The patient
+     * @param doctorId The doctor ID
+     * @param startDateTime Start date and time
+     * @param endDateTime End date and time
+     * @return List of appointment summaries
+     */
+    @Query(SUMMARY_SELECT + "WHERE d.id = :doctorId "
+            + "AND a.appointmentDateTime BETWEEN :startDateTime AND :endDateTime ORDER BY a.serialNumber")
+    List<AppointmentSummary> findDoctorDay(Long doctorId, LocalDateTime startDateTime, LocalDateTime endDateTime);
+    
+    /**
+     * Find all appointments for a doctor (by ID) between two dates
+     * 
+     * @param doctorId The doctor ID
+     * @param startDateTime Start date and time
+     * @param endDateTime End date and time
      * @return List of appointments
      */
-    List<Appoinment> findByPatientOrderByAppointmentDateTimeDesc(User patient);
+    List<Appoinment> findByDoctorIdAndAppointmentDateTimeBetween(
+            Long doctorId, LocalDateTime startDateTime, LocalDateTime endDateTime);
+    
+    /**
+     * Check whether a doctor has ever had an appointment with a patient
+     * 
+     * @param patientId The patient ID
+     * @param doctorId The doctor ID
+     * @return true if at least one appointment links them
+     */
+    boolean existsByPatientIdAndDoctorId(Long patientId, Long doctorId);
+    
+    /**
+     * Find the latest appointments of a patient (first page)
+     * 
+     * @param patientId The patient ID
+     * @param page Page size limit
+     * @return List of appointments, latest first
+     */
+    @Query(SUMMARY_SELECT + "WHERE p.id = :patientId "
+            + "ORDER BY a.appointmentDateTime DESC, a.id DESC")
+    List<AppointmentSummary> findPatientPage(Long patientId, Pageable page);
+    
+    /**
+     * Find the appointments of a patient that come after a cursor position
+     * 
+     * @param patientId The patient ID
+     * @param appointmentDateTime Date and time of the last appointment already returned
+     * @param id ID of the last appointment already returned
+     * @param page Page size limit
+     * @return List of appointments, latest first
+     */
+    @Query(SUMMARY_SELECT + "WHERE p.id = :patientId "
+            + "AND (a.appointmentDateTime < :appointmentDateTime "
+            + "OR (a.appointmentDateTime = :appointmentDateTime AND a.id < :id)) "
+            + "ORDER BY a.appointmentDateTime DESC, a.id DESC")
+    List<AppointmentSummary> findPatientPageAfter(Long patientId, LocalDateTime appointmentDateTime, Long id, Pageable page);
     
     /**
      * Find the maximum serial number for a specific doctor on a specific date
@@ -0,0 +1,69 @@
+package com.mediconnect.mediconnect.repository;
+
+import com.mediconnect.mediconnect.model.AppointmentSerialCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Repository for the per-(doctor, date) appointment serial counters
+ */
+@Repository
+public interface AppointmentSerialCounterRepository
+        extends JpaRepository<AppointmentSerialCounter, AppointmentSerialCounter.CounterId> {
+
+    /**
+     * Atomically increment an existing counter and return the new value
+     *
+     * @param doctorId The doctor ID
+     * @param date The appointment date
+     * @return The incremented serial number, or empty if no counter exists yet for that day
+     */
+    @Query(value = "UPDATE appointment_serial_counters SET last_serial = last_serial + 1 "
+            + "WHERE doctor_id = :doctorId AND appointment_date = :date "
+            + "RETURNING last_serial", nativeQuery = true)
+    Optional<Integer> incrementAndGet(Long doctorId, LocalDate date);
+
+    /**
+     * Create the counter for a day, seeded from appointments that already exist for it.
+     * If another transaction created the row first, the conflict turns this into an increment.
+     *
+     * @param doctorId The doctor ID
+     * @param date The appointment date
+     * @param startOfDay Start of the day (inclusive)
+     * @param startOfNextDay Start of the following day (exclusive)
+     * @return The allocated serial number
+     */
+    @Query(value = "INSERT INTO appointment_serial_counters (doctor_id, appointment_date, last_serial) "
+            + "VALUES (:doctorId, :date, COALESCE((SELECT MAX(a.serial_number) FROM appointments a "
+            + "WHERE a.doctor_id = :doctorId AND a.appointment_date_time >= :startOfDay "
+            + "AND a.appointment_date_time < :startOfNextDay), 0) + 1) "
+            + "ON CONFLICT (doctor_id, appointment_date) "
+            + "DO UPDATE SET last_serial = appointment_serial_counters.last_serial + 1 "
+            + "RETURNING last_serial", nativeQuery = true)
+    Integer insertOrIncrement(Long doctorId, LocalDate date,
+                              LocalDateTime startOfDay, LocalDateTime startOfNextDay);
+
+    /**
+     * Raise counters to the highest serial stored in the appointments table for every
+     * (doctor, day) in a date range. Used after bulk imports that carry their own serials.
+     *
+     * @param from Start of the range (inclusive)
+     * @param to End of the range (exclusive)
+     * @return Number of counters created or updated
+     */
+    @Modifying
+    @Query(value = "INSERT INTO appointment_serial_counters (doctor_id, appointment_date, last_serial) "
+            + "SELECT a.doctor_id, CAST(a.appointment_date_time AS date), MAX(a.serial_number) "
+            + "FROM appointments a WHERE a.appointment_date_time >= :from AND a.appointment_date_time < :to "
+            + "GROUP BY a.doctor_id, CAST(a.appointment_date_time AS date) "
+            + "ON CONFLICT (doctor_id, appointment_date) "
+            + "DO UPDATE SET last_serial = GREATEST(appointment_serial_counters.last_serial, EXCLUDED.last_serial)",
+            nativeQuery = true)
+    int syncWithAppointments(LocalDateTime from, LocalDateTime to);
+}
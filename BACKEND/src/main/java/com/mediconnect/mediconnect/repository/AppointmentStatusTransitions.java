@@ -0,0 +1,23 @@
+package com.mediconnect.mediconnect.repository;
+
+import com.mediconnect.mediconnect.dto.AppointmentSummary;
+import com.mediconnect.mediconnect.model.Appoinment.AppointmentStatus;
+
+import java.util.Optional;
+
+/**
+ * Conditional status updates for appointments, mixed into {@link AppointmentRepository}
+ */
+public interface AppointmentStatusTransitions {
+
+    /**
+     * Move an appointment to a new status in one statement, but only if its current
+     * status allows the transition. The check happens in the UPDATE itself, so two
+     * concurrent transitions can never both succeed from the same state.
+     *
+     * @param appointmentId The appointment ID
+     * @param status        The new status
+     * @return The updated appointment, or empty if it does not exist or its status does not allow the move
+     */
+    Optional<AppointmentSummary> transitionStatus(Long appointmentId, AppointmentStatus status);
+}
@@ -0,0 +1,60 @@
+package com.mediconnect.mediconnect.repository;
+
+import com.mediconnect.mediconnect.dto.AppointmentSummary;
+import com.mediconnect.mediconnect.model.Appoinment.AppointmentStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * UPDATE ... RETURNING through JDBC: the transition check, the version bump and
+ * the read-back of the list view happen in a single round trip.
+ */
+class AppointmentStatusTransitionsImpl implements AppointmentStatusTransitions {
+
+    private static final String TRANSITION_SQL = "UPDATE appointments a SET status = ?, version = a.version + 1 "
+            + "FROM users p, users d "
+            + "WHERE a.id = ? AND a.status = ANY (?) AND p.id = a.patient_id AND d.id = a.doctor_id "
+            + "RETURNING a.id, p.id AS patient_id, p.full_name AS patient_name, d.id AS doctor_id, "
+            + "d.full_name AS doctor_name, a.appointment_date_time, a.serial_number, a.status, a.notes";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    AppointmentStatusTransitionsImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public Optional<AppointmentSummary> transitionStatus(Long appointmentId, AppointmentStatus status) {
+        String[] from = Arrays.stream(AppointmentStatus.values())
+                .filter(s -> s.canTransitionTo(status))
+                .map(Enum::name)
+                .toArray(String[]::new);
+        if (from.length == 0) {
+            return Optional.empty();
+        }
+
+        List<AppointmentSummary> rows = jdbcTemplate.query(TRANSITION_SQL,
+                ps -> {
+                    ps.setString(1, status.name());
+                    ps.setLong(2, appointmentId);
+                    ps.setArray(3, ps.getConnection().createArrayOf("varchar", from));
+                },
+                (rs, row) -> new AppointmentSummary(
+                        rs.getLong("id"),
+                        rs.getLong("patient_id"),
+                        rs.getString("patient_name"),
+                        rs.getLong("doctor_id"),
+                        rs.getString("doctor_name"),
+                        rs.getObject("appointment_date_time", LocalDateTime.class),
+                        rs.getInt("serial_number"),
+                        AppointmentStatus.valueOf(rs.getString("status")),
+                        rs.getString("notes")));
+        return rows.stream().findFirst();
+    }
+}
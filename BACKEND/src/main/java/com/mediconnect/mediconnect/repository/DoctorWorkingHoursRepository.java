@@ -0,0 +1,22 @@
+package com.mediconnect.mediconnect.repository;
+
+import com.mediconnect.mediconnect.model.DoctorWorkingHours;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository interface for doctors' weekly working-hour templates
+ */
+@Repository
+public interface DoctorWorkingHoursRepository extends JpaRepository<DoctorWorkingHours, Long> {
+
+    /**
+     * Find all working-hour templates of a doctor
+     *
+     * @param doctorId The doctor ID
+     * @return List of templates, at most one per day of the week
+     */
+    List<DoctorWorkingHours> findByDoctorId(Long doctorId);
+}
@@ -1,34 +1,117 @@
 package com.mediconnect.mediconnect.repository;
 
+import com.mediconnect.mediconnect.dto.MedicalReportSummary;
 import com.mediconnect.mediconnect.model.Appoinment;
 import com.mediconnect.mediconnect.model.Medicalreport;
 import com.mediconnect.mediconnect.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
  * Repository interface for managing medical reports
  */
 @Repository
-public interface MedicalReportRepository extends JpaRepository<Medicalreport, Long> {
+public interface MedicalReportRepository extends JpaRepository<Medicalreport, Long>, ReportStatusTransitions {
     
     /**
-     * Find all reports for a specific patient ordered by creation date
+     * Select clause for report list views: one joined statement, no password hashes
+     */
+    String SUMMARY_SELECT = "SELECT new com.mediconnect.mediconnect.dto.MedicalReportSummary("
+            + "r.id, p.id, p.name, d.id, d.name, a.id, r.title, r.description, r.fileUrl, "
+            + "r.fileType, r.fileSize, r.previewKey, r.status, r.createdAt, r.updatedAt) "
+            + "FROM Medicalreport r JOIN r.patient p JOIN r.doctor d LEFT JOIN r.appointment a ";
+    
+    /**
+     * Ranked full-text matches of one doctor's reports, before the keyset condition and limit
+     */
+    String SEARCH_HITS = "SELECT r.id AS id, ts_rank_cd(r.search_vector, q) AS rank "
+            + "FROM medical_reports r, websearch_to_tsquery('english', :query) q "
+            + "WHERE r.doctor_id = :doctorId AND r.search_vector @@ q";
+    
+    /**
+     * ID and relevance of a search match
+     */
+    interface SearchHit {
+        Long getId();
+        
+        Float getRank();
+    }
+    
+    /**
+     * Patient and doctor of a report that a stored file belongs to
+     */
+    interface FileOwner {
+        Long getPatientId();
+        
+        Long getDoctorId();
+    }
+    
+    /**
+     * Find the reports a stored file belongs to, as their upload or their preview
      * 
-     * @param patient The patient
-     * @return List of medical reports
+     * @param key The object key
+     * @param fileUrl The download URL of the key, for reports that only record that
+     * @return Patient and doctor of each matching report
      */
-    List<Medicalreport> findByPatientOrderByCreatedAtDesc(User patient);
+    @Query("SELECT r.patient.id AS patientId, r.doctor.id AS doctorId FROM Medicalreport r "
+            + "WHERE r.storageKey = :key OR r.previewKey = :key OR r.fileUrl = :fileUrl")
+    List<FileOwner> findFileOwners(String key, String fileUrl);
     
     /**
-     * Find all reports created by a specific doctor ordered by creation date
+     * Find the newest reports of a patient (first page)
      * 
-     * @param doctor The doctor
-     * @return List of medical reports
+     * @param patientId The patient ID
+     * @param page Page size limit
+     * @return List of medical reports, newest first
+     */
+    @Query(SUMMARY_SELECT + "WHERE p.id = :patientId "
+            + "ORDER BY r.createdAt DESC, r.id DESC")
+    List<MedicalReportSummary> findPatientPage(Long patientId, Pageable page);
+    
+    /**
+     * Find the reports of a patient that come after a cursor position
+     * 
+     * @param patientId The patient ID
+     * @param createdAt Creation time of the last report already returned
+     * @param id ID of the last report already returned
+     * @param page Page size limit
+     * @return List of medical reports, newest first
      */
-    List<Medicalreport> findByDoctorOrderByCreatedAtDesc(User doctor);
+    @Query(SUMMARY_SELECT + "WHERE p.id = :patientId "
+            + "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) "
+            + "ORDER BY r.createdAt DESC, r.id DESC")
+    List<MedicalReportSummary> findPatientPageAfter(Long patientId, LocalDateTime createdAt, Long id, Pageable page);
+    
+    /**
+     * Find the newest reports created by a doctor (first page)
+     * 
+     * @param doctorId The doctor ID
+     * @param page Page size limit
+     * @return List of medical reports, newest first
+     */
+    @Query(SUMMARY_SELECT + "WHERE d.id = :doctorId "
+            + "ORDER BY r.createdAt DESC, r.id DESC")
+    List<MedicalReportSummary> findDoctorPage(Long doctorId, Pageable page);
+    
+    /**
+     * Find the reports created by a doctor that come after a cursor position
+     * 
+     * @param doctorId The doctor ID
+     * @param createdAt Creation time of the last report already returned
+     * @param id ID of the last report already returned
+     * @param page Page size limit
+     * @return List of medical reports, newest first
+     */
+    @Query(SUMMARY_SELECT + "WHERE d.id = :doctorId "
+            + "AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :id)) "
+            + "ORDER BY r.createdAt DESC, r.id DESC")
+    List<MedicalReportSummary> findDoctorPageAfter(Long doctorId, LocalDateTime createdAt, Long id, Pageable page);
     
     /**
      * Find all reports for a specific appointment ordered by creation date
@@ -36,5 +119,43 @@ public interface MedicalReportRepository extends JpaRepository<Medicalreport, Lo
      * @param appointment The appointment
      * @return List of medical reports
      */
-    List<Medicalreport> findByAppointmentOrderByCreatedAtDesc(Appoinment appointment);
-}
\ No newline at end of file
+    @Query(SUMMARY_SELECT + "WHERE a = :appointment ORDER BY r.createdAt DESC, r.id DESC")
+    List<MedicalReportSummary> findByAppointmentOrderByCreatedAtDesc(Appoinment appointment);
+    
+    /**
+     * Search a doctor's reports (first page). The query uses web search syntax:
+     * quoted phrases, OR, and -excluded words.
+     * 
+     * @param doctorId The doctor ID
+     * @param query The search text
+     * @param limit Max hits
+     * @return Matches, most relevant first
+     */
+    @Query(value = "SELECT id, rank FROM (" + SEARCH_HITS + ") hits "
+            + "ORDER BY rank DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<SearchHit> searchDoctorReports(Long doctorId, String query, int limit);
+    
+    /**
+     * Search a doctor's reports, continuing after a cursor position
+     * 
+     * @param doctorId The doctor ID
+     * @param query The search text
+     * @param rank Rank of the last hit already returned
+     * @param id ID of the last hit already returned
+     * @param limit Max hits
+     * @return Matches, most relevant first
+     */
+    @Query(value = "SELECT id, rank FROM (" + SEARCH_HITS + ") hits "
+            + "WHERE rank < :rank OR (rank = :rank AND id < :id) "
+            + "ORDER BY rank DESC, id DESC LIMIT :limit", nativeQuery = true)
+    List<SearchHit> searchDoctorReportsAfter(Long doctorId, String query, float rank, Long id, int limit);
+    
+    /**
+     * Load the list view of the given reports, in no particular order
+     * 
+     * @param ids Report IDs
+     * @return List of medical reports
+     */
+    @Query(SUMMARY_SELECT + "WHERE r.id IN :ids")
+    List<MedicalReportSummary> findSummariesByIdIn(Collection<Long> ids);
+}
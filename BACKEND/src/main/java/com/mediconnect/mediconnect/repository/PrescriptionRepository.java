@@ -1,5 +1,68 @@
 package com.mediconnect.mediconnect.repository;
 // Access digital prescriptions and related data.
-public class PrescriptionRepository {
+import com.mediconnect.mediconnect.model.Pescription;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for prescription versions
+ */
+@Repository
+public interface PrescriptionRepository extends JpaRepository<Pescription, Pescription.Key> {
+
+    /**
+     * Allocate the ID of a new prescription
+     *
+     * @return The next prescription ID
+     */
+    @Query(value = "SELECT nextval('prescriptions_seq')", nativeQuery = true)
+    long nextPrescriptionId();
+
+    /**
+     * Find the current version of a prescription (uk_prescriptions_current)
+     *
+     * @param prescriptionId The prescription ID
+     * @return The current version, if the prescription exists
+     */
+    @Query("SELECT p FROM Pescription p WHERE p.prescriptionId = :prescriptionId AND p.supersededAt IS NULL")
+    Optional<Pescription> findCurrent(Long prescriptionId);
+
+    /**
+     * Find the current versions of a patient's active prescriptions. Native so the
+     * status stays a literal: a bound parameter would keep generic plans from
+     * matching the partial index idx_prescriptions_patient_active.
+     *
+     * @param patientId The patient ID
+     * @return List of prescriptions, newest first
+     */
+    @Query(value = "SELECT * FROM prescriptions WHERE patient_id = :patientId AND status = 'ACTIVE' "
+            + "AND superseded_at IS NULL ORDER BY issued_at DESC", nativeQuery = true)
+    List<Pescription> findActiveByPatient(Long patientId);
+
+    /**
+     * Find every version of a prescription
+     *
+     * @param prescriptionId The prescription ID
+     * @return List of versions, newest first
+     */
+    List<Pescription> findByPrescriptionIdOrderByVersionDesc(Long prescriptionId);
+
+    /**
+     * Mark a version as superseded, if it is still the current one
+     *
+     * @param prescriptionId The prescription ID
+     * @param version The version being replaced
+     * @param supersededAt When the next version was issued
+     * @return 1 if the version was current, 0 if another revision got there first
+     */
+    @Modifying
+    @Query("UPDATE Pescription p SET p.supersededAt = :supersededAt "
+            + "WHERE p.prescriptionId = :prescriptionId AND p.version = :version AND p.supersededAt IS NULL")
+    int supersede(Long prescriptionId, Integer version, LocalDateTime supersededAt);
 }
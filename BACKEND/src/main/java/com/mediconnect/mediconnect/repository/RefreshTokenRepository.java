@@ -0,0 +1,46 @@
+package com.mediconnect.mediconnect.repository;
+
+import com.mediconnect.mediconnect.model.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, String> {
+
+    /**
+     * Mark a token as rotated, only if it is still current
+     * 
+     * @param id The jti being rotated
+     * @param replacedBy The jti of the new token
+     * @param now Current time
+     * @return 1 if this call won the rotation, 0 if the token was already used, revoked or expired
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revoked = true, r.replacedBy = :replacedBy "
+            + "WHERE r.id = :id AND r.revoked = false AND r.expiresAt > :now")
+    int markRotated(String id, String replacedBy, LocalDateTime now);
+
+    /**
+     * Revoke every live token of a family
+     * 
+     * @param familyId The token family
+     * @return Number of tokens revoked
+     */
+    @Modifying
+    @Query("UPDATE RefreshToken r SET r.revoked = true WHERE r.familyId = :familyId AND r.revoked = false")
+    int revokeFamily(String familyId);
+
+    /**
+     * Delete tokens that expired before a cutoff
+     * 
+     * @param cutoff The cutoff
+     * @return Number of tokens deleted
+     */
+    @Modifying
+    @Query("DELETE FROM RefreshToken r WHERE r.expiresAt < :cutoff")
+    int deleteExpired(LocalDateTime cutoff);
+}
@@ -0,0 +1,22 @@
+package com.mediconnect.mediconnect.repository;
+
+import com.mediconnect.mediconnect.dto.MedicalReportSummary;
+import com.mediconnect.mediconnect.model.Medicalreport.ReportStatus;
+
+import java.util.Optional;
+
+/**
+ * Conditional status updates for medical reports, mixed into {@link MedicalReportRepository}
+ */
+public interface ReportStatusTransitions {
+
+    /**
+     * Move a report to a new status in one statement, but only if its current
+     * status allows the transition
+     *
+     * @param reportId The report ID
+     * @param status   The new status
+     * @return The updated report, or empty if it does not exist or its status does not allow the move
+     */
+    Optional<MedicalReportSummary> transitionStatus(Long reportId, ReportStatus status);
+}
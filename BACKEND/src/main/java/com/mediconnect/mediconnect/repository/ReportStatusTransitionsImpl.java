@@ -0,0 +1,70 @@
+package com.mediconnect.mediconnect.repository;
+
+import com.mediconnect.mediconnect.dto.MedicalReportSummary;
+import com.mediconnect.mediconnect.model.Medicalreport.ReportStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * UPDATE ... RETURNING through JDBC: the transition check, the version bump and
+ * the read-back of the list view happen in a single round trip.
+ */
+class ReportStatusTransitionsImpl implements ReportStatusTransitions {
+
+    private static final String TRANSITION_SQL = "UPDATE medical_reports r "
+            + "SET status = ?, updated_at = ?, version = r.version + 1 "
+            + "FROM users p, users d "
+            + "WHERE r.id = ? AND r.status = ANY (?) AND p.id = r.patient_id AND d.id = r.doctor_id "
+            + "RETURNING r.id, p.id AS patient_id, p.full_name AS patient_name, d.id AS doctor_id, "
+            + "d.full_name AS doctor_name, r.appointment_id, r.title, r.description, r.file_url, r.file_type, "
+            + "r.file_size, r.preview_key, r.status, r.created_at, r.updated_at";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    ReportStatusTransitionsImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public Optional<MedicalReportSummary> transitionStatus(Long reportId, ReportStatus status) {
+        String[] from = Arrays.stream(ReportStatus.values())
+                .filter(s -> s.canTransitionTo(status))
+                .map(Enum::name)
+                .toArray(String[]::new);
+        if (from.length == 0) {
+            return Optional.empty();
+        }
+
+        List<MedicalReportSummary> rows = jdbcTemplate.query(TRANSITION_SQL,
+                ps -> {
+                    ps.setString(1, status.name());
+                    ps.setTimestamp(2, Timestamp.valueOf(LocalDateTime.now()));
+                    ps.setLong(3, reportId);
+                    ps.setArray(4, ps.getConnection().createArrayOf("varchar", from));
+                },
+                (rs, row) -> new MedicalReportSummary(
+                        rs.getLong("id"),
+                        rs.getLong("patient_id"),
+                        rs.getString("patient_name"),
+                        rs.getLong("doctor_id"),
+                        rs.getString("doctor_name"),
+                        rs.getObject("appointment_id", Long.class),
+                        rs.getString("title"),
+                        rs.getString("description"),
+                        rs.getString("file_url"),
+                        rs.getString("file_type"),
+                        rs.getObject("file_size", Long.class),
+                        rs.getString("preview_key"),
+                        ReportStatus.valueOf(rs.getString("status")),
+                        rs.getObject("created_at", LocalDateTime.class),
+                        rs.getObject("updated_at", LocalDateTime.class)));
+        return rows.stream().findFirst();
+    }
+}
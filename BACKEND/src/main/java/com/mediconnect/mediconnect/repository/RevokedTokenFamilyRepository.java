@@ -0,0 +1,50 @@
+package com.mediconnect.mediconnect.repository;
+
+import com.mediconnect.mediconnect.model.RevokedTokenFamily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenFamilyRepository extends JpaRepository<RevokedTokenFamily, String> {
+
+    /**
+     * Revoked families that may still have live access tokens
+     * 
+     * @param now Current time
+     * @return List of revoked families
+     */
+    List<RevokedTokenFamily> findByExpiresAtAfter(LocalDateTime now);
+
+    /**
+     * Record a revoked family. Concurrent revocations of the same family (a replayed
+     * token presented several times at once, or a logout racing it) all succeed and
+     * keep the latest expiry.
+     * 
+     * @param familyId The token family
+     * @param revokedAt Time of revocation
+     * @param expiresAt When the family's last access token expires
+     * @return Number of rows inserted or updated
+     */
+    @Modifying
+    @Query(value = "INSERT INTO revoked_token_families (family_id, revoked_at, expires_at) "
+            + "VALUES (:familyId, :revokedAt, :expiresAt) "
+            + "ON CONFLICT (family_id) "
+            + "DO UPDATE SET expires_at = GREATEST(revoked_token_families.expires_at, EXCLUDED.expires_at)",
+            nativeQuery = true)
+    int revoke(String familyId, LocalDateTime revokedAt, LocalDateTime expiresAt);
+
+    /**
+     * Delete revocations whose access tokens have all expired
+     * 
+     * @param now Current time
+     * @return Number of rows deleted
+     */
+    @Modifying
+    @Query("DELETE FROM RevokedTokenFamily f WHERE f.expiresAt <= :now")
+    int deleteExpired(LocalDateTime now);
+}
@@ -3,7 +3,22 @@ import com.mediconnect.mediconnect.model.User;
 
 /* CRUD and query methods for User entity.*/
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     User findByEmail(String email);
+
+    /**
+     * Replace a user's password hash
+     *
+     * @param email The user's email
+     * @param password The new hash
+     * @return 1 if the user exists, otherwise 0
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.email = :email")
+    int updatePassword(String email, String password);
 }
\ No newline at end of file
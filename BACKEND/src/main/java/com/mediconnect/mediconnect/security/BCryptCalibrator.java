@@ -0,0 +1,49 @@
+package com.mediconnect.mediconnect.security;
+/*Picks the BCrypt cost for this hardware from a target hashing latency. */
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+/**
+ * Chooses the highest BCrypt strength whose hash time stays within a latency
+ * budget. Each strength step doubles the work, so one measurement at the
+ * minimum strength is enough to extrapolate the others.
+ */
+public final class BCryptCalibrator {
+
+    private static final Logger log = LoggerFactory.getLogger(BCryptCalibrator.class);
+
+    private static final String PROBE_PASSWORD = "calibration-probe";
+
+    private BCryptCalibrator() {
+    }
+
+    /**
+     * Calibrate the strength against a target
+     *
+     * @param targetMillis Hash latency budget per password
+     * @param minStrength Lowest strength allowed, used even if it exceeds the budget
+     * @param maxStrength Highest strength allowed
+     * @return The chosen strength
+     */
+    public static int calibrate(long targetMillis, int minStrength, int maxStrength) {
+        String salt = BCrypt.gensalt(minStrength);
+        BCrypt.hashpw(PROBE_PASSWORD, salt); // warm up
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw(PROBE_PASSWORD, salt);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        double millis = best / 1_000_000.0;
+        int strength = minStrength;
+        while (strength < maxStrength && millis * 2 <= targetMillis) {
+            millis *= 2;
+            strength++;
+        }
+        log.info("BCrypt strength {} selected (~{} ms per hash, target {} ms)",
+                strength, Math.round(millis), targetMillis);
+        return strength;
+    }
+}
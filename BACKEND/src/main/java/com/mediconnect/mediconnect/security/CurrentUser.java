@@ -0,0 +1,127 @@
+package com.mediconnect.mediconnect.security;
+
+import com.mediconnect.mediconnect.exception.AuthenticationRequiredException;
+import com.mediconnect.mediconnect.exception.ForbiddenException;
+import com.mediconnect.mediconnect.exception.ResourceNotFoundException;
+import com.mediconnect.mediconnect.model.Role;
+import com.mediconnect.mediconnect.model.User;
+import com.mediconnect.mediconnect.repository.AppointmentRepository;
+import com.mediconnect.mediconnect.repository.MedicalReportRepository;
+import com.mediconnect.mediconnect.repository.MedicalReportRepository.FileOwner;
+import com.mediconnect.mediconnect.service.FileStorageService;
+import com.mediconnect.mediconnect.service.UserService;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The user behind the current request, as set by {@link JwtAuthenticationFilter},
+ * and the ownership rules for per-user data.
+ *
+ * The filter chain lets every request through, so endpoints that return one
+ * patient's or one doctor's records check access here before they query:
+ * patients see their own records, doctors see their own and those of patients
+ * they have an appointment with, and admins see everything. Stored files follow
+ * the report they belong to.
+ */
+@Component
+public class CurrentUser {
+
+    private final UserService userService;
+    private final AppointmentRepository appointmentRepository;
+    private final MedicalReportRepository reportRepository;
+
+    public CurrentUser(UserService userService, AppointmentRepository appointmentRepository,
+                       MedicalReportRepository reportRepository) {
+        this.userService = userService;
+        this.appointmentRepository = appointmentRepository;
+        this.reportRepository = reportRepository;
+    }
+
+    /**
+     * Resolve the authenticated user
+     *
+     * @return The user
+     * @throws AuthenticationRequiredException if the request carries no valid access token
+     */
+    public User get() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserDetails principal)) {
+            throw new AuthenticationRequiredException("Authentication required");
+        }
+        User user = userService.findByEmail(principal.getUsername());
+        if (user == null) {
+            throw new AuthenticationRequiredException("Authentication required");
+        }
+        return user;
+    }
+
+    /**
+     * Check that the current user may read a patient's records
+     *
+     * @param patientId The patient ID
+     * @throws ForbiddenException if the user is neither that patient, one of their doctors, nor an admin
+     */
+    public void checkPatientAccess(Long patientId) {
+        if (!canViewPatient(get(), patientId)) {
+            throw new ForbiddenException("Not allowed to view this patient's records");
+        }
+    }
+
+    /**
+     * Check that the current user may download a stored file, through the report it belongs to
+     *
+     * @param key The object key
+     * @throws ResourceNotFoundException if no report refers to the file
+     * @throws ForbiddenException if the user may not view any of those reports
+     */
+    public void checkFileAccess(String key) {
+        User user = get();
+        List<FileOwner> owners = reportRepository.findFileOwners(key, FileStorageService.DOWNLOAD_PATH + key);
+        if (owners.isEmpty()) {
+            throw new ResourceNotFoundException("File not found");
+        }
+        for (FileOwner owner : owners) {
+            if (Objects.equals(user.getId(), owner.getDoctorId()) || canViewPatient(user, owner.getPatientId())) {
+                return;
+            }
+        }
+        throw new ForbiddenException("Not allowed to view this file");
+    }
+
+    /**
+     * Check that the current user is an admin
+     *
+     * @throws ForbiddenException if the user is not an admin
+     */
+    public void checkAdmin() {
+        if (get().getRole() != Role.ADMIN) {
+            throw new ForbiddenException("Admin access required");
+        }
+    }
+
+    /**
+     * Check that the current user may read a doctor's records
+     *
+     * @param doctorId The doctor ID
+     * @throws ForbiddenException if the user is neither that doctor nor an admin
+     */
+    public void checkDoctorAccess(Long doctorId) {
+        User user = get();
+        if (user.getRole() != Role.ADMIN && !(user.getRole() == Role.DOCTOR && Objects.equals(user.getId(), doctorId))) {
+            throw new ForbiddenException("Not allowed to view this doctor's records");
+        }
+    }
+
+    private boolean canViewPatient(User user, Long patientId) {
+        return switch (user.getRole()) {
+            case ADMIN -> true;
+            case PATIENT -> Objects.equals(user.getId(), patientId);
+            case DOCTOR -> appointmentRepository.existsByPatientIdAndDoctorId(patientId, user.getId());
+        };
+    }
+}
@@ -0,0 +1,90 @@
+package com.mediconnect.mediconnect.security;
+
+import java.math.BigInteger;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Conversion between P-256 public keys and their JWK form (RFC 7518, section 6.2).
+ */
+public final class EcJwk {
+
+    private static final int COORDINATE_BYTES = 32;
+    private static final ECParameterSpec P256 = p256();
+
+    private EcJwk() {
+    }
+
+    /**
+     * Encode a P-256 public key as a JWK.
+     *
+     * @param keyId the kid
+     * @param key   the public key
+     * @return JWK members
+     */
+    public static Map<String, Object> toJwk(String keyId, ECPublicKey key) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kty", "EC");
+        jwk.put("crv", "P-256");
+        jwk.put("kid", keyId);
+        jwk.put("use", "sig");
+        jwk.put("alg", "ES256");
+        jwk.put("x", encode(key.getW().getAffineX()));
+        jwk.put("y", encode(key.getW().getAffineY()));
+        return jwk;
+    }
+
+    /**
+     * Decode a P-256 JWK.
+     *
+     * @param jwk JWK members
+     * @return the public key
+     * @throws IllegalArgumentException if the JWK is not a P-256 key
+     */
+    public static ECPublicKey fromJwk(Map<String, ?> jwk) {
+        if (!"EC".equals(jwk.get("kty")) || !"P-256".equals(jwk.get("crv"))) {
+            throw new IllegalArgumentException("Not a P-256 JWK: " + jwk.get("kid"));
+        }
+        ECPoint point = new ECPoint(decode((String) jwk.get("x")), decode((String) jwk.get("y")));
+        try {
+            return (ECPublicKey) KeyFactory.getInstance("EC").generatePublic(new ECPublicKeySpec(point, P256));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("Invalid P-256 JWK: " + jwk.get("kid"), e);
+        }
+    }
+
+    private static String encode(BigInteger coordinate) {
+        byte[] bytes = coordinate.toByteArray();
+        byte[] fixed = new byte[COORDINATE_BYTES];
+        // toByteArray may add a sign byte or drop leading zeros
+        int length = Math.min(bytes.length, COORDINATE_BYTES);
+        System.arraycopy(bytes, bytes.length - length, fixed, COORDINATE_BYTES - length, length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(fixed);
+    }
+
+    private static BigInteger decode(String coordinate) {
+        if (coordinate == null) {
+            throw new IllegalArgumentException("Missing EC coordinate");
+        }
+        return new BigInteger(1, Base64.getUrlDecoder().decode(coordinate));
+    }
+
+    private static ECParameterSpec p256() {
+        try {
+            AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+            parameters.init(new ECGenParameterSpec("secp256r1"));
+            return parameters.getParameterSpec(ECParameterSpec.class);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("P-256 not available", e);
+        }
+    }
+}
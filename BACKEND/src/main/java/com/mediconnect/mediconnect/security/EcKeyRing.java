@@ -0,0 +1,255 @@
+package com.mediconnect.mediconnect.security;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+/**
+ * Rotating ES256 key ring for nodes that issue tokens.
+ *
+ * Keys are kept in a directory (one file per kid) so that auth nodes sharing it
+ * sign with the same keys and survive restarts. A new key is generated once the
+ * current one is older than the rotation period, but is only used for signing
+ * after the publish-ahead delay, so verifiers that cache the JWKS document have
+ * seen it before the first token signed with it arrives. Old keys are kept for
+ * verification until every token they signed has expired.
+ */
+public class EcKeyRing implements JwtSigningKeys {
+
+    private static final Logger log = LoggerFactory.getLogger(EcKeyRing.class);
+
+    private static final String KEY_SUFFIX = ".key";
+    // Reload the directory at most this often when a token carries an unknown kid
+    private static final long UNKNOWN_KID_RELOAD_MS = 1000;
+
+    private final Path directory;
+    private final long rotationMs;
+    private final long publishAheadMs;
+    private final long retentionMs;
+    private final SecureRandom random = new SecureRandom();
+
+    private volatile Ring ring = new Ring(List.of());
+    private volatile long lastReload;
+
+    /**
+     * @param directory      where key files are stored
+     * @param rotationMs     age after which a new signing key is generated
+     * @param publishAheadMs how long a new key is published before it signs
+     * @param retentionMs    how long a retired key still verifies (the longest token lifetime)
+     */
+    public EcKeyRing(Path directory, long rotationMs, long publishAheadMs, long retentionMs) {
+        this.directory = directory;
+        this.rotationMs = rotationMs;
+        this.publishAheadMs = publishAheadMs;
+        this.retentionMs = retentionMs;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create key directory " + directory, e);
+        }
+        refresh();
+    }
+
+    @Override
+    public SigningKey signingKey() {
+        Entry entry = ring.signing(System.currentTimeMillis() - publishAheadMs);
+        return new SigningKey(entry.keyId(), entry.privateKey(), SignatureAlgorithm.ES256);
+    }
+
+    @Override
+    public Key verificationKey(String keyId) {
+        if (keyId == null) {
+            return null;
+        }
+        Entry entry = ring.byId.get(keyId);
+        if (entry == null && System.currentTimeMillis() - lastReload > UNKNOWN_KID_RELOAD_MS) {
+            // Possibly rotated by another node sharing the directory
+            reload();
+            entry = ring.byId.get(keyId);
+        }
+        return entry != null ? entry.publicKey() : null;
+    }
+
+    @Override
+    public List<Map<String, Object>> publicJwks() {
+        return ring.entries.stream()
+                .map(e -> EcJwk.toJwk(e.keyId(), (ECPublicKey) e.publicKey()))
+                .toList();
+    }
+
+    /**
+     * Reload keys, generate the next key when rotation is due and delete expired ones.
+     */
+    @Override
+    public synchronized void refresh() {
+        reload();
+        long now = System.currentTimeMillis();
+        Entry newest = ring.newest();
+        if (newest == null || now - newest.createdAt() >= rotationMs - publishAheadMs) {
+            Entry created = generate(now);
+            log.info("Generated JWT signing key {}", created.keyId());
+            reload();
+        }
+        List<Entry> entries = ring.entries;
+        boolean deleted = false;
+        for (int i = 0; i < entries.size() - 1; i++) {
+            // A key signs until its successor activates and must verify its tokens for retentionMs more
+            long retiredAt = entries.get(i + 1).createdAt() + publishAheadMs + retentionMs;
+            if (now > retiredAt) {
+                delete(entries.get(i));
+                deleted = true;
+            }
+        }
+        if (deleted) {
+            reload();
+        }
+    }
+
+    private synchronized void reload() {
+        List<Entry> entries = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(f -> f.getFileName().toString().endsWith(KEY_SUFFIX))
+                    .forEach(f -> {
+                        try {
+                            entries.add(read(f));
+                        } catch (IOException | GeneralSecurityException | RuntimeException e) {
+                            log.warn("Skipping unreadable key file {}", f, e);
+                        }
+                    });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list key directory " + directory, e);
+        }
+        entries.sort(Comparator.comparingLong(Entry::createdAt));
+        ring = new Ring(entries);
+        lastReload = System.currentTimeMillis();
+    }
+
+    private Entry generate(long now) {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec("secp256r1"), random);
+            KeyPair pair = generator.generateKeyPair();
+            byte[] suffix = new byte[4];
+            random.nextBytes(suffix);
+            String keyId = Long.toString(now, 36) + "-" + HexFormat.of().formatHex(suffix);
+            Entry entry = new Entry(keyId, now, pair.getPublic(), pair.getPrivate());
+            write(entry);
+            return entry;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot generate ES256 key", e);
+        }
+    }
+
+    private void write(Entry entry) {
+        Properties properties = new Properties();
+        properties.setProperty("created", Long.toString(entry.createdAt()));
+        properties.setProperty("public", Base64.getEncoder().encodeToString(entry.publicKey().getEncoded()));
+        properties.setProperty("private", Base64.getEncoder().encodeToString(entry.privateKey().getEncoded()));
+        Path target = directory.resolve(entry.keyId() + KEY_SUFFIX);
+        try {
+            Path temp = Files.createTempFile(directory, entry.keyId(), ".tmp");
+            try {
+                Files.setPosixFilePermissions(temp, PosixFilePermissions.fromString("rw-------"));
+            } catch (UnsupportedOperationException ignored) {
+                // not a POSIX file system
+            }
+            try (Writer writer = Files.newBufferedWriter(temp)) {
+                properties.store(writer, "ES256 JWT signing key " + entry.keyId());
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write key " + target, e);
+        }
+    }
+
+    private static Entry read(Path file) throws IOException, GeneralSecurityException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        }
+        String name = file.getFileName().toString();
+        KeyFactory factory = KeyFactory.getInstance("EC");
+        PublicKey publicKey = factory.generatePublic(
+                new X509EncodedKeySpec(Base64.getDecoder().decode(properties.getProperty("public"))));
+        PrivateKey privateKey = factory.generatePrivate(
+                new PKCS8EncodedKeySpec(Base64.getDecoder().decode(properties.getProperty("private"))));
+        return new Entry(name.substring(0, name.length() - KEY_SUFFIX.length()),
+                Long.parseLong(properties.getProperty("created")), publicKey, privateKey);
+    }
+
+    private void delete(Entry entry) {
+        try {
+            Files.deleteIfExists(directory.resolve(entry.keyId() + KEY_SUFFIX));
+            log.info("Deleted expired JWT signing key {}", entry.keyId());
+        } catch (IOException e) {
+            log.warn("Cannot delete expired key {}", entry.keyId(), e);
+        }
+    }
+
+    private record Entry(String keyId, long createdAt, PublicKey publicKey, PrivateKey privateKey) {
+    }
+
+    /**
+     * Immutable view of the keys, oldest first.
+     */
+    private static final class Ring {
+
+        private final List<Entry> entries;
+        private final Map<String, Entry> byId = new HashMap<>();
+
+        Ring(List<Entry> entries) {
+            this.entries = List.copyOf(entries);
+            entries.forEach(e -> byId.put(e.keyId(), e));
+        }
+
+        Entry newest() {
+            return entries.isEmpty() ? null : entries.get(entries.size() - 1);
+        }
+
+        /**
+         * Newest key created before the activation cutoff, or the oldest key if none is old enough yet.
+         */
+        Entry signing(long activationCutoff) {
+            Entry signing = null;
+            for (Entry entry : entries) {
+                if (entry.createdAt() <= activationCutoff || signing == null) {
+                    signing = entry;
+                }
+            }
+            if (signing == null) {
+                throw new IllegalStateException("No JWT signing key available");
+            }
+            return signing;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.mediconnect.mediconnect.security;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+
+/**
+ * HS256 with a single shared secret. Every node that verifies tokens must hold the secret.
+ */
+public class HmacSigningKeys implements JwtSigningKeys {
+
+    private final SigningKey signingKey;
+
+    public HmacSigningKeys(String secret) {
+        if (secret.length() < 32) {
+            throw new IllegalArgumentException("Secret key must be at least 32 characters long for HS256");
+        }
+        this.signingKey = new SigningKey(null, Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)),
+                SignatureAlgorithm.HS256);
+    }
+
+    @Override
+    public SigningKey signingKey() {
+        return signingKey;
+    }
+
+    @Override
+    public Key verificationKey(String keyId) {
+        return keyId == null ? signingKey.key() : null;
+    }
+}
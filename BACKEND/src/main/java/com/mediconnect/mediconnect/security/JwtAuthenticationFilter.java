@@ -1,9 +1,14 @@
 package com.mediconnect.mediconnect.security;
 
 import com.mediconnect.mediconnect.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -22,10 +27,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
     private final UserDetailsImpl userDetailsService;
+    private final VerifiedTokenCache tokenCache;
+    private final RevocationIndex revocationIndex;
+    private final Timer verifyTimer;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsImpl userDetailsService) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsImpl userDetailsService,
+                                   VerifiedTokenCache tokenCache, RevocationIndex revocationIndex,
+                                   MeterRegistry meterRegistry) {
         this.jwtUtil = jwtUtil;
         this.userDetailsService = userDetailsService;
+        this.tokenCache = tokenCache;
+        this.revocationIndex = revocationIndex;
+        this.verifyTimer = Timer.builder("auth.jwt.verify")
+                .description("JWT signature and expiry verification (cache misses only)")
+                .register(meterRegistry);
     }
 
     /**
@@ -52,13 +67,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         String token = authHeader.substring(7); // remove "Bearer "
-        String username = jwtUtil.extractUsername(token);
 
-        // If token valid and not already authenticated
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        // If not already authenticated
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+            UserDetails userDetails = resolveUser(token);
 
-            if (jwtUtil.validateToken(token, userDetails)) {
+            if (userDetails != null) {
                 UsernamePasswordAuthenticationToken authToken =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -68,4 +82,38 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Resolve the user behind a token, verifying its signature only the first time it is seen.
+     * Revocation of the token's family is checked on every request, cached or not.
+     *
+     * @return the user, or null if the token is invalid, revoked or the user no longer exists
+     */
+    private UserDetails resolveUser(String token) {
+        VerifiedTokenCache.VerifiedToken cached = tokenCache.getVerifiedToken(token);
+        if (cached != null) {
+            return revocationIndex.isRevoked(cached.familyId()) ? null : cached.userDetails();
+        }
+
+        try {
+            Claims claims = verifyTimer.record(() -> jwtUtil.extractAllClaims(token));
+            String username = claims.getSubject();
+            String familyId = claims.get(JwtUtil.FAMILY_CLAIM, String.class);
+            // Refresh tokens are only accepted by /api/auth/refresh
+            if (username == null || jwtUtil.isRefreshToken(claims) || revocationIndex.isRevoked(familyId)) {
+                return null;
+            }
+
+            UserDetails userDetails = tokenCache.getUser(username);
+            if (userDetails == null) {
+                userDetails = userDetailsService.loadUserByUsername(username);
+            }
+            long expiresAt = claims.getExpiration() != null ? claims.getExpiration().getTime() : Long.MAX_VALUE;
+            tokenCache.put(token, userDetails, expiresAt, familyId);
+            return userDetails;
+        } catch (JwtException | IllegalArgumentException | UsernameNotFoundException ex) {
+            // Invalid or expired token: continue unauthenticated
+            return null;
+        }
+    }
 }
@@ -0,0 +1,60 @@
+package com.mediconnect.mediconnect.security;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+
+import java.security.Key;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Source of the keys {@link com.mediconnect.mediconnect.util.JwtUtil} signs and verifies tokens with.
+ *
+ * Implementations: a shared HMAC secret ({@link HmacSigningKeys}), a rotating
+ * ES256 key ring on auth nodes ({@link EcKeyRing}), and a JWKS client on nodes
+ * that only verify tokens ({@link RemoteJwksKeys}).
+ */
+public interface JwtSigningKeys {
+
+    /**
+     * Key used to sign new tokens.
+     *
+     * @return the current signing key
+     * @throws UnsupportedOperationException if this node can only verify tokens
+     */
+    SigningKey signingKey();
+
+    /**
+     * Whether {@link #signingKey()} is available, i.e. this node can issue tokens.
+     */
+    default boolean canSign() {
+        return true;
+    }
+
+    /**
+     * Key that verifies tokens carrying the given kid header.
+     *
+     * @param keyId the kid header, null for tokens without one
+     * @return the key, or null if unknown
+     */
+    Key verificationKey(String keyId);
+
+    /**
+     * Public keys as JWKs, for the /.well-known/jwks.json document.
+     * Empty for symmetric keys, which must never be published.
+     */
+    default List<Map<String, Object>> publicJwks() {
+        return List.of();
+    }
+
+    /**
+     * Periodic maintenance: rotate, reload or drop expired keys.
+     */
+    default void refresh() {
+    }
+
+    /**
+     * A signing key with its kid header (null when tokens carry no kid) and algorithm.
+     */
+    record SigningKey(String keyId, Key key, SignatureAlgorithm algorithm) {
+    }
+}
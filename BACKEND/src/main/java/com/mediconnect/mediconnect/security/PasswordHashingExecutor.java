@@ -0,0 +1,105 @@
+package com.mediconnect.mediconnect.security;
+/*Runs password hashing off the servlet threads on a bounded, core-sized pool. */
+import com.mediconnect.mediconnect.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Executor for BCrypt work (login and registration).
+ *
+ * BCrypt is CPU bound, so the pool has one thread per core and a short queue.
+ * When the queue is full the request is rejected straight away with a
+ * {@link TooManyRequestsException} carrying a Retry-After estimate, instead of
+ * parking more Tomcat threads behind the hashing backlog.
+ */
+@Component
+public class PasswordHashingExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final int threads;
+    private final Timer hashTimer;
+    private final Counter rejected;
+
+    // Moving average of task duration, for the Retry-After estimate
+    private volatile long averageTaskNanos = TimeUnit.MILLISECONDS.toNanos(100);
+
+    public PasswordHashingExecutor(@Value("${security.bcrypt.threads}") int threads,
+                                   @Value("${security.bcrypt.queueCapacity}") int queueCapacity,
+                                   MeterRegistry meterRegistry) {
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(this.threads, this.threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "password-hash-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.hashTimer = Timer.builder("auth.password.hash")
+                .description("Password hashing tasks (BCrypt encode or login check)")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("auth.password.hash.rejected")
+                .description("Requests rejected with 429 because the hashing queue was full")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hash.queued", executor, e -> e.getQueue().size())
+                .description("Hashing tasks waiting for a thread")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run a hashing task on the pool
+     *
+     * @param task The task
+     * @return Future completed with the task result
+     * @throws TooManyRequestsException if the queue is full
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(() -> timed(task), executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new TooManyRequestsException("Too many authentication requests, please retry shortly",
+                    retryAfterSeconds());
+        }
+    }
+
+    /**
+     * Seconds until the current backlog is expected to drain
+     */
+    long retryAfterSeconds() {
+        long backlog = executor.getQueue().size() + executor.getActiveCount();
+        long nanos = backlog * averageTaskNanos / threads;
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(nanos + TimeUnit.SECONDS.toNanos(1) - 1));
+    }
+
+    private <T> T timed(Supplier<T> task) {
+        long start = System.nanoTime();
+        try {
+            return task.get();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            hashTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            averageTaskNanos += (elapsed - averageTaskNanos) / 8;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
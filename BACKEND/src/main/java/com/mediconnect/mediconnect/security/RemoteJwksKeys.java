@@ -0,0 +1,105 @@
+package com.mediconnect.mediconnect.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.Key;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Verification-only keys for API nodes, fetched from an auth node's JWKS document.
+ *
+ * Decoded public keys are cached by kid. The document is re-fetched on every
+ * refresh and, rate-limited, when a token names a kid that is not cached yet.
+ * No secret is needed on these nodes.
+ */
+public class RemoteJwksKeys implements JwtSigningKeys {
+
+    private static final Logger log = LoggerFactory.getLogger(RemoteJwksKeys.class);
+
+    // Fetch at most this often because of unknown kids, so forged kids can not hammer the auth node
+    private static final long UNKNOWN_KID_FETCH_MS = 10_000;
+
+    private final URI jwksUri;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private volatile Map<String, PublicKey> keys = Map.of();
+    private volatile List<Map<String, Object>> jwks = List.of();
+    private volatile long lastFetch;
+
+    public RemoteJwksKeys(URI jwksUri) {
+        this.jwksUri = jwksUri;
+        refresh();
+    }
+
+    @Override
+    public SigningKey signingKey() {
+        throw new UnsupportedOperationException("This node only verifies tokens (keys come from " + jwksUri + ")");
+    }
+
+    @Override
+    public boolean canSign() {
+        return false;
+    }
+
+    @Override
+    public Key verificationKey(String keyId) {
+        if (keyId == null) {
+            return null;
+        }
+        PublicKey key = keys.get(keyId);
+        if (key == null && System.currentTimeMillis() - lastFetch > UNKNOWN_KID_FETCH_MS) {
+            refresh();
+            key = keys.get(keyId);
+        }
+        return key;
+    }
+
+    @Override
+    public List<Map<String, Object>> publicJwks() {
+        return jwks;
+    }
+
+    /**
+     * Fetch the JWKS document. On failure the previously fetched keys stay in use.
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public synchronized void refresh() {
+        lastFetch = System.currentTimeMillis();
+        try {
+            HttpResponse<String> response = httpClient.send(
+                    HttpRequest.newBuilder(jwksUri).timeout(Duration.ofSeconds(5)).GET().build(),
+                    HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                log.warn("JWKS fetch from {} returned {}", jwksUri, response.statusCode());
+                return;
+            }
+            List<Map<String, Object>> fetched =
+                    (List<Map<String, Object>>) objectMapper.readValue(response.body(), Map.class).get("keys");
+            Map<String, PublicKey> decoded = new HashMap<>();
+            for (Map<String, Object> jwk : fetched) {
+                decoded.put((String) jwk.get("kid"), EcJwk.fromJwk(jwk));
+            }
+            keys = Map.copyOf(decoded);
+            jwks = List.copyOf(fetched);
+        } catch (IOException | RuntimeException e) {
+            log.warn("JWKS fetch from {} failed", jwksUri, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
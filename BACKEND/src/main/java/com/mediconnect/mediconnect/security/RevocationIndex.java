@@ -0,0 +1,134 @@
+package com.mediconnect.mediconnect.security;
+
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory set of revoked token family IDs, checked on every authenticated request.
+ *
+ * Lookups read an immutable snapshot: a Bloom filter answers "not revoked" for
+ * almost every token without touching the set, and only possible hits go on to
+ * the exact hash set. Revocations are rare, so writers rebuild the snapshot
+ * (copy-on-write) rather than make readers synchronize.
+ */
+@Component
+public class RevocationIndex {
+
+    private static final int HASHES = 7;
+    private static final int BITS_PER_ENTRY = 10; // ~1% false positives with 7 hashes
+
+    private volatile Snapshot snapshot = Snapshot.of(Map.of());
+
+    /**
+     * Check whether a token family has been revoked.
+     *
+     * @param familyId family ID from the token (may be null for tokens without one)
+     * @return true if revoked
+     */
+    public boolean isRevoked(String familyId) {
+        return familyId != null && snapshot.contains(familyId);
+    }
+
+    /**
+     * Add a revoked family.
+     *
+     * @param familyId  the family ID
+     * @param expiresAt when the family's last access token expires, in epoch milliseconds
+     */
+    public void add(String familyId, long expiresAt) {
+        addAll(Map.of(familyId, expiresAt));
+    }
+
+    /**
+     * Add revoked families, e.g. after loading them from the database.
+     *
+     * @param families family ID to expiry (epoch milliseconds)
+     */
+    public synchronized void addAll(Map<String, Long> families) {
+        Snapshot current = snapshot;
+        Map<String, Long> entries = new HashMap<>(current.entries);
+        boolean changed = false;
+        for (Map.Entry<String, Long> family : families.entrySet()) {
+            Long previous = entries.get(family.getKey());
+            if (previous == null || previous < family.getValue()) {
+                entries.put(family.getKey(), family.getValue());
+                changed = true;
+            }
+        }
+        if (changed) {
+            snapshot = Snapshot.of(entries);
+        }
+    }
+
+    /**
+     * Drop families whose access tokens have all expired.
+     *
+     * @param now current time in epoch milliseconds
+     */
+    public synchronized void pruneExpired(long now) {
+        Snapshot current = snapshot;
+        Map<String, Long> entries = new HashMap<>(current.entries);
+        if (entries.values().removeIf(expiresAt -> expiresAt <= now)) {
+            snapshot = Snapshot.of(entries);
+        }
+    }
+
+    /**
+     * Number of revoked families held
+     */
+    public int size() {
+        return snapshot.entries.size();
+    }
+
+    private static final class Snapshot {
+
+        private final long[] bits;
+        private final Map<String, Long> entries;
+
+        private Snapshot(long[] bits, Map<String, Long> entries) {
+            this.bits = bits;
+            this.entries = entries;
+        }
+
+        static Snapshot of(Map<String, Long> entries) {
+            int words = Math.max(16, (entries.size() * BITS_PER_ENTRY + 63) / 64);
+            long[] bits = new long[words];
+            for (String id : entries.keySet()) {
+                long hash = hash(id);
+                int h1 = (int) hash;
+                int h2 = (int) (hash >>> 32);
+                for (int i = 0; i < HASHES; i++) {
+                    int bit = Math.floorMod(h1 + i * h2, words * 64);
+                    bits[bit >>> 6] |= 1L << bit;
+                }
+            }
+            return new Snapshot(bits, Map.copyOf(entries));
+        }
+
+        boolean contains(String id) {
+            long hash = hash(id);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            int size = bits.length * 64;
+            for (int i = 0; i < HASHES; i++) {
+                int bit = Math.floorMod(h1 + i * h2, size);
+                if ((bits[bit >>> 6] & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return entries.containsKey(id);
+        }
+
+        // 64-bit FNV-1a
+        private static long hash(String s) {
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < s.length(); i++) {
+                h ^= s.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            return h;
+        }
+    }
+}
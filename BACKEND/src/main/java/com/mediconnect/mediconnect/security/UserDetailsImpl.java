@@ -1,7 +1,7 @@
 package com.mediconnect.mediconnect.security;
 /*Implements Spring Security’s UserDetails interface to provide user info for authentication. */
 import com.mediconnect.mediconnect.model.User;
-import com.mediconnect.mediconnect.repository.UserRepository;
+import com.mediconnect.mediconnect.service.UserService;
 import org.springframework.security.core.userdetails.*;
 import org.springframework.stereotype.Service;
 
@@ -11,12 +11,12 @@ import java.util.Collections;
  * Loads user details from the database for authentication.
  */
 @Service
-public class UserDetailsImpl implements UserDetailsService {
+public class UserDetailsImpl implements UserDetailsService, UserDetailsPasswordService {
 
-    private final UserRepository userRepository;
+    private final UserService userService;
 
-    public UserDetailsImpl(UserRepository userRepository) {
-        this.userRepository = userRepository;
+    public UserDetailsImpl(UserService userService) {
+        this.userService = userService;
     }
 
     /**
@@ -24,7 +24,7 @@ public class UserDetailsImpl implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        User user = userRepository.findByEmail(email);
+        User user = userService.findByEmail(email);
         if (user == null) {
             throw new UsernameNotFoundException("User not found: " + email);
         }
@@ -39,4 +39,20 @@ public class UserDetailsImpl implements UserDetailsService {
                 Collections.singletonList(authority)  // Add the role as an authority
         );
     }
-}
\ No newline at end of file
+
+    /**
+     * Store a re-encoded password. Called by the authentication provider after a
+     * successful login when the stored hash uses an older BCrypt strength.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        if (!userService.updatePassword(userDetails.getUsername(), newPassword)) {
+            throw new UsernameNotFoundException("User not found: " + userDetails.getUsername());
+        }
+
+        return new org.springframework.security.core.userdetails.User(
+                userDetails.getUsername(),
+                newPassword,
+                userDetails.getAuthorities());
+    }
+}
@@ -0,0 +1,199 @@
+package com.mediconnect.mediconnect.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers tokens whose signature has already been verified, together with
+ * the user they resolved to, so repeat requests with the same bearer token
+ * skip both the HMAC check and the user lookup.
+ *
+ * Entries are keyed by a SHA-256 digest of the token (the raw token is never
+ * stored) and live until the token expires or the user TTL elapses,
+ * whichever comes first. Resolved users are also cached by username, so a
+ * client holding several tokens still loads its user once per TTL window.
+ * The token family is kept with each entry so revocation can still be
+ * checked on a cache hit.
+ *
+ * When full, expired entries are dropped first, then about a tenth of the
+ * oldest ones.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final Map<String, Entry> tokens = new ConcurrentHashMap<>();
+    private final Map<String, Entry> users = new ConcurrentHashMap<>();
+    private final int maxEntries;
+    private final long userTtlMs;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    // Insertion order, to find the oldest entries when full
+    private final AtomicLong sequence = new AtomicLong();
+
+    public VerifiedTokenCache(@Value("${jwt.cache.maxEntries:10000}") int maxEntries,
+                              @Value("${jwt.cache.userTtl:300000}") long userTtlMs) {
+        this.maxEntries = maxEntries;
+        this.userTtlMs = userTtlMs;
+    }
+
+    /**
+     * Get the user a previously verified token resolved to.
+     *
+     * @param token raw JWT token
+     * @return the cached user, or null if the token was not verified yet or its entry expired
+     */
+    public UserDetails getVerified(String token) {
+        VerifiedToken verified = getVerifiedToken(token);
+        return verified != null ? verified.userDetails() : null;
+    }
+
+    /**
+     * Get the user and token family a previously verified token resolved to.
+     *
+     * @param token raw JWT token
+     * @return the cached entry, or null if the token was not verified yet or its entry expired
+     */
+    public VerifiedToken getVerifiedToken(String token) {
+        Entry entry = getEntry(tokens, digest(token));
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return new VerifiedToken(entry.userDetails(), entry.familyId());
+    }
+
+    /**
+     * Get a recently loaded user by username.
+     *
+     * @param username the username (email)
+     * @return the cached user, or null if absent or expired
+     */
+    public UserDetails getUser(String username) {
+        Entry entry = getEntry(users, username);
+        return entry != null ? entry.userDetails() : null;
+    }
+
+    /**
+     * Record a verified token and the user it resolved to.
+     *
+     * @param token          raw JWT token
+     * @param userDetails    the resolved user
+     * @param tokenExpiresAt token expiry in epoch milliseconds
+     */
+    public void put(String token, UserDetails userDetails, long tokenExpiresAt) {
+        put(token, userDetails, tokenExpiresAt, null);
+    }
+
+    /**
+     * Record a verified token, the user it resolved to and its token family.
+     *
+     * @param token          raw JWT token
+     * @param userDetails    the resolved user
+     * @param tokenExpiresAt token expiry in epoch milliseconds
+     * @param familyId       the token family, or null for tokens without one
+     */
+    public void put(String token, UserDetails userDetails, long tokenExpiresAt, String familyId) {
+        long now = System.currentTimeMillis();
+        long userExpiresAt = now + userTtlMs;
+        Entry user = users.get(userDetails.getUsername());
+        if (user == null || user.isExpired(now)) {
+            user = new Entry(userDetails, null, userExpiresAt, sequence.incrementAndGet());
+            putBounded(users, userDetails.getUsername(), user, now);
+        }
+        putBounded(tokens, digest(token), new Entry(userDetails, familyId,
+                Math.min(tokenExpiresAt, user.expiresAt()), sequence.incrementAndGet()), now);
+    }
+
+    /**
+     * Forget everything cached for a user, e.g. after a role or password change.
+     *
+     * @param username the username (email)
+     */
+    public void invalidateUser(String username) {
+        users.remove(username);
+        tokens.values().removeIf(entry -> entry.userDetails().getUsername().equals(username));
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public int size() {
+        return tokens.size();
+    }
+
+    private static Entry getEntry(Map<String, Entry> map, String key) {
+        Entry entry = map.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            map.remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    private void putBounded(Map<String, Entry> map, String key, Entry entry, long now) {
+        if (map.size() >= maxEntries) {
+            evict(map, now);
+        }
+        map.put(key, entry);
+    }
+
+    private synchronized void evict(Map<String, Entry> map, long now) {
+        map.values().removeIf(e -> e.isExpired(now));
+        int excess = map.size() - maxEntries + Math.max(1, maxEntries / 10);
+        if (excess <= 0) {
+            return;
+        }
+        map.entrySet().stream()
+                .sorted(Comparator.comparingLong(e -> e.getValue().sequence()))
+                .limit(excess)
+                .map(Map.Entry::getKey)
+                .toList()
+                .forEach(map::remove);
+    }
+
+    private static String digest(String token) {
+        byte[] hash = SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getEncoder().encodeToString(hash);
+    }
+
+    /**
+     * A cached verification result.
+     */
+    public record VerifiedToken(UserDetails userDetails, String familyId) {
+    }
+
+    private record Entry(UserDetails userDetails, String familyId, long expiresAt, long sequence) {
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
@@ -1,15 +1,23 @@
 package com.mediconnect.mediconnect.service;
 
+import com.mediconnect.mediconnect.dto.AppointmentSummary;
+import com.mediconnect.mediconnect.dto.CursorPage;
+import com.mediconnect.mediconnect.dto.KeysetCursor;
+import com.mediconnect.mediconnect.exception.InvalidStatusTransitionException;
+import com.mediconnect.mediconnect.exception.ResourceNotFoundException;
 import com.mediconnect.mediconnect.model.Appoinment;
 import com.mediconnect.mediconnect.model.Appoinment.AppointmentStatus;
 import com.mediconnect.mediconnect.model.User;
 import com.mediconnect.mediconnect.repository.AppointmentRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,10 +26,26 @@ import java.util.Optional;
  * rescheduling, and cancellations.
  */
 @Service
+@Timed("mediconnect.service")
 public class AppointmentService {
 
     @Autowired
     private AppointmentRepository appointmentRepository;
+
+    @Autowired
+    private SerialNumberAllocator serialNumberAllocator;
+
+    @Autowired
+    private TimeSlotService timeSlotService;
+
+    @Autowired
+    private QueueStatusPublisher queueStatusPublisher;
+
+    @Autowired
+    private DoctorScheduleCache scheduleCache;
+
+    @Value("${pagination.maxPageSize:100}")
+    private int maxPageSize;
     
     /**
      * Book a new appointment
@@ -32,74 +56,85 @@ public class AppointmentService {
      * @return The created appointment
      */
     public Appoinment bookAppointment(User patient, User doctor, LocalDateTime appointmentDateTime, String notes) {
-        // Calculate serial number for this doctor on this date
-        Integer serialNumber = calculateNextSerialNumber(doctor, appointmentDateTime.toLocalDate());
-        
-        Appoinment appointment = Appoinment.builder()
-                .patient(patient)
-                .doctor(doctor)
-                .appointmentDateTime(appointmentDateTime)
-                .serialNumber(serialNumber)
-                .status(AppointmentStatus.SCHEDULED)
-                .notes(notes)
-                .build();
-        
-        return appointmentRepository.save(appointment);
-    }
-    
-    /**
-     * Calculate the next serial number for a doctor on a specific date
-     * @param doctor The doctor
-     * @param date The appointment date
-     * @return The next serial number
-     */
-    private Integer calculateNextSerialNumber(User doctor, LocalDate date) {
-        LocalDateTime startOfDay = date.atStartOfDay();
-        LocalDateTime endOfDay = date.atTime(LocalTime.MAX);
-        
-        // Find the highest serial number for this doctor on this date
-        Optional<Integer> maxSerial = appointmentRepository.findMaxSerialNumberByDoctorAndDate(
-                doctor.getId(), startOfDay, endOfDay);
-        
-        // Return the next serial number (or 1 if no appointments exist)
-        return maxSerial.map(s -> s + 1).orElse(1);
+        // Allocate the serial number and insert the appointment in one transaction
+        Appoinment booked = serialNumberAllocator.withNextSerial(doctor.getId(), appointmentDateTime.toLocalDate(),
+                serialNumber -> {
+                    Appoinment appointment = Appoinment.builder()
+                            .patient(patient)
+                            .doctor(doctor)
+                            .appointmentDateTime(appointmentDateTime)
+                            .serialNumber(serialNumber)
+                            .status(AppointmentStatus.SCHEDULED)
+                            .notes(notes)
+                            .build();
+
+                    return appointmentRepository.save(appointment);
+                });
+
+        timeSlotService.slotBooked(booked.getId(), doctor.getId(), appointmentDateTime);
+        scheduleCache.appointmentChanged(AppointmentSummary.of(booked));
+        queueStatusPublisher.queueChanged(doctor.getId(), appointmentDateTime.toLocalDate());
+        return booked;
     }
     
     /**
-     * Get all appointments for a doctor on a specific date
+     * Get all appointments for a doctor on a specific date (served from the schedule snapshot)
      * @param doctor The doctor
      * @param date The date
-     * @return List of appointments
+     * @return List of appointments, ordered by serial number
      */
-    public List<Appoinment> getDoctorAppointmentsByDate(User doctor, LocalDate date) {
-        LocalDateTime startOfDay = date.atStartOfDay();
-        LocalDateTime endOfDay = date.atTime(LocalTime.MAX);
-        
-        return appointmentRepository.findByDoctorAndAppointmentDateTimeBetweenOrderBySerialNumber(
-                doctor, startOfDay, endOfDay);
+    public List<AppointmentSummary> getDoctorAppointmentsByDate(User doctor, LocalDate date) {
+        return scheduleCache.getSchedule(doctor.getId(), date);
     }
     
     /**
-     * Get all appointments for a patient
-     * @param patient The patient
-     * @return List of appointments
+     * Get one page of a patient's appointments, latest first
+     * @param patientId The patient ID
+     * @param cursor Cursor returned with the previous page, or null for the first page
+     * @param size Requested page size (capped)
+     * @return Page of appointments
      */
-    public List<Appoinment> getPatientAppointments(User patient) {
-        return appointmentRepository.findByPatientOrderByAppointmentDateTimeDesc(patient);
+    public CursorPage<AppointmentSummary> getPatientAppointments(Long patientId, String cursor, int size) {
+        int limit = Math.max(1, Math.min(size, maxPageSize));
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Pageable page = PageRequest.ofSize(limit + 1);
+
+        List<AppointmentSummary> rows = after == null
+                ? appointmentRepository.findPatientPage(patientId, page)
+                : appointmentRepository.findPatientPageAfter(patientId, after.getTimestamp(), after.getId(), page);
+        return CursorPage.of(rows, limit, a -> new KeysetCursor(a.appointmentDateTime(), a.id()));
     }
     
     /**
-     * Update appointment status
+     * Update appointment status. The transition is checked and applied by a single
+     * conditional UPDATE, so concurrent updates cannot both win from the same state.
      * @param appointmentId The appointment ID
      * @param status The new status
      * @return The updated appointment
      */
-    public Appoinment updateAppointmentStatus(Long appointmentId, AppointmentStatus status) {
-        Appoinment appointment = appointmentRepository.findById(appointmentId)
-                .orElseThrow(() -> new RuntimeException("Appointment not found"));
-        
-        appointment.setStatus(status);
-        return appointmentRepository.save(appointment);
+    public AppointmentSummary updateAppointmentStatus(Long appointmentId, AppointmentStatus status) {
+        Optional<AppointmentSummary> updated = appointmentRepository.transitionStatus(appointmentId, status);
+        if (updated.isEmpty()) {
+            // Only the failure path pays for a second query, to tell the caller why
+            Appoinment current = appointmentRepository.findWithParticipantsById(appointmentId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Appointment not found"));
+            if (current.getStatus() == status) {
+                // Repeated request: already in the requested status
+                return AppointmentSummary.of(current);
+            }
+            throw new InvalidStatusTransitionException("Appointment cannot move from "
+                    + current.getStatus() + " to " + status);
+        }
+
+        AppointmentSummary saved = updated.get();
+        scheduleCache.appointmentChanged(saved);
+
+        if (status == AppointmentStatus.CANCELLED) {
+            timeSlotService.slotReleased(saved.id(), saved.doctorId(), saved.appointmentDateTime());
+        }
+        // Completed, no-show and cancelled serials all move the queue forward
+        queueStatusPublisher.queueChanged(saved.doctorId(), saved.appointmentDateTime().toLocalDate());
+        return saved;
     }
     
     /**
@@ -107,7 +142,7 @@ public class AppointmentService {
      * @param appointmentId The appointment ID
      * @return The cancelled appointment
      */
-    public Appoinment cancelAppointment(Long appointmentId) {
+    public AppointmentSummary cancelAppointment(Long appointmentId) {
         return updateAppointmentStatus(appointmentId, AppointmentStatus.CANCELLED);
     }
     
@@ -118,8 +153,6 @@ public class AppointmentService {
      * @return List of available time slots
      */
     public List<LocalDateTime> getAvailableTimeSlots(User doctor, LocalDate date) {
-        // Implementation would depend on doctor's schedule and existing appointments
-        // This is a placeholder for the actual implementation
-        return List.of();
+        return timeSlotService.getAvailableSlots(doctor.getId(), date);
     }
 }
@@ -0,0 +1,462 @@
+package com.mediconnect.mediconnect.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.mediconnect.mediconnect.dto.AppointmentImportRow;
+import com.mediconnect.mediconnect.dto.ImportResult;
+import com.mediconnect.mediconnect.dto.ReportImportRow;
+import com.mediconnect.mediconnect.exception.InvalidInputException;
+import com.mediconnect.mediconnect.exception.ResourceNotFoundException;
+import com.mediconnect.mediconnect.model.Appoinment;
+import com.mediconnect.mediconnect.model.Appoinment.AppointmentStatus;
+import com.mediconnect.mediconnect.model.Medicalreport;
+import com.mediconnect.mediconnect.model.Medicalreport.ReportStatus;
+import com.mediconnect.mediconnect.model.User;
+import com.mediconnect.mediconnect.repository.AppointmentSerialCounterRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.jpa.vendor.HibernateJpaDialect;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Streams appointments and medical reports from CSV or NDJSON into the database.
+ *
+ * Rows are read and checked one chunk at a time, before any transaction is
+ * opened, so a slow upload never holds a connection. Each checked chunk is then
+ * persisted through Hibernate's JDBC batching (IDs come from pooled sequences, so
+ * inserts are not forced to run one by one) and committed in its own transaction.
+ * The persistence context is cleared after every batch, so memory stays flat
+ * however large the input is.
+ *
+ * Malformed rows, missing fields and rows the database rejects as inconsistent
+ * (e.g. an unknown user ID) are reported as invalid input; any other failure is
+ * left to propagate as a server error.
+ *
+ * Running imports are tracked by ID, so their committed row count and rate can
+ * be polled while the upload is still streaming.
+ */
+@Service
+public class BulkImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkImportService.class);
+
+    private static final HibernateJpaDialect JPA_DIALECT = new HibernateJpaDialect();
+
+    /**
+     * Supported input formats
+     */
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AppointmentSerialCounterRepository counterRepository;
+
+    @Autowired
+    private TimeSlotService timeSlotService;
+
+    @Autowired
+    private DoctorScheduleCache scheduleCache;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    private final Map<String, Progress> running = new ConcurrentHashMap<>();
+
+    /**
+     * Progress of a running import
+     *
+     * @param id The import ID
+     * @return Rows committed so far and the rate
+     * @throws ResourceNotFoundException if no import with that ID is running
+     */
+    public ImportResult getProgress(String id) {
+        Progress progress = running.get(id);
+        if (progress == null) {
+            throw new ResourceNotFoundException("No running import with id " + id);
+        }
+        return progress.snapshot(false);
+    }
+
+    /**
+     * @return Progress of every import running on this instance
+     */
+    public List<ImportResult> getRunning() {
+        return running.values().stream().map(progress -> progress.snapshot(false)).toList();
+    }
+
+    /**
+     * Import appointments. Rows must carry their serial numbers; the per-day serial
+     * counters are raised afterwards so new bookings continue after the imported ones.
+     *
+     * @param input     The input stream (not closed)
+     * @param format    Input format
+     * @param chunkSize Rows committed per transaction
+     * @param importId  ID to track progress under, or null to generate one
+     * @return Import summary
+     */
+    public ImportResult importAppointments(InputStream input, Format format, int chunkSize, String importId) {
+        LocalDateTime[] range = new LocalDateTime[2];
+        Iterator<AppointmentImportRow> rows = rows(input, format, AppointmentImportRow.class);
+
+        ImportResult result = importRows(importId, "appointments", rows, chunkSize, row -> {
+            if (row.getPatientId() == null || row.getDoctorId() == null
+                    || row.getAppointmentDateTime() == null || row.getSerialNumber() == null) {
+                throw new InvalidInputException("patientId, doctorId, appointmentDateTime and serialNumber are required");
+            }
+        }, row -> {
+            LocalDateTime dateTime = row.getAppointmentDateTime();
+            if (range[0] == null || dateTime.isBefore(range[0])) {
+                range[0] = dateTime;
+            }
+            if (range[1] == null || dateTime.isAfter(range[1])) {
+                range[1] = dateTime;
+            }
+
+            entityManager.persist(Appoinment.builder()
+                    .patient(entityManager.getReference(User.class, row.getPatientId()))
+                    .doctor(entityManager.getReference(User.class, row.getDoctorId()))
+                    .appointmentDateTime(dateTime)
+                    .serialNumber(row.getSerialNumber())
+                    .status(row.getStatus() != null ? row.getStatus() : AppointmentStatus.SCHEDULED)
+                    .notes(row.getNotes())
+                    .build());
+        });
+
+        if (range[0] != null) {
+            LocalDateTime from = range[0].toLocalDate().atStartOfDay();
+            LocalDateTime to = range[1].toLocalDate().plusDays(1).atStartOfDay();
+            transactionTemplate.executeWithoutResult(status -> counterRepository.syncWithAppointments(from, to));
+            timeSlotService.clear();
+            scheduleCache.clear();
+        }
+        return result;
+    }
+
+    /**
+     * Import medical reports
+     *
+     * @param input     The input stream (not closed)
+     * @param format    Input format
+     * @param chunkSize Rows committed per transaction
+     * @param importId  ID to track progress under, or null to generate one
+     * @return Import summary
+     */
+    public ImportResult importReports(InputStream input, Format format, int chunkSize, String importId) {
+        Iterator<ReportImportRow> rows = rows(input, format, ReportImportRow.class);
+
+        return importRows(importId, "medical reports", rows, chunkSize, row -> {
+            if (row.getPatientId() == null || row.getDoctorId() == null
+                    || row.getTitle() == null || row.getFileUrl() == null) {
+                throw new InvalidInputException("patientId, doctorId, title and fileUrl are required");
+            }
+        }, row -> {
+            entityManager.persist(Medicalreport.builder()
+                    .patient(entityManager.getReference(User.class, row.getPatientId()))
+                    .doctor(entityManager.getReference(User.class, row.getDoctorId()))
+                    .appointment(row.getAppointmentId() != null
+                            ? entityManager.getReference(Appoinment.class, row.getAppointmentId())
+                            : null)
+                    .title(row.getTitle())
+                    .description(row.getDescription())
+                    .fileUrl(row.getFileUrl())
+                    .fileType(row.getFileType())
+                    .fileSize(row.getFileSize())
+                    .createdAt(row.getCreatedAt() != null ? row.getCreatedAt() : LocalDateTime.now())
+                    .status(row.getStatus() != null ? row.getStatus() : ReportStatus.SUBMITTED)
+                    .build());
+        });
+    }
+
+    private <T> ImportResult importRows(String importId, String what, Iterator<T> rows, int chunkSize,
+                                        Consumer<T> validate, Consumer<T> persist) {
+        Progress progress = new Progress(importId != null ? importId : UUID.randomUUID().toString(), what);
+        if (running.putIfAbsent(progress.id, progress) != null) {
+            throw new InvalidInputException("An import with id " + progress.id + " is already running");
+        }
+        try {
+            importChunks(progress, rows, chunkSize, validate, persist);
+        } finally {
+            running.remove(progress.id);
+        }
+        return progress.snapshot(true);
+    }
+
+    private <T> void importChunks(Progress progress, Iterator<T> rows, int chunkSize,
+                                  Consumer<T> validate, Consumer<T> persist) {
+        String what = progress.what;
+        int chunk = Math.max(chunkSize, batchSize);
+        long imported = 0;
+
+        while (true) {
+            List<T> parsed = readChunk(what, rows, chunk, validate, imported);
+            if (parsed.isEmpty()) {
+                break;
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    int n = 0;
+                    for (T row : parsed) {
+                        persist.accept(row);
+                        if (++n % batchSize == 0) {
+                            entityManager.flush();
+                            entityManager.clear();
+                        }
+                    }
+                    entityManager.flush();
+                    entityManager.clear();
+                });
+            } catch (RuntimeException ex) {
+                if (!isRejectedByDatabase(ex)) {
+                    throw ex;
+                }
+                throw new InvalidInputException("Import of " + what + " failed after " + imported
+                        + " committed rows: a row in the next " + parsed.size()
+                        + " references a missing record or violates a constraint");
+            }
+
+            imported += parsed.size();
+            progress.committed(parsed.size());
+            ImportResult snapshot = progress.snapshot(false);
+            log.info("Imported {} {} in {} chunks ({} rows/s)",
+                    imported, what, snapshot.getChunks(), snapshot.getRowsPerSecond());
+        }
+    }
+
+    /**
+     * Read and check the next chunk of rows, outside any transaction
+     *
+     * @return The rows, or an empty list at the end of the input
+     */
+    private <T> List<T> readChunk(String what, Iterator<T> rows, int chunk, Consumer<T> validate, long imported) {
+        List<T> parsed = new ArrayList<>();
+        try {
+            while (parsed.size() < chunk && rows.hasNext()) {
+                T row = rows.next();
+                validate.accept(row);
+                parsed.add(row);
+            }
+        } catch (RuntimeException ex) {
+            if (!(ex instanceof InvalidInputException) && !isMalformedRow(ex)) {
+                throw ex;
+            }
+            // Earlier chunks stay committed; report how far the import got
+            throw new InvalidInputException("Import of " + what + " failed at row " + (imported + parsed.size() + 1)
+                    + " after " + imported + " committed rows: " + ex.getMessage());
+        }
+        return parsed;
+    }
+
+    // Violations raised by flush() come straight from Hibernate; those raised at commit are already translated
+    private static boolean isRejectedByDatabase(RuntimeException ex) {
+        return ex instanceof DataIntegrityViolationException
+                || JPA_DIALECT.translateExceptionIfPossible(ex) instanceof DataIntegrityViolationException;
+    }
+
+    // Jackson reports bad JSON and bad values this way; CSV records fail conversion with IllegalArgumentException
+    private static boolean isMalformedRow(RuntimeException ex) {
+        return ex instanceof IllegalArgumentException
+                || ex instanceof RuntimeJsonMappingException
+                || ex.getCause() instanceof JsonProcessingException;
+    }
+
+    private <T> Iterator<T> rows(InputStream input, Format format, Class<T> type) {
+        try {
+            if (format == Format.NDJSON) {
+                return objectMapper.readerFor(type).readValues(input);
+            }
+            Iterator<Map<String, String>> records = new CsvRecordIterator(
+                    new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)));
+            return new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return records.hasNext();
+                }
+
+                @Override
+                public T next() {
+                    return objectMapper.convertValue(records.next(), type);
+                }
+            };
+        } catch (JsonProcessingException ex) {
+            throw new InvalidInputException("Import failed at row 1: " + ex.getOriginalMessage());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Rows committed by one running import. Written by the importing thread only,
+     * read by progress requests.
+     */
+    private static final class Progress {
+        private final String id;
+        private final String what;
+        private final long started = System.nanoTime();
+        private volatile long rows;
+        private volatile int chunks;
+
+        Progress(String id, String what) {
+            this.id = id;
+            this.what = what;
+        }
+
+        void committed(int chunkRows) {
+            rows += chunkRows;
+            chunks++;
+        }
+
+        ImportResult snapshot(boolean finished) {
+            return new ImportResult(id, what, rows, chunks, (System.nanoTime() - started) / 1_000_000, finished);
+        }
+    }
+
+    /**
+     * Reads a CSV stream with a header line (RFC 4180). Fields may be double-quoted,
+     * with "" for a literal quote; a quoted field may span lines. Empty fields are
+     * treated as missing.
+     */
+    private static final class CsvRecordIterator implements Iterator<Map<String, String>> {
+
+        private final BufferedReader reader;
+        private final List<String> header;
+        private String nextLine;
+        // The input ended inside a quoted field; reported when that record is read
+        private boolean unterminated;
+
+        CsvRecordIterator(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            advance();
+            if (unterminated) {
+                throw new InvalidInputException("Import failed at the header: unterminated quoted field");
+            }
+            this.header = nextLine != null ? parse(nextLine) : List.of();
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextLine != null;
+        }
+
+        @Override
+        public Map<String, String> next() {
+            if (nextLine == null) {
+                throw new NoSuchElementException();
+            }
+            if (unterminated) {
+                throw new IllegalArgumentException("unterminated quoted field");
+            }
+            List<String> values = parse(nextLine);
+            Map<String, String> record = new HashMap<>();
+            for (int i = 0; i < header.size() && i < values.size(); i++) {
+                if (!values.get(i).isEmpty()) {
+                    record.put(header.get(i), values.get(i));
+                }
+            }
+            advance();
+            return record;
+        }
+
+        /**
+         * Read the next record, joining physical lines while a quoted field is still open
+         */
+        private void advance() {
+            try {
+                do {
+                    nextLine = reader.readLine();
+                } while (nextLine != null && nextLine.isBlank());
+
+                // An escaped quote ("") counts twice, so an odd count means a quoted field is still open
+                int quotes = nextLine != null ? countQuotes(nextLine) : 0;
+                if (quotes % 2 != 0) {
+                    StringBuilder record = new StringBuilder(nextLine);
+                    while (quotes % 2 != 0) {
+                        String line = reader.readLine();
+                        if (line == null) {
+                            unterminated = true;
+                            break;
+                        }
+                        record.append('\n').append(line);
+                        quotes += countQuotes(line);
+                    }
+                    nextLine = record.toString();
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        private static int countQuotes(String line) {
+            int quotes = 0;
+            for (int i = 0; i < line.length(); i++) {
+                if (line.charAt(i) == '"') {
+                    quotes++;
+                }
+            }
+            return quotes;
+        }
+
+        private static List<String> parse(String line) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString().trim());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString().trim());
+            return fields;
+        }
+    }
+}
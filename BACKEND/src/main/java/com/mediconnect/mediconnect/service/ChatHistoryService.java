@@ -0,0 +1,379 @@
+package com.mediconnect.mediconnect.service;
+
+import com.mediconnect.mediconnect.exception.TooManyRequestsException;
+import com.mediconnect.mediconnect.model.ChatMessage;
+import com.mediconnect.mediconnect.model.ChatMessage.Sender;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Chat transcripts with group commit.
+ *
+ * Appending only touches memory: the message gets the conversation's next seq,
+ * goes into a ring buffer of its most recent messages, and into the
+ * conversation's unflushed segment. Every flush interval the segments of all
+ * conversations written to since the last flush are inserted as one JDBC batch in
+ * one transaction, so Postgres sees a few large commits instead of one per message.
+ *
+ * A message is readable as soon as it is appended and durable after the next
+ * flush (chat.history.flushMs); a crash loses at most that window. Each
+ * conversation must be written by a single node, which numbers its messages.
+ *
+ * A batch that fails with a data error is written again one row at a time, and
+ * the rows the database rejects are dropped (chat.history.deadLettered) so they
+ * cannot hold back the messages behind them. Batches that fail because the
+ * database is unreachable are kept and retried, on their own, on later flushes.
+ */
+@Service
+public class ChatHistoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(ChatHistoryService.class);
+
+    static final String INSERT = "INSERT INTO chat_messages (conversation_id, seq, sender, sender_id, content, "
+            + "created_at) VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private static final String SELECT = "SELECT conversation_id, seq, sender, sender_id, content, created_at "
+            + "FROM chat_messages ";
+
+    private static final RowMapper<ChatMessage> ROW_MAPPER = (rs, rowNum) -> ChatMessage.builder()
+            .conversationId(rs.getString("conversation_id"))
+            .seq(rs.getInt("seq"))
+            .sender(Sender.valueOf(rs.getString("sender")))
+            .senderId(rs.getObject("sender_id", Long.class))
+            .content(rs.getString("content"))
+            .createdAt(rs.getTimestamp("created_at").toLocalDateTime())
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int recentSize;
+    private final int batchSize;
+    private final int maxPending;
+    private final long idleMillis;
+    private final int maxPageSize;
+
+    private final Map<String, Conversation> conversations = new ConcurrentHashMap<>();
+    // Conversations with an unflushed segment, each queued once
+    private final Queue<Conversation> dirty = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    // Messages that could not be written while the database was unreachable; only touched by the flushing thread
+    private final List<ChatMessage> retry = new ArrayList<>();
+
+    private final Timer flushTimer;
+    private final Counter persisted;
+    private final Counter deadLettered;
+
+    public ChatHistoryService(JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${chat.history.recentSize:50}") int recentSize,
+                              @Value("${chat.history.batchSize:1000}") int batchSize,
+                              @Value("${chat.history.maxPending:200000}") int maxPending,
+                              @Value("${chat.history.idleMs:600000}") long idleMillis,
+                              @Value("${pagination.maxPageSize:100}") int maxPageSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.recentSize = recentSize;
+        this.batchSize = batchSize;
+        this.maxPending = maxPending;
+        this.idleMillis = idleMillis;
+        this.maxPageSize = maxPageSize;
+
+        this.flushTimer = meterRegistry.timer("chat.history.flush");
+        this.persisted = meterRegistry.counter("chat.history.persisted");
+        this.deadLettered = Counter.builder("chat.history.deadLettered")
+                .description("Chat messages dropped because the database rejected them")
+                .register(meterRegistry);
+        Gauge.builder("chat.history.pending", pending, AtomicInteger::get)
+                .description("Chat messages appended but not yet committed")
+                .register(meterRegistry);
+        Gauge.builder("chat.history.conversations", conversations, Map::size)
+                .description("Conversations held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Register a conversation that is known to be new, so its first append does not
+     * look for earlier messages in the database
+     *
+     * @param conversationId Conversation ID
+     */
+    public void start(String conversationId) {
+        Conversation conversation = conversations.computeIfAbsent(conversationId, Conversation::new);
+        synchronized (conversation) {
+            conversation.loaded = true;
+        }
+    }
+
+    /**
+     * Append a message to a conversation. Returns once the message is readable;
+     * it is committed by the next flush.
+     *
+     * @param conversationId Conversation ID
+     * @param sender         Who wrote it
+     * @param senderId       User ID of the sender, if a user
+     * @param content        Message text
+     * @return The message with its seq and timestamp
+     * @throws TooManyRequestsException if too many messages are waiting to be committed
+     */
+    public ChatMessage append(String conversationId, Sender sender, Long senderId, String content) {
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            throw new TooManyRequestsException("Chat history is busy", 1);
+        }
+        while (true) {
+            Conversation conversation = conversations.computeIfAbsent(conversationId, Conversation::new);
+            synchronized (conversation) {
+                if (conversation.evicted) {
+                    continue;
+                }
+                try {
+                    load(conversation);
+                } catch (RuntimeException e) {
+                    pending.decrementAndGet();
+                    throw e;
+                }
+                ChatMessage message = ChatMessage.builder()
+                        .conversationId(conversationId)
+                        .seq(conversation.nextSeq++)
+                        .sender(sender)
+                        .senderId(senderId)
+                        .content(content)
+                        .createdAt(LocalDateTime.now())
+                        .build();
+                conversation.remember(message);
+                conversation.segment.add(message);
+                conversation.lastUsed = System.currentTimeMillis();
+                if (!conversation.dirty) {
+                    conversation.dirty = true;
+                    dirty.add(conversation);
+                }
+                return message;
+            }
+        }
+    }
+
+    /**
+     * The latest messages of a conversation, oldest first. Served from memory for
+     * active conversations; older messages and inactive conversations are read from
+     * the database.
+     *
+     * @param conversationId Conversation ID
+     * @param size           Maximum number of messages
+     * @return The messages
+     */
+    public List<ChatMessage> recent(String conversationId, int size) {
+        int limit = Math.max(1, Math.min(size, maxPageSize));
+        Conversation conversation = conversations.get(conversationId);
+        if (conversation != null) {
+            synchronized (conversation) {
+                if (conversation.loaded && !conversation.evicted
+                        && (limit <= conversation.size || conversation.size == conversation.nextSeq)) {
+                    return conversation.latest(limit);
+                }
+            }
+        }
+        List<ChatMessage> messages = jdbcTemplate.query(SELECT + "WHERE conversation_id = ? ORDER BY seq DESC LIMIT ?",
+                ROW_MAPPER, conversationId, limit);
+        Collections.reverse(messages);
+        return messages;
+    }
+
+    /**
+     * Commit every appended message. Runs on a fixed delay and at shutdown.
+     */
+    @Scheduled(fixedDelayString = "${chat.history.flushMs:20}")
+    public synchronized void flush() {
+        // Earlier failures go in batches of their own, so they never hold back new messages
+        List<ChatMessage> failed = new ArrayList<>(retry);
+        retry.clear();
+        for (int from = 0; from < failed.size(); from += batchSize) {
+            write(failed.subList(from, Math.min(from + batchSize, failed.size())));
+        }
+
+        List<ChatMessage> batch = new ArrayList<>();
+        Conversation conversation;
+        while ((conversation = dirty.poll()) != null) {
+            synchronized (conversation) {
+                batch.addAll(conversation.segment);
+                conversation.segment.clear();
+                conversation.dirty = false;
+            }
+            if (batch.size() >= batchSize) {
+                write(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    private void write(List<ChatMessage> batch) {
+        long start = System.nanoTime();
+        try {
+            insert(batch);
+        } catch (DataAccessException | TransactionException e) {
+            if (!isRejected(e)) {
+                // Kept until the database is back; appends are refused once maxPending is reached
+                log.warn("Could not write {} chat messages, will retry: {}", batch.size(), e.getMessage());
+                retry.addAll(batch);
+            } else {
+                writeOneByOne(batch);
+            }
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Write a rejected batch row by row, dropping the rows the database refuses
+     */
+    private void writeOneByOne(List<ChatMessage> batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            ChatMessage message = batch.get(i);
+            try {
+                insert(List.of(message));
+            } catch (DataAccessException | TransactionException e) {
+                if (!isRejected(e)) {
+                    log.warn("Could not write {} chat messages, will retry: {}", batch.size() - i, e.getMessage());
+                    retry.addAll(batch.subList(i, batch.size()));
+                    return;
+                }
+                log.error("Dropping chat message {}#{} rejected by the database: {}",
+                        message.getConversationId(), message.getSeq(), e.getMessage());
+                pending.decrementAndGet();
+                deadLettered.increment();
+            }
+        }
+    }
+
+    private void insert(List<ChatMessage> batch) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT, batch, batch.size(),
+                (ps, message) -> {
+                    ps.setString(1, message.getConversationId());
+                    ps.setInt(2, message.getSeq());
+                    ps.setString(3, message.getSender().name());
+                    if (message.getSenderId() != null) {
+                        ps.setLong(4, message.getSenderId());
+                    } else {
+                        ps.setNull(4, Types.BIGINT);
+                    }
+                    ps.setString(5, message.getContent());
+                    ps.setTimestamp(6, Timestamp.valueOf(message.getCreatedAt()));
+                }));
+        pending.addAndGet(-batch.size());
+        persisted.increment(batch.size());
+    }
+
+    // The rows themselves are at fault (bad data, constraint), not the connection: retrying will not help
+    private static boolean isRejected(RuntimeException e) {
+        return e instanceof NonTransientDataAccessException && !(e instanceof DataAccessResourceFailureException);
+    }
+
+    /**
+     * Drop idle conversations from memory once everything they hold is committed.
+     * Synchronized with {@link #flush} so no batch is in flight.
+     */
+    @Scheduled(fixedDelayString = "${chat.history.evictMs:60000}")
+    public synchronized void evictIdle() {
+        if (!retry.isEmpty()) {
+            // A conversation reloaded while its messages await a retry would reuse their seq
+            return;
+        }
+        long cutoff = System.currentTimeMillis() - idleMillis;
+        for (Conversation conversation : conversations.values()) {
+            synchronized (conversation) {
+                if (conversation.lastUsed < cutoff && !conversation.dirty) {
+                    conversation.evicted = true;
+                    conversations.remove(conversation.id, conversation);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        if (pending.get() > 0) {
+            log.warn("{} chat messages were not written before shutdown", pending.get());
+        }
+    }
+
+    // Called with the conversation's monitor held
+    private void load(Conversation conversation) {
+        if (conversation.loaded) {
+            return;
+        }
+        List<ChatMessage> latest = jdbcTemplate.query(SELECT + "WHERE conversation_id = ? ORDER BY seq DESC LIMIT ?",
+                ROW_MAPPER, conversation.id, recentSize);
+        for (int i = latest.size() - 1; i >= 0; i--) {
+            conversation.remember(latest.get(i));
+        }
+        conversation.nextSeq = latest.isEmpty() ? 0 : latest.get(0).getSeq() + 1;
+        conversation.loaded = true;
+    }
+
+    /**
+     * A conversation held in memory; guarded by its own monitor
+     */
+    private final class Conversation {
+        final String id;
+        final ChatMessage[] recent = new ChatMessage[recentSize];
+        final List<ChatMessage> segment = new ArrayList<>();
+        int head;
+        int size;
+        int nextSeq;
+        boolean loaded;
+        boolean dirty;
+        boolean evicted;
+        volatile long lastUsed = System.currentTimeMillis();
+
+        Conversation(String id) {
+            this.id = id;
+        }
+
+        void remember(ChatMessage message) {
+            recent[head] = message;
+            head = (head + 1) % recent.length;
+            size = Math.min(size + 1, recent.length);
+        }
+
+        List<ChatMessage> latest(int limit) {
+            int n = Math.min(limit, size);
+            List<ChatMessage> messages = new ArrayList<>(n);
+            for (int i = n; i > 0; i--) {
+                messages.add(recent[(head - i + recent.length) % recent.length]);
+            }
+            return messages;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.mediconnect.mediconnect.service;
+
+import com.mediconnect.mediconnect.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Workers that produce streamed chatbot replies.
+ *
+ * The servlet thread hands the emitter back at once and a worker writes each
+ * token as it is produced, so the client sees the first words before the reply
+ * is finished. The pool and its queue are bounded; a full queue is answered
+ * with a {@link TooManyRequestsException} instead of an unbounded backlog of
+ * open streams.
+ */
+@Component
+public class ChatStreamExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final Counter rejected;
+
+    public ChatStreamExecutor(@Value("${chatbot.stream.threads:8}") int threads,
+                              @Value("${chatbot.stream.queueCapacity:64}") int queueCapacity,
+                              MeterRegistry meterRegistry) {
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "chatbot-stream-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.rejected = Counter.builder("chatbot.stream.rejected")
+                .description("Streamed replies rejected with 429 because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder("chatbot.stream.queued", executor, e -> e.getQueue().size())
+                .description("Streamed replies waiting for a worker")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run a streaming task on the pool
+     *
+     * @param task The task; it completes its emitter itself
+     * @throws TooManyRequestsException if the queue is full
+     */
+    public void execute(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new TooManyRequestsException("Too many chatbot requests, please retry shortly", 1);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
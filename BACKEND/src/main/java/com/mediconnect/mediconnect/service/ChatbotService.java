@@ -1,6 +1,30 @@
 package com.mediconnect.mediconnect.service;
 /*Integrates AI APIs (OpenAI or Infermedica) for symptom
     analysis and chatbot responses. */
-public class ChatbotService {
+import com.mediconnect.mediconnect.dto.ChatRequest;
+import com.mediconnect.mediconnect.dto.ChatResponse;
 
+import java.util.function.Consumer;
+
+/**
+ * Symptom-triage conversation. The implementation is picked with chatbot.provider:
+ * "local" ({@link TriageChatbotService}, the default) or "remote" ({@link RemoteChatbotService}).
+ */
+public interface ChatbotService {
+
+    /**
+     * Answer one user message, continuing the request's session or starting a new one
+     *
+     * @param request The user's message
+     * @param tokens  Receives the reply piece by piece as it is produced
+     * @return The full reply
+     */
+    ChatResponse reply(ChatRequest request, Consumer<String> tokens);
+
+    /**
+     * Forget a conversation
+     *
+     * @param sessionId Session ID from a previous reply
+     */
+    void endSession(String sessionId);
 }
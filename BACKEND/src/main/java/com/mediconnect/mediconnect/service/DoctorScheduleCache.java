@@ -0,0 +1,166 @@
+package com.mediconnect.mediconnect.service;
+
+import com.mediconnect.mediconnect.dto.AppointmentSummary;
+import com.mediconnect.mediconnect.repository.AppointmentRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory snapshot of each doctor's schedule per day, ordered by serial number.
+ *
+ * A day is loaded from the database on first read. After that, bookings and
+ * status changes are applied to the snapshot as they happen, so dashboard
+ * refreshes are served from memory. Snapshots are immutable lists swapped
+ * atomically (copy-on-write): readers never lock, writers to the same day are
+ * serialized by the map. Updates only touch days already loaded; a loading day
+ * holds its map bin until the query finishes, so an update committed meanwhile
+ * is applied right after and never lost.
+ *
+ * Only changes made on this node are applied, so a day is reloaded once it is
+ * ttlMs old; bookings taken by other nodes show up within that time.
+ *
+ * When full, expired days are dropped first, then the days furthest from
+ * today, past days before future ones.
+ */
+@Service
+public class DoctorScheduleCache {
+
+    private static final Comparator<AppointmentSummary> BY_SERIAL =
+            Comparator.comparing(AppointmentSummary::serialNumber);
+
+    private final AppointmentRepository appointmentRepository;
+    private final int maxCachedDays;
+    private final long ttlMillis;
+    private final Clock clock;
+
+    private final Map<ScheduleKey, Entry> schedules = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public DoctorScheduleCache(AppointmentRepository appointmentRepository,
+                               @Value("${appointment.schedule.cacheSize:10000}") int maxCachedDays,
+                               @Value("${appointment.schedule.ttlMs:5000}") long ttlMillis) {
+        this(appointmentRepository, maxCachedDays, ttlMillis, Clock.systemDefaultZone());
+    }
+
+    DoctorScheduleCache(AppointmentRepository appointmentRepository, int maxCachedDays, long ttlMillis,
+                        Clock clock) {
+        this.appointmentRepository = appointmentRepository;
+        this.maxCachedDays = maxCachedDays;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Get a doctor's appointments on a date, ordered by serial number
+     *
+     * @param doctorId The doctor ID
+     * @param date The date
+     * @return Immutable list of appointments
+     */
+    public List<AppointmentSummary> getSchedule(Long doctorId, LocalDate date) {
+        ScheduleKey key = new ScheduleKey(doctorId, date);
+        long now = clock.millis();
+        Entry entry = schedules.get(key);
+        if (entry != null && entry.isFresh(now, ttlMillis)) {
+            hits.increment();
+            return entry.schedule();
+        }
+        misses.increment();
+        evictIfFull(now);
+        return schedules.compute(key, (k, cached) -> cached != null && cached.isFresh(now, ttlMillis)
+                ? cached
+                : new Entry(List.copyOf(appointmentRepository.findDoctorDay(
+                        doctorId, date.atStartOfDay(), date.atTime(LocalTime.MAX))), now))
+                .schedule();
+    }
+
+    /**
+     * Apply a committed booking or status change to the cached day, if loaded
+     *
+     * @param appointment The appointment as it is now stored
+     */
+    public void appointmentChanged(AppointmentSummary appointment) {
+        ScheduleKey key = new ScheduleKey(appointment.doctorId(), appointment.appointmentDateTime().toLocalDate());
+        schedules.computeIfPresent(key, (k, entry) -> {
+            List<AppointmentSummary> updated = new ArrayList<>(entry.schedule().size() + 1);
+            for (AppointmentSummary existing : entry.schedule()) {
+                if (!existing.id().equals(appointment.id())) {
+                    updated.add(existing);
+                }
+            }
+            updated.add(appointment);
+            updated.sort(BY_SERIAL);
+            // Keep the load time: changes from other nodes are only picked up on reload
+            return new Entry(List.copyOf(updated), entry.loadedAt());
+        });
+    }
+
+    /**
+     * Drop every cached day, e.g. after a bulk import
+     */
+    public void clear() {
+        schedules.clear();
+    }
+
+    /**
+     * Number of cached days
+     */
+    public int size() {
+        return schedules.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    private void evictIfFull(long now) {
+        if (schedules.size() < maxCachedDays) {
+            return;
+        }
+        synchronized (this) {
+            schedules.values().removeIf(entry -> !entry.isFresh(now, ttlMillis));
+            int excess = schedules.size() - maxCachedDays + Math.max(1, maxCachedDays / 10);
+            if (excess <= 0) {
+                return;
+            }
+            LocalDate today = LocalDate.now(clock);
+            schedules.keySet().stream()
+                    .sorted(Comparator.comparingLong((ScheduleKey k) -> evictionRank(k.date(), today)).reversed())
+                    .limit(excess)
+                    .toList()
+                    .forEach(schedules::remove);
+        }
+    }
+
+    // Higher is evicted first; today is 0
+    private static long evictionRank(LocalDate date, LocalDate today) {
+        long days = ChronoUnit.DAYS.between(today, date);
+        return days < 0 ? -days * 2 : days;
+    }
+
+    private record ScheduleKey(Long doctorId, LocalDate date) {
+    }
+
+    private record Entry(List<AppointmentSummary> schedule, long loadedAt) {
+
+        boolean isFresh(long now, long ttlMillis) {
+            return now - loadedAt < ttlMillis;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.mediconnect.mediconnect.service;
+
+import com.mediconnect.mediconnect.exception.TooManyRequestsException;
+import com.mediconnect.mediconnect.model.EmergencySeverity;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Dedicated executor for /api/emergency/** work, so emergency requests hand off
+ * their servlet thread at once and never wait behind routine requests for a
+ * worker.
+ *
+ * Waiting tasks are ordered by severity, then arrival; a CRITICAL dispatch
+ * overtakes queued position updates. The queue is bounded by a size check before
+ * each hand-off, and the last reservedForUrgent places are kept for HIGH and
+ * CRITICAL work, so a backlog of routine updates can never turn a dispatch away.
+ *
+ * Only urgent (HIGH and CRITICAL) tasks feed the pressure signal: whenever one
+ * waits longer than the lane's wait target, or as many are queued as there are
+ * workers, the lane reports itself under pressure for a short hold period and
+ * {@link com.mediconnect.mediconnect.config.RequestLaneFilter} sheds low-priority
+ * endpoints meanwhile. Busy position traffic alone never sheds anything.
+ */
+@Component
+public class EmergencyLaneExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final int routineCapacity;
+    private final int pressureDepth;
+    private final long waitTargetNanos;
+    private final long holdMillis;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger urgentQueued = new AtomicInteger();
+
+    private final Timer waitTimer;
+    private final Counter rejected;
+
+    private volatile long pressureUntil;
+
+    public EmergencyLaneExecutor(@Value("${emergency.lane.threads:4}") int threads,
+                                 @Value("${emergency.lane.queueCapacity:256}") int queueCapacity,
+                                 @Value("${emergency.lane.reservedForUrgent:64}") int reservedForUrgent,
+                                 @Value("${emergency.lane.waitTargetMs:5}") long waitTargetMillis,
+                                 @Value("${emergency.lane.holdMs:2000}") long holdMillis,
+                                 MeterRegistry meterRegistry) {
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "emergency-lane-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    t.setPriority(Thread.MAX_PRIORITY);
+                    return t;
+                });
+        this.executor.prestartAllCoreThreads();
+        this.queueCapacity = queueCapacity;
+        this.routineCapacity = Math.max(0, queueCapacity - reservedForUrgent);
+        this.pressureDepth = threads;
+        this.waitTargetNanos = TimeUnit.MILLISECONDS.toNanos(waitTargetMillis);
+        this.holdMillis = holdMillis;
+
+        this.waitTimer = Timer.builder("requests.lane.wait")
+                .tag("lane", "emergency")
+                .description("Time emergency requests wait for a lane worker")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("requests.lane.rejected")
+                .tag("lane", "emergency")
+                .description("Emergency requests rejected because the lane queue was full")
+                .register(meterRegistry);
+        Gauge.builder("requests.lane.queued", executor, e -> e.getQueue().size())
+                .tag("lane", "emergency")
+                .description("Requests waiting for a lane worker")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run a task on the emergency lane
+     *
+     * @param severity Priority of the task
+     * @param task     The task
+     * @return Future completed with the task result, or with the exception it threw
+     * @throws TooManyRequestsException if the lane queue is full (for MODERATE and LOW
+     *                                  tasks: if only the places reserved for urgent ones are left)
+     */
+    public <T> CompletableFuture<T> submit(EmergencySeverity severity, Supplier<T> task) {
+        boolean urgent = isUrgent(severity);
+        if (executor.getQueue().size() >= (urgent ? queueCapacity : routineCapacity)) {
+            rejected.increment();
+            if (urgent) {
+                pressureUntil = System.currentTimeMillis() + holdMillis;
+            }
+            throw new TooManyRequestsException("Emergency lane is full, please retry", 1);
+        }
+        if (urgent) {
+            urgentQueued.incrementAndGet();
+        }
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executor.execute(new LaneTask(severity, sequence.getAndIncrement(), System.nanoTime(), () -> {
+            try {
+                future.complete(task.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }));
+        return future;
+    }
+
+    /**
+     * @return true while urgent emergency work is waiting longer than its target, or
+     * enough of it is queued that the next urgent request would wait
+     */
+    public boolean isUnderPressure() {
+        return System.currentTimeMillis() < pressureUntil || urgentQueued.get() >= pressureDepth;
+    }
+
+    private static boolean isUrgent(EmergencySeverity severity) {
+        return severity == EmergencySeverity.CRITICAL || severity == EmergencySeverity.HIGH;
+    }
+
+    int queued() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * A queued task; the most severe comes out first, then the oldest
+     */
+    private final class LaneTask implements Runnable, Comparable<LaneTask> {
+        private final EmergencySeverity severity;
+        private final long sequence;
+        private final long queuedAt;
+        private final Runnable body;
+
+        LaneTask(EmergencySeverity severity, long sequence, long queuedAt, Runnable body) {
+            this.severity = severity;
+            this.sequence = sequence;
+            this.queuedAt = queuedAt;
+            this.body = body;
+        }
+
+        @Override
+        public void run() {
+            long waited = System.nanoTime() - queuedAt;
+            waitTimer.record(waited, TimeUnit.NANOSECONDS);
+            if (isUrgent(severity)) {
+                urgentQueued.decrementAndGet();
+                if (waited > waitTargetNanos) {
+                    pressureUntil = System.currentTimeMillis() + holdMillis;
+                }
+            }
+            body.run();
+        }
+
+        @Override
+        public int compareTo(LaneTask other) {
+            int bySeverity = severity.compareTo(other.severity);
+            return bySeverity != 0 ? bySeverity : Long.compare(sequence, other.sequence);
+        }
+    }
+}
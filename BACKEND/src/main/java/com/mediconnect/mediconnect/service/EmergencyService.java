@@ -1,6 +1,196 @@
 package com.mediconnect.mediconnect.service;
-/*Manages emergency alerts, hospital notifications, 
+/*Manages emergency alerts, hospital notifications,
 ambulance dispatch triggers. */
+import com.mediconnect.mediconnect.dto.EmergencyAssignment;
+import com.mediconnect.mediconnect.dto.EmergencyRequest;
+import com.mediconnect.mediconnect.dto.ResponderLocation;
+import com.mediconnect.mediconnect.dto.ResponderPosition;
+import com.mediconnect.mediconnect.exception.InvalidStatusTransitionException;
+import com.mediconnect.mediconnect.exception.ResourceNotFoundException;
+import com.mediconnect.mediconnect.model.ResponderKind;
+import com.mediconnect.mediconnect.service.ResponderIndex.Candidate;
+import com.mediconnect.mediconnect.service.ResponderIndex.Responder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends the nearest available responder to an emergency.
+ *
+ * Responder positions live only in {@link ResponderIndex}; devices report them
+ * every few seconds, so nothing here touches the database. A dispatch takes the
+ * few nearest available candidates and claims the first one it can; if every
+ * candidate was claimed by a concurrent dispatch it searches again. The
+ * assignment is pushed to the responder over STOMP.
+ */
+@Service
 public class EmergencyService {
 
+    public static final String RESPONDER_TOPIC = "/topic/responders/";
+
+    // Searches before giving up when concurrent dispatches keep taking the candidates
+    private static final int DISPATCH_ATTEMPTS = 3;
+
+    private final ResponderIndex responderIndex;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final double radiusKm;
+    private final int candidates;
+    private final long staleMillis;
+    private final long offlineMillis;
+
+    private final Timer dispatchTimer;
+    private final Counter unserved;
+
+    public EmergencyService(ResponderIndex responderIndex,
+                            SimpMessagingTemplate messagingTemplate,
+                            MeterRegistry meterRegistry,
+                            @Value("${emergency.dispatch.radiusKm:50}") double radiusKm,
+                            @Value("${emergency.dispatch.candidates:8}") int candidates,
+                            @Value("${emergency.responders.staleMs:120000}") long staleMillis,
+                            @Value("${emergency.responders.offlineMs:900000}") long offlineMillis) {
+        this.responderIndex = responderIndex;
+        this.messagingTemplate = messagingTemplate;
+        this.radiusKm = radiusKm;
+        this.candidates = candidates;
+        this.staleMillis = staleMillis;
+        this.offlineMillis = offlineMillis;
+
+        this.dispatchTimer = meterRegistry.timer("emergency.dispatch");
+        this.unserved = meterRegistry.counter("emergency.dispatch.unserved");
+        Gauge.builder("emergency.responders", responderIndex, ResponderIndex::size)
+                .description("Responders on duty")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Record a responder's position; the first report puts it on duty
+     *
+     * @param responderId Responder ID
+     * @param location    Current position
+     */
+    public void updateLocation(Long responderId, ResponderLocation location) {
+        responderIndex.update(responderId, location.getKind(), location.getLatitude(), location.getLongitude());
+    }
+
+    /**
+     * Take a responder off duty
+     *
+     * @param responderId Responder ID
+     * @throws ResourceNotFoundException if the responder is not on duty
+     */
+    public void goOffDuty(Long responderId) {
+        if (!responderIndex.remove(responderId)) {
+            throw new ResourceNotFoundException("Responder not on duty");
+        }
+    }
+
+    /**
+     * Make an assigned responder available again
+     *
+     * @param responderId Responder ID
+     * @throws ResourceNotFoundException if the responder is not on duty
+     * @throws InvalidStatusTransitionException if the responder is not assigned
+     */
+    public void release(Long responderId) {
+        Responder responder = responderIndex.get(responderId);
+        if (responder == null) {
+            throw new ResourceNotFoundException("Responder not on duty");
+        }
+        if (!responder.release()) {
+            throw new InvalidStatusTransitionException("Responder is not assigned to an emergency");
+        }
+    }
+
+    /**
+     * Assign the nearest available responder to an emergency and notify it
+     *
+     * @param request Where help is needed
+     * @return The assignment
+     * @throws ResourceNotFoundException if no responder is available within the dispatch radius
+     */
+    public EmergencyAssignment dispatch(EmergencyRequest request) {
+        long start = System.nanoTime();
+        Candidate assigned = null;
+        try {
+            long updatedSince = System.currentTimeMillis() - staleMillis;
+            for (int attempt = 0; attempt < DISPATCH_ATTEMPTS && assigned == null; attempt++) {
+                List<Candidate> nearest = responderIndex.nearest(request.getLatitude(), request.getLongitude(),
+                        request.getKind(), candidates, radiusKm, updatedSince);
+                if (nearest.isEmpty()) {
+                    break;
+                }
+                for (Candidate candidate : nearest) {
+                    if (candidate.responder().claim()) {
+                        assigned = candidate;
+                        break;
+                    }
+                }
+            }
+        } finally {
+            dispatchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        if (assigned == null) {
+            unserved.increment();
+            throw new ResourceNotFoundException("No responder available within " + radiusKm + " km");
+        }
+        Responder responder = assigned.responder();
+        EmergencyAssignment assignment = new EmergencyAssignment(
+                UUID.randomUUID().toString(),
+                responder.getId(),
+                responder.getKind(),
+                assigned.distanceKm(),
+                request.getSeverity(),
+                request.getPatientId(),
+                request.getLatitude(),
+                request.getLongitude(),
+                request.getDetails(),
+                LocalDateTime.now());
+        messagingTemplate.convertAndSend(RESPONDER_TOPIC + responder.getId(), assignment);
+        return assignment;
+    }
+
+    /**
+     * Available responders near a point, nearest first
+     *
+     * @param latitude  Latitude in degrees
+     * @param longitude Longitude in degrees
+     * @param kind      Kind of responder, or null for any
+     * @param limit     Maximum number of responders
+     * @return The responders
+     */
+    public List<ResponderPosition> nearby(double latitude, double longitude, ResponderKind kind, int limit) {
+        List<Candidate> nearest = responderIndex.nearest(latitude, longitude, kind, Math.max(1, Math.min(limit, 50)),
+                radiusKm, System.currentTimeMillis() - staleMillis);
+        List<ResponderPosition> positions = new ArrayList<>(nearest.size());
+        for (Candidate candidate : nearest) {
+            Responder responder = candidate.responder();
+            positions.add(new ResponderPosition(responder.getId(), responder.getKind(), responder.getLatitude(),
+                    responder.getLongitude(), candidate.distanceKm()));
+        }
+        return positions;
+    }
+
+    /**
+     * Take responders off duty whose devices stopped reporting; assigned ones stay
+     * until released
+     */
+    @Scheduled(fixedDelayString = "${emergency.responders.sweepMs:60000}")
+    public void removeSilentResponders() {
+        long cutoff = System.currentTimeMillis() - offlineMillis;
+        for (Responder responder : responderIndex.all()) {
+            responderIndex.removeIfSilent(responder, cutoff);
+        }
+    }
 }
@@ -0,0 +1,146 @@
+package com.mediconnect.mediconnect.service;
+
+import com.mediconnect.mediconnect.dto.StoredFile;
+import com.mediconnect.mediconnect.exception.FileTooLargeException;
+import com.mediconnect.mediconnect.exception.ResourceNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Streams uploaded files into the {@link ObjectStore}, hashing them with SHA-256
+ * and enforcing the size limit on the fly, so no file is ever buffered on the heap.
+ */
+@Service
+public class FileStorageService {
+
+    public static final String DOWNLOAD_PATH = "/api/files/";
+
+    private final ObjectStore objectStore;
+    private final long maxFileSize;
+
+    public FileStorageService(ObjectStore objectStore,
+                              @Value("${storage.maxFileSize:1073741824}") long maxFileSize) {
+        this.objectStore = objectStore;
+        this.maxFileSize = maxFileSize;
+    }
+
+    /**
+     * Store an uploaded file under a new random key
+     *
+     * @param content          The file content, consumed and closed by this call
+     * @param originalFilename Client-side file name, used only for its extension
+     * @param contentType      Declared content type (optional)
+     * @return Metadata of the stored file
+     */
+    public StoredFile store(InputStream content, String originalFilename, String contentType) throws IOException {
+        String key = UUID.randomUUID() + extensionOf(originalFilename);
+        MessageDigest digest = sha256();
+
+        SizeLimitedInputStream limited = new SizeLimitedInputStream(content, maxFileSize);
+        long size = objectStore.put(key, new DigestInputStream(limited, digest));
+
+        return new StoredFile(key, DOWNLOAD_PATH + key, contentType, size,
+                HexFormat.of().formatHex(digest.digest()));
+    }
+
+    /**
+     * Load a stored file
+     *
+     * @param key The object key
+     * @return The file as a streamable resource
+     */
+    public Resource load(String key) {
+        return objectStore.get(key)
+                .orElseThrow(() -> new ResourceNotFoundException("File not found"));
+    }
+
+    /**
+     * Local path of a stored file, if the object store keeps one
+     *
+     * @param key The object key
+     * @return The path, or empty
+     */
+    public Optional<Path> localPath(String key) {
+        return objectStore.localPath(key);
+    }
+
+    private static String extensionOf(String filename) {
+        if (filename == null) {
+            return "";
+        }
+        int dot = filename.lastIndexOf('.');
+        if (dot < 0 || dot == filename.length() - 1) {
+            return "";
+        }
+        String extension = filename.substring(dot + 1).toLowerCase();
+        return extension.length() <= 10 && extension.chars().allMatch(Character::isLetterOrDigit)
+                ? "." + extension
+                : "";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Fails the upload as soon as more than the allowed number of bytes has been read
+     */
+    private static final class SizeLimitedInputStream extends FilterInputStream {
+
+        private final long maxBytes;
+        private long count;
+
+        SizeLimitedInputStream(InputStream in, long maxBytes) {
+            super(in);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count(skipped);
+            return skipped;
+        }
+
+        private void count(long n) {
+            count += n;
+            if (count > maxBytes) {
+                throw new FileTooLargeException(maxBytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.mediconnect.mediconnect.service;
+
+import com.mediconnect.mediconnect.exception.InvalidInputException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * {@link ObjectStore} backed by a local directory, so the application runs without AWS.
+ * Uploads are streamed into a temporary file and atomically renamed into place.
+ */
+@Component
+public class LocalObjectStore implements ObjectStore {
+
+    private static final Pattern VALID_KEY = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]{0,199}");
+
+    private final Path root;
+
+    public LocalObjectStore(@Value("${storage.local.root:uploads}") String root) throws IOException {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+        Files.createDirectories(this.root);
+    }
+
+    @Override
+    public long put(String key, InputStream content) throws IOException {
+        Path target = resolve(key);
+        Path temp = Files.createTempFile(root, ".upload-", ".part");
+        try (InputStream in = content) {
+            long written = Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return written;
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+    }
+
+    @Override
+    public Optional<Resource> get(String key) {
+        Path path = resolve(key);
+        return Files.isRegularFile(path) ? Optional.of(new FileSystemResource(path)) : Optional.empty();
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        return Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        Path path = resolve(key);
+        return Files.isRegularFile(path) ? Optional.of(path) : Optional.empty();
+    }
+
+    private Path resolve(String key) {
+        // Keys are flat names; reject anything that could escape the root directory
+        if (key == null || !VALID_KEY.matcher(key).matches()) {
+            throw new InvalidInputException("Invalid object key");
+        }
+        return root.resolve(key);
+    }
+}
@@ -1,24 +1,49 @@
 package com.mediconnect.mediconnect.service;
 
+import com.mediconnect.mediconnect.dto.CursorPage;
+import com.mediconnect.mediconnect.dto.KeysetCursor;
+import com.mediconnect.mediconnect.dto.MedicalReportSummary;
+import com.mediconnect.mediconnect.dto.SearchCursor;
+import com.mediconnect.mediconnect.dto.StoredFile;
+import com.mediconnect.mediconnect.exception.InvalidInputException;
+import com.mediconnect.mediconnect.exception.InvalidStatusTransitionException;
+import com.mediconnect.mediconnect.exception.ResourceNotFoundException;
 import com.mediconnect.mediconnect.model.Appoinment;
 import com.mediconnect.mediconnect.model.Medicalreport;
 import com.mediconnect.mediconnect.model.Medicalreport.ReportStatus;
 import com.mediconnect.mediconnect.model.User;
 import com.mediconnect.mediconnect.repository.MedicalReportRepository;
+import com.mediconnect.mediconnect.repository.MedicalReportRepository.SearchHit;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 /**
  * Service for managing medical reports
  */
 @Service
+@Timed("mediconnect.service")
 public class MedicalReportService {
 
     @Autowired
     private MedicalReportRepository medicalReportRepository;
+
+    @Autowired
+    private ReportJobQueue reportJobQueue;
+
+    @Value("${pagination.maxPageSize:100}")
+    private int maxPageSize;
     
     /**
      * Create a new medical report
@@ -54,23 +79,124 @@ public class MedicalReportService {
     }
     
     /**
-     * Get all reports for a patient
+     * Create a new medical report for a file already streamed into the object store.
+     * The report is queued for processing (checksum, type check, preview, text) in the
+     * same transaction and returned right away as SUBMITTED.
      * 
      * @param patient The patient
-     * @return List of medical reports
+     * @param doctor The doctor
+     * @param appointment The related appointment (optional)
+     * @param title Report title
+     * @param description Report description
+     * @param file The stored file
+     * @return The created medical report
      */
-    public List<Medicalreport> getPatientReports(User patient) {
-        return medicalReportRepository.findByPatientOrderByCreatedAtDesc(patient);
+    @Transactional
+    public Medicalreport createReport(User patient, User doctor, Appoinment appointment,
+                                     String title, String description, StoredFile file) {
+        
+        Medicalreport report = Medicalreport.builder()
+                .patient(patient)
+                .doctor(doctor)
+                .appointment(appointment)
+                .title(title)
+                .description(description)
+                .fileUrl(file.getUrl())
+                .fileType(file.getContentType())
+                .fileSize(file.getSize())
+                .storageKey(file.getKey())
+                .checksum(file.getSha256())
+                .createdAt(LocalDateTime.now())
+                .status(ReportStatus.SUBMITTED)
+                .build();
+        
+        // Flush first: the job row references the report
+        Medicalreport saved = medicalReportRepository.saveAndFlush(report);
+        reportJobQueue.enqueue(saved.getId());
+        return saved;
     }
     
     /**
-     * Get all reports created by a doctor
+     * Get one page of a patient's reports, newest first
      * 
-     * @param doctor The doctor
-     * @return List of medical reports
+     * @param patientId The patient ID
+     * @param cursor Cursor returned with the previous page, or null for the first page
+     * @param size Requested page size (capped)
+     * @return Page of medical reports
+     */
+    public CursorPage<MedicalReportSummary> getPatientReports(Long patientId, String cursor, int size) {
+        int limit = clampPageSize(size);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Pageable page = PageRequest.ofSize(limit + 1);
+        
+        List<MedicalReportSummary> rows = after == null
+                ? medicalReportRepository.findPatientPage(patientId, page)
+                : medicalReportRepository.findPatientPageAfter(patientId, after.getTimestamp(), after.getId(), page);
+        return CursorPage.of(rows, limit, r -> new KeysetCursor(r.createdAt(), r.id()));
+    }
+    
+    /**
+     * Get one page of the reports created by a doctor, newest first
+     * 
+     * @param doctorId The doctor ID
+     * @param cursor Cursor returned with the previous page, or null for the first page
+     * @param size Requested page size (capped)
+     * @return Page of medical reports
      */
-    public List<Medicalreport> getDoctorReports(User doctor) {
-        return medicalReportRepository.findByDoctorOrderByCreatedAtDesc(doctor);
+    public CursorPage<MedicalReportSummary> getDoctorReports(Long doctorId, String cursor, int size) {
+        int limit = clampPageSize(size);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        Pageable page = PageRequest.ofSize(limit + 1);
+        
+        List<MedicalReportSummary> rows = after == null
+                ? medicalReportRepository.findDoctorPage(doctorId, page)
+                : medicalReportRepository.findDoctorPageAfter(doctorId, after.getTimestamp(), after.getId(), page);
+        return CursorPage.of(rows, limit, r -> new KeysetCursor(r.createdAt(), r.id()));
+    }
+    
+    /**
+     * Full-text search over a doctor's reports (title, description and text extracted
+     * from the file), most relevant first, one page at a time
+     * 
+     * @param doctorId The doctor ID
+     * @param query Search text (web search syntax: "phrase", or, -word)
+     * @param cursor Cursor returned with the previous page, or null for the first page
+     * @param size Requested page size (capped)
+     * @return Page of matching reports
+     */
+    public CursorPage<MedicalReportSummary> searchDoctorReports(Long doctorId, String query, String cursor, int size) {
+        if (query == null || query.isBlank()) {
+            throw new InvalidInputException("Search query is required");
+        }
+        int limit = clampPageSize(size);
+        SearchCursor after = SearchCursor.decode(cursor);
+        
+        List<SearchHit> hits = after == null
+                ? medicalReportRepository.searchDoctorReports(doctorId, query, limit + 1)
+                : medicalReportRepository.searchDoctorReportsAfter(doctorId, query, after.getRank(), after.getId(), limit + 1);
+        if (hits.isEmpty()) {
+            return new CursorPage<>(List.of(), null);
+        }
+        
+        boolean more = hits.size() > limit;
+        List<SearchHit> page = more ? hits.subList(0, limit) : hits;
+        
+        // Ranking touches medical_reports only; names are joined for the returned page alone
+        Map<Long, MedicalReportSummary> byId = new HashMap<>();
+        for (MedicalReportSummary summary : medicalReportRepository.findSummariesByIdIn(
+                page.stream().map(SearchHit::getId).toList())) {
+            byId.put(summary.id(), summary);
+        }
+        List<MedicalReportSummary> items = new ArrayList<>(page.size());
+        for (SearchHit hit : page) {
+            MedicalReportSummary summary = byId.get(hit.getId());
+            if (summary != null) {
+                items.add(summary);
+            }
+        }
+        
+        SearchHit last = page.get(page.size() - 1);
+        return new CursorPage<>(items, more ? new SearchCursor(last.getRank(), last.getId()).encode() : null);
     }
     
     /**
@@ -79,38 +205,45 @@ public class MedicalReportService {
      * @param appointment The appointment
      * @return List of medical reports
      */
-    public List<Medicalreport> getAppointmentReports(Appoinment appointment) {
+    public List<MedicalReportSummary> getAppointmentReports(Appoinment appointment) {
         return medicalReportRepository.findByAppointmentOrderByCreatedAtDesc(appointment);
     }
     
     /**
-     * Update report status
+     * Update report status with a single conditional UPDATE that only succeeds
+     * if the current status allows the transition
      * 
      * @param reportId The report ID
      * @param status The new status
      * @return The updated report
      */
-    public Medicalreport updateReportStatus(Long reportId, ReportStatus status) {
-        Medicalreport report = medicalReportRepository.findById(reportId)
-                .orElseThrow(() -> new RuntimeException("Medical report not found"));
-        
-        report.setStatus(status);
-        report.setUpdatedAt(LocalDateTime.now());
+    public MedicalReportSummary updateReportStatus(Long reportId, ReportStatus status) {
+        Optional<MedicalReportSummary> updated = medicalReportRepository.transitionStatus(reportId, status);
+        if (updated.isPresent()) {
+            return updated.get();
+        }
         
-        return medicalReportRepository.save(report);
+        Medicalreport current = medicalReportRepository.findById(reportId)
+                .orElseThrow(() -> new ResourceNotFoundException("Medical report not found"));
+        if (current.getStatus() == status) {
+            return medicalReportRepository.findSummariesByIdIn(List.of(reportId)).get(0);
+        }
+        throw new InvalidStatusTransitionException("Report cannot move from " + current.getStatus() + " to " + status);
     }
     
     /**
-     * Update report details
+     * Update report details. Fails with an optimistic locking error if the report
+     * was changed after it was read here.
      * 
      * @param reportId The report ID
      * @param title New title (optional)
      * @param description New description (optional)
-     * @return The updated report
+     * @return The updated report, as a summary that is safe to serialize outside the transaction
      */
-    public Medicalreport updateReportDetails(Long reportId, String title, String description) {
+    @Transactional
+    public MedicalReportSummary updateReportDetails(Long reportId, String title, String description) {
         Medicalreport report = medicalReportRepository.findById(reportId)
-                .orElseThrow(() -> new RuntimeException("Medical report not found"));
+                .orElseThrow(() -> new ResourceNotFoundException("Medical report not found"));
         
         if (title != null && !title.isEmpty()) {
             report.setTitle(title);
@@ -122,6 +255,12 @@ public class MedicalReportService {
         
         report.setUpdatedAt(LocalDateTime.now());
         
-        return medicalReportRepository.save(report);
+        // Flush so a version conflict surfaces here, then read back the same view as the list endpoints
+        medicalReportRepository.saveAndFlush(report);
+        return medicalReportRepository.findSummariesByIdIn(List.of(reportId)).get(0);
+    }
+    
+    private int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, maxPageSize));
     }
-}
\ No newline at end of file
+}
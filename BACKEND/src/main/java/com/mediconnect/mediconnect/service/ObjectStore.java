@@ -0,0 +1,52 @@
+package com.mediconnect.mediconnect.service;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Blob storage for uploaded files (medical scans, PDFs).
+ * Implementations must stream content and never hold a whole object in memory.
+ */
+public interface ObjectStore {
+
+    /**
+     * Store an object, replacing any existing object with the same key.
+     * The object only becomes visible once the stream has been fully written.
+     *
+     * @param key     Object key
+     * @param content Content stream, consumed and closed by this call
+     * @return Number of bytes written
+     */
+    long put(String key, InputStream content) throws IOException;
+
+    /**
+     * Get an object as a readable resource
+     *
+     * @param key Object key
+     * @return The object, or empty if it does not exist
+     */
+    Optional<Resource> get(String key);
+
+    /**
+     * Delete an object
+     *
+     * @param key Object key
+     * @return true if the object existed
+     */
+    boolean delete(String key) throws IOException;
+
+    /**
+     * Path of the object on the local filesystem, for stores that keep one.
+     * Lets the web layer hand the file to the container for zero-copy transfer.
+     *
+     * @param key Object key
+     * @return The local path, or empty if the store is not filesystem-backed
+     */
+    default Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,122 @@
+package com.mediconnect.mediconnect.service;
+
+import com.mediconnect.mediconnect.dto.PrescriptionView;
+import com.mediconnect.mediconnect.repository.PrescriptionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory copy of the current version of each patient's active prescriptions.
+ *
+ * A patient is loaded from the database on first read and served from memory
+ * until one of their prescriptions changes on this node, or for at most ttlMs.
+ * Lists are immutable. A loading patient holds its map bin until the query
+ * finishes, and writers invalidate only after their transaction commits, so an
+ * invalidation always waits for a concurrent load and then drops what it read.
+ * Changes made on other nodes are not seen here until the entry expires, so
+ * ttlMs bounds how stale a list can be.
+ *
+ * When full, expired patients are dropped first, then about a tenth of the rest.
+ */
+@Service
+public class PrescriptionCache {
+
+    private final PrescriptionRepository prescriptionRepository;
+    private final int maxPatients;
+    private final long ttlMillis;
+    private final Clock clock;
+
+    private final Map<Long, Entry> active = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public PrescriptionCache(PrescriptionRepository prescriptionRepository,
+                             @Value("${prescriptions.cache.maxPatients:10000}") int maxPatients,
+                             @Value("${prescriptions.cache.ttlMs:5000}") long ttlMillis) {
+        this(prescriptionRepository, maxPatients, ttlMillis, Clock.systemUTC());
+    }
+
+    PrescriptionCache(PrescriptionRepository prescriptionRepository, int maxPatients, long ttlMillis, Clock clock) {
+        this.prescriptionRepository = prescriptionRepository;
+        this.maxPatients = maxPatients;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Get the current versions of a patient's active prescriptions, newest first.
+     * Expired ones are included; callers check validUntil.
+     *
+     * @param patientId The patient ID
+     * @return Immutable list of prescriptions
+     */
+    public List<PrescriptionView> getActive(Long patientId) {
+        long now = clock.millis();
+        Entry entry = active.get(patientId);
+        if (entry != null && entry.isFresh(now, ttlMillis)) {
+            hits.increment();
+            return entry.prescriptions();
+        }
+        misses.increment();
+        evictIfFull(now);
+        return active.compute(patientId, (id, cached) -> cached != null && cached.isFresh(now, ttlMillis)
+                ? cached
+                : new Entry(prescriptionRepository.findActiveByPatient(id).stream()
+                        .map(PrescriptionView::of)
+                        .toList(), now))
+                .prescriptions();
+    }
+
+    /**
+     * Drop a patient after a committed change to one of their prescriptions
+     *
+     * @param patientId The patient ID
+     */
+    public void invalidate(Long patientId) {
+        active.remove(patientId);
+    }
+
+    /**
+     * Number of cached patients
+     */
+    public int size() {
+        return active.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    private void evictIfFull(long now) {
+        if (active.size() < maxPatients) {
+            return;
+        }
+        synchronized (this) {
+            active.values().removeIf(entry -> !entry.isFresh(now, ttlMillis));
+            int excess = active.size() - maxPatients + Math.max(1, maxPatients / 10);
+            Iterator<Long> patients = active.keySet().iterator();
+            while (excess-- > 0 && patients.hasNext()) {
+                patients.next();
+                patients.remove();
+            }
+        }
+    }
+
+    private record Entry(List<PrescriptionView> prescriptions, long loadedAt) {
+
+        boolean isFresh(long now, long ttlMillis) {
+            return now - loadedAt < ttlMillis;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.mediconnect.mediconnect.service;
+
+import com.mediconnect.mediconnect.dto.PrescriptionRequest;
+import com.mediconnect.mediconnect.dto.PrescriptionRevision;
+import com.mediconnect.mediconnect.dto.PrescriptionView;
+import com.mediconnect.mediconnect.exception.InvalidInputException;
+import com.mediconnect.mediconnect.exception.InvalidStatusTransitionException;
+import com.mediconnect.mediconnect.exception.ResourceNotFoundException;
+import com.mediconnect.mediconnect.model.Pescription;
+import com.mediconnect.mediconnect.model.Pescription.PrescriptionStatus;
+import com.mediconnect.mediconnect.model.Role;
+import com.mediconnect.mediconnect.model.User;
+import com.mediconnect.mediconnect.repository.PrescriptionRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Issues and revises prescriptions.
+ *
+ * Every change writes a new immutable version in one transaction; the patient's
+ * cached active list is dropped once it commits. Revisions name the version
+ * they replace, so a doctor editing an outdated copy gets 409 Conflict instead
+ * of silently overwriting someone else's change.
+ */
+@Service
+@Timed("mediconnect.service")
+public class PrescriptionService {
+
+    private final PrescriptionRepository prescriptionRepository;
+    private final PrescriptionCache prescriptionCache;
+    private final UserService userService;
+    private final TransactionTemplate transactionTemplate;
+    private final int validDays;
+
+    public PrescriptionService(PrescriptionRepository prescriptionRepository,
+                               PrescriptionCache prescriptionCache,
+                               UserService userService,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${prescriptions.validDays:30}") int validDays) {
+        this.prescriptionRepository = prescriptionRepository;
+        this.prescriptionCache = prescriptionCache;
+        this.userService = userService;
+        this.transactionTemplate = transactionTemplate;
+        this.validDays = validDays;
+    }
+
+    /**
+     * Issue a new prescription (version 1)
+     *
+     * @param request Patient, doctor and items
+     * @return The prescription
+     * @throws ResourceNotFoundException if the patient or doctor does not exist
+     * @throws InvalidInputException if the prescriber is not a doctor
+     */
+    public PrescriptionView issue(PrescriptionRequest request) {
+        userService.findById(request.getPatientId())
+                .orElseThrow(() -> new ResourceNotFoundException("Patient not found"));
+        User doctor = userService.findById(request.getDoctorId())
+                .orElseThrow(() -> new ResourceNotFoundException("Doctor not found"));
+        if (doctor.getRole() != Role.DOCTOR) {
+            throw new InvalidInputException("Prescriptions can only be issued by doctors");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate validUntil = request.getValidUntil() != null
+                ? request.getValidUntil() : now.toLocalDate().plusDays(validDays);
+        Pescription saved = transactionTemplate.execute(status -> prescriptionRepository.save(Pescription.builder()
+                .prescriptionId(prescriptionRepository.nextPrescriptionId())
+                .version(1)
+                .patientId(request.getPatientId())
+                .doctorId(request.getDoctorId())
+                .appointmentId(request.getAppointmentId())
+                .status(PrescriptionStatus.ACTIVE)
+                .items(List.copyOf(request.getItems()))
+                .notes(request.getNotes())
+                .validUntil(validUntil)
+                .issuedAt(now)
+                .build()));
+        prescriptionCache.invalidate(saved.getPatientId());
+        return PrescriptionView.of(saved);
+    }
+
+    /**
+     * Replace the items, notes or expiry of an active prescription
+     *
+     * @param prescriptionId The prescription ID
+     * @param revision The version being replaced and the new contents
+     * @return The new version
+     * @throws ResourceNotFoundException if the prescription does not exist
+     * @throws InvalidStatusTransitionException if the version is not current or the prescription is cancelled
+     */
+    public PrescriptionView revise(Long prescriptionId, PrescriptionRevision revision) {
+        return next(prescriptionId, revision.getVersion(), current -> Pescription.builder()
+                .status(PrescriptionStatus.ACTIVE)
+                .items(List.copyOf(revision.getItems()))
+                .notes(revision.getNotes())
+                .validUntil(revision.getValidUntil() != null ? revision.getValidUntil() : current.getValidUntil()));
+    }
+
+    /**
+     * Cancel an active prescription; its items stay readable in the cancelled version
+     *
+     * @param prescriptionId The prescription ID
+     * @param version The current version
+     * @return The cancelled version
+     * @throws ResourceNotFoundException if the prescription does not exist
+     * @throws InvalidStatusTransitionException if the version is not current or the prescription is cancelled
+     */
+    public PrescriptionView cancel(Long prescriptionId, Integer version) {
+        return next(prescriptionId, version, current -> Pescription.builder()
+                .status(PrescriptionStatus.CANCELLED)
+                .items(current.getItems())
+                .notes(current.getNotes())
+                .validUntil(current.getValidUntil()));
+    }
+
+    /**
+     * Get the current version of a prescription, e.g. for a pharmacy check
+     *
+     * @param prescriptionId The prescription ID
+     * @return The current version
+     * @throws ResourceNotFoundException if the prescription does not exist
+     */
+    public PrescriptionView getCurrent(Long prescriptionId) {
+        return prescriptionRepository.findCurrent(prescriptionId)
+                .map(PrescriptionView::of)
+                .orElseThrow(() -> new ResourceNotFoundException("Prescription not found"));
+    }
+
+    /**
+     * Get every version of a prescription
+     *
+     * @param prescriptionId The prescription ID
+     * @return List of versions, newest first
+     * @throws ResourceNotFoundException if the prescription does not exist
+     */
+    public List<PrescriptionView> getHistory(Long prescriptionId) {
+        List<PrescriptionView> versions = prescriptionRepository.findByPrescriptionIdOrderByVersionDesc(prescriptionId)
+                .stream()
+                .map(PrescriptionView::of)
+                .toList();
+        if (versions.isEmpty()) {
+            throw new ResourceNotFoundException("Prescription not found");
+        }
+        return versions;
+    }
+
+    /**
+     * Get a patient's prescriptions that can be dispensed today (served from the cache)
+     *
+     * @param patientId The patient ID
+     * @return List of prescriptions, newest first
+     */
+    public List<PrescriptionView> getActiveForPatient(Long patientId) {
+        LocalDate today = LocalDate.now();
+        return prescriptionCache.getActive(patientId).stream()
+                .filter(prescription -> !prescription.validUntil().isBefore(today))
+                .toList();
+    }
+
+    // Supersede the expected current version and insert the next one in one transaction
+    private PrescriptionView next(Long prescriptionId, Integer expectedVersion,
+                                  Function<Pescription, Pescription.PescriptionBuilder> contents) {
+        Pescription saved = transactionTemplate.execute(status -> {
+            Pescription current = prescriptionRepository.findCurrent(prescriptionId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Prescription not found"));
+            if (!current.getVersion().equals(expectedVersion)) {
+                throw new InvalidStatusTransitionException(
+                        "Prescription is at version " + current.getVersion() + ", not " + expectedVersion);
+            }
+            if (current.getStatus() != PrescriptionStatus.ACTIVE) {
+                throw new InvalidStatusTransitionException("Prescription is " + current.getStatus());
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            if (prescriptionRepository.supersede(prescriptionId, expectedVersion, now) == 0) {
+                throw new InvalidStatusTransitionException("Prescription was revised concurrently");
+            }
+            return prescriptionRepository.save(contents.apply(current)
+                    .prescriptionId(prescriptionId)
+                    .version(expectedVersion + 1)
+                    .patientId(current.getPatientId())
+                    .doctorId(current.getDoctorId())
+                    .appointmentId(current.getAppointmentId())
+                    .issuedAt(now)
+                    .build());
+        });
+        prescriptionCache.invalidate(saved.getPatientId());
+        return PrescriptionView.of(saved);
+    }
+}
@@ -0,0 +1,92 @@
+package com.mediconnect.mediconnect.service;
+
+import com.mediconnect.mediconnect.dto.AppointmentSummary;
+import com.mediconnect.mediconnect.dto.QueueStatus;
+import com.mediconnect.mediconnect.model.Appoinment.AppointmentStatus;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes "now serving" updates for each doctor's day over STOMP, so waiting
+ * patients subscribe instead of polling the appointment endpoints.
+ *
+ * Status changes only mark a (doctor, date) queue as dirty. A scheduled flush
+ * then computes each dirty queue once and broadcasts a single message to its
+ * topic, so a burst of changes costs one message per queue. The queue is
+ * read from the in-memory schedule snapshot, not from the database.
+ */
+@Service
+public class QueueStatusPublisher {
+
+    public static final String TOPIC_PREFIX = "/topic/queue/";
+
+    private final Set<QueueKey> dirty = ConcurrentHashMap.newKeySet();
+
+    private final DoctorScheduleCache scheduleCache;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    public QueueStatusPublisher(DoctorScheduleCache scheduleCache,
+                                SimpMessagingTemplate messagingTemplate) {
+        this.scheduleCache = scheduleCache;
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    /**
+     * Record that the queue of a doctor's day changed
+     *
+     * @param doctorId The doctor ID
+     * @param date The appointment date
+     */
+    public void queueChanged(Long doctorId, LocalDate date) {
+        dirty.add(new QueueKey(doctorId, date));
+    }
+
+    /**
+     * Current queue state of a doctor's day
+     *
+     * @param doctorId The doctor ID
+     * @param date The date
+     * @return The queue state
+     */
+    public QueueStatus getQueueStatus(Long doctorId, LocalDate date) {
+        return toQueueStatus(doctorId, date, scheduleCache.getSchedule(doctorId, date));
+    }
+
+    /**
+     * Broadcast every queue that changed since the last flush
+     */
+    @Scheduled(fixedDelayString = "${queue.push.intervalMs:250}")
+    public void flush() {
+        for (QueueKey key : dirty) {
+            if (dirty.remove(key)) {
+                messagingTemplate.convertAndSend(TOPIC_PREFIX + key.doctorId() + "/" + key.date(),
+                        getQueueStatus(key.doctorId(), key.date()));
+            }
+        }
+    }
+
+    static QueueStatus toQueueStatus(Long doctorId, LocalDate date, List<AppointmentSummary> day) {
+        List<Integer> waitingSerials = new ArrayList<>();
+        for (AppointmentSummary appointment : day) {
+            if (appointment.status() == AppointmentStatus.SCHEDULED
+                    || appointment.status() == AppointmentStatus.CONFIRMED) {
+                waitingSerials.add(appointment.serialNumber());
+            }
+        }
+        // The schedule snapshot is ordered by serial already; sorting keeps positionOf correct regardless
+        Collections.sort(waitingSerials);
+        Integer nowServing = waitingSerials.isEmpty() ? null : waitingSerials.get(0);
+        return new QueueStatus(doctorId, date, nowServing, waitingSerials.size(), List.copyOf(waitingSerials));
+    }
+
+    private record QueueKey(Long doctorId, LocalDate date) {
+    }
+}
@@ -0,0 +1,174 @@
+package com.mediconnect.mediconnect.service;
+
+import com.mediconnect.mediconnect.dto.JwtResponse;
+import com.mediconnect.mediconnect.exception.InvalidTokenException;
+import com.mediconnect.mediconnect.model.RefreshToken;
+import com.mediconnect.mediconnect.model.RevokedTokenFamily;
+import com.mediconnect.mediconnect.repository.RefreshTokenRepository;
+import com.mediconnect.mediconnect.repository.RevokedTokenFamilyRepository;
+import com.mediconnect.mediconnect.security.RevocationIndex;
+import com.mediconnect.mediconnect.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Issues and rotates refresh tokens.
+ *
+ * Each login starts a token family. A refresh token can be exchanged exactly
+ * once: rotation marks it replaced with a conditional update, so of two
+ * concurrent exchanges only one wins. Presenting an already rotated token
+ * means it was copied, so the whole family is revoked. Revoked families go
+ * to Postgres and to the in-memory {@link RevocationIndex} that the JWT filter
+ * checks on every request.
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    @Autowired
+    private RevokedTokenFamilyRepository revokedFamilyRepository;
+
+    @Autowired
+    private RevocationIndex revocationIndex;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    /**
+     * Load revocations from the database at startup
+     */
+    @PostConstruct
+    public void loadRevocations() {
+        reloadRevocations();
+    }
+
+    /**
+     * Start a new token family for a user who just logged in
+     * @param username The username (email)
+     * @return Access and refresh token
+     */
+    @Transactional
+    public JwtResponse issue(String username) {
+        return createTokens(username, UUID.randomUUID().toString(), UUID.randomUUID().toString());
+    }
+
+    /**
+     * Exchange a refresh token for a new access and refresh token
+     * @param refreshToken The current refresh token
+     * @return New access and refresh token
+     * @throws InvalidTokenException if the token is invalid, revoked or was already used
+     */
+    @Transactional(noRollbackFor = InvalidTokenException.class)
+    public JwtResponse rotate(String refreshToken) {
+        Claims claims = verify(refreshToken);
+        String username = claims.getSubject();
+        String familyId = claims.get(JwtUtil.FAMILY_CLAIM, String.class);
+
+        if (revocationIndex.isRevoked(familyId)) {
+            throw new InvalidTokenException("Refresh token has been revoked");
+        }
+
+        String nextId = UUID.randomUUID().toString();
+        if (refreshTokenRepository.markRotated(claims.getId(), nextId, LocalDateTime.now()) == 0) {
+            // Valid signature but no longer current: the token is being replayed
+            revokeFamily(familyId);
+            log.warn("Refresh token reuse detected for {}, token family {} revoked", username, familyId);
+            throw new InvalidTokenException("Refresh token has already been used");
+        }
+        if (userService.findByEmail(username) == null) {
+            throw new InvalidTokenException("User no longer exists");
+        }
+        return createTokens(username, familyId, nextId);
+    }
+
+    /**
+     * Log out: revoke the token family of a refresh token
+     * @param refreshToken The refresh token
+     */
+    @Transactional
+    public void revoke(String refreshToken) {
+        revokeFamily(verify(refreshToken).get(JwtUtil.FAMILY_CLAIM, String.class));
+    }
+
+    /**
+     * Pick up revocations made by other instances and drop expired ones
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.reloadMs}", initialDelayString = "${jwt.revocation.reloadMs}")
+    public void reloadRevocations() {
+        Map<String, Long> families = revokedFamilyRepository.findByExpiresAtAfter(LocalDateTime.now()).stream()
+                .collect(Collectors.toMap(RevokedTokenFamily::getFamilyId, f -> toEpochMillis(f.getExpiresAt())));
+        revocationIndex.addAll(families);
+        revocationIndex.pruneExpired(System.currentTimeMillis());
+    }
+
+    /**
+     * Delete expired refresh tokens and revocations
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.cleanupMs}", initialDelayString = "${jwt.revocation.cleanupMs}")
+    @Transactional
+    public void deleteExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int tokens = refreshTokenRepository.deleteExpired(now);
+        int families = revokedFamilyRepository.deleteExpired(now);
+        log.info("Deleted {} expired refresh tokens and {} expired revocations", tokens, families);
+    }
+
+    private JwtResponse createTokens(String username, String familyId, String tokenId) {
+        refreshTokenRepository.save(RefreshToken.builder()
+                .id(tokenId)
+                .familyId(familyId)
+                .username(username)
+                .expiresAt(LocalDateTime.now().plusNanos(jwtUtil.getRefreshExpirationMs() * 1_000_000))
+                .build());
+        return new JwtResponse(
+                jwtUtil.generateToken(username, familyId),
+                jwtUtil.generateRefreshToken(username, familyId, tokenId));
+    }
+
+    private void revokeFamily(String familyId) {
+        LocalDateTime now = LocalDateTime.now();
+        // Access tokens issued up to now stay valid for at most the access token lifetime
+        LocalDateTime expiresAt = now.plusNanos(jwtUtil.getJwtExpirationMs() * 1_000_000);
+
+        refreshTokenRepository.revokeFamily(familyId);
+        revokedFamilyRepository.revoke(familyId, now, expiresAt);
+        revocationIndex.add(familyId, toEpochMillis(expiresAt));
+    }
+
+    private Claims verify(String refreshToken) {
+        try {
+            Claims claims = jwtUtil.extractAllClaims(refreshToken);
+            if (!jwtUtil.isRefreshToken(claims) || claims.getId() == null
+                    || claims.get(JwtUtil.FAMILY_CLAIM, String.class) == null) {
+                throw new InvalidTokenException("Not a refresh token");
+            }
+            return claims;
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new InvalidTokenException("Invalid or expired refresh token");
+        }
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,34 @@
+package com.mediconnect.mediconnect.service;
+
+import com.mediconnect.mediconnect.dto.ChatRequest;
+import com.mediconnect.mediconnect.dto.ChatResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Placeholder for a hosted symptom-checker API, selected with chatbot.provider=remote.
+ * No provider is contracted yet, so it keeps the endpoint contract and points the
+ * user to a doctor instead of answering.
+ */
+@Service
+@ConditionalOnProperty(name = "chatbot.provider", havingValue = "remote")
+public class RemoteChatbotService implements ChatbotService {
+
+    private static final String UNAVAILABLE = "The symptom checker is not available right now. Please book an "
+            + "appointment, or call your local emergency number if you need help urgently.";
+
+    @Override
+    public ChatResponse reply(ChatRequest request, Consumer<String> tokens) {
+        String sessionId = request.getSessionId() != null ? request.getSessionId() : UUID.randomUUID().toString();
+        tokens.accept(UNAVAILABLE);
+        return new ChatResponse(sessionId, UNAVAILABLE, null, List.of(), null);
+    }
+
+    @Override
+    public void endSession(String sessionId) {
+    }
+}
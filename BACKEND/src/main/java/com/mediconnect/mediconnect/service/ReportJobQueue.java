@@ -0,0 +1,141 @@
+package com.mediconnect.mediconnect.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Durable queue of report processing jobs, kept in the report_jobs table.
+ *
+ * A job is inserted in the same transaction as its report, so no upload can be
+ * committed without its job (and vice versa). Workers claim due jobs with
+ * FOR UPDATE SKIP LOCKED and hold them under a lease: several instances can poll
+ * the same table without blocking each other, and a job whose worker died is
+ * picked up again once its lease runs out.
+ *
+ * Every claim bumps the job's attempt count, so a (stage, attempts) pair names
+ * exactly one lease. Updates after a claim are fenced on that pair: a worker
+ * that overran its lease and was overtaken by another one changes nothing and
+ * is told so, instead of rewinding or deleting the newer worker's job.
+ */
+@Component
+public class ReportJobQueue {
+
+    /**
+     * Pipeline stages, in the order a report goes through them
+     */
+    public enum Stage {
+        CHECKSUM,
+        SNIFF,
+        PREVIEW,
+        EXTRACT;
+
+        /**
+         * @return the following stage, or null after the last one
+         */
+        public Stage next() {
+            Stage[] stages = values();
+            return ordinal() + 1 < stages.length ? stages[ordinal() + 1] : null;
+        }
+    }
+
+    /**
+     * A claimed job
+     *
+     * @param id       Job ID
+     * @param reportId The report being processed
+     * @param stage    Stage to run
+     * @param attempts Claims of this stage so far, including the current one
+     */
+    public record Job(long id, long reportId, Stage stage, int attempts) {
+    }
+
+    // Claims due jobs of one stage and moves their reports from SUBMITTED to PROCESSING
+    private static final String CLAIM_SQL = "WITH claimed AS ("
+            + " UPDATE report_jobs SET locked_until = now() + ? * INTERVAL '1 millisecond', attempts = attempts + 1"
+            + " WHERE id IN (SELECT id FROM report_jobs"
+            + "   WHERE stage = ? AND available_at <= now() AND (locked_until IS NULL OR locked_until < now())"
+            + "   ORDER BY available_at LIMIT ? FOR UPDATE SKIP LOCKED)"
+            + " RETURNING id, report_id, attempts),"
+            + " started AS ("
+            + " UPDATE medical_reports SET status = 'PROCESSING', updated_at = now(), version = version + 1"
+            + " WHERE id IN (SELECT report_id FROM claimed) AND status = 'SUBMITTED')"
+            + " SELECT id, report_id, attempts FROM claimed";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ReportJobQueue(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Queue a report for processing, starting at the first stage.
+     * Joins the caller's transaction.
+     *
+     * @param reportId The report ID (the report row must already be flushed)
+     */
+    public void enqueue(long reportId) {
+        jdbcTemplate.update("INSERT INTO report_jobs (report_id, stage, available_at) VALUES (?, ?, now())"
+                + " ON CONFLICT (report_id) DO NOTHING", reportId, Stage.CHECKSUM.name());
+    }
+
+    /**
+     * Claim up to limit due jobs of a stage
+     *
+     * @param stage       The stage
+     * @param limit       Max jobs to claim
+     * @param leaseMillis How long the jobs stay reserved for this worker
+     * @return The claimed jobs, oldest first
+     */
+    public List<Job> claim(Stage stage, int limit, long leaseMillis) {
+        return jdbcTemplate.query(CLAIM_SQL,
+                (rs, row) -> new Job(rs.getLong("id"), rs.getLong("report_id"), stage, rs.getInt("attempts")),
+                leaseMillis, stage.name(), limit);
+    }
+
+    /**
+     * Hand a job on to the next stage, immediately due
+     *
+     * @param job  The finished job
+     * @param next The next stage
+     * @return false if the lease was lost and the job left untouched
+     */
+    public boolean advance(Job job, Stage next) {
+        return jdbcTemplate.update("UPDATE report_jobs SET stage = ?, attempts = 0, available_at = now(),"
+                + " locked_until = NULL, last_error = NULL WHERE id = ? AND stage = ? AND attempts = ?",
+                next.name(), job.id(), job.stage().name(), job.attempts()) > 0;
+    }
+
+    /**
+     * Release a job for another attempt of the same stage after a delay
+     *
+     * @param job         The failed job
+     * @param delayMillis Delay before the job is due again
+     * @param error       What went wrong
+     * @return false if the lease was lost and the job left untouched
+     */
+    public boolean retry(Job job, long delayMillis, String error) {
+        return jdbcTemplate.update("UPDATE report_jobs SET available_at = now() + ? * INTERVAL '1 millisecond',"
+                + " locked_until = NULL, last_error = ? WHERE id = ? AND stage = ? AND attempts = ?",
+                delayMillis, truncate(error), job.id(), job.stage().name(), job.attempts()) > 0;
+    }
+
+    /**
+     * Remove a job that reached a final state
+     *
+     * @param job The job
+     * @return false if the lease was lost and the job left untouched
+     */
+    public boolean complete(Job job) {
+        return jdbcTemplate.update("DELETE FROM report_jobs WHERE id = ? AND stage = ? AND attempts = ?",
+                job.id(), job.stage().name(), job.attempts()) > 0;
+    }
+
+    static String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() <= 1000 ? message : message.substring(0, 1000);
+    }
+}
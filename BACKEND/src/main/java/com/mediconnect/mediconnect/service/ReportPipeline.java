@@ -0,0 +1,280 @@
+package com.mediconnect.mediconnect.service;
+
+import com.mediconnect.mediconnect.exception.ReportProcessingException;
+import com.mediconnect.mediconnect.model.Medicalreport;
+import com.mediconnect.mediconnect.model.Medicalreport.ReportStatus;
+import com.mediconnect.mediconnect.repository.MedicalReportRepository;
+import com.mediconnect.mediconnect.service.ReportJobQueue.Job;
+import com.mediconnect.mediconnect.service.ReportJobQueue.Stage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs uploaded reports through checksum verification, MIME sniffing, preview
+ * rendering and text extraction, off the request path.
+ *
+ * Each stage has its own small worker pool with a bounded hand-off queue. The
+ * poller only claims as many jobs from {@link ReportJobQueue} as a stage's queue
+ * has room for, so a backlog stays in the database instead of piling up in
+ * memory, and a slow stage (previews) never starves a fast one (sniffing).
+ *
+ * Status: SUBMITTED -> PROCESSING when the first stage is claimed, PROCESSED after
+ * the last stage, FAILED when the file is rejected or retries are exhausted.
+ */
+@Service
+public class ReportPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportPipeline.class);
+
+    private static final long MAX_BACKOFF_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private final ReportJobQueue jobQueue;
+    private final ReportProcessor processor;
+    private final MedicalReportRepository reportRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final long leaseMillis;
+
+    private final Map<Stage, ThreadPoolExecutor> workers = new EnumMap<>(Stage.class);
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Counter processed;
+    private final Counter failed;
+
+    public ReportPipeline(ReportJobQueue jobQueue,
+                          ReportProcessor processor,
+                          MedicalReportRepository reportRepository,
+                          TransactionTemplate transactionTemplate,
+                          MeterRegistry meterRegistry,
+                          @Value("${reports.pipeline.checksumThreads:2}") int checksumThreads,
+                          @Value("${reports.pipeline.sniffThreads:1}") int sniffThreads,
+                          @Value("${reports.pipeline.previewThreads:2}") int previewThreads,
+                          @Value("${reports.pipeline.extractThreads:2}") int extractThreads,
+                          @Value("${reports.pipeline.queueCapacity:16}") int queueCapacity,
+                          @Value("${reports.pipeline.maxAttempts:5}") int maxAttempts,
+                          @Value("${reports.pipeline.leaseMs:300000}") long leaseMillis) {
+        this.jobQueue = jobQueue;
+        this.processor = processor;
+        this.reportRepository = reportRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.maxAttempts = maxAttempts;
+        this.leaseMillis = leaseMillis;
+
+        Map<Stage, Integer> threads = Map.of(
+                Stage.CHECKSUM, checksumThreads,
+                Stage.SNIFF, sniffThreads,
+                Stage.PREVIEW, previewThreads,
+                Stage.EXTRACT, extractThreads);
+        for (Stage stage : Stage.values()) {
+            ThreadPoolExecutor executor = newStagePool(stage, threads.get(stage), queueCapacity);
+            workers.put(stage, executor);
+            stageTimers.put(stage, Timer.builder("reports.pipeline.stage")
+                    .tag("stage", stage.name().toLowerCase())
+                    .register(meterRegistry));
+            Gauge.builder("reports.pipeline.queued", executor, e -> e.getQueue().size())
+                    .tag("stage", stage.name().toLowerCase())
+                    .description("Claimed jobs waiting for a stage worker")
+                    .register(meterRegistry);
+        }
+        this.processed = meterRegistry.counter("reports.pipeline.completed", "result", "processed");
+        this.failed = meterRegistry.counter("reports.pipeline.completed", "result", "failed");
+    }
+
+    /**
+     * Claim due jobs for every stage that has room in its hand-off queue
+     */
+    @Scheduled(fixedDelayString = "${reports.pipeline.pollMs:500}")
+    public void poll() {
+        for (Map.Entry<Stage, ThreadPoolExecutor> entry : workers.entrySet()) {
+            ThreadPoolExecutor executor = entry.getValue();
+            // Only this thread submits, so the free capacity cannot shrink before execute()
+            int free = executor.getQueue().remainingCapacity();
+            if (free == 0 || executor.isShutdown()) {
+                continue;
+            }
+
+            List<Job> jobs;
+            try {
+                jobs = jobQueue.claim(entry.getKey(), free, leaseMillis);
+            } catch (DataAccessException e) {
+                // Still try the other stages; this one is retried on the next poll
+                log.warn("Could not claim {} jobs: {}", entry.getKey(), e.getMessage());
+                continue;
+            }
+            for (Job job : jobs) {
+                executor.execute(() -> process(job));
+            }
+        }
+    }
+
+    /**
+     * Run one stage of one report and record the outcome
+     *
+     * @param job The claimed job
+     */
+    void process(Job job) {
+        long start = System.nanoTime();
+        try {
+            Medicalreport report = reportRepository.findById(job.reportId()).orElse(null);
+            if (report == null) {
+                if (!jobQueue.complete(job)) {
+                    logLostLease(job);
+                }
+                return;
+            }
+            String result = report.getStorageKey() != null ? runStage(job.stage(), report) : null;
+            if (!Boolean.TRUE.equals(transactionTemplate.execute(status -> finishStage(job, result)))) {
+                logLostLease(job);
+            }
+        } catch (ReportProcessingException e) {
+            log.info("Report {} rejected at {}: {}", job.reportId(), job.stage(), e.getMessage());
+            fail(job, e.getMessage());
+        } catch (Exception e) {
+            if (job.attempts() >= maxAttempts) {
+                log.warn("Report {} failed at {} after {} attempts", job.reportId(), job.stage(), job.attempts(), e);
+                fail(job, "Processing failed: " + e.getMessage());
+            } else {
+                long delay = Math.min(MAX_BACKOFF_MILLIS, 1000L << Math.min(job.attempts(), 20));
+                log.debug("Report {} will retry {} in {} ms", job.reportId(), job.stage(), delay, e);
+                retry(job, delay, e.getMessage());
+            }
+        } finally {
+            stageTimers.get(job.stage()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private String runStage(Stage stage, Medicalreport report) throws Exception {
+        String key = report.getStorageKey();
+        return switch (stage) {
+            case CHECKSUM -> processor.checksum(key, report.getChecksum());
+            case SNIFF -> processor.sniff(key);
+            case PREVIEW -> processor.preview(key, report.getMimeType());
+            case EXTRACT -> processor.extractText(key, report.getMimeType());
+        };
+    }
+
+    /**
+     * Store a stage's result and move the job on
+     *
+     * @return false if the lease was lost; the report is then left as it was
+     */
+    private boolean finishStage(Job job, String result) {
+        Medicalreport report = reportRepository.findById(job.reportId()).orElse(null);
+        if (report == null) {
+            return jobQueue.complete(job);
+        }
+
+        Stage next = job.stage().next();
+        if (next != null ? !jobQueue.advance(job, next) : !jobQueue.complete(job)) {
+            return false;
+        }
+
+        switch (job.stage()) {
+            case CHECKSUM -> report.setChecksum(result);
+            case SNIFF -> report.setMimeType(result);
+            case PREVIEW -> report.setPreviewKey(result);
+            case EXTRACT -> report.setExtractedText(result);
+        }
+
+        if (next == null) {
+            if (report.getStatus().canTransitionTo(ReportStatus.PROCESSED)) {
+                report.setStatus(ReportStatus.PROCESSED);
+            }
+            processed.increment();
+        }
+        report.setUpdatedAt(LocalDateTime.now());
+        return true;
+    }
+
+    private void fail(Job job, String error) {
+        try {
+            boolean recorded = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                if (!jobQueue.complete(job)) {
+                    return false;
+                }
+                reportRepository.findById(job.reportId()).ifPresent(report -> {
+                    if (report.getStatus().canTransitionTo(ReportStatus.FAILED)) {
+                        report.setStatus(ReportStatus.FAILED);
+                    }
+                    report.setProcessingError(ReportJobQueue.truncate(error));
+                    report.setUpdatedAt(LocalDateTime.now());
+                });
+                return true;
+            }));
+            if (recorded) {
+                failed.increment();
+            } else {
+                logLostLease(job);
+            }
+        } catch (DataAccessException e) {
+            // Includes a concurrent status change (version conflict); the lease runs out and the stage is claimed again
+            log.warn("Could not record failure of report {}: {}", job.reportId(), e.getMessage());
+        }
+    }
+
+    private void retry(Job job, long delayMillis, String error) {
+        try {
+            if (!jobQueue.retry(job, delayMillis, error)) {
+                logLostLease(job);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Could not reschedule report {}: {}", job.reportId(), e.getMessage());
+        }
+    }
+
+    private static void logLostLease(Job job) {
+        log.info("Dropping {} result of report {}: its lease ran out and another worker claimed the job",
+                job.stage(), job.reportId());
+    }
+
+    private static ThreadPoolExecutor newStagePool(Stage stage, int threads, int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        String prefix = "report-" + stage.name().toLowerCase() + "-";
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, prefix + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Stop taking work; jobs still queued in memory are claimed again after their lease
+     */
+    @PreDestroy
+    public void shutdown() {
+        for (ThreadPoolExecutor executor : workers.values()) {
+            executor.shutdown();
+        }
+        for (ThreadPoolExecutor executor : workers.values()) {
+            try {
+                if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                    executor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,315 @@
+package com.mediconnect.mediconnect.service;
+
+import com.mediconnect.mediconnect.exception.ReportProcessingException;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.RandomAccessReadBuffer;
+import org.apache.pdfbox.io.RandomAccessReadBufferedFile;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Optional;
+
+/**
+ * The work done by each stage of the report pipeline. Every method streams the
+ * stored file; nothing larger than a preview image is held on the heap.
+ *
+ * {@link ReportProcessingException} means the file itself is unacceptable;
+ * an IOException is treated as transient and the stage is retried.
+ */
+@Component
+public class ReportProcessor {
+
+    public static final String PDF = "application/pdf";
+    public static final String PNG = "image/png";
+    public static final String JPEG = "image/jpeg";
+    public static final String GIF = "image/gif";
+    public static final String DICOM = "application/dicom";
+    public static final String TEXT = "text/plain";
+
+    private static final String PREVIEW_SUFFIX = ".preview.png";
+
+    // DICOM files start with a 128-byte preamble followed by "DICM"
+    private static final int SNIFF_LENGTH = 132;
+
+    private final ObjectStore objectStore;
+    private final int previewSize;
+    private final int maxTextLength;
+    private final int maxTextPages;
+
+    public ReportProcessor(ObjectStore objectStore,
+                           @Value("${reports.preview.size:256}") int previewSize,
+                           @Value("${reports.text.maxLength:100000}") int maxTextLength,
+                           @Value("${reports.text.maxPages:50}") int maxTextPages) {
+        this.objectStore = objectStore;
+        this.previewSize = previewSize;
+        this.maxTextLength = maxTextLength;
+        this.maxTextPages = maxTextPages;
+    }
+
+    /**
+     * Hash a stored file and compare it with the hash taken at upload time
+     *
+     * @param key      Object key
+     * @param expected SHA-256 recorded at upload (optional)
+     * @return The SHA-256 of the stored file, hex encoded
+     */
+    public String checksum(String key, String expected) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+
+        try (InputStream in = new DigestInputStream(open(key), digest)) {
+            in.transferTo(OutputStream.nullOutputStream());
+        }
+        String actual = HexFormat.of().formatHex(digest.digest());
+        if (expected != null && !expected.equalsIgnoreCase(actual)) {
+            throw new ReportProcessingException("Stored file does not match its upload checksum");
+        }
+        return actual;
+    }
+
+    /**
+     * Detect the real type of a stored file from its leading bytes
+     *
+     * @param key Object key
+     * @return The MIME type
+     * @throws ReportProcessingException if the file is not PDF, PNG, JPEG, GIF, DICOM or plain text
+     */
+    public String sniff(String key) throws IOException {
+        byte[] head;
+        try (InputStream in = open(key)) {
+            head = in.readNBytes(SNIFF_LENGTH);
+        }
+        String type = detectType(head, head.length);
+        if (type == null) {
+            throw new ReportProcessingException("Unsupported file type");
+        }
+        return type;
+    }
+
+    /**
+     * Render a small PNG preview of an image or the first page of a PDF
+     *
+     * @param key      Object key
+     * @param mimeType Sniffed MIME type
+     * @return Object key of the preview, or null if the type has no preview
+     */
+    public String preview(String key, String mimeType) throws IOException {
+        BufferedImage image;
+        if (PDF.equals(mimeType)) {
+            image = renderFirstPage(key);
+        } else if (PNG.equals(mimeType) || JPEG.equals(mimeType) || GIF.equals(mimeType)) {
+            image = decodeSubsampled(key);
+        } else {
+            return null;
+        }
+
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(fit(image), "png", png);
+        String previewKey = key + PREVIEW_SUFFIX;
+        objectStore.put(previewKey, new ByteArrayInputStream(png.toByteArray()));
+        return previewKey;
+    }
+
+    /**
+     * Extract searchable text from a PDF or plain text file
+     *
+     * @param key      Object key
+     * @param mimeType Sniffed MIME type
+     * @return The text (capped at the configured length), or null if the type has none
+     */
+    public String extractText(String key, String mimeType) throws IOException {
+        String text;
+        if (PDF.equals(mimeType)) {
+            try (PDDocument document = loadPdf(key)) {
+                PDFTextStripper stripper = new PDFTextStripper();
+                stripper.setEndPage(maxTextPages);
+                text = stripper.getText(document);
+            }
+        } else if (TEXT.equals(mimeType)) {
+            text = readText(key);
+        } else {
+            return null;
+        }
+        return clean(text);
+    }
+
+    /**
+     * Match leading bytes against the signatures of the accepted formats
+     *
+     * @param head   Leading bytes of the file
+     * @param length Number of valid bytes in head
+     * @return The MIME type, or null if no accepted format matches
+     */
+    static String detectType(byte[] head, int length) {
+        if (startsWith(head, length, 0, '%', 'P', 'D', 'F', '-')) {
+            return PDF;
+        }
+        if (startsWith(head, length, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return PNG;
+        }
+        if (startsWith(head, length, 0, 0xFF, 0xD8, 0xFF)) {
+            return JPEG;
+        }
+        if (startsWith(head, length, 0, 'G', 'I', 'F', '8')) {
+            return GIF;
+        }
+        if (startsWith(head, length, 128, 'D', 'I', 'C', 'M')) {
+            return DICOM;
+        }
+        return length > 0 && isText(head, length) ? TEXT : null;
+    }
+
+    private static boolean startsWith(byte[] head, int length, int offset, int... signature) {
+        if (length < offset + signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((head[offset + i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Printable ASCII, whitespace or UTF-8 multi-byte sequences only; no control bytes
+    private static boolean isText(byte[] head, int length) {
+        for (int i = 0; i < length; i++) {
+            int b = head[i] & 0xFF;
+            if (b < 0x20 && b != '\n' && b != '\r' && b != '\t' && b != '\f') {
+                return false;
+            }
+            if (b == 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private BufferedImage decodeSubsampled(String key) throws IOException {
+        try (InputStream in = open(key); ImageInputStream images = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(images);
+            if (!readers.hasNext()) {
+                throw new ReportProcessingException("Image could not be decoded");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(images, true, true);
+                int longest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                // Skip source pixels while decoding so a large scan never gets a full-size raster
+                int step = Math.max(1, longest / (previewSize * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } catch (IOException | RuntimeException e) {
+                throw new ReportProcessingException("Image could not be decoded", e);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage renderFirstPage(String key) throws IOException {
+        try (PDDocument document = loadPdf(key)) {
+            if (document.getNumberOfPages() == 0) {
+                throw new ReportProcessingException("PDF has no pages");
+            }
+            PDRectangle box = document.getPage(0).getCropBox();
+            float scale = previewSize / Math.max(box.getWidth(), box.getHeight());
+            return new PDFRenderer(document).renderImage(0, Math.min(scale, 1f));
+        }
+    }
+
+    private PDDocument loadPdf(String key) throws IOException {
+        Optional<Path> path = objectStore.localPath(key);
+        try {
+            if (path.isPresent()) {
+                return Loader.loadPDF(new RandomAccessReadBufferedFile(path.get().toFile()));
+            }
+            try (InputStream in = open(key)) {
+                return Loader.loadPDF(new RandomAccessReadBuffer(in));
+            }
+        } catch (IOException e) {
+            // Corrupt or encrypted; reading it again will not help
+            throw new ReportProcessingException("PDF could not be read", e);
+        }
+    }
+
+    private String readText(String key) throws IOException {
+        try (Reader reader = new InputStreamReader(open(key), StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE))) {
+            char[] buffer = new char[maxTextLength];
+            int length = 0;
+            int n;
+            while (length < buffer.length && (n = reader.read(buffer, length, buffer.length - length)) > 0) {
+                length += n;
+            }
+            return new String(buffer, 0, length);
+        }
+    }
+
+    // PostgreSQL text cannot hold NUL characters
+    private String clean(String text) {
+        String cleaned = text.replace("\u0000", "").strip();
+        if (cleaned.length() > maxTextLength) {
+            cleaned = cleaned.substring(0, maxTextLength);
+        }
+        return cleaned.isEmpty() ? null : cleaned;
+    }
+
+    private BufferedImage fit(BufferedImage source) {
+        double scale = Math.min(1.0, (double) previewSize / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private InputStream open(String key) throws IOException {
+        Resource resource = objectStore.get(key)
+                .orElseThrow(() -> new ReportProcessingException("Stored file is missing"));
+        return resource.getInputStream();
+    }
+}
@@ -0,0 +1,336 @@
+package com.mediconnect.mediconnect.service;
+
+import com.mediconnect.mediconnect.model.ResponderKind;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Live positions of emergency responders on a fixed latitude/longitude grid.
+ *
+ * Each cell holds a concurrent set of the responders in it. A position update only
+ * touches the responder's old and new cells (each through a single-bin map
+ * operation), so updates for different responders never wait on each other and
+ * queries run without locks. Availability is a per-responder state claimed with
+ * compare-and-set, so two dispatches can never take the same responder, and a
+ * removed responder can no longer be claimed.
+ */
+@Component
+public class ResponderIndex {
+
+    /**
+     * A responder found by a query
+     *
+     * @param responder  The responder
+     * @param distanceKm Great-circle distance from the query point
+     */
+    public record Candidate(Responder responder, double distanceKm) {
+    }
+
+    static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = EARTH_RADIUS_KM * Math.PI / 180;
+
+    private final double cellDegrees;
+    private final int rows;
+    private final int columns;
+
+    private final Map<Long, Set<Responder>> cells = new ConcurrentHashMap<>();
+    private final Map<Long, Responder> responders = new ConcurrentHashMap<>();
+
+    public ResponderIndex(@Value("${emergency.grid.cellDegrees:0.05}") double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+        this.rows = (int) Math.ceil(180 / cellDegrees);
+        this.columns = (int) Math.ceil(360 / cellDegrees);
+    }
+
+    /**
+     * Record a responder's position, registering it (as available) on first sight
+     *
+     * @param id        Responder ID
+     * @param kind      Kind of responder
+     * @param latitude  Latitude in degrees
+     * @param longitude Longitude in degrees
+     * @return The responder
+     */
+    public Responder update(long id, ResponderKind kind, double latitude, double longitude) {
+        while (true) {
+            Responder responder = responders.computeIfAbsent(id, key -> new Responder(id, kind));
+            if (responder.kind != kind) {
+                remove(id);
+                continue;
+            }
+            synchronized (responder) {
+                if (responder.isRemoved()) {
+                    continue;
+                }
+                Position previous = responder.position;
+                long cell = cell(latitude, longitude);
+                responder.position = new Position(latitude, longitude, cell, System.currentTimeMillis());
+                if (previous == null || previous.cell() != cell) {
+                    cells.compute(cell, (key, members) -> {
+                        Set<Responder> set = members != null ? members : ConcurrentHashMap.newKeySet();
+                        set.add(responder);
+                        return set;
+                    });
+                    if (previous != null) {
+                        leave(previous.cell(), responder);
+                    }
+                }
+                return responder;
+            }
+        }
+    }
+
+    /**
+     * Take a responder off the map (off duty)
+     *
+     * @param id Responder ID
+     * @return true if it was tracked
+     */
+    public boolean remove(long id) {
+        Responder responder = responders.remove(id);
+        if (responder == null) {
+            return false;
+        }
+        synchronized (responder) {
+            responder.state.set(Responder.REMOVED);
+            if (responder.position != null) {
+                leave(responder.position.cell(), responder);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Take an available responder off the map if it has not reported since a cutoff.
+     * A dispatch that claims it concurrently either wins, and the responder stays, or
+     * finds it removed.
+     *
+     * @param responder The responder
+     * @param cutoff    Remove only if the last position is older than this (epoch millis)
+     * @return true if it was removed
+     */
+    public boolean removeIfSilent(Responder responder, long cutoff) {
+        synchronized (responder) {
+            // Position updates hold the monitor, so the timestamp can not move on meanwhile
+            if (responder.getUpdatedAt() >= cutoff
+                    || !responder.state.compareAndSet(Responder.AVAILABLE, Responder.REMOVED)) {
+                return false;
+            }
+            responders.remove(responder.id, responder);
+            if (responder.position != null) {
+                leave(responder.position.cell(), responder);
+            }
+            return true;
+        }
+    }
+
+    public Responder get(long id) {
+        return responders.get(id);
+    }
+
+    public int size() {
+        return responders.size();
+    }
+
+    Collection<Responder> all() {
+        return responders.values();
+    }
+
+    /**
+     * The nearest available responders, searching outwards ring by ring from the
+     * query's cell until no unvisited cell can hold anything closer
+     *
+     * @param latitude     Latitude in degrees
+     * @param longitude    Longitude in degrees
+     * @param kind         Kind of responder, or null for any
+     * @param k            Maximum number of results
+     * @param maxKm        Search radius
+     * @param updatedSince Ignore responders whose last position is older than this (epoch millis)
+     * @return Up to k candidates, nearest first
+     */
+    public List<Candidate> nearest(double latitude, double longitude, ResponderKind kind, int k, double maxKm,
+                                   long updatedSince) {
+        Responder[] best = new Responder[k];
+        double[] distances = new double[k];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        int found = 0;
+
+        int row = row(latitude);
+        int column = column(longitude);
+        double cellKm = cellDegrees * KM_PER_DEGREE;
+        for (int ring = 0; 2 * ring + 1 <= columns; ring++) {
+            // Nothing in this ring is closer than the cells between it and the query cell;
+            // east-west cells are narrower towards the poles, so take the narrowest in reach
+            // (floored so the search stays bounded within a degree of the poles)
+            double narrowest = Math.max(0.01,
+                    Math.cos(Math.toRadians(Math.min(90, Math.abs(latitude) + (ring + 1) * cellDegrees))));
+            double bound = Math.max(0, ring - 1) * cellKm * narrowest;
+            if (bound > maxKm || (found == k && bound > distances[k - 1])) {
+                break;
+            }
+            for (int dr = -ring; dr <= ring; dr++) {
+                int r = row + dr;
+                if (r < 0 || r >= rows || (Math.abs(dr) - 1) * cellKm > maxKm) {
+                    continue;
+                }
+                // Full rows at the top and bottom of the ring, only the two edge cells in between
+                int step = (dr == -ring || dr == ring) ? 1 : Math.max(1, 2 * ring);
+                for (int dc = -ring; dc <= ring; dc += step) {
+                    Set<Responder> members = cells.get(key(r, Math.floorMod(column + dc, columns)));
+                    if (members == null) {
+                        continue;
+                    }
+                    for (Responder responder : members) {
+                        Position position = responder.position;
+                        if (!responder.isAvailable() || (kind != null && responder.kind != kind)
+                                || position == null || position.updatedAt() < updatedSince) {
+                            continue;
+                        }
+                        double distance = distanceKm(latitude, longitude, position.latitude(), position.longitude());
+                        if (distance > maxKm || distance >= distances[k - 1] || contains(best, found, responder)) {
+                            continue;
+                        }
+                        int at = Math.min(found, k - 1);
+                        while (at > 0 && distances[at - 1] > distance) {
+                            best[at] = best[at - 1];
+                            distances[at] = distances[at - 1];
+                            at--;
+                        }
+                        best[at] = responder;
+                        distances[at] = distance;
+                        found = Math.min(found + 1, k);
+                    }
+                }
+            }
+        }
+
+        List<Candidate> candidates = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            candidates.add(new Candidate(best[i], distances[i]));
+        }
+        return candidates;
+    }
+
+    /**
+     * Haversine distance between two points
+     */
+    static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    // A responder moving between cells is briefly in both
+    private static boolean contains(Responder[] best, int found, Responder responder) {
+        for (int i = 0; i < found; i++) {
+            if (best[i] == responder) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void leave(long cell, Responder responder) {
+        cells.computeIfPresent(cell, (key, members) -> {
+            members.remove(responder);
+            return members.isEmpty() ? null : members;
+        });
+    }
+
+    private long cell(double latitude, double longitude) {
+        return key(row(latitude), column(longitude));
+    }
+
+    private int row(double latitude) {
+        return Math.min(rows - 1, Math.max(0, (int) Math.floor((latitude + 90) / cellDegrees)));
+    }
+
+    private int column(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / cellDegrees), columns);
+    }
+
+    private static long key(int row, int column) {
+        return ((long) row << 32) | column;
+    }
+
+    private record Position(double latitude, double longitude, long cell, long updatedAt) {
+    }
+
+    /**
+     * A tracked responder. Its position is replaced as a whole, so readers never
+     * see the latitude of one update with the longitude of another.
+     */
+    public static final class Responder {
+        private static final int AVAILABLE = 0;
+        private static final int ASSIGNED = 1;
+        private static final int REMOVED = 2;
+
+        private final long id;
+        private final ResponderKind kind;
+        private final AtomicInteger state = new AtomicInteger(AVAILABLE);
+        private volatile Position position;
+
+        Responder(long id, ResponderKind kind) {
+            this.id = id;
+            this.kind = kind;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public ResponderKind getKind() {
+            return kind;
+        }
+
+        public double getLatitude() {
+            return position.latitude();
+        }
+
+        public double getLongitude() {
+            return position.longitude();
+        }
+
+        long getUpdatedAt() {
+            Position current = position;
+            return current != null ? current.updatedAt() : 0;
+        }
+
+        public boolean isAvailable() {
+            return state.get() == AVAILABLE;
+        }
+
+        boolean isRemoved() {
+            return state.get() == REMOVED;
+        }
+
+        /**
+         * Take this responder for an emergency
+         *
+         * @return false if another dispatch got it first or it was removed
+         */
+        public boolean claim() {
+            return state.compareAndSet(AVAILABLE, ASSIGNED);
+        }
+
+        /**
+         * Make this responder available again
+         *
+         * @return false if it was not assigned
+         */
+        public boolean release() {
+            return state.compareAndSet(ASSIGNED, AVAILABLE);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.mediconnect.mediconnect.service;
+
+import com.mediconnect.mediconnect.repository.AppointmentSerialCounterRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntFunction;
+
+/**
+ * Hands out appointment serial numbers per (doctor, date) without scanning
+ * the appointments table.
+ *
+ * The counter row is incremented with a single UPDATE ... RETURNING, so
+ * Postgres serialises concurrent bookings on the row lock and never hands
+ * out the same serial twice. Bookings for the same day are additionally
+ * queued on an in-process lock stripe, so a burst of requests for one
+ * popular doctor waits in the JVM instead of each holding a pooled
+ * connection while blocked on the row lock.
+ */
+@Service
+public class SerialNumberAllocator {
+
+    private static final int STRIPES = 64;
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+
+    @Autowired
+    private AppointmentSerialCounterRepository counterRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    public SerialNumberAllocator() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Allocate the next serial for a doctor's day and run the given work with it
+     * in the same transaction. The counter row stays locked until the work commits,
+     * so a failed booking rolls the counter back instead of leaving a gap.
+     *
+     * @param doctorId The doctor ID
+     * @param date The appointment date
+     * @param work Callback receiving the allocated serial number
+     * @return The result of the callback
+     */
+    public <T> T withNextSerial(Long doctorId, LocalDate date, IntFunction<T> work) {
+        ReentrantLock lock = stripeFor(doctorId, date);
+        lock.lock();
+        try {
+            return transactionTemplate.execute(status -> work.apply(nextSerial(doctorId, date)));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Allocate the next serial number. Must be called inside a transaction.
+     *
+     * @param doctorId The doctor ID
+     * @param date The appointment date
+     * @return The next serial number
+     */
+    private int nextSerial(Long doctorId, LocalDate date) {
+        return counterRepository.incrementAndGet(doctorId, date)
+                .orElseGet(() -> counterRepository.insertOrIncrement(doctorId, date,
+                        date.atStartOfDay(), date.plusDays(1).atStartOfDay()));
+    }
+
+    private ReentrantLock stripeFor(Long doctorId, LocalDate date) {
+        int hash = 31 * doctorId.hashCode() + date.hashCode();
+        hash ^= (hash >>> 16);
+        return stripes[hash & (STRIPES - 1)];
+    }
+}
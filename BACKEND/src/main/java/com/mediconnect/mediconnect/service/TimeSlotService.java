@@ -0,0 +1,241 @@
+package com.mediconnect.mediconnect.service;
+
+import com.mediconnect.mediconnect.model.Appoinment;
+import com.mediconnect.mediconnect.model.Appoinment.AppointmentStatus;
+import com.mediconnect.mediconnect.model.DoctorWorkingHours;
+import com.mediconnect.mediconnect.repository.AppointmentRepository;
+import com.mediconnect.mediconnect.repository.DoctorWorkingHoursRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Computes free appointment slots per doctor and day.
+ *
+ * A doctor's working-hour template is expanded once per day into a bitmap of
+ * free slots, booked appointments are subtracted, and the result is kept in
+ * memory. Bookings and cancellations flip single bits on the cached day
+ * instead of recomputing it, so availability reads never hit the database
+ * once a day is loaded.
+ *
+ * A loading day holds its map bin until the query finishes, and updates are
+ * applied through the same bin, so a booking committed meanwhile is applied
+ * right after the load and never lost. Updates are keyed by appointment ID,
+ * so one already seen by the load is not counted twice.
+ */
+@Service
+public class TimeSlotService {
+
+    private final AppointmentRepository appointmentRepository;
+    private final DoctorWorkingHoursRepository workingHoursRepository;
+    private final LocalTime defaultDayStart;
+    private final LocalTime defaultDayEnd;
+    private final int defaultSlotMinutes;
+    private final int maxCachedDays;
+
+    private final Map<SlotKey, DaySlots> cache = new ConcurrentHashMap<>();
+
+    public TimeSlotService(AppointmentRepository appointmentRepository,
+                           DoctorWorkingHoursRepository workingHoursRepository,
+                           @Value("${appointment.slots.dayStart:09:00}") String defaultDayStart,
+                           @Value("${appointment.slots.dayEnd:17:00}") String defaultDayEnd,
+                           @Value("${appointment.slots.lengthMinutes:15}") int defaultSlotMinutes,
+                           @Value("${appointment.slots.cacheSize:10000}") int maxCachedDays) {
+        this.appointmentRepository = appointmentRepository;
+        this.workingHoursRepository = workingHoursRepository;
+        this.defaultDayStart = LocalTime.parse(defaultDayStart);
+        this.defaultDayEnd = LocalTime.parse(defaultDayEnd);
+        this.defaultSlotMinutes = defaultSlotMinutes;
+        this.maxCachedDays = maxCachedDays;
+    }
+
+    /**
+     * Get the free slots of a doctor on a date
+     *
+     * @param doctorId The doctor ID
+     * @param date The date
+     * @return Start times of free slots, in ascending order
+     */
+    public List<LocalDateTime> getAvailableSlots(Long doctorId, LocalDate date) {
+        SlotKey key = new SlotKey(doctorId, date);
+        DaySlots day = cache.get(key);
+        if (day == null) {
+            evictIfFull();
+            day = cache.computeIfAbsent(key, this::loadDay);
+        }
+        return day.freeSlots();
+    }
+
+    /**
+     * Mark the slot of a newly booked appointment as taken, if its day is cached
+     *
+     * @param appointmentId The appointment ID
+     * @param doctorId The doctor ID
+     * @param appointmentDateTime The appointment date and time
+     */
+    public void slotBooked(Long appointmentId, Long doctorId, LocalDateTime appointmentDateTime) {
+        cache.computeIfPresent(new SlotKey(doctorId, appointmentDateTime.toLocalDate()), (key, day) -> {
+            day.book(appointmentId, appointmentDateTime.toLocalTime());
+            return day;
+        });
+    }
+
+    /**
+     * Free the slot of a cancelled appointment, if its day is cached
+     *
+     * @param appointmentId The appointment ID
+     * @param doctorId The doctor ID
+     * @param appointmentDateTime The appointment date and time
+     */
+    public void slotReleased(Long appointmentId, Long doctorId, LocalDateTime appointmentDateTime) {
+        cache.computeIfPresent(new SlotKey(doctorId, appointmentDateTime.toLocalDate()), (key, day) -> {
+            day.release(appointmentId);
+            return day;
+        });
+    }
+
+    /**
+     * Drop every cached day, forcing the next lookup to reload from the database
+     */
+    public void clear() {
+        cache.clear();
+    }
+
+    private DaySlots loadDay(SlotKey key) {
+        LocalTime start = defaultDayStart;
+        LocalTime end = defaultDayEnd;
+        int slotMinutes = defaultSlotMinutes;
+
+        List<DoctorWorkingHours> templates = workingHoursRepository.findByDoctorId(key.doctorId());
+        if (!templates.isEmpty()) {
+            DoctorWorkingHours template = templates.stream()
+                    .filter(t -> t.getDayOfWeek() == key.date().getDayOfWeek())
+                    .findFirst()
+                    .orElse(null);
+            if (template == null) {
+                // The doctor has a weekly template but does not work on this day
+                return new DaySlots(key.date(), start, slotMinutes, 0);
+            }
+            start = template.getStartTime();
+            end = template.getEndTime();
+            slotMinutes = template.getSlotMinutes();
+        }
+
+        int slotCount = (int) (Duration.between(start, end).toMinutes() / slotMinutes);
+        DaySlots day = new DaySlots(key.date(), start, slotMinutes, Math.max(slotCount, 0));
+
+        List<Appoinment> booked = appointmentRepository.findByDoctorIdAndAppointmentDateTimeBetween(
+                key.doctorId(), key.date().atStartOfDay(), key.date().atTime(LocalTime.MAX));
+        for (Appoinment appointment : booked) {
+            if (appointment.getStatus() != AppointmentStatus.CANCELLED) {
+                day.book(appointment.getId(), appointment.getAppointmentDateTime().toLocalTime());
+            }
+        }
+        return day;
+    }
+
+    // Drop past days, then about a tenth of the days furthest from today, so
+    // overflow never forces every doctor-day to reload at once
+    private void evictIfFull() {
+        if (cache.size() < maxCachedDays) {
+            return;
+        }
+        synchronized (this) {
+            LocalDate today = LocalDate.now();
+            cache.keySet().removeIf(key -> key.date().isBefore(today));
+            int excess = cache.size() - maxCachedDays + Math.max(1, maxCachedDays / 10);
+            if (excess <= 0) {
+                return;
+            }
+            cache.keySet().stream()
+                    .sorted(Comparator.comparing(SlotKey::date).reversed())
+                    .limit(excess)
+                    .toList()
+                    .forEach(cache::remove);
+        }
+    }
+
+    private record SlotKey(Long doctorId, LocalDate date) {
+    }
+
+    /**
+     * Slot bitmap of one doctor's day. Writers are serialised on the instance;
+     * readers get the last published immutable list without locking. Each slot
+     * counts the distinct appointments in it, so repeated updates are harmless.
+     */
+    static final class DaySlots {
+
+        private final LocalDate date;
+        private final LocalTime start;
+        private final int slotMinutes;
+        private final int slotCount;
+        private final BitSet free;
+        private final int[] bookings;
+        private final Map<Long, Integer> slotByAppointment = new HashMap<>();
+        private volatile List<LocalDateTime> freeSlots;
+
+        DaySlots(LocalDate date, LocalTime start, int slotMinutes, int slotCount) {
+            this.date = date;
+            this.start = start;
+            this.slotMinutes = slotMinutes;
+            this.slotCount = slotCount;
+            this.free = new BitSet(slotCount);
+            this.free.set(0, slotCount);
+            this.bookings = new int[slotCount];
+            publish();
+        }
+
+        List<LocalDateTime> freeSlots() {
+            return freeSlots;
+        }
+
+        synchronized void book(Long appointmentId, LocalTime time) {
+            int slot = slotOf(time);
+            if (slot < 0 || slotByAppointment.putIfAbsent(appointmentId, slot) != null) {
+                return;
+            }
+            if (bookings[slot]++ == 0) {
+                free.clear(slot);
+                publish();
+            }
+        }
+
+        synchronized void release(Long appointmentId) {
+            Integer slot = slotByAppointment.remove(appointmentId);
+            if (slot != null && --bookings[slot] == 0) {
+                free.set(slot);
+                publish();
+            }
+        }
+
+        private int slotOf(LocalTime time) {
+            int offset = time.toSecondOfDay() / 60 - start.toSecondOfDay() / 60;
+            if (offset < 0) {
+                return -1;
+            }
+            int slot = offset / slotMinutes;
+            return slot < slotCount ? slot : -1;
+        }
+
+        private void publish() {
+            List<LocalDateTime> slots = new ArrayList<>(free.cardinality());
+            LocalDateTime first = date.atTime(start);
+            for (int i = free.nextSetBit(0); i >= 0; i = free.nextSetBit(i + 1)) {
+                slots.add(first.plusMinutes((long) i * slotMinutes));
+            }
+            freeSlots = Collections.unmodifiableList(slots);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.mediconnect.mediconnect.service;
+
+import com.mediconnect.mediconnect.dto.ChatRequest;
+import com.mediconnect.mediconnect.dto.ChatResponse;
+import com.mediconnect.mediconnect.exception.TooManyRequestsException;
+import com.mediconnect.mediconnect.service.TriageKnowledgeBase.Urgency;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Symptom triage answered in-process from {@link TriageKnowledgeBase}, so a turn costs
+ * microseconds and no patient text leaves the server.
+ *
+ * Each session keeps the symptoms reported and denied so far as bit sets, plus
+ * score buffers sized once per session; a turn only allocates the reply text.
+ * Red-flag symptoms short-circuit to emergency advice. With too little to go on,
+ * the bot asks about the most telling symptoms of the best candidate first.
+ */
+@Service
+@ConditionalOnProperty(name = "chatbot.provider", havingValue = "local", matchIfMissing = true)
+public class TriageChatbotService implements ChatbotService {
+
+    static final String DISCLAIMER = "This is not a diagnosis. If you feel worse, seek medical care.";
+
+    // Cosine between reported symptoms and a condition needed before naming it
+    private static final float CONFIDENT = 0.5f;
+    private static final int MIN_SYMPTOMS = 2;
+    // Stop asking follow-up questions after this many turns
+    private static final int MAX_QUESTION_TURNS = 3;
+    private static final int SUGGESTIONS = 3;
+    private static final int QUESTIONS = 2;
+    private static final int LISTED_SYMPTOMS = 5;
+
+    private final TriageKnowledgeBase knowledgeBase;
+    private final int maxSessions;
+    private final long idleMillis;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final Timer turnTimer;
+
+    public TriageChatbotService(@Value("${chatbot.knowledgeBase:triage/knowledge-base.tsv}") String knowledgeBasePath,
+                                @Value("${chatbot.sessions.max:20000}") int maxSessions,
+                                @Value("${chatbot.sessions.idleMs:1800000}") long idleMillis,
+                                MeterRegistry meterRegistry) throws IOException {
+        try (InputStream in = new ClassPathResource(knowledgeBasePath).getInputStream()) {
+            this.knowledgeBase = TriageKnowledgeBase.load(in);
+        }
+        this.maxSessions = maxSessions;
+        this.idleMillis = idleMillis;
+        this.turnTimer = meterRegistry.timer("chatbot.turn");
+        Gauge.builder("chatbot.sessions", sessions, Map::size)
+                .description("Open triage conversations")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ChatResponse reply(ChatRequest request, Consumer<String> tokens) {
+        long start = System.nanoTime();
+        String sessionId = request.getSessionId() != null ? request.getSessionId() : UUID.randomUUID().toString();
+        Session session = session(sessionId);
+
+        ChatResponse response;
+        synchronized (session) {
+            session.lastUsed = System.currentTimeMillis();
+            session.turns++;
+            response = answer(sessionId, session, request.getMessage());
+        }
+        turnTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        stream(response.reply(), tokens);
+        return response;
+    }
+
+    @Override
+    public void endSession(String sessionId) {
+        sessions.remove(sessionId);
+    }
+
+    /**
+     * Drop conversations that have been idle for longer than chatbot.sessions.idleMs
+     */
+    @Scheduled(fixedDelayString = "${chatbot.sessions.cleanupMs:60000}")
+    public void evictIdleSessions() {
+        long cutoff = System.currentTimeMillis() - idleMillis;
+        sessions.values().removeIf(session -> session.lastUsed < cutoff);
+    }
+
+    int sessionCount() {
+        return sessions.size();
+    }
+
+    private Session session(String sessionId) {
+        Session session = sessions.get(sessionId);
+        if (session != null) {
+            return session;
+        }
+        if (sessions.size() >= maxSessions) {
+            evictIdleSessions();
+            if (sessions.size() >= maxSessions) {
+                throw new TooManyRequestsException("Too many open chat sessions", 60);
+            }
+        }
+        return sessions.computeIfAbsent(sessionId, id -> new Session(knowledgeBase));
+    }
+
+    private ChatResponse answer(String sessionId, Session session, String message) {
+        Arrays.fill(session.mentioned, 0L);
+        Arrays.fill(session.negated, 0L);
+        knowledgeBase.match(message, session.mentioned, session.negated);
+        int present = 0;
+        for (int w = 0; w < session.present.length; w++) {
+            long confirmed = session.mentioned[w] & ~session.negated[w];
+            session.present[w] = (session.present[w] | confirmed) & ~session.negated[w];
+            session.denied[w] = (session.denied[w] | session.negated[w]) & ~confirmed;
+            present += Long.bitCount(session.present[w]);
+        }
+
+        int redFlag = knowledgeBase.firstRedFlag(session.present);
+        knowledgeBase.score(session.present, session.scores);
+        int found = TriageKnowledgeBase.topConditions(session.scores, session.top);
+
+        if (redFlag >= 0) {
+            return emergency(sessionId, session, found, redFlag);
+        }
+        if (present == 0 || found == 0) {
+            return new ChatResponse(sessionId, "I could not recognise any symptoms yet. Please describe how you "
+                    + "feel, for example fever, cough or stomach pain.", null, List.of(), null);
+        }
+
+        boolean unsure = present < MIN_SYMPTOMS || session.scores[session.top[0]] < CONFIDENT;
+        if (unsure && session.turns <= MAX_QUESTION_TURNS) {
+            int questions = knowledgeBase.missingSymptoms(session.top[0], session.present, session.denied,
+                    session.questions);
+            if (questions > 0) {
+                StringBuilder reply = new StringBuilder("I have noted ");
+                appendSymptoms(reply, session.present);
+                reply.append(". Do you also have ");
+                for (int i = 0; i < questions; i++) {
+                    if (i > 0) {
+                        reply.append(i == questions - 1 ? " or " : ", ");
+                    }
+                    reply.append(knowledgeBase.symptomLabel(session.questions[i]));
+                }
+                reply.append('?');
+                return new ChatResponse(sessionId, reply.toString(), null, List.of(), null);
+            }
+        }
+        return suggestion(sessionId, session, found);
+    }
+
+    private ChatResponse suggestion(String sessionId, Session session, int found) {
+        int best = session.top[0];
+        StringBuilder reply = new StringBuilder("Based on ");
+        appendSymptoms(reply, session.present);
+        reply.append(", this may be ").append(knowledgeBase.conditionName(best).toLowerCase())
+                .append(". ").append(knowledgeBase.conditionAdvice(best));
+        if (found > 1) {
+            reply.append(" Other possibilities: ");
+            for (int i = 1; i < found; i++) {
+                reply.append(i > 1 ? ", " : "").append(knowledgeBase.conditionName(session.top[i]).toLowerCase());
+            }
+            reply.append('.');
+        }
+        Urgency urgency = knowledgeBase.conditionUrgency(best);
+        String specialty = knowledgeBase.conditionSpecialty(best);
+        if (urgency != Urgency.EMERGENCY) {
+            reply.append(" You can book a ").append(specialty).append(" appointment in the app.");
+        }
+        reply.append(' ').append(DISCLAIMER);
+        return new ChatResponse(sessionId, reply.toString(), urgency.name(), conditions(session, found), specialty);
+    }
+
+    private ChatResponse emergency(String sessionId, Session session, int found, int redFlag) {
+        String reply = "You mentioned " + knowledgeBase.symptomLabel(redFlag) + ", which can be a sign of a "
+                + "medical emergency. Call your local emergency number or go to the nearest emergency department now.";
+        return new ChatResponse(sessionId, reply, Urgency.EMERGENCY.name(), conditions(session, found),
+                "Emergency Medicine");
+    }
+
+    private List<String> conditions(Session session, int found) {
+        List<String> names = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            names.add(knowledgeBase.conditionName(session.top[i]));
+        }
+        return names;
+    }
+
+    private void appendSymptoms(StringBuilder reply, long[] present) {
+        int listed = 0;
+        for (int w = 0; w < present.length && listed < LISTED_SYMPTOMS; w++) {
+            long bits = present[w];
+            while (bits != 0 && listed < LISTED_SYMPTOMS) {
+                int s = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                reply.append(listed++ > 0 ? ", " : "").append(knowledgeBase.symptomLabel(s));
+            }
+        }
+    }
+
+    // Word by word, each piece keeping its trailing space, so the pieces join back to the reply
+    private static void stream(String reply, Consumer<String> tokens) {
+        int start = 0;
+        while (start < reply.length()) {
+            int space = reply.indexOf(' ', start);
+            int end = space < 0 ? reply.length() : space + 1;
+            tokens.accept(reply.substring(start, end));
+            start = end;
+        }
+    }
+
+    /**
+     * One conversation; guarded by its own monitor
+     */
+    private static final class Session {
+        final long[] present;
+        final long[] denied;
+        final long[] mentioned;
+        final long[] negated;
+        final float[] scores;
+        final int[] top = new int[SUGGESTIONS];
+        final int[] questions = new int[QUESTIONS];
+        int turns;
+        volatile long lastUsed = System.currentTimeMillis();
+
+        Session(TriageKnowledgeBase knowledgeBase) {
+            int words = knowledgeBase.bitSetWords();
+            present = new long[words];
+            denied = new long[words];
+            mentioned = new long[words];
+            negated = new long[words];
+            scores = new float[knowledgeBase.conditionCount()];
+        }
+    }
+}
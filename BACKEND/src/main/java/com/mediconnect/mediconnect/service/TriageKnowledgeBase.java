@@ -0,0 +1,481 @@
+package com.mediconnect.mediconnect.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Symptom-to-condition knowledge base for the local triage engine, compiled from a
+ * tab-separated resource into flat primitive tables:
+ *
+ * - phrase lookup: open-addressing long[] of 64-bit phrase hashes to symptom IDs,
+ *   so matching a message never builds a String per word;
+ * - symptom postings: CSR arrays of (condition, weight) per symptom;
+ * - per condition: the inverse norm of its weight vector and its symptoms ordered
+ *   by weight, for follow-up questions.
+ *
+ * Immutable once built and shared by all sessions. {@link #match} and {@link #score}
+ * only write into arrays owned by the caller, so a turn allocates nothing on the
+ * scoring path.
+ */
+public final class TriageKnowledgeBase {
+
+    /**
+     * How soon a condition needs care
+     */
+    public enum Urgency {
+        SELF_CARE,
+        ROUTINE,
+        URGENT,
+        EMERGENCY
+    }
+
+    static final int MAX_PHRASE_WORDS = 3;
+
+    // Words after a negation that it applies to ("no fever or cough")
+    private static final int NEGATION_WINDOW = 3;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private static final long[] NEGATIONS = {
+            tokenHash("no"), tokenHash("not"), tokenHash("without"), tokenHash("never"),
+            tokenHash("denies"), tokenHash("dont"), tokenHash("none"), tokenHash("nor")
+    };
+
+    private final String[] symptomLabels;
+    private final long[] redFlags;
+
+    private final long[] phraseKeys;
+    private final int[] phraseSymptoms;
+    private final int phraseMask;
+
+    private final int[] postingStart;
+    private final int[] postingCondition;
+    private final float[] postingWeight;
+
+    private final String[] conditionNames;
+    private final Urgency[] conditionUrgency;
+    private final String[] conditionSpecialty;
+    private final String[] conditionAdvice;
+    private final float[] conditionInverseNorm;
+    private final int[] conditionSymptomStart;
+    private final int[] conditionSymptoms;
+
+    private TriageKnowledgeBase(List<String> symptomLabels, List<Boolean> redFlags, Map<Long, Integer> phrases,
+                                List<String[]> conditions, List<int[]> conditionSymptomIds,
+                                List<float[]> conditionWeights) {
+        int symptoms = symptomLabels.size();
+        this.symptomLabels = symptomLabels.toArray(String[]::new);
+        this.redFlags = new long[words(symptoms)];
+        for (int s = 0; s < symptoms; s++) {
+            if (redFlags.get(s)) {
+                this.redFlags[s >>> 6] |= 1L << s;
+            }
+        }
+
+        int capacity = Integer.highestOneBit(Math.max(8, phrases.size() * 2) - 1) << 1;
+        this.phraseKeys = new long[capacity];
+        this.phraseSymptoms = new int[capacity];
+        this.phraseMask = capacity - 1;
+        for (Map.Entry<Long, Integer> phrase : phrases.entrySet()) {
+            int slot = slot(phrase.getKey());
+            while (phraseKeys[slot] != 0) {
+                slot = (slot + 1) & phraseMask;
+            }
+            phraseKeys[slot] = phrase.getKey();
+            phraseSymptoms[slot] = phrase.getValue();
+        }
+
+        int count = conditions.size();
+        this.conditionNames = new String[count];
+        this.conditionUrgency = new Urgency[count];
+        this.conditionSpecialty = new String[count];
+        this.conditionAdvice = new String[count];
+        this.conditionInverseNorm = new float[count];
+        this.conditionSymptomStart = new int[count + 1];
+        int links = 0;
+        for (int[] ids : conditionSymptomIds) {
+            links += ids.length;
+        }
+        this.conditionSymptoms = new int[links];
+
+        // Inverse index symptom -> conditions, built by counting then filling
+        this.postingStart = new int[symptoms + 1];
+        this.postingCondition = new int[links];
+        this.postingWeight = new float[links];
+        for (int[] ids : conditionSymptomIds) {
+            for (int s : ids) {
+                postingStart[s + 1]++;
+            }
+        }
+        for (int s = 0; s < symptoms; s++) {
+            postingStart[s + 1] += postingStart[s];
+        }
+        int[] fill = Arrays.copyOf(postingStart, symptoms);
+
+        int next = 0;
+        for (int c = 0; c < count; c++) {
+            String[] fields = conditions.get(c);
+            conditionNames[c] = fields[0];
+            conditionUrgency[c] = Urgency.valueOf(fields[1]);
+            conditionSpecialty[c] = fields[2];
+            conditionAdvice[c] = fields[3];
+
+            int[] ids = conditionSymptomIds.get(c);
+            float[] weights = conditionWeights.get(c);
+            double norm = 0;
+            for (int i = 0; i < ids.length; i++) {
+                norm += (double) weights[i] * weights[i];
+                int p = fill[ids[i]]++;
+                postingCondition[p] = c;
+                postingWeight[p] = weights[i];
+            }
+            conditionInverseNorm[c] = norm > 0 ? (float) (1 / Math.sqrt(norm)) : 0f;
+
+            conditionSymptomStart[c] = next;
+            Integer[] order = new Integer[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> Float.compare(weights[b], weights[a]));
+            for (Integer i : order) {
+                conditionSymptoms[next++] = ids[i];
+            }
+        }
+        conditionSymptomStart[count] = next;
+    }
+
+    /**
+     * Compile a knowledge base from its tab-separated source
+     *
+     * @param source The source, read fully and closed
+     * @return The compiled knowledge base
+     * @throws IllegalStateException if the source is malformed
+     */
+    public static TriageKnowledgeBase load(InputStream source) throws IOException {
+        List<String> labels = new ArrayList<>();
+        List<Boolean> redFlags = new ArrayList<>();
+        Map<String, Integer> symptomIds = new HashMap<>();
+        Map<Long, Integer> phrases = new LinkedHashMap<>();
+        List<String[]> conditions = new ArrayList<>();
+        List<int[]> conditionSymptomIds = new ArrayList<>();
+        List<float[]> conditionWeights = new ArrayList<>();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(source, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\t");
+                String where = "line " + lineNumber + ": ";
+
+                if (fields[0].equals("symptom") && fields.length == 4) {
+                    int id = labels.size();
+                    if (symptomIds.putIfAbsent(fields[1], id) != null) {
+                        throw new IllegalStateException(where + "duplicate symptom " + fields[1]);
+                    }
+                    String[] symptomPhrases = fields[3].split("\\|");
+                    labels.add(symptomPhrases[0]);
+                    redFlags.add(fields[2].equals("1"));
+                    for (String phrase : symptomPhrases) {
+                        Integer existing = phrases.putIfAbsent(phraseHash(phrase, where), id);
+                        if (existing != null && existing != id) {
+                            throw new IllegalStateException(where + "phrase '" + phrase + "' already maps to "
+                                    + labels.get(existing));
+                        }
+                    }
+                } else if (fields[0].equals("condition") && fields.length == 7) {
+                    String[] pairs = fields[5].split(",");
+                    int[] ids = new int[pairs.length];
+                    float[] weights = new float[pairs.length];
+                    for (int i = 0; i < pairs.length; i++) {
+                        String[] pair = pairs[i].split(":");
+                        Integer id = symptomIds.get(pair[0]);
+                        if (id == null || pair.length != 2) {
+                            throw new IllegalStateException(where + "unknown symptom weight " + pairs[i]);
+                        }
+                        ids[i] = id;
+                        weights[i] = Float.parseFloat(pair[1]);
+                    }
+                    conditions.add(new String[]{fields[2], fields[3], fields[4], fields[6]});
+                    conditionSymptomIds.add(ids);
+                    conditionWeights.add(weights);
+                } else {
+                    throw new IllegalStateException(where + "expected a symptom or condition entry");
+                }
+            }
+        }
+        return new TriageKnowledgeBase(labels, redFlags, phrases, conditions, conditionSymptomIds, conditionWeights);
+    }
+
+    /**
+     * @return Number of longs in a symptom bit set
+     */
+    public int bitSetWords() {
+        return words(symptomLabels.length);
+    }
+
+    public int conditionCount() {
+        return conditionNames.length;
+    }
+
+    /**
+     * Find the symptoms mentioned in a message. Words are read straight from the
+     * text and hashed as they go; phrases of up to three words are looked up at
+     * every word boundary. Symptoms within a few words after "no", "not", "without"
+     * etc. (up to the next punctuation mark) are reported as negated instead.
+     *
+     * @param text      The message
+     * @param mentioned Bit set receiving the symptoms mentioned
+     * @param negated   Bit set receiving the symptoms explicitly denied
+     * @return Number of symptom phrases found
+     */
+    public int match(CharSequence text, long[] mentioned, long[] negated) {
+        int found = 0;
+        long word = FNV_OFFSET;
+        boolean inWord = false;
+        long previous = 0;
+        long previousPair = 0;
+        int negation = 0;
+
+        int length = text.length();
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? text.charAt(i) : ' ';
+            if (Character.isLetter(c)) {
+                word = (word ^ Character.toLowerCase(c)) * FNV_PRIME;
+                inWord = true;
+                continue;
+            }
+            if (inWord && (c == '\'' || c == '\u2019')) {
+                continue;
+            }
+            if (inWord) {
+                long token = nonZero(word);
+                word = FNV_OFFSET;
+                inWord = false;
+
+                if (isNegation(token)) {
+                    negation = NEGATION_WINDOW + 1;
+                    previousPair = 0;
+                } else {
+                    long pair = previous != 0 ? mix(previous, token) : 0;
+                    long triple = previousPair != 0 ? mix(previousPair, token) : 0;
+                    long[] target = negation > 0 ? negated : mentioned;
+                    found += mark(token, target) + mark(pair, target) + mark(triple, target);
+                    previousPair = pair;
+                }
+                previous = token;
+                if (negation > 0) {
+                    negation--;
+                }
+            }
+            if (c == '.' || c == ',' || c == ';' || c == '!' || c == '?' || c == '\n') {
+                // Phrases and negations do not cross punctuation
+                previous = 0;
+                previousPair = 0;
+                negation = 0;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Score every condition against a set of symptoms: the cosine between the
+     * condition's weight vector and the (binary) symptom vector.
+     *
+     * @param present Symptoms present
+     * @param scores  Receives one score per condition, in [0, 1]
+     */
+    public void score(long[] present, float[] scores) {
+        Arrays.fill(scores, 0f);
+        int count = 0;
+        for (int w = 0; w < present.length; w++) {
+            long bits = present[w];
+            count += Long.bitCount(bits);
+            while (bits != 0) {
+                int s = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                for (int p = postingStart[s]; p < postingStart[s + 1]; p++) {
+                    scores[postingCondition[p]] += postingWeight[p];
+                }
+            }
+        }
+        if (count == 0) {
+            return;
+        }
+        float symptomNorm = (float) (1 / Math.sqrt(count));
+        for (int c = 0; c < scores.length; c++) {
+            scores[c] *= conditionInverseNorm[c] * symptomNorm;
+        }
+    }
+
+    /**
+     * Pick the best scoring conditions
+     *
+     * @param scores Scores from {@link #score}
+     * @param top    Receives condition IDs, best first
+     * @return Number of entries written (conditions with a positive score)
+     */
+    public static int topConditions(float[] scores, int[] top) {
+        int filled = 0;
+        for (int c = 0; c < scores.length; c++) {
+            if (scores[c] <= 0) {
+                continue;
+            }
+            int at = Math.min(filled, top.length - 1);
+            if (filled == top.length && scores[c] <= scores[top[at]]) {
+                continue;
+            }
+            while (at > 0 && scores[top[at - 1]] < scores[c]) {
+                top[at] = top[at - 1];
+                at--;
+            }
+            top[at] = c;
+            if (filled < top.length) {
+                filled++;
+            }
+        }
+        return filled;
+    }
+
+    /**
+     * @param present Symptoms present
+     * @return The first red-flag symptom present, or -1
+     */
+    public int firstRedFlag(long[] present) {
+        for (int w = 0; w < present.length; w++) {
+            long bits = present[w] & redFlags[w];
+            if (bits != 0) {
+                return (w << 6) + Long.numberOfTrailingZeros(bits);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * The condition's most telling symptoms that are neither present nor denied
+     *
+     * @param condition Condition ID
+     * @param present   Symptoms present
+     * @param denied    Symptoms denied
+     * @param out       Receives symptom IDs, most telling first
+     * @return Number of entries written
+     */
+    public int missingSymptoms(int condition, long[] present, long[] denied, int[] out) {
+        int n = 0;
+        for (int i = conditionSymptomStart[condition]; i < conditionSymptomStart[condition + 1] && n < out.length; i++) {
+            int s = conditionSymptoms[i];
+            if (!isSet(present, s) && !isSet(denied, s)) {
+                out[n++] = s;
+            }
+        }
+        return n;
+    }
+
+    public String symptomLabel(int symptom) {
+        return symptomLabels[symptom];
+    }
+
+    public String conditionName(int condition) {
+        return conditionNames[condition];
+    }
+
+    public Urgency conditionUrgency(int condition) {
+        return conditionUrgency[condition];
+    }
+
+    public String conditionSpecialty(int condition) {
+        return conditionSpecialty[condition];
+    }
+
+    public String conditionAdvice(int condition) {
+        return conditionAdvice[condition];
+    }
+
+    static boolean isSet(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+
+    private int mark(long key, long[] target) {
+        if (key == 0) {
+            return 0;
+        }
+        int slot = slot(key);
+        while (phraseKeys[slot] != 0) {
+            if (phraseKeys[slot] == key) {
+                int symptom = phraseSymptoms[slot];
+                target[symptom >>> 6] |= 1L << symptom;
+                return 1;
+            }
+            slot = (slot + 1) & phraseMask;
+        }
+        return 0;
+    }
+
+    private int slot(long key) {
+        return (int) (key ^ (key >>> 32)) & phraseMask;
+    }
+
+    private static boolean isNegation(long token) {
+        for (long negation : NEGATIONS) {
+            if (negation == token) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long phraseHash(String phrase, String where) {
+        String[] words = phrase.trim().split("\\s+");
+        if (words.length > MAX_PHRASE_WORDS) {
+            throw new IllegalStateException(where + "phrase '" + phrase + "' is longer than "
+                    + MAX_PHRASE_WORDS + " words");
+        }
+        long hash = tokenHash(words[0]);
+        for (int i = 1; i < words.length; i++) {
+            hash = mix(hash, tokenHash(words[i]));
+        }
+        return hash;
+    }
+
+    // Same rules as match(): letters only, lower-cased, apostrophes dropped
+    private static long tokenHash(String word) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (Character.isLetter(c)) {
+                hash = (hash ^ Character.toLowerCase(c)) * FNV_PRIME;
+            }
+        }
+        return nonZero(hash);
+    }
+
+    private static long mix(long left, long right) {
+        long h = left * 0x9E3779B97F4A7C15L + right;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return nonZero(h);
+    }
+
+    // 0 marks an empty slot in the phrase table
+    private static long nonZero(long hash) {
+        return hash != 0 ? hash : 1;
+    }
+
+    private static int words(int bits) {
+        return (bits + 63) >>> 6;
+    }
+}
@@ -0,0 +1,124 @@
+package com.mediconnect.mediconnect.service;
+
+import com.mediconnect.mediconnect.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size-bounded, least-recently-used cache of users, indexed by ID and by email.
+ * Cached instances are shared; update users through {@link UserService} so the
+ * cache is refreshed instead of mutating them in place.
+ */
+@Component
+public class UserCache {
+
+    private final int maxEntries;
+    private final LinkedHashMap<Long, User> byId;
+    private final Map<String, Long> idByEmail = new HashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public UserCache(@Value("${users.cache.maxEntries:10000}") int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.byId = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, User> eldest) {
+                if (size() > UserCache.this.maxEntries) {
+                    idByEmail.remove(eldest.getValue().getEmail());
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Look up a user by email
+     *
+     * @param email The email
+     * @return The cached user, or null on a miss
+     */
+    public synchronized User getByEmail(String email) {
+        Long id = idByEmail.get(email);
+        return record(id != null ? byId.get(id) : null);
+    }
+
+    /**
+     * Look up a user by ID
+     *
+     * @param id The user ID
+     * @return The cached user, or null on a miss
+     */
+    public synchronized User getById(Long id) {
+        return record(byId.get(id));
+    }
+
+    /**
+     * Add or replace a user
+     *
+     * @param user A persisted user
+     */
+    public synchronized void put(User user) {
+        User previous = byId.put(user.getId(), user);
+        if (previous != null && !previous.getEmail().equals(user.getEmail())) {
+            idByEmail.remove(previous.getEmail());
+        }
+        idByEmail.put(user.getEmail(), user.getId());
+    }
+
+    /**
+     * Remove a user from both indexes
+     *
+     * @param id The user ID
+     */
+    public synchronized void evict(Long id) {
+        User removed = byId.remove(id);
+        if (removed != null) {
+            idByEmail.remove(removed.getEmail());
+        }
+    }
+
+    /**
+     * Remove a user from both indexes by email
+     *
+     * @param email The email
+     */
+    public synchronized void evictByEmail(String email) {
+        Long id = idByEmail.remove(email);
+        if (id != null) {
+            byId.remove(id);
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public synchronized int size() {
+        return byId.size();
+    }
+
+    private User record(User user) {
+        if (user != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return user;
+    }
+}
@@ -1,6 +1,107 @@
 package com.mediconnect.mediconnect.service;
-/* Handles user-related operations: registration,
- profile updates, role management.*/
+
+import com.mediconnect.mediconnect.model.User;
+import com.mediconnect.mediconnect.repository.UserRepository;
+import com.mediconnect.mediconnect.security.VerifiedTokenCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * Handles user-related operations: registration,
+ * profile updates, role management.
+ *
+ * Reads go through a write-through {@link UserCache}, so authenticating a
+ * user and then returning their profile costs a single database fetch.
+ */
+@Service
 public class UserService {
 
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private VerifiedTokenCache tokenCache;
+
+    /**
+     * Find a user by email
+     *
+     * @param email The email
+     * @return The user, or null if no user has that email
+     */
+    public User findByEmail(String email) {
+        User user = userCache.getByEmail(email);
+        if (user == null) {
+            user = userRepository.findByEmail(email);
+            if (user != null) {
+                userCache.put(user);
+            }
+        }
+        return user;
+    }
+
+    /**
+     * Find a user by ID
+     *
+     * @param id The user ID
+     * @return The user, if it exists
+     */
+    public Optional<User> findById(Long id) {
+        User user = userCache.getById(id);
+        if (user != null) {
+            return Optional.of(user);
+        }
+        Optional<User> loaded = userRepository.findById(id);
+        loaded.ifPresent(userCache::put);
+        return loaded;
+    }
+
+    /**
+     * Register a new user
+     *
+     * @param user The user to persist
+     * @return The saved user
+     */
+    public User register(User user) {
+        User saved = userRepository.save(user);
+        userCache.put(saved);
+        return saved;
+    }
+
+    /**
+     * Update an existing user and drop every cached view of them
+     *
+     * @param user The modified user
+     * @return The saved user
+     */
+    public User updateUser(User user) {
+        User previous = userCache.getById(user.getId());
+        userCache.evict(user.getId());
+        if (previous != null) {
+            tokenCache.invalidateUser(previous.getEmail());
+        }
+        tokenCache.invalidateUser(user.getEmail());
+
+        User saved = userRepository.save(user);
+        userCache.put(saved);
+        return saved;
+    }
+
+    /**
+     * Store a new password hash with a single UPDATE, then drop the cached user.
+     * The cached instance is shared with other readers, so it is never modified.
+     *
+     * @param email The user's email
+     * @param encodedPassword The new hash
+     * @return true if the user exists
+     */
+    public boolean updatePassword(String email, String encodedPassword) {
+        int updated = userRepository.updatePassword(email, encodedPassword);
+        userCache.evictByEmail(email);
+        return updated == 1;
+    }
 }
@@ -1,7 +1,8 @@
 package com.mediconnect.mediconnect.util;
 
+import com.mediconnect.mediconnect.security.HmacSigningKeys;
+import com.mediconnect.mediconnect.security.JwtSigningKeys;
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.security.Keys;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
@@ -10,20 +11,52 @@ import java.util.Date;
 
 /**
  * Utility class for generating and validating JWT tokens.
+ * Keys come from a {@link JwtSigningKeys}: a shared HS256 secret, or ES256 keys
+ * selected per token by its kid header.
  */
 @Component
 public class JwtUtil {
 
-    private final Key secretKey;
+    /** Claim holding the token family (one per login session) */
+    public static final String FAMILY_CLAIM = "fid";
+    /** Claim marking refresh tokens, which are never accepted as access tokens */
+    public static final String TYPE_CLAIM = "typ";
+    public static final String REFRESH_TYPE = "refresh";
+
+    private static final long DEFAULT_REFRESH_EXPIRATION_MS = 7L * 24 * 60 * 60 * 1000;
+
+    private final JwtSigningKeys keys;
     private final long jwtExpirationMs;
+    private final long refreshExpirationMs;
+    private final JwtParser parser;
 
-    // Constructor for Spring or manual instantiation in tests
+    // Constructor for manual instantiation in tests
     public JwtUtil(String secret, long jwtExpirationMs) {
-        if (secret.length() < 32) {
-            throw new IllegalArgumentException("Secret key must be at least 32 characters long for HS256");
-        }
-        this.secretKey = Keys.hmacShaKeyFor(secret.getBytes());
+        this(secret, jwtExpirationMs, DEFAULT_REFRESH_EXPIRATION_MS);
+    }
+
+    public JwtUtil(String secret, long jwtExpirationMs, long refreshExpirationMs) {
+        this(new HmacSigningKeys(secret), jwtExpirationMs, refreshExpirationMs);
+    }
+
+    public JwtUtil(JwtSigningKeys keys, long jwtExpirationMs, long refreshExpirationMs) {
+        this.keys = keys;
         this.jwtExpirationMs = jwtExpirationMs;
+        this.refreshExpirationMs = refreshExpirationMs;
+        // Parsers are immutable and thread-safe, so one instance serves every request.
+        // The resolver picks the verification key by kid; decoded keys are cached by the key source.
+        this.parser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        Key key = keys.verificationKey(header.getKeyId());
+                        if (key == null) {
+                            throw new UnsupportedJwtException("Unknown signing key: " + header.getKeyId());
+                        }
+                        return key;
+                    }
+                })
+                .build();
     }
 
     /**
@@ -33,12 +66,79 @@ public class JwtUtil {
      * @return a signed JWT token
      */
     public String generateToken(String username) {
-        return Jwts.builder()
+        return sign(Jwts.builder()
+                .setSubject(username)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs)));
+    }
+
+    /**
+     * Generates an access token belonging to a refresh-token family.
+     *
+     * @param username the username to encode in the token
+     * @param familyId the token family, checked against revocations on every request
+     * @return a signed JWT token
+     */
+    public String generateToken(String username, String familyId) {
+        return sign(Jwts.builder()
+                .setSubject(username)
+                .claim(FAMILY_CLAIM, familyId)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs)));
+    }
+
+    /**
+     * Generates a long-lived refresh token.
+     *
+     * @param username the username to encode in the token
+     * @param familyId the token family
+     * @param tokenId  unique token ID (jti), used for rotation
+     * @return a signed JWT token
+     */
+    public String generateRefreshToken(String username, String familyId, String tokenId) {
+        return sign(Jwts.builder()
+                .setId(tokenId)
                 .setSubject(username)
+                .claim(FAMILY_CLAIM, familyId)
+                .claim(TYPE_CLAIM, REFRESH_TYPE)
                 .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
-                .signWith(secretKey, SignatureAlgorithm.HS256)
-                .compact();
+                .setExpiration(new Date(System.currentTimeMillis() + refreshExpirationMs)));
+    }
+
+    /**
+     * Checks whether verified claims belong to a refresh token.
+     *
+     * @param claims verified claims
+     * @return true for refresh tokens
+     */
+    public boolean isRefreshToken(Claims claims) {
+        return REFRESH_TYPE.equals(claims.get(TYPE_CLAIM, String.class));
+    }
+
+    private String sign(JwtBuilder builder) {
+        JwtSigningKeys.SigningKey key = keys.signingKey();
+        if (key.keyId() != null) {
+            builder.setHeaderParam(JwsHeader.KEY_ID, key.keyId());
+        }
+        return builder.signWith(key.key(), key.algorithm()).compact();
+    }
+
+    /**
+     * Whether this node holds a signing key. Nodes that verify against a remote
+     * JWKS document can not issue tokens.
+     *
+     * @return true if tokens can be generated here
+     */
+    public boolean canIssueTokens() {
+        return keys.canSign();
+    }
+
+    public long getJwtExpirationMs() {
+        return jwtExpirationMs;
+    }
+
+    public long getRefreshExpirationMs() {
+        return refreshExpirationMs;
     }
 
     /**
@@ -59,7 +159,8 @@ public class JwtUtil {
      * @return true if valid
      */
     public boolean isTokenValid(String token, String username) {
-        return username.equals(extractUsername(token)) && !isTokenExpired(token);
+        Claims claims = extractAllClaims(token);
+        return username.equals(claims.getSubject()) && !claims.getExpiration().before(new Date());
     }
 
     /**
@@ -74,26 +175,13 @@ public class JwtUtil {
     }
 
     /**
-     * Extracts all claims from the token.
+     * Verifies the token signature and expiry and extracts all claims.
      *
      * @param token JWT token
      * @return Claims object
+     * @throws JwtException if the token is malformed, forged or expired
      */
-    private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    /**
-     * Checks if token is expired.
-     *
-     * @param token JWT token
-     * @return true if expired
-     */
-    private boolean isTokenExpired(String token) {
-        return extractAllClaims(token).getExpiration().before(new Date());
+    public Claims extractAllClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
     }
 }
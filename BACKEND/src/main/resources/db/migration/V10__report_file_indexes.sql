@@ -0,0 +1,13 @@
+-- Download access checks look up the report a stored file belongs to, by its
+-- upload key, its preview key or (for reports that only record a URL) its
+-- download URL. Built CONCURRENTLY so existing tables stay writable (Flyway
+-- runs this migration outside a transaction).
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_medical_reports_storage_key
+    ON medical_reports (storage_key) WHERE storage_key IS NOT NULL;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_medical_reports_preview_key
+    ON medical_reports (preview_key) WHERE preview_key IS NOT NULL;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_medical_reports_file_url
+    ON medical_reports (file_url);
@@ -0,0 +1,89 @@
+-- Baseline schema, matching what Hibernate (ddl-auto=update) created before
+-- migrations were introduced. Every statement is idempotent so existing
+-- databases (baselined at version 0) pass through it unchanged.
+
+CREATE TABLE IF NOT EXISTS users (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    full_name     VARCHAR(255) NOT NULL,
+    email         VARCHAR(255) NOT NULL,
+    password_hash VARCHAR(255) NOT NULL,
+    role          VARCHAR(255) NOT NULL,
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE SEQUENCE IF NOT EXISTS appointments_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS appointments (
+    id                    BIGINT       NOT NULL PRIMARY KEY,
+    patient_id            BIGINT       NOT NULL,
+    doctor_id             BIGINT       NOT NULL,
+    appointment_date_time TIMESTAMP(6) NOT NULL,
+    serial_number         INTEGER      NOT NULL,
+    status                VARCHAR(255) NOT NULL,
+    notes                 VARCHAR(500),
+    CONSTRAINT fk_appointments_patient FOREIGN KEY (patient_id) REFERENCES users (id),
+    CONSTRAINT fk_appointments_doctor FOREIGN KEY (doctor_id) REFERENCES users (id)
+);
+
+CREATE SEQUENCE IF NOT EXISTS medical_reports_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS medical_reports (
+    id             BIGINT        NOT NULL PRIMARY KEY,
+    patient_id     BIGINT        NOT NULL,
+    doctor_id      BIGINT        NOT NULL,
+    appointment_id BIGINT,
+    title          VARCHAR(255)  NOT NULL,
+    description    VARCHAR(1000),
+    file_url       VARCHAR(255)  NOT NULL,
+    file_type      VARCHAR(255),
+    file_size      BIGINT,
+    storage_key    VARCHAR(255),
+    checksum       VARCHAR(64),
+    created_at     TIMESTAMP(6)  NOT NULL,
+    updated_at     TIMESTAMP(6),
+    status         VARCHAR(255)  NOT NULL,
+    CONSTRAINT fk_medical_reports_patient FOREIGN KEY (patient_id) REFERENCES users (id),
+    CONSTRAINT fk_medical_reports_doctor FOREIGN KEY (doctor_id) REFERENCES users (id),
+    CONSTRAINT fk_medical_reports_appointment FOREIGN KEY (appointment_id) REFERENCES appointments (id)
+);
+
+CREATE TABLE IF NOT EXISTS appointment_serial_counters (
+    doctor_id        BIGINT  NOT NULL,
+    appointment_date DATE    NOT NULL,
+    last_serial      INTEGER NOT NULL,
+    PRIMARY KEY (doctor_id, appointment_date)
+);
+
+CREATE TABLE IF NOT EXISTS doctor_working_hours (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    doctor_id    BIGINT       NOT NULL,
+    day_of_week  VARCHAR(255) NOT NULL,
+    start_time   TIME(6)      NOT NULL,
+    end_time     TIME(6)      NOT NULL,
+    slot_minutes INTEGER      NOT NULL,
+    CONSTRAINT uk_doctor_working_hours_day UNIQUE (doctor_id, day_of_week),
+    CONSTRAINT fk_doctor_working_hours_doctor FOREIGN KEY (doctor_id) REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS refresh_tokens (
+    id          VARCHAR(36)  NOT NULL PRIMARY KEY,
+    family_id   VARCHAR(36)  NOT NULL,
+    username    VARCHAR(255) NOT NULL,
+    expires_at  TIMESTAMP(6) NOT NULL,
+    created_at  TIMESTAMP(6) NOT NULL,
+    revoked     BOOLEAN      NOT NULL,
+    replaced_by VARCHAR(36)
+);
+
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_family ON refresh_tokens (family_id);
+
+CREATE TABLE IF NOT EXISTS revoked_token_families (
+    family_id  VARCHAR(36)  NOT NULL PRIMARY KEY,
+    revoked_at TIMESTAMP(6) NOT NULL,
+    expires_at TIMESTAMP(6) NOT NULL
+);
+
+-- Move the pooled ID sequences past every existing row (rows inserted while the
+-- tables used identity columns). Never moves a sequence backwards.
+SELECT setval('appointments_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM appointments), (SELECT last_value FROM appointments_seq), 1));
+SELECT setval('medical_reports_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM medical_reports), (SELECT last_value FROM medical_reports_seq), 1));
@@ -0,0 +1,23 @@
+-- Composite indexes for the repository finders. Each one matches a finder's
+-- filter columns followed by its sort order, so listings are read in index
+-- order and stop after one page. Built CONCURRENTLY so existing tables stay
+-- writable (Flyway runs this migration outside a transaction).
+
+-- Doctor day schedule (ordered by serial) and MAX(serial_number) per doctor and day
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_appointments_doctor_time_serial
+    ON appointments (doctor_id, appointment_date_time, serial_number);
+
+-- Patient appointment history, latest first (keyset pagination)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_appointments_patient_time_id
+    ON appointments (patient_id, appointment_date_time DESC, id DESC);
+
+-- Patient and doctor report listings, newest first (keyset pagination)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_medical_reports_patient_created_id
+    ON medical_reports (patient_id, created_at DESC, id DESC);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_medical_reports_doctor_created_id
+    ON medical_reports (doctor_id, created_at DESC, id DESC);
+
+-- Reports attached to an appointment
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_medical_reports_appointment_created_id
+    ON medical_reports (appointment_id, created_at DESC, id DESC);
@@ -0,0 +1,30 @@
+-- Asynchronous report processing: results of the pipeline stages on the report
+-- itself, plus a durable job table (outbox) the stage workers claim rows from.
+
+ALTER TABLE medical_reports ADD COLUMN IF NOT EXISTS mime_type VARCHAR(255);
+ALTER TABLE medical_reports ADD COLUMN IF NOT EXISTS preview_key VARCHAR(255);
+ALTER TABLE medical_reports ADD COLUMN IF NOT EXISTS extracted_text TEXT;
+ALTER TABLE medical_reports ADD COLUMN IF NOT EXISTS processing_error VARCHAR(1000);
+
+-- Databases created by Hibernate carry a check constraint listing the old
+-- ReportStatus values, which would reject PROCESSING/PROCESSED/FAILED
+ALTER TABLE medical_reports DROP CONSTRAINT IF EXISTS medical_reports_status_check;
+
+-- One row per report still in the pipeline; the row moves from stage to stage
+-- and is deleted once the report is PROCESSED or FAILED
+CREATE TABLE IF NOT EXISTS report_jobs (
+    id           BIGSERIAL     NOT NULL PRIMARY KEY,
+    report_id    BIGINT        NOT NULL,
+    stage        VARCHAR(32)   NOT NULL,
+    attempts     INTEGER       NOT NULL DEFAULT 0,
+    available_at TIMESTAMP(6)  NOT NULL,
+    locked_until TIMESTAMP(6),
+    last_error   VARCHAR(1000),
+    created_at   TIMESTAMP(6)  NOT NULL DEFAULT now(),
+    CONSTRAINT uk_report_jobs_report UNIQUE (report_id),
+    CONSTRAINT fk_report_jobs_report FOREIGN KEY (report_id) REFERENCES medical_reports (id) ON DELETE CASCADE
+);
+
+-- Claim query: oldest due jobs of one stage
+CREATE INDEX IF NOT EXISTS idx_report_jobs_stage_available
+    ON report_jobs (stage, available_at);
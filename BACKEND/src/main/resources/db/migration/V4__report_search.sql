@@ -0,0 +1,10 @@
+-- Full-text search over reports. PostgreSQL keeps the vector up to date on every
+-- insert and update of the source columns (title, description, extracted text),
+-- so no application code maintains it. Title words rank above description
+-- words, which rank above words from the file itself.
+ALTER TABLE medical_reports ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('english', coalesce(title, '')), 'A')
+        || setweight(to_tsvector('english', coalesce(description, '')), 'B')
+        || setweight(to_tsvector('english', coalesce(extracted_text, '')), 'C')
+    ) STORED;
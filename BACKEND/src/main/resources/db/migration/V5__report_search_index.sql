@@ -0,0 +1,5 @@
+-- Inverted index for report search. Combined with idx_medical_reports_doctor_created_id
+-- (bitmap AND) for searches scoped to one doctor. Built CONCURRENTLY, so it lives
+-- in its own migration (Flyway runs it outside a transaction).
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_medical_reports_search
+    ON medical_reports USING GIN (search_vector);
@@ -0,0 +1,4 @@
+-- Row versions for optimistic locking (@Version). Existing rows start at 0;
+-- the default only fills them in, the application always writes the column.
+ALTER TABLE appointments ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE medical_reports ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,12 @@
+-- Chat transcripts, appended in batches by ChatHistoryService. Rows are never
+-- updated; (conversation_id, seq) is both the key and the recency index.
+-- sender_id has no foreign key so a batch never waits on lookups in users.
+CREATE TABLE IF NOT EXISTS chat_messages (
+    conversation_id VARCHAR(64) NOT NULL,
+    seq INTEGER NOT NULL,
+    sender VARCHAR(16) NOT NULL,
+    sender_id BIGINT,
+    content TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (conversation_id, seq)
+);
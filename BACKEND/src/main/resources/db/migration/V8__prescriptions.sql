@@ -0,0 +1,23 @@
+-- Versioned prescriptions. Each revision inserts the next version and stamps
+-- superseded_at on the previous one; no other column is ever updated. Line items
+-- are encoded into one BYTEA column (PrescriptionItemsConverter) instead of a
+-- child table. Indexes are in V9.
+CREATE SEQUENCE IF NOT EXISTS prescriptions_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE IF NOT EXISTS prescriptions (
+    prescription_id BIGINT        NOT NULL,
+    version         INTEGER       NOT NULL,
+    patient_id      BIGINT        NOT NULL,
+    doctor_id       BIGINT        NOT NULL,
+    appointment_id  BIGINT,
+    status          VARCHAR(16)   NOT NULL,
+    items           BYTEA         NOT NULL,
+    notes           VARCHAR(1000),
+    valid_until     DATE          NOT NULL,
+    issued_at       TIMESTAMP(6)  NOT NULL,
+    superseded_at   TIMESTAMP(6),
+    PRIMARY KEY (prescription_id, version),
+    CONSTRAINT fk_prescriptions_patient FOREIGN KEY (patient_id) REFERENCES users (id),
+    CONSTRAINT fk_prescriptions_doctor FOREIGN KEY (doctor_id) REFERENCES users (id),
+    CONSTRAINT fk_prescriptions_appointment FOREIGN KEY (appointment_id) REFERENCES appointments (id)
+);
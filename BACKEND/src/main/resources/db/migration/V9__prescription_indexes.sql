@@ -0,0 +1,12 @@
+-- Partial indexes over current versions only; superseded versions are history
+-- and stay out of them. Built CONCURRENTLY, so they live in their own migration
+-- (Flyway runs it outside a transaction).
+
+-- Pharmacy lookup of a prescription's current version; also makes two
+-- concurrent revisions of the same version impossible
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS uk_prescriptions_current
+    ON prescriptions (prescription_id) WHERE superseded_at IS NULL;
+
+-- A patient's active prescriptions, newest first
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_prescriptions_patient_active
+    ON prescriptions (patient_id, issued_at DESC) WHERE status = 'ACTIVE' AND superseded_at IS NULL;
@@ -0,0 +1,85 @@
+package com.mediconnect.mediconnect.config;
+
+import com.mediconnect.mediconnect.service.EmergencyLaneExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RequestLaneFilterTest {
+
+    private static final String STREAM = "/api/chatbot/messages/stream";
+
+    private RequestLaneFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        EmergencyLaneExecutor emergencyLane = mock(EmergencyLaneExecutor.class);
+        when(emergencyLane.isUnderPressure()).thenReturn(false);
+        filter = new RequestLaneFilter(emergencyLane, 1, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void synchronousRequestReleasesItsPermitOnReturn() throws Exception {
+        assertEquals(200, send(STREAM, (req, res) -> { }).getStatus());
+        assertEquals(200, send(STREAM, (req, res) -> { }).getStatus());
+    }
+
+    @Test
+    void asyncRequestHoldsItsPermitUntilItCompletes() throws Exception {
+        MockHttpServletRequest streaming = request(STREAM);
+        filter.doFilter(streaming, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+        // The stream is still being written, so its permit is still taken
+        assertEquals(503, send(STREAM, (req, res) -> { }).getStatus());
+
+        streaming.getAsyncContext().complete();
+        assertEquals(200, send(STREAM, (req, res) -> { }).getStatus());
+    }
+
+    @Test
+    void timedOutAsyncRequestReleasesItsPermitOnce() throws Exception {
+        MockHttpServletRequest streaming = request(STREAM);
+        filter.doFilter(streaming, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+        MockAsyncContext context = (MockAsyncContext) streaming.getAsyncContext();
+
+        for (AsyncListener listener : context.getListeners()) {
+            listener.onTimeout(new AsyncEvent(context));
+        }
+        context.complete();
+
+        // One permit in total: one request gets through, a concurrent second one would not
+        MockHttpServletRequest next = request(STREAM);
+        filter.doFilter(next, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+        assertEquals(503, send(STREAM, (req, res) -> { }).getStatus());
+    }
+
+    @Test
+    void routineRequestsAreNotCounted() throws Exception {
+        MockHttpServletRequest streaming = request(STREAM);
+        filter.doFilter(streaming, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+
+        assertEquals(200, send("/api/appointments/queue/1", (req, res) -> { }).getStatus());
+    }
+
+    private MockHttpServletResponse send(String path, FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(path), response, chain);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setServletPath(path);
+        request.setAsyncSupported(true);
+        return request;
+    }
+}
@@ -0,0 +1,72 @@
+package com.mediconnect.mediconnect.controller;
+
+import com.mediconnect.mediconnect.exception.GlobalExceptionHandler;
+import com.mediconnect.mediconnect.security.PasswordHashingExecutor;
+import com.mediconnect.mediconnect.service.RefreshTokenService;
+import com.mediconnect.mediconnect.service.UserService;
+import com.mediconnect.mediconnect.util.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Login and refresh on a node that only verifies tokens (keys from a remote JWKS document)
+ */
+class AuthControllerTest {
+
+    private final JwtUtil jwtUtil = mock(JwtUtil.class);
+    private final PasswordHashingExecutor hashingExecutor = mock(PasswordHashingExecutor.class);
+    private final RefreshTokenService refreshTokenService = mock(RefreshTokenService.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        when(jwtUtil.canIssueTokens()).thenReturn(false);
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new AuthController(mock(AuthenticationManager.class), mock(UserService.class),
+                        mock(PasswordEncoder.class), jwtUtil, hashingExecutor, refreshTokenService))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void loginIsUnavailableWithoutCheckingThePassword() throws Exception {
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"patient@example.com\",\"password\":\"secret123\"}"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.error").value(
+                        "This node only verifies tokens; log in and refresh tokens through an auth node"));
+
+        verifyNoInteractions(hashingExecutor, refreshTokenService);
+    }
+
+    @Test
+    void refreshIsUnavailableAndLeavesTheTokenUnused() throws Exception {
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"token\"}"))
+                .andExpect(status().isServiceUnavailable());
+
+        verifyNoInteractions(refreshTokenService);
+    }
+
+    @Test
+    void logoutStillWorksBecauseItOnlyVerifies() throws Exception {
+        mockMvc.perform(post("/api/auth/logout")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"token\"}"))
+                .andExpect(status().isNoContent());
+
+        verify(refreshTokenService).revoke("token");
+    }
+}
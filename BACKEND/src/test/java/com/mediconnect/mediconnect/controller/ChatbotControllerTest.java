@@ -0,0 +1,99 @@
+package com.mediconnect.mediconnect.controller;
+
+import com.mediconnect.mediconnect.dto.ChatRequest;
+import com.mediconnect.mediconnect.dto.ChatResponse;
+import com.mediconnect.mediconnect.model.ChatMessage.Sender;
+import com.mediconnect.mediconnect.service.ChatHistoryService;
+import com.mediconnect.mediconnect.service.ChatStreamExecutor;
+import com.mediconnect.mediconnect.service.ChatbotService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+class ChatbotControllerTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final ChatHistoryService chatHistoryService = mock(ChatHistoryService.class);
+    private final ChatStreamExecutor streamExecutor = new ChatStreamExecutor(1, 1, new SimpleMeterRegistry());
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new ChatbotController(new TwoTokenChatbot(), chatHistoryService, streamExecutor))
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        streamExecutor.shutdown();
+    }
+
+    @Test
+    void firstTokenIsSentBeforeTheReplyIsFinished() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/chatbot/messages/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"message\":\"headache\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MockHttpServletResponse response = result.getResponse();
+
+        awaitContent(response, "data:first");
+        // The second token has not been produced yet
+        assertFalse(response.getContentAsString().contains("data:last"));
+
+        release.countDown();
+        awaitContent(response, "event:done");
+        assertTrue(response.getContentAsString().contains("data:last"));
+        verify(chatHistoryService).start("s1");
+        verify(chatHistoryService).append(eq("s1"), eq(Sender.BOT), eq(null), eq("first last"));
+    }
+
+    private static void awaitContent(MockHttpServletResponse response, String expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!response.getContentAsString().contains(expected)) {
+            assertTrue(System.nanoTime() < deadline, "timed out waiting for " + expected);
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * Produces one token, then waits for the test before producing the second
+     */
+    private final class TwoTokenChatbot implements ChatbotService {
+
+        @Override
+        public ChatResponse reply(ChatRequest request, Consumer<String> tokens) {
+            tokens.accept("first");
+            try {
+                assertTrue(release.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            tokens.accept("last");
+            return new ChatResponse("s1", "first last", null, List.of(), null);
+        }
+
+        @Override
+        public void endSession(String sessionId) {
+        }
+    }
+}
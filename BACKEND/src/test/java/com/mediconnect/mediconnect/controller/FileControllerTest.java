@@ -0,0 +1,210 @@
+package com.mediconnect.mediconnect.controller;
+
+import com.mediconnect.mediconnect.exception.GlobalExceptionHandler;
+import com.mediconnect.mediconnect.model.Role;
+import com.mediconnect.mediconnect.model.User;
+import com.mediconnect.mediconnect.repository.AppointmentRepository;
+import com.mediconnect.mediconnect.repository.MedicalReportRepository;
+import com.mediconnect.mediconnect.repository.MedicalReportRepository.FileOwner;
+import com.mediconnect.mediconnect.security.CurrentUser;
+import com.mediconnect.mediconnect.service.FileStorageService;
+import com.mediconnect.mediconnect.service.LocalObjectStore;
+import com.mediconnect.mediconnect.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class FileControllerTest {
+
+    private static final String KEY = "scan.txt";
+    private static final String CONTENT = "0123456789";
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+
+    private static final User DOCTOR = user(2L, Role.DOCTOR);
+    private static final User PATIENT = user(3L, Role.PATIENT);
+    private static final User OTHER_PATIENT = user(4L, Role.PATIENT);
+
+    @TempDir
+    Path dir;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Files.writeString(dir.resolve(KEY), CONTENT);
+
+        UserService userService = mock(UserService.class);
+        for (User user : List.of(DOCTOR, PATIENT, OTHER_PATIENT)) {
+            when(userService.findByEmail(user.getEmail())).thenReturn(user);
+        }
+        MedicalReportRepository reportRepository = mock(MedicalReportRepository.class);
+        when(reportRepository.findFileOwners(anyString(), anyString())).thenReturn(List.of());
+        when(reportRepository.findFileOwners(KEY, FileStorageService.DOWNLOAD_PATH + KEY))
+                .thenReturn(List.of(owner(PATIENT.getId(), DOCTOR.getId())));
+
+        FileStorageService storage = new FileStorageService(new LocalObjectStore(dir.toString()), 64);
+        CurrentUser currentUser = new CurrentUser(userService, mock(AppointmentRepository.class), reportRepository);
+        mockMvc = MockMvcBuilders.standaloneSetup(new FileController(storage, currentUser))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+        signIn(PATIENT);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void wholeFileIsServed() throws Exception {
+        mockMvc.perform(get("/api/files/" + KEY))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(content().string(CONTENT));
+    }
+
+    @Test
+    void closedRangeIsServedAsPartialContent() throws Exception {
+        mockMvc.perform(get("/api/files/" + KEY).header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+                .andExpect(content().string("2345"));
+    }
+
+    @Test
+    void suffixRangeServesTheLastBytes() throws Exception {
+        mockMvc.perform(get("/api/files/" + KEY).header(HttpHeaders.RANGE, "bytes=-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 7-9/10"))
+                .andExpect(content().string("789"));
+    }
+
+    @Test
+    void openEndedRangeRunsToTheEnd() throws Exception {
+        mockMvc.perform(get("/api/files/" + KEY).header(HttpHeaders.RANGE, "bytes=6-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 6-9/10"))
+                .andExpect(content().string("6789"));
+    }
+
+    @Test
+    void rangeBeyondTheEndIsUnsatisfiable() throws Exception {
+        mockMvc.perform(get("/api/files/" + KEY).header(HttpHeaders.RANGE, "bytes=10-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable());
+    }
+
+    @Test
+    void sendfileRangesAreHandedToTheConnector() throws Exception {
+        mockMvc.perform(get("/api/files/" + KEY).requestAttr(SENDFILE_SUPPORT, true)
+                        .header(HttpHeaders.RANGE, "bytes=-3"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 7-9/10"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 3))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.start", 7L))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.end", 10L));
+
+        mockMvc.perform(get("/api/files/" + KEY).requestAttr(SENDFILE_SUPPORT, true)
+                        .header(HttpHeaders.RANGE, "bytes=4-"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 4-9/10"))
+                .andExpect(request().attribute("org.apache.tomcat.sendfile.end", 10L));
+
+        mockMvc.perform(get("/api/files/" + KEY).requestAttr(SENDFILE_SUPPORT, true)
+                        .header(HttpHeaders.RANGE, "bytes=10-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+    }
+
+    @Test
+    void reportDoctorMayDownload() throws Exception {
+        signIn(DOCTOR);
+
+        mockMvc.perform(get("/api/files/" + KEY)).andExpect(status().isOk());
+    }
+
+    @Test
+    void otherPatientIsForbidden() throws Exception {
+        signIn(OTHER_PATIENT);
+
+        mockMvc.perform(get("/api/files/" + KEY)).andExpect(status().isForbidden());
+    }
+
+    @Test
+    void anonymousDownloadIsRejected() throws Exception {
+        SecurityContextHolder.clearContext();
+
+        mockMvc.perform(get("/api/files/" + KEY)).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void fileWithoutReportIsNotFound() throws Exception {
+        Files.writeString(dir.resolve("orphan.txt"), CONTENT);
+
+        mockMvc.perform(get("/api/files/orphan.txt")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void oversizedUploadIsRejected() throws Exception {
+        byte[] large = "x".repeat(65).getBytes(StandardCharsets.UTF_8);
+
+        mockMvc.perform(multipart("/api/files").file(new MockMultipartFile("file", "big.txt", "text/plain", large)))
+                .andExpect(status().isPayloadTooLarge());
+    }
+
+    @Test
+    void uploadReturnsItsHash() throws Exception {
+        byte[] hello = "hello".getBytes(StandardCharsets.UTF_8);
+
+        mockMvc.perform(multipart("/api/files").file(new MockMultipartFile("file", "a.txt", "text/plain", hello)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.size").value(5))
+                .andExpect(jsonPath("$.sha256")
+                        .value("2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824"));
+    }
+
+    private static FileOwner owner(Long patientId, Long doctorId) {
+        return new FileOwner() {
+            @Override
+            public Long getPatientId() {
+                return patientId;
+            }
+
+            @Override
+            public Long getDoctorId() {
+                return doctorId;
+            }
+        };
+    }
+
+    private static void signIn(User user) {
+        org.springframework.security.core.userdetails.User principal =
+                new org.springframework.security.core.userdetails.User(user.getEmail(), "hash",
+                        List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole().name())));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private static User user(Long id, Role role) {
+        return User.builder().id(id).name("User " + id).email("user" + id + "@example.com")
+                .password("hash").role(role).build();
+    }
+}
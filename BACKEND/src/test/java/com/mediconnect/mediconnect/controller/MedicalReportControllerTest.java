@@ -0,0 +1,132 @@
+package com.mediconnect.mediconnect.controller;
+
+import com.mediconnect.mediconnect.dto.CursorPage;
+import com.mediconnect.mediconnect.dto.KeysetCursor;
+import com.mediconnect.mediconnect.exception.GlobalExceptionHandler;
+import com.mediconnect.mediconnect.model.Role;
+import com.mediconnect.mediconnect.model.User;
+import com.mediconnect.mediconnect.repository.AppointmentRepository;
+import com.mediconnect.mediconnect.repository.MedicalReportRepository;
+import com.mediconnect.mediconnect.security.CurrentUser;
+import com.mediconnect.mediconnect.service.MedicalReportService;
+import com.mediconnect.mediconnect.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class MedicalReportControllerTest {
+
+    private static final User ADMIN = user(1L, Role.ADMIN);
+    private static final User DOCTOR = user(2L, Role.DOCTOR);
+    private static final User PATIENT = user(3L, Role.PATIENT);
+    private static final User OTHER_PATIENT = user(4L, Role.PATIENT);
+
+    private final MedicalReportService reportService = mock(MedicalReportService.class);
+    private final UserService userService = mock(UserService.class);
+    private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        for (User user : List.of(ADMIN, DOCTOR, PATIENT, OTHER_PATIENT)) {
+            when(userService.findByEmail(user.getEmail())).thenReturn(user);
+        }
+        when(appointmentRepository.existsByPatientIdAndDoctorId(PATIENT.getId(), DOCTOR.getId())).thenReturn(true);
+        when(reportService.getPatientReports(anyLong(), any(), anyInt())).thenAnswer(call -> {
+            KeysetCursor.decode(call.getArgument(1));
+            return new CursorPage<>(List.of(), null);
+        });
+        when(reportService.getDoctorReports(anyLong(), any(), anyInt())).thenReturn(new CursorPage<>(List.of(), null));
+        when(reportService.searchDoctorReports(anyLong(), any(), any(), anyInt()))
+                .thenReturn(new CursorPage<>(List.of(), null));
+
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new MedicalReportController(reportService,
+                        new CurrentUser(userService, appointmentRepository, mock(MedicalReportRepository.class))))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void anonymousCallerIsRejectedBeforeTheQuery() throws Exception {
+        mockMvc.perform(get("/api/reports/patient/3")).andExpect(status().isUnauthorized());
+        mockMvc.perform(get("/api/reports/doctor/2")).andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(reportService);
+    }
+
+    @Test
+    void patientSeesOnlyTheirOwnReports() throws Exception {
+        signIn(PATIENT);
+
+        mockMvc.perform(get("/api/reports/patient/3")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/reports/patient/4")).andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/reports/doctor/2")).andExpect(status().isForbidden());
+
+        verify(reportService).getPatientReports(eq(3L), any(), anyInt());
+        verify(reportService, never()).getPatientReports(eq(4L), any(), anyInt());
+        verify(reportService, never()).getDoctorReports(anyLong(), any(), anyInt());
+    }
+
+    @Test
+    void doctorSeesOwnReportsAndTheirPatients() throws Exception {
+        signIn(DOCTOR);
+
+        mockMvc.perform(get("/api/reports/doctor/2")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/reports/doctor/2/search").param("q", "blood")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/reports/patient/3")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/reports/patient/4")).andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/reports/doctor/5")).andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/reports/doctor/5/search").param("q", "blood")).andExpect(status().isForbidden());
+
+        verify(reportService, never()).getPatientReports(eq(4L), any(), anyInt());
+        verify(reportService, never()).getDoctorReports(eq(5L), any(), anyInt());
+        verify(reportService, never()).searchDoctorReports(eq(5L), any(), any(), anyInt());
+    }
+
+    @Test
+    void adminSeesEveryone() throws Exception {
+        signIn(ADMIN);
+
+        mockMvc.perform(get("/api/reports/patient/4")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/reports/doctor/5")).andExpect(status().isOk());
+    }
+
+    @Test
+    void malformedCursorIsBadRequest() throws Exception {
+        signIn(PATIENT);
+
+        mockMvc.perform(get("/api/reports/patient/3").param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static void signIn(User user) {
+        org.springframework.security.core.userdetails.User principal =
+                new org.springframework.security.core.userdetails.User(user.getEmail(), "hash",
+                        List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole().name())));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private static User user(Long id, Role role) {
+        return User.builder().id(id).name("User " + id).email("user" + id + "@example.com")
+                .password("hash").role(role).build();
+    }
+}
@@ -0,0 +1,68 @@
+package com.mediconnect.mediconnect.dto;
+
+import com.mediconnect.mediconnect.exception.InvalidInputException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetCursorTest {
+
+    private static final LocalDateTime AT = LocalDateTime.of(2030, 1, 7, 9, 15, 30, 123_000_000);
+
+    @Test
+    void encodedCursorDecodesToTheSamePosition() {
+        KeysetCursor decoded = KeysetCursor.decode(new KeysetCursor(AT, 4711L).encode());
+
+        assertEquals(AT, decoded.getTimestamp());
+        assertEquals(4711L, decoded.getId());
+    }
+
+    @Test
+    void missingCursorMeansFirstPage() {
+        assertNull(KeysetCursor.decode(null));
+        assertNull(KeysetCursor.decode(" "));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"not base64!", "bm8tc2VwYXJhdG9y", "MjAzMC0wMS0wN1QwOToxNXxhYmM", "eHx5"})
+    void malformedCursorIsInvalidInput(String cursor) {
+        assertThrows(InvalidInputException.class, () -> KeysetCursor.decode(cursor));
+    }
+
+    @Test
+    void cursorWithoutIdIsInvalidInput() {
+        String cursor = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("2030-01-07T09:15|".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(InvalidInputException.class, () -> KeysetCursor.decode(cursor));
+    }
+
+    @Test
+    void extraRowSignalsNextPageAndIsNotReturned() {
+        List<Long> rows = List.of(9L, 8L, 7L, 6L);
+
+        CursorPage<Long> page = CursorPage.of(rows, 3, id -> new KeysetCursor(AT, id));
+
+        assertEquals(List.of(9L, 8L, 7L), page.getItems());
+        // The cursor points at the last returned row, not at the extra one
+        assertEquals(7L, KeysetCursor.decode(page.getNextCursor()).getId());
+    }
+
+    @Test
+    void pageWithoutExtraRowIsTheLast() {
+        CursorPage<Long> full = CursorPage.of(List.of(9L, 8L, 7L), 3, id -> new KeysetCursor(AT, id));
+        CursorPage<Long> empty = CursorPage.of(List.of(), 3, id -> new KeysetCursor(AT, id));
+
+        assertEquals(List.of(9L, 8L, 7L), full.getItems());
+        assertNull(full.getNextCursor());
+        assertEquals(List.of(), empty.getItems());
+        assertNull(empty.getNextCursor());
+    }
+}
@@ -0,0 +1,58 @@
+package com.mediconnect.mediconnect.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PrescriptionItemsConverterTest {
+
+    private final PrescriptionItemsConverter converter = new PrescriptionItemsConverter();
+
+    @Test
+    void roundTripsItemsIncludingNullsAndNonAsciiText() {
+        List<PrescriptionItem> items = List.of(
+                new PrescriptionItem("Amoxicillin 500 mg", "1 capsule", "every 8 hours", 7, 21, 0, "after meals"),
+                new PrescriptionItem("Paracétamol 1 g", "1 tablet", "when needed", null, 10, null, null),
+                new PrescriptionItem("Insulin glargine", "20 units", "at night", 300, Integer.MAX_VALUE, 5, ""));
+
+        assertEquals(items, converter.convertToEntityAttribute(converter.convertToDatabaseColumn(items)));
+        assertEquals(List.of(), converter.convertToEntityAttribute(converter.convertToDatabaseColumn(List.of())));
+        assertNull(converter.convertToDatabaseColumn(null));
+    }
+
+    @Test
+    void encodingIsSmallerThanTheTextItCarries() {
+        PrescriptionItem item = new PrescriptionItem("Amoxicillin 500 mg", "1 capsule", "every 8 hours", 7, 21, 0,
+                "after meals");
+        int text = 0;
+        for (String field : new String[]{item.drug(), item.dose(), item.frequency(), item.instructions()}) {
+            text += field.getBytes(StandardCharsets.UTF_8).length;
+        }
+
+        byte[] encoded = converter.convertToDatabaseColumn(List.of(item, item, item));
+
+        // One length byte per string and one byte per small number
+        assertEquals(2 + 3 * (text + 7), encoded.length);
+    }
+
+    @Test
+    void rejectsCorruptData() {
+        byte[] encoded = converter.convertToDatabaseColumn(List.of(
+                new PrescriptionItem("Ibuprofen 400 mg", "1 tablet", "every 6 hours", 5, 20, 1, null)));
+
+        byte[] unknownFormat = encoded.clone();
+        unknownFormat[0] = 2;
+        assertThrows(IllegalArgumentException.class, () -> converter.convertToEntityAttribute(unknownFormat));
+        assertThrows(IllegalArgumentException.class,
+                () -> converter.convertToEntityAttribute(Arrays.copyOf(encoded, encoded.length - 3)));
+        assertThrows(IllegalArgumentException.class,
+                () -> converter.convertToEntityAttribute(Arrays.copyOf(encoded, encoded.length + 1)));
+        assertThrows(IllegalArgumentException.class, () -> converter.convertToEntityAttribute(new byte[]{1, 100}));
+        assertThrows(IllegalArgumentException.class, () -> converter.convertToDatabaseColumn(List.of(
+                new PrescriptionItem("Ibuprofen 400 mg", "1 tablet", "every 6 hours", -1, 20, 1, null))));
+    }
+}
@@ -0,0 +1,124 @@
+package com.mediconnect.mediconnect.repository;
+
+import com.mediconnect.mediconnect.dto.AppointmentSummary;
+import com.mediconnect.mediconnect.dto.CursorPage;
+import com.mediconnect.mediconnect.dto.KeysetCursor;
+import com.mediconnect.mediconnect.dto.MedicalReportSummary;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Walks the keyset-paginated finders page by page, following the encoded
+ * cursor, over rows that share timestamps. Every row must come back exactly
+ * once, ordered by (timestamp DESC, id DESC).
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class KeysetPagingTest {
+
+    private static final int PAGE_SIZE = 4;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private AppointmentRepository appointments;
+
+    @Autowired
+    private MedicalReportRepository reports;
+
+    @BeforeEach
+    void seed() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("INSERT INTO users (id, full_name, email, password_hash, role) VALUES "
+                + "(1, 'Dr Who', 'doctor@example.com', 'hash', 'DOCTOR'), "
+                + "(2, 'Pat Ient', 'patient@example.com', 'hash', 'PATIENT')");
+        // Three appointments per time slot, so page boundaries fall inside a tie
+        jdbcTemplate.execute("INSERT INTO appointments (id, patient_id, doctor_id, appointment_date_time, "
+                + "serial_number, status) SELECT i, 2, 1, "
+                + "TIMESTAMP '2030-01-07 09:00' + (i / 3) * INTERVAL '15 minutes', i, 'SCHEDULED' "
+                + "FROM generate_series(1, 17) i");
+        jdbcTemplate.execute("INSERT INTO medical_reports (id, patient_id, doctor_id, title, file_url, "
+                + "created_at, status) SELECT i, 2, 1, 'Report ' || i, '/api/files/' || i, "
+                + "TIMESTAMP '2030-01-07' + (i % 3) * INTERVAL '1 hour', 'SUBMITTED' "
+                + "FROM generate_series(1, 13) i");
+    }
+
+    @Test
+    void patientAppointmentsPageThroughTies() {
+        List<AppointmentSummary> all = walk(cursor -> cursor == null
+                        ? appointments.findPatientPage(2L, PageRequest.ofSize(PAGE_SIZE + 1))
+                        : appointments.findPatientPageAfter(2L, cursor.getTimestamp(), cursor.getId(),
+                                PageRequest.ofSize(PAGE_SIZE + 1)),
+                a -> new KeysetCursor(a.appointmentDateTime(), a.id()));
+
+        assertEquals(17, all.size());
+        for (int i = 1; i < all.size(); i++) {
+            AppointmentSummary previous = all.get(i - 1);
+            AppointmentSummary current = all.get(i);
+            int byTime = current.appointmentDateTime().compareTo(previous.appointmentDateTime());
+            assertTrue(byTime < 0 || (byTime == 0 && current.id() < previous.id()),
+                    "out of order at " + previous.id() + ", " + current.id());
+        }
+    }
+
+    @Test
+    void doctorReportsPageThroughTies() {
+        List<MedicalReportSummary> all = walk(cursor -> cursor == null
+                        ? reports.findDoctorPage(1L, PageRequest.ofSize(PAGE_SIZE + 1))
+                        : reports.findDoctorPageAfter(1L, cursor.getTimestamp(), cursor.getId(),
+                                PageRequest.ofSize(PAGE_SIZE + 1)),
+                r -> new KeysetCursor(r.createdAt(), r.id()));
+
+        // created_at = i % 3 hours, so ids 2, 5, 8, 11 share the latest timestamp
+        assertEquals(List.of(11L, 8L, 5L, 2L, 13L, 10L, 7L, 4L, 1L, 12L, 9L, 6L, 3L),
+                all.stream().map(MedicalReportSummary::id).toList());
+    }
+
+    /**
+     * Fetch every page, passing each page's encoded cursor back in as a client would
+     */
+    private static <T> List<T> walk(Function<KeysetCursor, List<T>> fetch, Function<T, KeysetCursor> cursorOf) {
+        List<T> all = new ArrayList<>();
+        String next = null;
+        int pages = 0;
+        do {
+            CursorPage<T> page = CursorPage.of(fetch.apply(KeysetCursor.decode(next)), PAGE_SIZE, cursorOf);
+            assertTrue(page.getItems().size() <= PAGE_SIZE);
+            all.addAll(page.getItems());
+            next = page.getNextCursor();
+            assertTrue(++pages <= 10, "paging does not terminate");
+        } while (next != null);
+        return all;
+    }
+
+    @TestConfiguration
+    static class EmbeddedDatabase {
+
+        @Bean(destroyMethod = "close")
+        EmbeddedPostgres embeddedPostgres() throws IOException {
+            return EmbeddedPostgres.start();
+        }
+
+        @Bean
+        DataSource dataSource(EmbeddedPostgres postgres) {
+            return postgres.getPostgresDatabase();
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.mediconnect.mediconnect.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Calls each repository finder against the migrated schema in an embedded
+ * PostgreSQL, captures the statement Hibernate actually sent together with its
+ * bind values, and runs EXPLAIN on that. Fails if a finder no longer uses its
+ * index (i.e. would fall back to a sequential scan).
+ *
+ * Sequential scans are disabled for the EXPLAIN session, so the planner picks an
+ * index whenever one can serve the query, regardless of table size.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class QueryPlanTest {
+
+    private static final LocalDateTime DAY_START = LocalDateTime.of(2030, 1, 7, 0, 0);
+    private static final LocalDateTime DAY_END = LocalDateTime.of(2030, 1, 7, 23, 59, 59);
+    private static final Pageable PAGE = PageRequest.ofSize(21);
+
+    // Statements sent through the test DataSource, in order
+    private static final List<CapturedStatement> captured = new CopyOnWriteArrayList<>();
+
+    private static Connection explainConnection;
+
+    @Autowired
+    private EmbeddedPostgres postgres;
+
+    @Autowired
+    private AppointmentRepository appointments;
+
+    @Autowired
+    private MedicalReportRepository reports;
+
+    @Autowired
+    private PrescriptionRepository prescriptions;
+
+    @BeforeEach
+    void seedOnce() throws Exception {
+        if (explainConnection != null) {
+            return;
+        }
+        // Committed outside the test transaction, so the data is seen by every test
+        try (Connection connection = postgres.getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("INSERT INTO users (full_name, email, password_hash, role) "
+                    + "SELECT 'User ' || i, 'user' || i || '@example.com', 'hash', "
+                    + "CASE WHEN i <= 10 THEN 'DOCTOR' ELSE 'PATIENT' END FROM generate_series(1, 200) i");
+            statement.execute("INSERT INTO appointments (id, patient_id, doctor_id, appointment_date_time, "
+                    + "serial_number, status) SELECT i, 11 + i % 190, 1 + i % 10, "
+                    + "TIMESTAMP '2030-01-01 09:00' + (i % 30) * INTERVAL '1 day' + (i % 32) * INTERVAL '15 minutes', "
+                    + "i, 'SCHEDULED' FROM generate_series(1, 5000) i");
+            statement.execute("INSERT INTO medical_reports (id, patient_id, doctor_id, appointment_id, title, "
+                    + "file_url, created_at, status) SELECT i, 11 + i % 190, 1 + i % 10, i, 'Report ' || i, "
+                    + "'/api/files/' || i, TIMESTAMP '2030-01-01' + i * INTERVAL '1 minute', 'SUBMITTED' "
+                    + "FROM generate_series(1, 5000) i");
+            statement.execute("INSERT INTO prescriptions (prescription_id, version, patient_id, doctor_id, status, "
+                    + "items, valid_until, issued_at, superseded_at) SELECT i, v, 11 + i % 190, 1 + i % 10, "
+                    + "CASE WHEN i % 5 = 0 AND v = 2 THEN 'CANCELLED' ELSE 'ACTIVE' END, '\\x0100'::bytea, "
+                    + "DATE '2030-03-01', TIMESTAMP '2030-01-01' + (i + v) * INTERVAL '1 minute', "
+                    + "CASE WHEN v = 1 THEN TIMESTAMP '2030-01-01' + (i + 1) * INTERVAL '1 minute' END "
+                    + "FROM generate_series(1, 2500) i, generate_series(1, 2) v");
+            statement.execute("ANALYZE");
+        }
+        explainConnection = postgres.getPostgresDatabase().getConnection();
+        try (Statement statement = explainConnection.createStatement()) {
+            statement.execute("SET enable_seqscan = off");
+        }
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        if (explainConnection != null) {
+            explainConnection.close();
+        }
+    }
+
+    static Stream<Arguments> finders() {
+        return Stream.of(
+                finder("AppointmentRepository.findDoctorDay", "idx_appointments_doctor_time_serial",
+                        t -> t.appointments.findDoctorDay(1L, DAY_START, DAY_END)),
+                finder("AppointmentRepository.findByDoctorIdAndAppointmentDateTimeBetween",
+                        "idx_appointments_doctor_time_serial",
+                        t -> t.appointments.findByDoctorIdAndAppointmentDateTimeBetween(1L, DAY_START, DAY_END)),
+                finder("AppointmentRepository.findMaxSerialNumberByDoctorAndDate",
+                        "idx_appointments_doctor_time_serial",
+                        t -> t.appointments.findMaxSerialNumberByDoctorAndDate(1L, DAY_START, DAY_END)),
+                finder("AppointmentRepository.findPatientPage", "idx_appointments_patient_time_id",
+                        t -> t.appointments.findPatientPage(42L, PAGE)),
+                finder("AppointmentRepository.findPatientPageAfter", "idx_appointments_patient_time_id",
+                        t -> t.appointments.findPatientPageAfter(42L, LocalDateTime.of(2030, 1, 15, 10, 0),
+                                2500L, PAGE)),
+                finder("MedicalReportRepository.findPatientPage", "idx_medical_reports_patient_created_id",
+                        t -> t.reports.findPatientPage(42L, PAGE)),
+                finder("MedicalReportRepository.findPatientPageAfter", "idx_medical_reports_patient_created_id",
+                        t -> t.reports.findPatientPageAfter(42L, LocalDateTime.of(2030, 1, 2, 0, 0), 2500L, PAGE)),
+                finder("MedicalReportRepository.findDoctorPage", "idx_medical_reports_doctor_created_id",
+                        t -> t.reports.findDoctorPage(3L, PAGE)),
+                finder("MedicalReportRepository.findDoctorPageAfter", "idx_medical_reports_doctor_created_id",
+                        t -> t.reports.findDoctorPageAfter(3L, LocalDateTime.of(2030, 1, 2, 0, 0), 2500L, PAGE)),
+                finder("MedicalReportRepository.findByAppointmentOrderByCreatedAtDesc",
+                        "idx_medical_reports_appointment_created_id",
+                        t -> t.reports.findByAppointmentOrderByCreatedAtDesc(t.appointments.getReferenceById(77L))),
+                finder("MedicalReportRepository.findFileOwners", "idx_medical_reports_storage_key",
+                        t -> t.reports.findFileOwners("4242.pdf", "/api/files/4242.pdf")),
+                finder("MedicalReportRepository.searchDoctorReports", "idx_medical_reports_search",
+                        t -> t.reports.searchDoctorReports(3L, "4242", 21)),
+                finder("PrescriptionRepository.findCurrent", "uk_prescriptions_current",
+                        t -> t.prescriptions.findCurrent(1234L)),
+                finder("PrescriptionRepository.findActiveByPatient", "idx_prescriptions_patient_active",
+                        t -> t.prescriptions.findActiveByPatient(42L)));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("finders")
+    void finderUsesItsIndex(String finder, String index, Function<QueryPlanTest, ?> call) throws Exception {
+        captured.clear();
+        call.apply(this);
+        CapturedStatement query = captured.stream()
+                .filter(s -> s.sql().stripLeading().regionMatches(true, 0, "select", 0, 6))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError(finder + " sent no query"));
+
+        String plan = explain(query);
+
+        assertFalse(plan.contains("Seq Scan on appointments") || plan.contains("Seq Scan on medical_reports")
+                        || plan.contains("Seq Scan on prescriptions"),
+                finder + " regressed to a sequential scan:\n" + query.sql() + "\n" + plan);
+        assertTrue(plan.contains(index), finder + " does not use " + index + ":\n" + query.sql() + "\n" + plan);
+    }
+
+    private static Arguments finder(String name, String index, Function<QueryPlanTest, ?> call) {
+        return Arguments.of(name, index, call);
+    }
+
+    private static String explain(CapturedStatement query) throws Exception {
+        StringBuilder plan = new StringBuilder();
+        try (PreparedStatement statement = explainConnection.prepareStatement("EXPLAIN " + query.sql())) {
+            for (Map.Entry<Integer, Object> parameter : query.parameters().entrySet()) {
+                statement.setObject(parameter.getKey(), parameter.getValue());
+            }
+            try (ResultSet rows = statement.executeQuery()) {
+                while (rows.next()) {
+                    plan.append(rows.getString(1)).append('\n');
+                }
+            }
+        }
+        return plan.toString();
+    }
+
+    private record CapturedStatement(String sql, Map<Integer, Object> parameters) {
+    }
+
+    @TestConfiguration
+    static class EmbeddedDatabase {
+
+        @Bean(destroyMethod = "close")
+        EmbeddedPostgres embeddedPostgres() throws IOException {
+            return EmbeddedPostgres.start();
+        }
+
+        /**
+         * The embedded database, with every prepared statement and its bind values
+         * recorded when it is executed
+         */
+        @Bean
+        DataSource dataSource(EmbeddedPostgres postgres) {
+            DataSource target = postgres.getPostgresDatabase();
+            return proxy(DataSource.class, target, (method, args, result) ->
+                    method.getName().equals("getConnection") ? recording((Connection) result) : result);
+        }
+
+        private static Connection recording(Connection connection) {
+            return proxy(Connection.class, connection, (method, args, result) ->
+                    method.getName().equals("prepareStatement")
+                            ? recording((PreparedStatement) result, (String) args[0])
+                            : result);
+        }
+
+        private static PreparedStatement recording(PreparedStatement statement, String sql) {
+            Map<Integer, Object> parameters = new TreeMap<>();
+            return proxy(PreparedStatement.class, statement, (method, args, result) -> {
+                String name = method.getName();
+                if (name.equals("setNull")) {
+                    parameters.put((Integer) args[0], null);
+                } else if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                    parameters.put((Integer) args[0], args[1]);
+                } else if (name.equals("clearParameters")) {
+                    parameters.clear();
+                } else if (name.startsWith("execute")) {
+                    captured.add(new CapturedStatement(sql, new TreeMap<>(parameters)));
+                }
+                return result;
+            });
+        }
+
+        /**
+         * Forward every call to target, then let after inspect or replace the result
+         */
+        @SuppressWarnings("unchecked")
+        private static <T> T proxy(Class<T> type, T target, AfterCall after) {
+            InvocationHandler handler = (p, method, args) -> {
+                try {
+                    return after.apply(method, args, method.invoke(target, args));
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            };
+            return (T) Proxy.newProxyInstance(QueryPlanTest.class.getClassLoader(), new Class<?>[] {type}, handler);
+        }
+
+        private interface AfterCall {
+            Object apply(Method method, Object[] args, Object result) throws Exception;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.mediconnect.mediconnect.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that the slow query threshold in application.properties is picked up
+ * by Hibernate: a statement slower than it is logged under org.hibernate.SQL_SLOW,
+ * a fast one is not.
+ */
+@DataJpaTest(showSql = false)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ExtendWith(OutputCaptureExtension.class)
+class SlowQueryLogTest {
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void statementsOverTheThresholdAreLogged(CapturedOutput output) {
+        entityManager.createNativeQuery("SELECT 'fast-probe'").getSingleResult();
+        entityManager.createNativeQuery("SELECT 'slow-probe' FROM pg_sleep(0.3)").getSingleResult();
+
+        assertTrue(output.getOut().contains("slow-probe"), "slow statement was not logged:\n" + output.getOut());
+        assertFalse(output.getOut().contains("fast-probe"), "fast statement was logged:\n" + output.getOut());
+    }
+
+    @TestConfiguration
+    static class EmbeddedDatabase {
+
+        @Bean(destroyMethod = "close")
+        EmbeddedPostgres embeddedPostgres() throws IOException {
+            return EmbeddedPostgres.start();
+        }
+
+        @Bean
+        DataSource dataSource(EmbeddedPostgres postgres) {
+            return postgres.getPostgresDatabase();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.mediconnect.mediconnect.repository;
+
+import com.mediconnect.mediconnect.dto.AppointmentSummary;
+import com.mediconnect.mediconnect.dto.MedicalReportSummary;
+import com.mediconnect.mediconnect.model.Appoinment.AppointmentStatus;
+import com.mediconnect.mediconnect.model.Medicalreport.ReportStatus;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the conditional status UPDATEs against the migrated schema in an embedded PostgreSQL
+ */
+class StatusTransitionsTest {
+
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate jdbcTemplate;
+    private static AppointmentStatusTransitionsImpl appointments;
+    private static ReportStatusTransitionsImpl reports;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        postgres = EmbeddedPostgres.start();
+        Flyway.configure().dataSource(postgres.getPostgresDatabase()).load().migrate();
+        jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+        appointments = new AppointmentStatusTransitionsImpl(jdbcTemplate);
+        reports = new ReportStatusTransitionsImpl(jdbcTemplate);
+
+        jdbcTemplate.execute("INSERT INTO users (full_name, email, password_hash, role) VALUES "
+                + "('Dr Who', 'doctor@example.com', 'hash', 'DOCTOR'), "
+                + "('Pat Ient', 'patient@example.com', 'hash', 'PATIENT')");
+        jdbcTemplate.execute("INSERT INTO appointments (id, patient_id, doctor_id, appointment_date_time, "
+                + "serial_number, status) SELECT i, 2, 1, TIMESTAMP '2030-01-07 09:00' + i * INTERVAL '15 minutes', "
+                + "i, 'SCHEDULED' FROM generate_series(1, 100) i");
+        jdbcTemplate.execute("INSERT INTO medical_reports (id, patient_id, doctor_id, title, file_url, "
+                + "created_at, status) VALUES (1, 2, 1, 'Blood test', '/api/files/1', now(), 'PROCESSED')");
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    void allowedTransitionUpdatesStatusAndVersion() {
+        Optional<AppointmentSummary> updated = appointments.transitionStatus(1L, AppointmentStatus.CONFIRMED);
+
+        assertTrue(updated.isPresent());
+        assertEquals(AppointmentStatus.CONFIRMED, updated.get().status());
+        assertEquals("Dr Who", updated.get().doctorName());
+        assertEquals(1, versionOf(1));
+    }
+
+    @Test
+    void finalStatusCannotBeLeft() {
+        assertTrue(appointments.transitionStatus(2L, AppointmentStatus.CANCELLED).isPresent());
+
+        assertTrue(appointments.transitionStatus(2L, AppointmentStatus.COMPLETED).isEmpty());
+        assertTrue(appointments.transitionStatus(2L, AppointmentStatus.CANCELLED).isEmpty());
+        assertTrue(appointments.transitionStatus(999L, AppointmentStatus.CANCELLED).isEmpty());
+    }
+
+    @Test
+    void onlyOneOfConcurrentTransitionsWins() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (long id = 10; id < 60; id++) {
+                long appointmentId = id;
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Optional<AppointmentSummary>>> results = new ArrayList<>();
+                for (AppointmentStatus target : List.of(AppointmentStatus.COMPLETED, AppointmentStatus.CANCELLED,
+                        AppointmentStatus.NO_SHOW, AppointmentStatus.COMPLETED)) {
+                    Callable<Optional<AppointmentSummary>> task = () -> {
+                        start.await();
+                        return appointments.transitionStatus(appointmentId, target);
+                    };
+                    results.add(executor.submit(task));
+                }
+                start.countDown();
+
+                int winners = 0;
+                for (Future<Optional<AppointmentSummary>> result : results) {
+                    if (result.get().isPresent()) {
+                        winners++;
+                    }
+                }
+                assertEquals(1, winners, "appointment " + appointmentId);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void reportTransitionsFollowTheReviewFlow() {
+        assertTrue(reports.transitionStatus(1L, ReportStatus.PROCESSING).isEmpty());
+
+        Optional<MedicalReportSummary> reviewed = reports.transitionStatus(1L, ReportStatus.REVIEWED);
+        assertTrue(reviewed.isPresent());
+        assertEquals(ReportStatus.REVIEWED, reviewed.get().status());
+        assertNotNull(reviewed.get().updatedAt());
+
+        assertTrue(reports.transitionStatus(1L, ReportStatus.APPROVED).isPresent());
+        assertTrue(reports.transitionStatus(1L, ReportStatus.REJECTED).isEmpty());
+    }
+
+    private static long versionOf(long appointmentId) {
+        return jdbcTemplate.queryForObject("SELECT version FROM appointments WHERE id = ?", Long.class, appointmentId);
+    }
+}
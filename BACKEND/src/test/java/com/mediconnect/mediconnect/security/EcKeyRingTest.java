@@ -0,0 +1,96 @@
+package com.mediconnect.mediconnect.security;
+
+import com.mediconnect.mediconnect.util.JwtUtil;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.security.interfaces.ECPublicKey;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EcKeyRingTest {
+
+    private static final String USERNAME = "test@example.com";
+
+    @TempDir
+    Path keyDir;
+
+    @Test
+    void tokensCarryKidAndVerifyAgainstThePublishedKey() {
+        EcKeyRing ring = new EcKeyRing(keyDir, 3600000L, 0L, 3600000L);
+        JwtUtil jwtUtil = new JwtUtil(ring, 3600000L, 3600000L);
+
+        String token = jwtUtil.generateToken(USERNAME);
+        assertEquals(USERNAME, jwtUtil.extractUsername(token));
+
+        List<Map<String, Object>> jwks = ring.publicJwks();
+        assertEquals(1, jwks.size());
+        Map<String, Object> jwk = jwks.get(0);
+        assertEquals(ring.signingKey().keyId(), jwk.get("kid"));
+        assertEquals(ring.verificationKey((String) jwk.get("kid")), EcJwk.fromJwk(jwk));
+    }
+
+    @Test
+    void retiredKeyStillVerifiesAfterRotation() throws InterruptedException {
+        // Rotate on every refresh; new keys sign immediately
+        EcKeyRing ring = new EcKeyRing(keyDir, 0L, 0L, 3600000L);
+        JwtUtil jwtUtil = new JwtUtil(ring, 3600000L, 3600000L);
+        String oldKid = ring.signingKey().keyId();
+        String token = jwtUtil.generateToken(USERNAME);
+
+        Thread.sleep(5); // keys are ordered by creation time
+        ring.refresh();
+
+        assertNotEquals(oldKid, ring.signingKey().keyId());
+        assertEquals(USERNAME, jwtUtil.extractUsername(token));
+        assertEquals(2, ring.publicJwks().size());
+    }
+
+    @Test
+    void retiredKeyIsKeptForRetentionAfterItsSuccessorActivates() throws InterruptedException {
+        // Rotate on every refresh; retired keys verify for 200 ms
+        EcKeyRing ring = new EcKeyRing(keyDir, 0L, 0L, 200L);
+        String oldKid = ring.signingKey().keyId();
+
+        // The old key is older than the retention period, but signed until just now
+        Thread.sleep(300);
+        ring.refresh();
+        assertNotNull(ring.verificationKey(oldKid));
+
+        Thread.sleep(400);
+        ring.refresh();
+        assertNull(ring.verificationKey(oldKid));
+    }
+
+    @Test
+    void keysSurviveRestart() {
+        EcKeyRing first = new EcKeyRing(keyDir, 3600000L, 0L, 3600000L);
+        String token = new JwtUtil(first, 3600000L, 3600000L).generateToken(USERNAME);
+
+        EcKeyRing second = new EcKeyRing(keyDir, 3600000L, 0L, 3600000L);
+        assertEquals(first.signingKey().keyId(), second.signingKey().keyId());
+        assertEquals(USERNAME, new JwtUtil(second, 3600000L, 3600000L).extractUsername(token));
+    }
+
+    @Test
+    void hmacTokenIsRejectedByKeyRing() {
+        String hmacToken = new JwtUtil("my-secret-key-for-testing-1234567890123456", 3600000L)
+                .generateToken(USERNAME);
+        JwtUtil jwtUtil = new JwtUtil(new EcKeyRing(keyDir, 3600000L, 0L, 3600000L), 3600000L, 3600000L);
+
+        assertThrows(JwtException.class, () -> jwtUtil.extractAllClaims(hmacToken));
+    }
+
+    @Test
+    void jwkRoundTrip() {
+        EcKeyRing ring = new EcKeyRing(keyDir, 3600000L, 0L, 3600000L);
+        String kid = ring.signingKey().keyId();
+        ECPublicKey key = (ECPublicKey) ring.verificationKey(kid);
+
+        assertEquals(key, EcJwk.fromJwk(EcJwk.toJwk(kid, key)));
+    }
+}
@@ -1,6 +1,7 @@
 package com.mediconnect.mediconnect.security;
 
 import com.mediconnect.mediconnect.util.JwtUtil;
+import io.jsonwebtoken.Claims;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -42,4 +43,20 @@ public class JwtUtilTest {
         String token = jwtUtil.generateToken(TEST_USERNAME);
         assertFalse(jwtUtil.isTokenValid(token, "wrong@example.com"), "Token should be invalid for wrong username");
     }
+
+    @Test
+    void testRefreshTokenCarriesFamilyAndId() {
+        String token = jwtUtil.generateRefreshToken(TEST_USERNAME, "family-1", "token-1");
+        Claims claims = jwtUtil.extractAllClaims(token);
+        assertTrue(jwtUtil.isRefreshToken(claims), "Refresh token should be marked as such");
+        assertEquals("token-1", claims.getId());
+        assertEquals("family-1", claims.get(JwtUtil.FAMILY_CLAIM, String.class));
+    }
+
+    @Test
+    void testAccessTokenIsNotRefreshToken() {
+        Claims claims = jwtUtil.extractAllClaims(jwtUtil.generateToken(TEST_USERNAME, "family-1"));
+        assertFalse(jwtUtil.isRefreshToken(claims), "Access token must not be accepted as refresh token");
+        assertEquals("family-1", claims.get(JwtUtil.FAMILY_CLAIM, String.class));
+    }
 }
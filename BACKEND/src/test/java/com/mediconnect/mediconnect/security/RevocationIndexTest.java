@@ -0,0 +1,53 @@
+package com.mediconnect.mediconnect.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RevocationIndexTest {
+
+    private final RevocationIndex index = new RevocationIndex();
+
+    @Test
+    void revokedFamilyIsFound() {
+        long expiresAt = System.currentTimeMillis() + 60000L;
+        index.add("family-a", expiresAt);
+
+        assertTrue(index.isRevoked("family-a"));
+        assertFalse(index.isRevoked("family-b"));
+        assertFalse(index.isRevoked(null), "Tokens without a family are never revoked");
+    }
+
+    @Test
+    void noFalsePositivesAmongManyFamilies() {
+        long expiresAt = System.currentTimeMillis() + 60000L;
+        Map<String, Long> revoked = new HashMap<>();
+        for (int i = 0; i < 10000; i++) {
+            revoked.put(UUID.randomUUID().toString(), expiresAt);
+        }
+        index.addAll(revoked);
+
+        revoked.keySet().forEach(id -> assertTrue(index.isRevoked(id)));
+        for (int i = 0; i < 10000; i++) {
+            assertFalse(index.isRevoked(UUID.randomUUID().toString()));
+        }
+        assertEquals(10000, index.size());
+    }
+
+    @Test
+    void expiredFamiliesArePruned() {
+        long now = System.currentTimeMillis();
+        index.add("expired", now - 1);
+        index.add("live", now + 60000L);
+
+        index.pruneExpired(now);
+
+        assertFalse(index.isRevoked("expired"));
+        assertTrue(index.isRevoked("live"));
+        assertEquals(1, index.size());
+    }
+}
@@ -0,0 +1,66 @@
+package com.mediconnect.mediconnect.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VerifiedTokenCacheTest {
+
+    private VerifiedTokenCache cache;
+    private final UserDetails user = new User("test@example.com", "hash", List.of());
+
+    @BeforeEach
+    void setUp() {
+        cache = new VerifiedTokenCache(2, 60000L);
+    }
+
+    @Test
+    void testVerifiedTokenIsRemembered() {
+        cache.put("token-a", user, System.currentTimeMillis() + 60000L);
+        assertSame(user, cache.getVerified("token-a"));
+        assertSame(user, cache.getUser("test@example.com"));
+        assertNull(cache.getVerified("token-b"), "Unknown token should not be cached");
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void testExpiredTokenIsDropped() {
+        cache.put("token-a", user, System.currentTimeMillis() - 1);
+        assertNull(cache.getVerified("token-a"), "Expired token should not be served from cache");
+    }
+
+    @Test
+    void testInvalidateUserDropsItsTokens() {
+        cache.put("token-a", user, System.currentTimeMillis() + 60000L);
+        cache.invalidateUser("test@example.com");
+        assertNull(cache.getVerified("token-a"));
+        assertNull(cache.getUser("test@example.com"));
+    }
+
+    @Test
+    void testCacheStaysBounded() {
+        long expiresAt = System.currentTimeMillis() + 60000L;
+        cache.put("token-a", user, expiresAt);
+        cache.put("token-b", user, expiresAt);
+        cache.put("token-c", user, expiresAt);
+        assertSame(user, cache.getVerified("token-c"), "Newest entry should survive eviction");
+        assertSame(user, cache.getVerified("token-b"), "Only the oldest entry should be evicted");
+        assertNull(cache.getVerified("token-a"));
+    }
+
+    @Test
+    void testExpiredEntriesAreEvictedFirst() {
+        long expiresAt = System.currentTimeMillis() + 60000L;
+        cache.put("token-a", user, expiresAt);
+        cache.put("token-b", user, System.currentTimeMillis() - 1);
+        cache.put("token-c", user, expiresAt);
+        assertSame(user, cache.getVerified("token-a"), "Live entry should survive while an expired one is dropped");
+        assertSame(user, cache.getVerified("token-c"));
+    }
+}
@@ -0,0 +1,250 @@
+package com.mediconnect.mediconnect.service;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mediconnect.mediconnect.dto.ImportResult;
+import com.mediconnect.mediconnect.exception.InvalidInputException;
+import com.mediconnect.mediconnect.exception.ResourceNotFoundException;
+import com.mediconnect.mediconnect.service.BulkImportService.Format;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Imports into the migrated schema in an embedded PostgreSQL. Runs outside a
+ * test transaction, so each chunk really commits as it does in production.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.jdbc.batch_size=2")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(BulkImportService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class BulkImportServiceTest {
+
+    private static final String APPOINTMENT_HEADER = "patientId,doctorId,appointmentDateTime,serialNumber\n";
+    private static final String REPORT_HEADER = "patientId,doctorId,title,description,fileUrl\n";
+
+    @Autowired
+    private BulkImportService importService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @MockBean
+    private TimeSlotService timeSlotService;
+
+    @MockBean
+    private DoctorScheduleCache scheduleCache;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void reset() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("TRUNCATE medical_reports, appointments, appointment_serial_counters, users CASCADE");
+        jdbcTemplate.execute("INSERT INTO users (id, full_name, email, password_hash, role) VALUES "
+                + "(1, 'Dr Who', 'doctor@example.com', 'hash', 'DOCTOR'), "
+                + "(2, 'Pat Ient', 'patient@example.com', 'hash', 'PATIENT')");
+    }
+
+    @Test
+    void csvQuotedFieldsMayHoldCommasQuotesAndLineBreaks() {
+        String csv = REPORT_HEADER
+                + "2,1,\"Blood, full panel\",\"Patient said \"\"fasting\"\"\",/api/files/1\n"
+                + "2,1,X-ray,\"First line\nsecond line\",/api/files/2\n"
+                + "2,1,Notes,,/api/files/3\n";
+
+        ImportResult result = importService.importReports(input(csv), Format.CSV, 2, null);
+
+        assertEquals(3, result.getRows());
+        assertTrue(result.isFinished());
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT title, description FROM medical_reports ORDER BY file_url");
+        assertEquals("Blood, full panel", rows.get(0).get("title"));
+        assertEquals("Patient said \"fasting\"", rows.get(0).get("description"));
+        assertEquals("First line\nsecond line", rows.get(1).get("description"));
+        assertNull(rows.get(2).get("description"));
+    }
+
+    @Test
+    void unterminatedQuotedFieldIsRejectedWithItsRow() {
+        String csv = REPORT_HEADER
+                + "2,1,Blood,ok,/api/files/1\n"
+                + "2,1,X-ray,\"never closed,/api/files/2\n"
+                + "2,1,Notes,,/api/files/3\n";
+
+        InvalidInputException ex = assertThrows(InvalidInputException.class,
+                () -> importService.importReports(input(csv), Format.CSV, 2, null));
+
+        assertTrue(ex.getMessage().contains("failed at row 2"), ex.getMessage());
+        assertTrue(ex.getMessage().contains("unterminated quoted field"), ex.getMessage());
+    }
+
+    @Test
+    void malformedNdjsonKeepsEarlierChunksAndReportsItsRow() {
+        String ndjson = appointmentJson(1) + appointmentJson(2) + appointmentJson(3) + appointmentJson(4)
+                + "{\"patientId\": 2, \"doctorId\": \n"
+                + appointmentJson(6);
+
+        InvalidInputException ex = assertThrows(InvalidInputException.class,
+                () -> importService.importAppointments(input(ndjson), Format.NDJSON, 2, null));
+
+        assertTrue(ex.getMessage().contains("failed at row 5 after 4 committed rows"), ex.getMessage());
+        assertEquals(4, count("appointments"));
+    }
+
+    @Test
+    void rowRejectedByTheDatabaseKeepsEarlierChunks() {
+        String csv = APPOINTMENT_HEADER
+                + "2,1,2030-01-07T09:00,1\n"
+                + "2,1,2030-01-07T09:15,2\n"
+                + "2,1,2030-01-07T09:30,3\n"
+                + "999,1,2030-01-07T09:45,4\n";
+
+        InvalidInputException ex = assertThrows(InvalidInputException.class,
+                () -> importService.importAppointments(input(csv), Format.CSV, 2, null));
+
+        assertTrue(ex.getMessage().contains("after 2 committed rows"), ex.getMessage());
+        assertEquals(2, count("appointments"));
+    }
+
+    @Test
+    void missingFieldIsReportedWithItsRow() {
+        String csv = APPOINTMENT_HEADER
+                + "2,1,2030-01-07T09:00,1\n"
+                + "2,1,,2\n";
+
+        InvalidInputException ex = assertThrows(InvalidInputException.class,
+                () -> importService.importAppointments(input(csv), Format.CSV, 2, null));
+
+        assertTrue(ex.getMessage().contains("failed at row 2 after 0 committed rows"), ex.getMessage());
+        assertEquals(0, count("appointments"));
+    }
+
+    @Test
+    void importedSerialsRaiseTheCountersButNeverLowerThem() {
+        jdbcTemplate.execute("INSERT INTO appointment_serial_counters (doctor_id, appointment_date, last_serial) "
+                + "VALUES (1, DATE '2030-01-07', 3), (1, DATE '2030-01-09', 20)");
+        String csv = APPOINTMENT_HEADER
+                + "2,1,2030-01-07T09:00,5\n"
+                + "2,1,2030-01-07T11:00,9\n"
+                + "2,1,2030-01-08T09:00,2\n"
+                + "2,1,2030-01-09T09:00,4\n";
+
+        importService.importAppointments(input(csv), Format.CSV, 2, null);
+
+        assertEquals(9, lastSerial("2030-01-07"));
+        assertEquals(2, lastSerial("2030-01-08"));
+        assertEquals(20, lastSerial("2030-01-09"));
+    }
+
+    @Test
+    void progressOfARunningImportCanBePolled() {
+        AtomicReference<ImportResult> seen = new AtomicReference<>();
+        AtomicReference<List<ImportResult>> running = new AtomicReference<>();
+        // The second part is only read once the first chunk has been committed
+        InputStream probe = new InputStream() {
+            private final InputStream rest = input(appointmentJson(3));
+
+            @Override
+            public int read() throws IOException {
+                probe();
+                return rest.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                probe();
+                return rest.read(b, off, len);
+            }
+
+            private void probe() {
+                if (seen.get() == null) {
+                    seen.set(importService.getProgress("nightly"));
+                    running.set(importService.getRunning());
+                }
+            }
+        };
+
+        ImportResult result = importService.importAppointments(
+                new SequenceInputStream(input(appointmentJson(1) + appointmentJson(2)), probe),
+                Format.NDJSON, 2, "nightly");
+
+        assertEquals("nightly", seen.get().getId());
+        assertEquals(2, seen.get().getRows());
+        assertEquals(1, seen.get().getChunks());
+        assertFalse(seen.get().isFinished());
+        assertEquals(1, running.get().size());
+        assertEquals(3, result.getRows());
+        assertTrue(result.isFinished());
+        assertThrows(ResourceNotFoundException.class, () -> importService.getProgress("nightly"));
+        assertEquals(List.of(), importService.getRunning());
+    }
+
+    private static String appointmentJson(int serial) {
+        return "{\"patientId\": 2, \"doctorId\": 1, \"appointmentDateTime\": \"2030-01-07T09:00\", "
+                + "\"serialNumber\": " + serial + "}\n";
+    }
+
+    private static InputStream input(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private int count(String table) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Integer.class);
+    }
+
+    private int lastSerial(String date) {
+        return jdbcTemplate.queryForObject("SELECT last_serial FROM appointment_serial_counters "
+                + "WHERE doctor_id = 1 AND appointment_date = CAST(? AS date)", Integer.class, date);
+    }
+
+    @TestConfiguration
+    static class EmbeddedDatabase {
+
+        @Bean(destroyMethod = "close")
+        EmbeddedPostgres embeddedPostgres() throws IOException {
+            return EmbeddedPostgres.start();
+        }
+
+        @Bean
+        DataSource dataSource(EmbeddedPostgres postgres) {
+            return postgres.getPostgresDatabase();
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            // Matches the Spring Boot defaults the application runs with
+            return new ObjectMapper().findAndRegisterModules()
+                    .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        }
+
+        @Bean
+        TransactionTemplate transactionTemplate(PlatformTransactionManager transactionManager) {
+            return new TransactionTemplate(transactionManager);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.mediconnect.mediconnect.service;
+
+import com.mediconnect.mediconnect.exception.TooManyRequestsException;
+import com.mediconnect.mediconnect.model.ChatMessage;
+import com.mediconnect.mediconnect.model.ChatMessage.Sender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Appends and group commits against the migrated schema in an embedded PostgreSQL
+ */
+class ChatHistoryServiceTest {
+
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate jdbcTemplate;
+    private static TransactionTemplate transactionTemplate;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        postgres = EmbeddedPostgres.start();
+        Flyway.configure().dataSource(postgres.getPostgresDatabase()).load().migrate();
+        jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(postgres.getPostgresDatabase()));
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @Test
+    void messagesAreReadableBeforeTheyAreCommitted() {
+        ChatHistoryService history = history(50, 1000);
+        history.start("a");
+
+        history.append("a", Sender.USER, 7L, "I have a cough");
+        ChatMessage reply = history.append("a", Sender.BOT, null, "Since when?");
+
+        assertEquals(1, reply.getSeq());
+        assertEquals(List.of("I have a cough", "Since when?"), contents(history.recent("a", 10)));
+        assertEquals(0, rows("a"));
+
+        history.flush();
+        assertEquals(2, rows("a"));
+    }
+
+    @Test
+    void numberingContinuesAfterRestart() {
+        ChatHistoryService first = history(50, 1000);
+        first.append("b", Sender.USER, null, "one");
+        first.append("b", Sender.USER, null, "two");
+        first.flush();
+
+        ChatHistoryService second = history(50, 1000);
+        assertEquals(List.of("one", "two"), contents(second.recent("b", 10)));
+        assertEquals(2, second.append("b", Sender.USER, null, "three").getSeq());
+    }
+
+    @Test
+    void olderMessagesComeFromTheDatabase() {
+        ChatHistoryService history = history(5, 1000);
+        for (int i = 0; i < 12; i++) {
+            history.append("c", Sender.USER, null, "m" + i);
+        }
+        history.flush();
+
+        assertEquals(List.of("m9", "m10", "m11"), contents(history.recent("c", 3)));
+        List<ChatMessage> ten = history.recent("c", 10);
+        assertEquals(10, ten.size());
+        assertEquals("m2", ten.get(0).getContent());
+        assertEquals("m11", ten.get(9).getContent());
+    }
+
+    @Test
+    void appendsAreRefusedWhenTooManyAreUncommitted() {
+        ChatHistoryService history = history(50, 3);
+        history.start("d");
+        for (int i = 0; i < 3; i++) {
+            history.append("d", Sender.USER, null, "m" + i);
+        }
+        assertThrows(TooManyRequestsException.class, () -> history.append("d", Sender.USER, null, "m3"));
+
+        history.flush();
+        assertEquals(3, history.append("d", Sender.USER, null, "m3").getSeq());
+    }
+
+    @Test
+    void concurrentAppendsKeepEachConversationGapless() throws Exception {
+        ChatHistoryService history = history(50, 100_000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < 1000; i++) {
+                        history.append("e" + (i % 10), Sender.USER, null, "hello");
+                        if (i % 250 == 0) {
+                            history.flush();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        history.flush();
+
+        for (int c = 0; c < 10; c++) {
+            String id = "e" + c;
+            assertEquals(800, rows(id));
+            assertEquals(799, jdbcTemplate.queryForObject(
+                    "SELECT max(seq) FROM chat_messages WHERE conversation_id = ?", Integer.class, id));
+        }
+    }
+
+    @Test
+    void rejectedMessageDoesNotHoldBackTheOthers() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ChatHistoryService history = history(meterRegistry, 50, 4);
+        history.start("f");
+        history.start("g");
+        history.append("f", Sender.USER, null, "before");
+        history.append("f", Sender.USER, null, "nul\u0000byte");
+        history.append("g", Sender.USER, null, "other conversation");
+        history.flush();
+
+        assertEquals(1, rows("f"));
+        assertEquals(1, rows("g"));
+        assertEquals(1, meterRegistry.get("chat.history.deadLettered").counter().count());
+
+        // Nothing is left pending, so later messages are accepted and written on their own
+        for (int i = 0; i < 4; i++) {
+            history.append("f", Sender.USER, null, "after" + i);
+        }
+        history.flush();
+        assertEquals(5, rows("f"));
+        assertEquals(1, meterRegistry.get("chat.history.deadLettered").counter().count());
+    }
+
+    private static ChatHistoryService history(int recentSize, int maxPending) {
+        return history(new SimpleMeterRegistry(), recentSize, maxPending);
+    }
+
+    private static ChatHistoryService history(SimpleMeterRegistry meterRegistry, int recentSize, int maxPending) {
+        return new ChatHistoryService(jdbcTemplate, transactionTemplate, meterRegistry,
+                recentSize, 500, maxPending, 600_000, 100);
+    }
+
+    private static int rows(String conversationId) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM chat_messages WHERE conversation_id = ?",
+                Integer.class, conversationId);
+    }
+
+    private static List<String> contents(List<ChatMessage> messages) {
+        return messages.stream().map(ChatMessage::getContent).toList();
+    }
+}
@@ -0,0 +1,122 @@
+package com.mediconnect.mediconnect.service;
+
+import com.mediconnect.mediconnect.dto.AppointmentSummary;
+import com.mediconnect.mediconnect.model.Appoinment.AppointmentStatus;
+import com.mediconnect.mediconnect.repository.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class DoctorScheduleCacheTest {
+
+    private static final Long DOCTOR_ID = 7L;
+    private static final LocalDate TODAY = LocalDate.of(2030, 1, 7);
+
+    private AppointmentRepository appointmentRepository;
+    private Instant now = TODAY.atStartOfDay(ZoneId.systemDefault()).toInstant();
+    private DoctorScheduleCache cache;
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepository = mock(AppointmentRepository.class);
+        Clock clock = new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneId.systemDefault();
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now;
+            }
+        };
+        cache = new DoctorScheduleCache(appointmentRepository, 3, 5000, clock);
+    }
+
+    @Test
+    void dayIsLoadedOnceAndThenServedFromMemory() {
+        when(appointmentRepository.findDoctorDay(eq(DOCTOR_ID), any(), any()))
+                .thenReturn(List.of(summary(1L, 1, AppointmentStatus.SCHEDULED)));
+
+        cache.getSchedule(DOCTOR_ID, TODAY);
+        List<AppointmentSummary> schedule = cache.getSchedule(DOCTOR_ID, TODAY);
+
+        assertEquals(1, schedule.size());
+        verify(appointmentRepository, times(1)).findDoctorDay(eq(DOCTOR_ID), any(), any());
+    }
+
+    @Test
+    void bookingsAndStatusChangesAreAppliedInSerialOrder() {
+        when(appointmentRepository.findDoctorDay(eq(DOCTOR_ID), any(), any())).thenReturn(List.of(
+                summary(1L, 1, AppointmentStatus.SCHEDULED),
+                summary(3L, 3, AppointmentStatus.SCHEDULED)));
+        List<AppointmentSummary> before = cache.getSchedule(DOCTOR_ID, TODAY);
+
+        cache.appointmentChanged(summary(2L, 2, AppointmentStatus.SCHEDULED));
+        cache.appointmentChanged(summary(1L, 1, AppointmentStatus.COMPLETED));
+
+        List<AppointmentSummary> after = cache.getSchedule(DOCTOR_ID, TODAY);
+        assertEquals(List.of(1, 2, 3), after.stream().map(AppointmentSummary::serialNumber).toList());
+        assertEquals(AppointmentStatus.COMPLETED, after.get(0).status());
+        assertEquals(2, before.size(), "Earlier snapshots must not change");
+    }
+
+    @Test
+    void dayIsReloadedOnceItExpires() {
+        when(appointmentRepository.findDoctorDay(eq(DOCTOR_ID), any(), any()))
+                .thenReturn(List.of(summary(1L, 1, AppointmentStatus.SCHEDULED)))
+                .thenReturn(List.of(summary(1L, 1, AppointmentStatus.SCHEDULED),
+                        summary(2L, 2, AppointmentStatus.SCHEDULED)));
+        cache.getSchedule(DOCTOR_ID, TODAY);
+
+        // Booked on another node: not seen until the day expires
+        now = now.plusMillis(4999);
+        assertEquals(1, cache.getSchedule(DOCTOR_ID, TODAY).size());
+        now = now.plusMillis(1);
+        assertEquals(2, cache.getSchedule(DOCTOR_ID, TODAY).size());
+    }
+
+    @Test
+    void changesToUnloadedDaysAreIgnored() {
+        cache.appointmentChanged(summary(1L, 1, AppointmentStatus.SCHEDULED));
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void distantDaysAreEvictedBeforeToday() {
+        when(appointmentRepository.findDoctorDay(anyLong(), any(), any())).thenReturn(List.of());
+        cache.getSchedule(DOCTOR_ID, TODAY);
+        cache.getSchedule(DOCTOR_ID, TODAY.plusDays(1));
+        cache.getSchedule(DOCTOR_ID, TODAY.minusDays(30));
+
+        cache.getSchedule(DOCTOR_ID, TODAY.plusDays(2));
+
+        assertEquals(3, cache.size());
+        clearInvocations(appointmentRepository);
+        cache.getSchedule(DOCTOR_ID, TODAY);
+        cache.getSchedule(DOCTOR_ID, TODAY.plusDays(1));
+        verify(appointmentRepository, never()).findDoctorDay(anyLong(), any(), any());
+    }
+
+    private static AppointmentSummary summary(Long id, int serial, AppointmentStatus status) {
+        return new AppointmentSummary(id, 100L + id, "Patient " + id, DOCTOR_ID, "Dr. Who",
+                TODAY.atTime(9, 0).plusMinutes(15L * serial), serial, status, null);
+    }
+}
@@ -0,0 +1,103 @@
+package com.mediconnect.mediconnect.service;
+
+import com.mediconnect.mediconnect.exception.ResourceNotFoundException;
+import com.mediconnect.mediconnect.exception.TooManyRequestsException;
+import com.mediconnect.mediconnect.model.EmergencySeverity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmergencyLaneExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final EmergencyLaneExecutor lane = new EmergencyLaneExecutor(1, 3, 1, 5, 60_000, meterRegistry);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        lane.shutdown();
+    }
+
+    @Test
+    void mostSevereWaitingRequestRunsFirst() throws Exception {
+        CompletableFuture<Boolean> running = occupyWorker();
+        List<EmergencySeverity> order = new CopyOnWriteArrayList<>();
+        CompletableFuture<?> low = lane.submit(EmergencySeverity.LOW, () -> order.add(EmergencySeverity.LOW));
+        CompletableFuture<?> high = lane.submit(EmergencySeverity.HIGH, () -> order.add(EmergencySeverity.HIGH));
+        CompletableFuture<?> critical = lane.submit(EmergencySeverity.CRITICAL,
+                () -> order.add(EmergencySeverity.CRITICAL));
+        assertEquals(3, lane.queued());
+
+        release.countDown();
+        CompletableFuture.allOf(running, low, high, critical).get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of(EmergencySeverity.CRITICAL, EmergencySeverity.HIGH, EmergencySeverity.LOW), order);
+        assertEquals(4, meterRegistry.get("requests.lane.wait").timer().count());
+    }
+
+    @Test
+    void routineBacklogLeavesRoomForUrgentWorkAndCausesNoPressure() throws Exception {
+        occupyWorker();
+        for (int i = 0; i < 2; i++) {
+            lane.submit(EmergencySeverity.LOW, () -> true);
+        }
+        assertThrows(TooManyRequestsException.class, () -> lane.submit(EmergencySeverity.MODERATE, () -> true));
+        assertFalse(lane.isUnderPressure());
+
+        lane.submit(EmergencySeverity.CRITICAL, () -> true);
+        assertTrue(lane.isUnderPressure());
+        assertEquals(3.0, meterRegistry.get("requests.lane.queued").gauge().value());
+
+        TooManyRequestsException ex = assertThrows(TooManyRequestsException.class,
+                () -> lane.submit(EmergencySeverity.CRITICAL, () -> true));
+        assertTrue(ex.getRetryAfterSeconds() >= 1);
+        assertEquals(2.0, meterRegistry.get("requests.lane.rejected").counter().count());
+    }
+
+    @Test
+    void slowRoutineTasksDoNotSignalPressure() throws Exception {
+        CompletableFuture<Boolean> running = occupyWorker();
+        CompletableFuture<?> low = lane.submit(EmergencySeverity.LOW, () -> true);
+        Thread.sleep(20);
+
+        release.countDown();
+        CompletableFuture.allOf(running, low).get(5, TimeUnit.SECONDS);
+
+        assertFalse(lane.isUnderPressure());
+    }
+
+    @Test
+    void taskExceptionIsNotWrapped() {
+        CompletableFuture<Object> failed = lane.submit(EmergencySeverity.HIGH, () -> {
+            throw new ResourceNotFoundException("No responder available");
+        });
+
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> failed.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ResourceNotFoundException.class, ex.getCause());
+    }
+
+    private CompletableFuture<Boolean> occupyWorker() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CompletableFuture<Boolean> running = lane.submit(EmergencySeverity.LOW, () -> {
+            started.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        return running;
+    }
+}
@@ -0,0 +1,206 @@
+package com.mediconnect.mediconnect.service;
+
+import com.mediconnect.mediconnect.dto.EmergencyAssignment;
+import com.mediconnect.mediconnect.dto.EmergencyRequest;
+import com.mediconnect.mediconnect.exception.InvalidStatusTransitionException;
+import com.mediconnect.mediconnect.exception.ResourceNotFoundException;
+import com.mediconnect.mediconnect.model.ResponderKind;
+import com.mediconnect.mediconnect.service.ResponderIndex.Candidate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class EmergencyServiceTest {
+
+    private ResponderIndex index;
+    private SimpMessagingTemplate messagingTemplate;
+    private EmergencyService emergencyService;
+
+    @BeforeEach
+    void setUp() {
+        index = new ResponderIndex(0.05);
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        emergencyService = new EmergencyService(index, messagingTemplate, new SimpleMeterRegistry(),
+                50, 8, 120_000, 900_000);
+    }
+
+    @Test
+    void nearestMatchesBruteForce() {
+        Random random = new Random(42);
+        for (long id = 0; id < 100_000; id++) {
+            index.update(id, ResponderKind.values()[(int) (id % 3)],
+                    51 + random.nextDouble() * 2, -1 + random.nextDouble() * 2);
+        }
+
+        for (int query = 0; query < 50; query++) {
+            double lat = 51 + random.nextDouble() * 2;
+            double lon = -1 + random.nextDouble() * 2;
+
+            List<Candidate> nearest = index.nearest(lat, lon, ResponderKind.AMBULANCE, 5, 50, 0);
+
+            List<Long> expected = index.all().stream()
+                    .filter(r -> r.getKind() == ResponderKind.AMBULANCE)
+                    .sorted(Comparator.comparingDouble(r ->
+                            ResponderIndex.distanceKm(lat, lon, r.getLatitude(), r.getLongitude())))
+                    .limit(5)
+                    .map(ResponderIndex.Responder::getId)
+                    .toList();
+            assertEquals(expected, nearest.stream().map(c -> c.responder().getId()).toList());
+        }
+    }
+
+    @Test
+    void searchCrossesTheAntimeridian() {
+        index.update(1, ResponderKind.AMBULANCE, 0, -179.99);
+        index.update(2, ResponderKind.AMBULANCE, 0, 179.5);
+
+        List<Candidate> nearest = index.nearest(0, 179.99, null, 2, 100, 0);
+
+        assertEquals(1, nearest.get(0).responder().getId());
+        assertEquals(2.2, nearest.get(0).distanceKm(), 0.1);
+        assertEquals(2, nearest.size());
+    }
+
+    @Test
+    void movedResponderIsFoundAtItsNewPositionOnly() {
+        index.update(1, ResponderKind.DOCTOR, 40.0, -74.0);
+        index.update(1, ResponderKind.DOCTOR, 41.0, -74.0);
+
+        assertTrue(index.nearest(40.0, -74.0, null, 1, 20, 0).isEmpty());
+        assertEquals(1, index.nearest(41.0, -74.0, null, 1, 20, 0).size());
+
+        index.remove(1);
+        assertTrue(index.nearest(41.0, -74.0, null, 1, 20, 0).isEmpty());
+    }
+
+    @Test
+    void dispatchClaimsTheNearestAndPushesTheAssignment() {
+        index.update(1, ResponderKind.AMBULANCE, 48.86, 2.35);
+        index.update(2, ResponderKind.AMBULANCE, 48.90, 2.35);
+
+        EmergencyAssignment first = emergencyService.dispatch(request(48.85, 2.35));
+        EmergencyAssignment second = emergencyService.dispatch(request(48.85, 2.35));
+
+        assertEquals(1L, first.responderId());
+        assertEquals(2L, second.responderId());
+        verify(messagingTemplate).convertAndSend(eq(EmergencyService.RESPONDER_TOPIC + 1), any(Object.class));
+        assertThrows(ResourceNotFoundException.class, () -> emergencyService.dispatch(request(48.85, 2.35)));
+
+        emergencyService.release(1L);
+        assertEquals(1L, emergencyService.dispatch(request(48.85, 2.35)).responderId());
+        assertThrows(InvalidStatusTransitionException.class, () -> {
+            emergencyService.release(2L);
+            emergencyService.release(2L);
+        });
+    }
+
+    @Test
+    void concurrentDispatchesNeverShareAResponder() throws Exception {
+        for (long id = 0; id < 20; id++) {
+            index.update(id, ResponderKind.AMBULANCE, 35.68 + id * 0.001, 139.76);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Long>> results = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        return emergencyService.dispatch(request(35.68, 139.76)).responderId();
+                    } catch (ResourceNotFoundException e) {
+                        return null;
+                    }
+                }));
+            }
+            start.countDown();
+
+            Set<Long> assigned = ConcurrentHashMap.newKeySet();
+            int served = 0;
+            for (Future<Long> result : results) {
+                Long responderId = result.get();
+                if (responderId != null) {
+                    served++;
+                    assertTrue(assigned.add(responderId), "responder " + responderId + " assigned twice");
+                }
+            }
+            // A dispatch may give up when rivals keep taking its candidates, but never double-assigns
+            long claimed = index.all().stream().filter(r -> !r.isAvailable()).count();
+            assertEquals(claimed, served);
+            assertTrue(served > 0);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void sweepKeepsAssignedRespondersAndRemovedOnesCanNotBeClaimed() {
+        index.update(1, ResponderKind.AMBULANCE, 48.86, 2.35);
+        index.update(2, ResponderKind.AMBULANCE, 48.90, 2.35);
+        ResponderIndex.Responder silent = index.get(2);
+        assertEquals(1L, emergencyService.dispatch(request(48.85, 2.35)).responderId());
+
+        // Offline threshold in the future: every responder counts as silent
+        sweeper().removeSilentResponders();
+
+        assertNotNull(index.get(1));
+        assertNull(index.get(2));
+        assertFalse(silent.claim());
+        assertThrows(ResourceNotFoundException.class, () -> emergencyService.dispatch(request(48.85, 2.35)));
+        emergencyService.release(1L);
+    }
+
+    @Test
+    void sweepAndDispatchNeverBothTakeAResponder() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (long id = 0; id < 2_000; id++) {
+                ResponderIndex.Responder responder = index.update(id, ResponderKind.DOCTOR, 35.68, 139.76);
+                CountDownLatch start = new CountDownLatch(1);
+                Future<Boolean> claimed = executor.submit(() -> {
+                    start.await();
+                    return responder.claim();
+                });
+                Future<Boolean> removed = executor.submit(() -> {
+                    start.await();
+                    return index.removeIfSilent(responder, Long.MAX_VALUE);
+                });
+                start.countDown();
+
+                assertNotEquals(claimed.get(), removed.get(), "responder " + id);
+                assertEquals(claimed.get(), index.get(id) != null, "responder " + id);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private EmergencyService sweeper() {
+        return new EmergencyService(index, messagingTemplate, new SimpleMeterRegistry(), 50, 8, 120_000, -60_000);
+    }
+
+    private static EmergencyRequest request(double latitude, double longitude) {
+        EmergencyRequest request = new EmergencyRequest();
+        request.setLatitude(latitude);
+        request.setLongitude(longitude);
+        return request;
+    }
+}
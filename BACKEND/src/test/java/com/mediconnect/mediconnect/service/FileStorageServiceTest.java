@@ -0,0 +1,96 @@
+package com.mediconnect.mediconnect.service;
+
+import com.mediconnect.mediconnect.dto.StoredFile;
+import com.mediconnect.mediconnect.exception.FileTooLargeException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileStorageServiceTest {
+
+    private static final int MAX_FILE_SIZE = 16;
+
+    @TempDir
+    Path dir;
+
+    private FileStorageService storage;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        storage = new FileStorageService(new LocalObjectStore(dir.toString()), MAX_FILE_SIZE);
+    }
+
+    @Test
+    void storedFileIsHashedWhileItStreams() throws IOException {
+        StoredFile stored = storage.store(input("hello"), "scan.PDF", "application/pdf");
+
+        assertEquals("2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824", stored.getSha256());
+        assertEquals(5, stored.getSize());
+        assertTrue(stored.getKey().endsWith(".pdf"));
+        assertEquals(FileStorageService.DOWNLOAD_PATH + stored.getKey(), stored.getUrl());
+        assertEquals("hello", Files.readString(dir.resolve(stored.getKey())));
+    }
+
+    @Test
+    void unsafeExtensionIsDropped() throws IOException {
+        StoredFile stored = storage.store(input("x"), "../../etc/passwd.s/h", null);
+
+        assertFalse(stored.getKey().contains("."));
+    }
+
+    @Test
+    void fileAtTheLimitIsAccepted() throws IOException {
+        StoredFile stored = storage.store(input("x".repeat(MAX_FILE_SIZE)), "a.txt", null);
+
+        assertEquals(MAX_FILE_SIZE, stored.getSize());
+    }
+
+    @Test
+    void oversizedFileIsRejectedAndLeavesNothingBehind() throws IOException {
+        assertThrows(FileTooLargeException.class,
+                () -> storage.store(input("x".repeat(MAX_FILE_SIZE + 1)), "a.txt", null));
+
+        assertEquals(List.of(), filesIn(dir));
+    }
+
+    @Test
+    void brokenUploadLeavesNoTempFile() throws IOException {
+        InputStream broken = new InputStream() {
+            private int sent;
+
+            @Override
+            public int read() throws IOException {
+                if (sent++ < 4) {
+                    return 'x';
+                }
+                throw new IOException("connection reset");
+            }
+        };
+
+        IOException ex = assertThrows(IOException.class, () -> storage.store(broken, "a.txt", null));
+
+        assertEquals("connection reset", ex.getMessage());
+        assertEquals(List.of(), filesIn(dir));
+    }
+
+    private static InputStream input(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<Path> filesIn(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.toList();
+        }
+    }
+}
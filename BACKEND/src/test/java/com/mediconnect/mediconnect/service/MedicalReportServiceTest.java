@@ -0,0 +1,103 @@
+package com.mediconnect.mediconnect.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mediconnect.mediconnect.dto.MedicalReportSummary;
+import com.mediconnect.mediconnect.exception.ResourceNotFoundException;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Updates report details against the migrated schema in an embedded PostgreSQL.
+ * Runs outside a test transaction, like a controller with open-in-view off, so
+ * the returned value must be complete once the service has returned.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(MedicalReportService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class MedicalReportServiceTest {
+
+    @Autowired
+    private MedicalReportService reportService;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @MockBean
+    private ReportJobQueue reportJobQueue;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("TRUNCATE medical_reports, users CASCADE");
+        jdbcTemplate.execute("INSERT INTO users (id, full_name, email, password_hash, role) VALUES "
+                + "(1, 'Dr Who', 'doctor@example.com', 'secret-hash', 'DOCTOR'), "
+                + "(2, 'Pat Ient', 'patient@example.com', 'secret-hash', 'PATIENT')");
+        jdbcTemplate.execute("INSERT INTO medical_reports (id, patient_id, doctor_id, title, description, "
+                + "file_url, created_at, status) VALUES "
+                + "(7, 2, 1, 'Blood test', 'Fasting', '/api/files/7.pdf', TIMESTAMP '2030-01-07', 'SUBMITTED')");
+    }
+
+    @Test
+    void updatedReportSerializesOutsideTheTransaction() throws Exception {
+        MedicalReportSummary updated = reportService.updateReportDetails(7L, "Blood panel", null);
+
+        assertEquals("Blood panel", updated.title());
+        assertEquals("Fasting", updated.description());
+        assertEquals("Pat Ient", updated.patientName());
+        assertEquals("Dr Who", updated.doctorName());
+        assertNotNull(updated.updatedAt());
+
+        String json = new ObjectMapper().findAndRegisterModules().writeValueAsString(updated);
+        assertTrue(json.contains("\"title\":\"Blood panel\""), json);
+        assertFalse(json.contains("secret-hash"), json);
+        assertFalse(json.contains("patient@example.com"), json);
+    }
+
+    @Test
+    void updateIsCommittedWithANewVersion() {
+        reportService.updateReportDetails(7L, null, "Not fasting");
+
+        assertEquals("Not fasting", jdbcTemplate.queryForObject(
+                "SELECT description FROM medical_reports WHERE id = 7", String.class));
+        assertEquals(1L, jdbcTemplate.queryForObject(
+                "SELECT version FROM medical_reports WHERE id = 7", Long.class));
+    }
+
+    @Test
+    void unknownReportIsNotFound() {
+        assertThrows(ResourceNotFoundException.class, () -> reportService.updateReportDetails(99L, "Title", null));
+    }
+
+    @TestConfiguration
+    static class EmbeddedDatabase {
+
+        @Bean(destroyMethod = "close")
+        EmbeddedPostgres embeddedPostgres() throws IOException {
+            return EmbeddedPostgres.start();
+        }
+
+        @Bean
+        DataSource dataSource(EmbeddedPostgres postgres) {
+            return postgres.getPostgresDatabase();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.mediconnect.mediconnect.service;
+
+import com.mediconnect.mediconnect.repository.PrescriptionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+class PrescriptionCacheTest {
+
+    private static final Long PATIENT_ID = 42L;
+
+    private PrescriptionRepository prescriptionRepository;
+    private Instant now = Instant.parse("2030-01-07T09:00:00Z");
+    private PrescriptionCache cache;
+
+    @BeforeEach
+    void setUp() {
+        prescriptionRepository = mock(PrescriptionRepository.class);
+        when(prescriptionRepository.findActiveByPatient(PATIENT_ID)).thenReturn(List.of());
+        Clock clock = new Clock() {
+            @Override
+            public ZoneId getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                return this;
+            }
+
+            @Override
+            public Instant instant() {
+                return now;
+            }
+        };
+        cache = new PrescriptionCache(prescriptionRepository, 10, 5000, clock);
+    }
+
+    @Test
+    void patientIsReloadedOnceTheEntryExpires() {
+        cache.getActive(PATIENT_ID);
+        now = now.plusMillis(4999);
+        cache.getActive(PATIENT_ID);
+        verify(prescriptionRepository, times(1)).findActiveByPatient(PATIENT_ID);
+
+        // A change committed on another node is picked up after ttlMs
+        now = now.plusMillis(1);
+        cache.getActive(PATIENT_ID);
+        verify(prescriptionRepository, times(2)).findActiveByPatient(PATIENT_ID);
+    }
+
+    @Test
+    void invalidationForcesAReload() {
+        cache.getActive(PATIENT_ID);
+        cache.invalidate(PATIENT_ID);
+        cache.getActive(PATIENT_ID);
+
+        verify(prescriptionRepository, times(2)).findActiveByPatient(PATIENT_ID);
+    }
+}
@@ -0,0 +1,106 @@
+package com.mediconnect.mediconnect.service;
+
+import com.mediconnect.mediconnect.dto.AppointmentSummary;
+import com.mediconnect.mediconnect.dto.QueueStatus;
+import com.mediconnect.mediconnect.model.Appoinment.AppointmentStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class QueueStatusPublisherTest {
+
+    private static final Long DOCTOR_ID = 7L;
+    private static final LocalDate DAY = LocalDate.of(2030, 1, 7);
+
+    private DoctorScheduleCache scheduleCache;
+    private SimpMessagingTemplate messagingTemplate;
+    private QueueStatusPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        scheduleCache = mock(DoctorScheduleCache.class);
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        publisher = new QueueStatusPublisher(scheduleCache, messagingTemplate);
+        when(scheduleCache.getSchedule(DOCTOR_ID, DAY)).thenReturn(List.of(
+                summary(1, AppointmentStatus.COMPLETED),
+                summary(2, AppointmentStatus.NO_SHOW),
+                summary(3, AppointmentStatus.SCHEDULED),
+                summary(4, AppointmentStatus.CANCELLED),
+                summary(5, AppointmentStatus.CONFIRMED)));
+    }
+
+    @Test
+    void queueSkipsFinishedAndCancelledSerials() {
+        QueueStatus status = publisher.getQueueStatus(DOCTOR_ID, DAY);
+
+        assertEquals(3, status.nowServing());
+        assertEquals(2, status.waiting());
+        assertEquals(List.of(3, 5), status.waitingSerials());
+        assertEquals(1, status.positionOf(5));
+    }
+
+    @Test
+    void positionCountsOnlySerialsStillWaiting() {
+        QueueStatus status = QueueStatusPublisher.toQueueStatus(DOCTOR_ID, DAY, List.of(
+                summary(1, AppointmentStatus.COMPLETED),
+                summary(2, AppointmentStatus.NO_SHOW),
+                summary(3, AppointmentStatus.CONFIRMED),
+                summary(4, AppointmentStatus.CANCELLED),
+                summary(5, AppointmentStatus.CANCELLED),
+                summary(6, AppointmentStatus.NO_SHOW),
+                summary(7, AppointmentStatus.SCHEDULED),
+                summary(8, AppointmentStatus.CANCELLED),
+                summary(9, AppointmentStatus.SCHEDULED)));
+
+        assertEquals(3, status.nowServing());
+        assertEquals(List.of(3, 7, 9), status.waitingSerials());
+        assertEquals(0, status.positionOf(3));
+        // Serial 9 is six numbers behind serial 3, but only two patients are ahead of it
+        assertEquals(1, status.positionOf(7));
+        assertEquals(2, status.positionOf(9));
+        assertEquals(-1, status.positionOf(5));
+        assertEquals(-1, status.positionOf(1));
+        assertEquals(-1, status.positionOf(10));
+    }
+
+    @Test
+    void emptyQueueHasNobodyServing() {
+        QueueStatus status = QueueStatusPublisher.toQueueStatus(DOCTOR_ID, DAY, List.of(
+                summary(1, AppointmentStatus.COMPLETED),
+                summary(2, AppointmentStatus.CANCELLED)));
+
+        assertNull(status.nowServing());
+        assertEquals(0, status.waiting());
+        assertEquals(List.of(), status.waitingSerials());
+        assertEquals(-1, status.positionOf(2));
+    }
+
+    @Test
+    void burstOfChangesIsPushedOnce() {
+        for (int i = 0; i < 100; i++) {
+            publisher.queueChanged(DOCTOR_ID, DAY);
+        }
+
+        publisher.flush();
+        publisher.flush();
+
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, times(1))
+                .convertAndSend(eq(QueueStatusPublisher.TOPIC_PREFIX + DOCTOR_ID + "/" + DAY), payload.capture());
+        verify(scheduleCache, times(1)).getSchedule(DOCTOR_ID, DAY);
+        assertEquals(3, ((QueueStatus) payload.getValue()).nowServing());
+    }
+
+    private static AppointmentSummary summary(int serial, AppointmentStatus status) {
+        return new AppointmentSummary((long) serial, 100L + serial, "Patient " + serial, DOCTOR_ID, "Dr. Who",
+                DAY.atTime(9, 0).plusMinutes(15L * serial), serial, status, null);
+    }
+}
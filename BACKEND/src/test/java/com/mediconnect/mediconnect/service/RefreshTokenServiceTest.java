@@ -0,0 +1,191 @@
+package com.mediconnect.mediconnect.service;
+
+import com.mediconnect.mediconnect.dto.JwtResponse;
+import com.mediconnect.mediconnect.exception.InvalidTokenException;
+import com.mediconnect.mediconnect.model.User;
+import com.mediconnect.mediconnect.security.RevocationIndex;
+import com.mediconnect.mediconnect.util.JwtUtil;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Rotates and revokes refresh tokens against the migrated schema in an embedded
+ * PostgreSQL. Runs outside a test transaction, so what the service commits (and
+ * what it keeps committed when it throws) is what the assertions see.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({RefreshTokenService.class, RevocationIndex.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RefreshTokenServiceTest {
+
+    private static final String USERNAME = "patient@example.com";
+
+    @Autowired
+    private RefreshTokenService tokenService;
+
+    @Autowired
+    private RevocationIndex revocationIndex;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @MockBean
+    private UserService userService;
+
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("TRUNCATE refresh_tokens, revoked_token_families");
+        when(userService.findByEmail(anyString())).thenReturn(new User());
+    }
+
+    @Test
+    void rotationReplacesTheTokenWithinItsFamily() {
+        JwtResponse login = tokenService.issue(USERNAME);
+
+        JwtResponse rotated = tokenService.rotate(login.getRefreshToken());
+
+        assertEquals(familyOf(login), familyOf(rotated));
+        assertNotEquals(login.getRefreshToken(), rotated.getRefreshToken());
+        assertNotNull(tokenService.rotate(rotated.getRefreshToken()));
+    }
+
+    @Test
+    void reusedTokenRevokesItsWholeFamily() {
+        JwtResponse login = tokenService.issue(USERNAME);
+        JwtResponse rotated = tokenService.rotate(login.getRefreshToken());
+        JwtResponse otherSession = tokenService.issue(USERNAME);
+
+        InvalidTokenException reuse = assertThrows(InvalidTokenException.class,
+                () -> tokenService.rotate(login.getRefreshToken()));
+
+        assertEquals("Refresh token has already been used", reuse.getMessage());
+        assertTrue(revocationIndex.isRevoked(familyOf(login)));
+        // The legitimate holder's current token dies with the family
+        assertThrows(InvalidTokenException.class, () -> tokenService.rotate(rotated.getRefreshToken()));
+        // Other logins of the same user are not affected
+        assertFalse(revocationIndex.isRevoked(familyOf(otherSession)));
+        assertNotNull(tokenService.rotate(otherSession.getRefreshToken()));
+    }
+
+    @Test
+    void revocationStaysCommittedWhileTheCallerGetsAnError() {
+        JwtResponse login = tokenService.issue(USERNAME);
+        JwtResponse rotated = tokenService.rotate(login.getRefreshToken());
+
+        assertThrows(InvalidTokenException.class, () -> tokenService.rotate(login.getRefreshToken()));
+
+        // Read outside the service's transaction: only committed rows are visible
+        String family = familyOf(login);
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM revoked_token_families WHERE family_id = ?", Integer.class, family));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM refresh_tokens WHERE family_id = ? AND NOT revoked", Integer.class, family));
+
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM refresh_tokens WHERE id = ? AND revoked",
+                Integer.class, jwtUtil.extractAllClaims(rotated.getRefreshToken()).getId()));
+    }
+
+    @Test
+    void logoutRevokesTheFamily() {
+        JwtResponse login = tokenService.issue(USERNAME);
+
+        tokenService.revoke(login.getRefreshToken());
+
+        assertTrue(revocationIndex.isRevoked(familyOf(login)));
+        InvalidTokenException ex = assertThrows(InvalidTokenException.class,
+                () -> tokenService.rotate(login.getRefreshToken()));
+        assertEquals("Refresh token has been revoked", ex.getMessage());
+    }
+
+    @Test
+    void concurrentRotationsOfOneTokenHaveExactlyOneWinner() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < 10; round++) {
+                String refreshToken = tokenService.issue(USERNAME).getRefreshToken();
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<JwtResponse>> results = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    Callable<JwtResponse> task = () -> {
+                        start.await();
+                        return tokenService.rotate(refreshToken);
+                    };
+                    results.add(executor.submit(task));
+                }
+                start.countDown();
+
+                int winners = 0;
+                for (Future<JwtResponse> result : results) {
+                    try {
+                        assertNotNull(result.get());
+                        winners++;
+                    } catch (ExecutionException e) {
+                        // Every loser is told why, never a database error
+                        assertInstanceOf(InvalidTokenException.class, e.getCause());
+                    }
+                }
+                assertEquals(1, winners, "round " + round);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private String familyOf(JwtResponse tokens) {
+        return jwtUtil.extractAllClaims(tokens.getRefreshToken()).get(JwtUtil.FAMILY_CLAIM, String.class);
+    }
+
+    @TestConfiguration
+    static class Config {
+
+        @Bean(destroyMethod = "close")
+        EmbeddedPostgres embeddedPostgres() throws IOException {
+            return EmbeddedPostgres.start();
+        }
+
+        @Bean
+        DataSource dataSource(EmbeddedPostgres postgres) {
+            return postgres.getPostgresDatabase();
+        }
+
+        @Bean
+        JwtUtil jwtUtil() {
+            return new JwtUtil("refresh-token-service-test-secret-0123456789", 60_000, 3_600_000);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.mediconnect.mediconnect.service;
+
+import com.mediconnect.mediconnect.service.ReportJobQueue.Job;
+import com.mediconnect.mediconnect.service.ReportJobQueue.Stage;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the job queue against the migrated schema in an embedded PostgreSQL
+ */
+class ReportJobQueueTest {
+
+    private static EmbeddedPostgres postgres;
+    private static JdbcTemplate jdbcTemplate;
+    private static ReportJobQueue queue;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        postgres = EmbeddedPostgres.start();
+        Flyway.configure().dataSource(postgres.getPostgresDatabase()).load().migrate();
+        jdbcTemplate = new JdbcTemplate(postgres.getPostgresDatabase());
+        queue = new ReportJobQueue(jdbcTemplate);
+
+        jdbcTemplate.execute("INSERT INTO users (full_name, email, password_hash, role) VALUES "
+                + "('Dr Who', 'doctor@example.com', 'hash', 'DOCTOR'), "
+                + "('Pat Ient', 'patient@example.com', 'hash', 'PATIENT')");
+        jdbcTemplate.execute("INSERT INTO medical_reports (id, patient_id, doctor_id, title, file_url, "
+                + "created_at, status) VALUES (1, 2, 1, 'Blood test', '/api/files/1', now(), 'SUBMITTED')");
+    }
+
+    @AfterAll
+    static void tearDown() throws Exception {
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+
+    @BeforeEach
+    void resetJobs() {
+        jdbcTemplate.execute("DELETE FROM report_jobs");
+        queue.enqueue(1L);
+    }
+
+    @Test
+    void claimedJobIsNotClaimedAgainWhileLeased() {
+        List<Job> first = queue.claim(Stage.CHECKSUM, 10, 60_000);
+
+        assertEquals(1, first.size());
+        assertEquals(1, first.get(0).attempts());
+        assertEquals(List.of(), queue.claim(Stage.CHECKSUM, 10, 60_000));
+    }
+
+    @Test
+    void staleWorkerCannotTouchTheJobAfterItsLeaseWasTakenOver() throws Exception {
+        Job stale = claimOne(Stage.CHECKSUM, 1);
+        Thread.sleep(20);
+        Job current = claimOne(Stage.CHECKSUM, 60_000);
+        assertEquals(2, current.attempts());
+
+        // The first worker finally finishes; none of its updates may land
+        assertFalse(queue.advance(stale, Stage.SNIFF));
+        assertFalse(queue.retry(stale, 0, "late"));
+        assertFalse(queue.complete(stale));
+        assertJob(Stage.CHECKSUM, 2, null);
+
+        assertTrue(queue.advance(current, Stage.SNIFF));
+        assertJob(Stage.SNIFF, 0, null);
+        // Still fenced once the job has moved on to the next stage
+        assertFalse(queue.complete(stale));
+        assertFalse(queue.complete(current));
+        assertJob(Stage.SNIFF, 0, null);
+    }
+
+    @Test
+    void retryKeepsTheStageAndCountsTheNextClaim() {
+        Job first = claimOne(Stage.CHECKSUM, 60_000);
+
+        assertTrue(queue.retry(first, 0, "storage unavailable"));
+        assertJob(Stage.CHECKSUM, 1, "storage unavailable");
+        // Released, so the old lease no longer matches once the job is claimed again
+        Job second = claimOne(Stage.CHECKSUM, 60_000);
+        assertEquals(2, second.attempts());
+        assertFalse(queue.retry(first, 0, "late"));
+        assertTrue(queue.complete(second));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT count(*) FROM report_jobs", Integer.class));
+    }
+
+    private static Job claimOne(Stage stage, long leaseMillis) {
+        List<Job> jobs = queue.claim(stage, 10, leaseMillis);
+        assertEquals(1, jobs.size());
+        return jobs.get(0);
+    }
+
+    private static void assertJob(Stage stage, int attempts, String lastError) {
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "SELECT stage, attempts, last_error FROM report_jobs WHERE report_id = 1");
+        assertEquals(stage.name(), row.get("stage"));
+        assertEquals(attempts, row.get("attempts"));
+        assertEquals(lastError, row.get("last_error"));
+    }
+}
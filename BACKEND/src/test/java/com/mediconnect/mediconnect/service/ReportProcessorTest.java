@@ -0,0 +1,123 @@
+package com.mediconnect.mediconnect.service;
+
+import com.mediconnect.mediconnect.exception.ReportProcessingException;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReportProcessorTest {
+
+    @TempDir
+    Path dir;
+
+    private LocalObjectStore store;
+    private ReportProcessor processor;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        store = new LocalObjectStore(dir.toString());
+        processor = new ReportProcessor(store, 64, 1000, 10);
+    }
+
+    @Test
+    void checksumMatchesUploadHash() throws IOException {
+        put("a.txt", "hello".getBytes(StandardCharsets.UTF_8));
+        String sha = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
+        assertEquals(sha, processor.checksum("a.txt", sha));
+        assertEquals(sha, processor.checksum("a.txt", null));
+        assertThrows(ReportProcessingException.class, () -> processor.checksum("a.txt", "00" + sha.substring(2)));
+    }
+
+    @Test
+    void typeIsTakenFromContentNotName() throws IOException {
+        put("scan.pdf", png(400, 200));
+        assertEquals(ReportProcessor.PNG, processor.sniff("scan.pdf"));
+
+        byte[] dicom = new byte[200];
+        System.arraycopy("DICM".getBytes(StandardCharsets.US_ASCII), 0, dicom, 128, 4);
+        assertEquals(ReportProcessor.DICOM, ReportProcessor.detectType(dicom, dicom.length));
+
+        byte[] text = "Hb 13.5 g/dL\n".getBytes(StandardCharsets.UTF_8);
+        assertEquals(ReportProcessor.TEXT, ReportProcessor.detectType(text, text.length));
+    }
+
+    @Test
+    void unknownBinaryIsRejected() throws IOException {
+        put("program.exe", new byte[]{'M', 'Z', (byte) 0x90, 0, 3, 0, 0, 0});
+        assertThrows(ReportProcessingException.class, () -> processor.sniff("program.exe"));
+    }
+
+    @Test
+    void imagePreviewFitsTheConfiguredSize() throws IOException {
+        put("xray.png", png(1600, 800));
+
+        String previewKey = processor.preview("xray.png", ReportProcessor.PNG);
+
+        BufferedImage preview = ImageIO.read(store.get(previewKey).orElseThrow().getInputStream());
+        assertEquals(64, preview.getWidth());
+        assertEquals(32, preview.getHeight());
+    }
+
+    @Test
+    void pdfGetsPreviewAndText() throws IOException {
+        put("report.pdf", pdf("Haemoglobin within normal range"));
+
+        assertEquals(ReportProcessor.PDF, processor.sniff("report.pdf"));
+        assertNotNull(processor.preview("report.pdf", ReportProcessor.PDF));
+        assertTrue(processor.extractText("report.pdf", ReportProcessor.PDF).contains("Haemoglobin"));
+    }
+
+    @Test
+    void extractedTextIsCappedAndHasNoNulCharacters() throws IOException {
+        put("notes.txt", ("a\u0000b" + "c".repeat(2000)).getBytes(StandardCharsets.UTF_8));
+
+        String text = processor.extractText("notes.txt", ReportProcessor.TEXT);
+
+        assertTrue(text.startsWith("abc"));
+        assertTrue(text.length() <= 1000);
+        assertNull(processor.extractText("notes.txt", ReportProcessor.DICOM));
+    }
+
+    private void put(String key, byte[] content) throws IOException {
+        store.put(key, new ByteArrayInputStream(content));
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+        return out.toByteArray();
+    }
+
+    private static byte[] pdf(String line) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            PDPage page = new PDPage();
+            document.addPage(page);
+            try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                content.beginText();
+                content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 12);
+                content.newLineAtOffset(72, 700);
+                content.showText(line);
+                content.endText();
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+}
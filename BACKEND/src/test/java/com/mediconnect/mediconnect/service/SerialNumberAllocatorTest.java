@@ -0,0 +1,68 @@
+package com.mediconnect.mediconnect.service;
+
+import com.mediconnect.mediconnect.model.AppointmentSerialCounter;
+import com.mediconnect.mediconnect.repository.AppointmentSerialCounterRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class SerialNumberAllocatorTest {
+
+    private static final int THREADS = 500;
+
+    // IDs well outside anything a real sequence would hand out
+    private final Long doctorId = -System.nanoTime();
+    private final LocalDate date = LocalDate.of(2099, 1, 1);
+
+    @Autowired
+    private SerialNumberAllocator allocator;
+
+    @Autowired
+    private AppointmentSerialCounterRepository counterRepository;
+
+    @AfterEach
+    void cleanUp() {
+        counterRepository.deleteById(new AppointmentSerialCounter.CounterId(doctorId, date));
+    }
+
+    @Test
+    void concurrentBookingsNeverShareASerial() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        Set<Integer> serials = ConcurrentHashMap.newKeySet();
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                Integer serial = allocator.withNextSerial(doctorId, date, s -> s);
+                assertTrue(serials.add(serial), "Duplicate serial " + serial);
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+
+        assertEquals(THREADS, serials.size(), "Every booking should get its own serial");
+        assertEquals(1, serials.stream().mapToInt(Integer::intValue).min().getAsInt());
+        assertEquals(THREADS, serials.stream().mapToInt(Integer::intValue).max().getAsInt());
+    }
+}
@@ -0,0 +1,124 @@
+package com.mediconnect.mediconnect.service;
+
+import com.mediconnect.mediconnect.model.Appoinment;
+import com.mediconnect.mediconnect.model.Appoinment.AppointmentStatus;
+import com.mediconnect.mediconnect.model.DoctorWorkingHours;
+import com.mediconnect.mediconnect.repository.AppointmentRepository;
+import com.mediconnect.mediconnect.repository.DoctorWorkingHoursRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TimeSlotServiceTest {
+
+    private static final Long DOCTOR_ID = 7L;
+    private static final LocalDate MONDAY = LocalDate.of(2030, 1, 7);
+
+    private AppointmentRepository appointmentRepository;
+    private DoctorWorkingHoursRepository workingHoursRepository;
+    private TimeSlotService timeSlotService;
+
+    @BeforeEach
+    void setUp() {
+        appointmentRepository = mock(AppointmentRepository.class);
+        workingHoursRepository = mock(DoctorWorkingHoursRepository.class);
+        timeSlotService = new TimeSlotService(appointmentRepository, workingHoursRepository,
+                "09:00", "10:00", 15, 100);
+    }
+
+    @Test
+    void defaultHoursMinusBookedAppointments() {
+        when(appointmentRepository.findByDoctorIdAndAppointmentDateTimeBetween(eq(DOCTOR_ID), any(), any()))
+                .thenReturn(List.of(
+                        appointment(1L, MONDAY.atTime(9, 15), AppointmentStatus.SCHEDULED),
+                        appointment(2L, MONDAY.atTime(9, 30), AppointmentStatus.CANCELLED)));
+
+        List<LocalDateTime> slots = timeSlotService.getAvailableSlots(DOCTOR_ID, MONDAY);
+
+        assertEquals(List.of(MONDAY.atTime(9, 0), MONDAY.atTime(9, 30), MONDAY.atTime(9, 45)), slots);
+    }
+
+    @Test
+    void bookingAndCancellationUpdateTheCachedDay() {
+        when(appointmentRepository.findByDoctorIdAndAppointmentDateTimeBetween(eq(DOCTOR_ID), any(), any()))
+                .thenReturn(List.of());
+        timeSlotService.getAvailableSlots(DOCTOR_ID, MONDAY);
+
+        timeSlotService.slotBooked(1L, DOCTOR_ID, MONDAY.atTime(9, 0));
+        assertFalse(timeSlotService.getAvailableSlots(DOCTOR_ID, MONDAY).contains(MONDAY.atTime(9, 0)));
+
+        timeSlotService.slotReleased(1L, DOCTOR_ID, MONDAY.atTime(9, 0));
+        assertTrue(timeSlotService.getAvailableSlots(DOCTOR_ID, MONDAY).contains(MONDAY.atTime(9, 0)));
+
+        // The day was loaded once; later reads are served from memory
+        verify(appointmentRepository, times(1))
+                .findByDoctorIdAndAppointmentDateTimeBetween(eq(DOCTOR_ID), any(), any());
+    }
+
+    @Test
+    void bookingAlreadySeenByTheLoadIsNotCountedTwice() {
+        // Committed before the day was loaded, but its update arrives afterwards
+        when(appointmentRepository.findByDoctorIdAndAppointmentDateTimeBetween(eq(DOCTOR_ID), any(), any()))
+                .thenReturn(List.of(appointment(1L, MONDAY.atTime(9, 0), AppointmentStatus.SCHEDULED)));
+        timeSlotService.getAvailableSlots(DOCTOR_ID, MONDAY);
+        timeSlotService.slotBooked(1L, DOCTOR_ID, MONDAY.atTime(9, 0));
+
+        timeSlotService.slotReleased(1L, DOCTOR_ID, MONDAY.atTime(9, 0));
+        assertTrue(timeSlotService.getAvailableSlots(DOCTOR_ID, MONDAY).contains(MONDAY.atTime(9, 0)));
+
+        timeSlotService.slotReleased(1L, DOCTOR_ID, MONDAY.atTime(9, 0));
+        timeSlotService.slotBooked(2L, DOCTOR_ID, MONDAY.atTime(9, 0));
+        assertFalse(timeSlotService.getAvailableSlots(DOCTOR_ID, MONDAY).contains(MONDAY.atTime(9, 0)));
+    }
+
+    @Test
+    void weeklyTemplateOverridesDefaultsAndClosesOtherDays() {
+        when(workingHoursRepository.findByDoctorId(DOCTOR_ID)).thenReturn(List.of(
+                DoctorWorkingHours.builder()
+                        .dayOfWeek(DayOfWeek.MONDAY)
+                        .startTime(LocalTime.of(14, 0))
+                        .endTime(LocalTime.of(15, 0))
+                        .slotMinutes(30)
+                        .build()));
+        when(appointmentRepository.findByDoctorIdAndAppointmentDateTimeBetween(eq(DOCTOR_ID), any(), any()))
+                .thenReturn(List.of());
+
+        assertEquals(List.of(MONDAY.atTime(14, 0), MONDAY.atTime(14, 30)),
+                timeSlotService.getAvailableSlots(DOCTOR_ID, MONDAY));
+        assertTrue(timeSlotService.getAvailableSlots(DOCTOR_ID, MONDAY.plusDays(1)).isEmpty());
+    }
+
+    @Test
+    void overflowEvictsOnlyTheFurthestDays() {
+        when(appointmentRepository.findByDoctorIdAndAppointmentDateTimeBetween(eq(DOCTOR_ID), any(), any()))
+                .thenReturn(List.of());
+        for (int day = 0; day < 100; day++) {
+            timeSlotService.getAvailableSlots(DOCTOR_ID, MONDAY.plusDays(day));
+        }
+
+        timeSlotService.getAvailableSlots(DOCTOR_ID, MONDAY.plusDays(100));
+        timeSlotService.getAvailableSlots(DOCTOR_ID, MONDAY);
+
+        // Only the ten furthest days were dropped; the nearest one is still cached
+        verify(appointmentRepository, times(1)).findByDoctorIdAndAppointmentDateTimeBetween(
+                eq(DOCTOR_ID), eq(MONDAY.atStartOfDay()), any());
+    }
+
+    private Appoinment appointment(Long id, LocalDateTime dateTime, AppointmentStatus status) {
+        return Appoinment.builder()
+                .id(id)
+                .appointmentDateTime(dateTime)
+                .status(status)
+                .build();
+    }
+}
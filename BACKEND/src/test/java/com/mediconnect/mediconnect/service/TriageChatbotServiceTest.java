@@ -0,0 +1,131 @@
+package com.mediconnect.mediconnect.service;
+
+import com.mediconnect.mediconnect.dto.ChatRequest;
+import com.mediconnect.mediconnect.dto.ChatResponse;
+import com.mediconnect.mediconnect.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TriageChatbotServiceTest {
+
+    private TriageChatbotService chatbot;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        chatbot = new TriageChatbotService("triage/knowledge-base.tsv", 3, 60_000, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void matchingSymptomsNameTheCondition() {
+        ChatResponse response = send(null, "I'm exhausted, I have a fever and body aches");
+
+        assertEquals("Influenza (flu)", response.possibleConditions().get(0));
+        assertEquals("ROUTINE", response.urgency());
+        assertEquals("General Practice", response.specialty());
+        assertTrue(response.reply().endsWith(TriageChatbotService.DISCLAIMER));
+    }
+
+    @Test
+    void redFlagGivesEmergencyAdvice() {
+        ChatResponse response = send(null, "Since this morning I've had a crushing chest pain");
+
+        assertEquals("EMERGENCY", response.urgency());
+        assertTrue(response.reply().contains("emergency number"));
+    }
+
+    @Test
+    void negatedSymptomsAreNotCounted() {
+        ChatResponse response = send(null, "No fever, but a runny nose and a sore throat");
+
+        assertEquals("Common cold", response.possibleConditions().get(0));
+        assertFalse(response.reply().contains("fever"));
+    }
+
+    @Test
+    void followUpQuestionsBuildOnEarlierTurns() {
+        ChatResponse first = send(null, "I have a headache");
+        assertNull(first.urgency());
+        assertTrue(first.reply().contains("?"));
+
+        ChatResponse second = send(first.sessionId(), "Yes, I feel nauseous too");
+        assertEquals(first.sessionId(), second.sessionId());
+        assertEquals("Migraine", second.possibleConditions().get(0));
+    }
+
+    @Test
+    void unrecognisedMessageAsksForSymptoms() {
+        ChatResponse response = send(null, "hello");
+
+        assertTrue(response.possibleConditions().isEmpty());
+        assertTrue(response.reply().contains("describe"));
+    }
+
+    @Test
+    void streamedTokensJoinToTheReply() {
+        StringBuilder streamed = new StringBuilder();
+        ChatRequest request = request(null, "fever and cough");
+
+        ChatResponse response = chatbot.reply(request, streamed::append);
+
+        assertEquals(response.reply(), streamed.toString());
+    }
+
+    @Test
+    void sessionLimitIsEnforced() {
+        String first = send(null, "cough").sessionId();
+        send(null, "cough");
+        send(null, "cough");
+        assertThrows(TooManyRequestsException.class, () -> send(null, "cough"));
+
+        send(first, "and a fever");
+        chatbot.endSession(first);
+        send(null, "cough");
+        assertEquals(3, chatbot.sessionCount());
+    }
+
+    @Test
+    void knowledgeBaseRejectsLongOrAmbiguousPhrases() {
+        String longPhrase = "symptom\tcough\t0\tcough that will not stop\n";
+        String ambiguous = "symptom\tcough\t0\tcough\nsymptom\thack\t0\tcough\n";
+
+        assertThrows(IllegalStateException.class, () -> load(longPhrase));
+        assertThrows(IllegalStateException.class, () -> load(ambiguous));
+    }
+
+    @Test
+    void phrasesMatchAcrossCaseAndApostrophes() throws Exception {
+        TriageKnowledgeBase kb = load("symptom\tbreathless\t1\tcant breathe|short of breath\n"
+                + "condition\tx\tX\tEMERGENCY\tEmergency Medicine\tbreathless:1\tCall.\n");
+        long[] mentioned = new long[kb.bitSetWords()];
+        long[] negated = new long[kb.bitSetWords()];
+
+        assertEquals(1, kb.match("I CAN'T breathe", mentioned, negated));
+        assertEquals(0, kb.firstRedFlag(mentioned));
+
+        mentioned[0] = 0;
+        kb.match("not short of breath", mentioned, negated);
+        assertEquals(0, mentioned[0]);
+        assertEquals(1, negated[0]);
+    }
+
+    private ChatResponse send(String sessionId, String message) {
+        return chatbot.reply(request(sessionId, message), token -> { });
+    }
+
+    private static ChatRequest request(String sessionId, String message) {
+        ChatRequest request = new ChatRequest();
+        request.setSessionId(sessionId);
+        request.setMessage(message);
+        return request;
+    }
+
+    private static TriageKnowledgeBase load(String source) throws Exception {
+        return TriageKnowledgeBase.load(new ByteArrayInputStream(source.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,73 @@
+package com.mediconnect.mediconnect.service;
+
+import com.mediconnect.mediconnect.model.Role;
+import com.mediconnect.mediconnect.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserCacheTest {
+
+    private UserCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UserCache(2);
+    }
+
+    @Test
+    void usersAreReachableByIdAndEmail() {
+        User alice = user(1L, "alice@example.com");
+        cache.put(alice);
+
+        assertSame(alice, cache.getById(1L));
+        assertSame(alice, cache.getByEmail("alice@example.com"));
+        assertNull(cache.getByEmail("bob@example.com"));
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void leastRecentlyUsedUserIsEvictedFromBothIndexes() {
+        cache.put(user(1L, "alice@example.com"));
+        cache.put(user(2L, "bob@example.com"));
+        cache.getById(1L);
+        cache.put(user(3L, "carol@example.com"));
+
+        assertNull(cache.getByEmail("bob@example.com"));
+        assertNotNull(cache.getByEmail("alice@example.com"));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    void emailChangeReplacesTheOldEmailKey() {
+        cache.put(user(1L, "alice@example.com"));
+        cache.put(user(1L, "alice@new.example.com"));
+
+        assertNull(cache.getByEmail("alice@example.com"));
+        assertNotNull(cache.getByEmail("alice@new.example.com"));
+    }
+
+    @Test
+    void evictByEmailRemovesBothIndexes() {
+        cache.put(user(1L, "alice@example.com"));
+
+        cache.evictByEmail("alice@example.com");
+
+        assertNull(cache.getById(1L));
+        assertNull(cache.getByEmail("alice@example.com"));
+        assertEquals(0, cache.size());
+    }
+
+    private User user(Long id, String email) {
+        return User.builder()
+                .id(id)
+                .name("Test")
+                .email(email)
+                .password("hash")
+                .role(Role.PATIENT)
+                .build();
+    }
+}